@@ -0,0 +1,99 @@
+package com.spaceshooter.adapter;
+
+import com.spaceshooter.strategy.MissileStrategy;
+import com.spaceshooter.strategy.ProjectileSink;
+
+/**
+ * Adapter that fires the LaserWeapon as a hitscan beam instead of a moving missile.
+ * The whole beam is resolved in the tick it is fired: the game casts it straight up
+ * against its index of enemies and damages the nearest ones in its path, so no
+ * projectile is created and nothing has to be collision-tested on later ticks.
+ *
+ * The hitscan laser has the following unique properties:
+ * 1. Has the width of the laser weapon's beam
+ * 2. Pierces up to a fixed number of enemies, nearest first
+ * 3. Sets the enemies it hits burning, damaging them every tick for a while
+ * It uses the same stock as the moving laser.
+ */
+public class HitscanLaserAdapter implements MissileStrategy {
+  /** The default number of enemies a beam passes into. */
+  public static final int DEFAULT_PIERCE = 3;
+  /** The default damage dealt to each enemy hit, the same as a laser missile's. */
+  public static final int DEFAULT_DAMAGE = 40;
+  /** The default damage a burning enemy takes each tick. */
+  public static final int DEFAULT_BURN_DAMAGE = 3;
+  /** The default number of ticks an enemy hit keeps burning. */
+  public static final int DEFAULT_BURN_TICKS = 10;
+  private final int beamWidth;
+  private final int pierce;
+  private final int damage;
+  private final int burnDamage;
+  private final int burnTicks;
+
+  /**
+   * Constructs a hitscan laser with the default pierce, damage and burn.
+   */
+  public HitscanLaserAdapter() {
+    this(DEFAULT_PIERCE, DEFAULT_DAMAGE, DEFAULT_BURN_DAMAGE, DEFAULT_BURN_TICKS);
+  }
+
+  /**
+   * Constructs a hitscan laser.
+   *
+   * @param pierce the largest number of enemies one beam hits
+   * @param damage the damage dealt to each enemy hit
+   * @param burnDamage the damage each enemy hit then takes every tick while it burns
+   * @param burnTicks the number of ticks an enemy hit burns, 0 for no burn
+   */
+  public HitscanLaserAdapter(int pierce, int damage, int burnDamage, int burnTicks) {
+    if (pierce < 1) {
+      throw new IllegalArgumentException("A beam must be able to hit an enemy: " + pierce);
+    }
+    // The beam's size comes from the laser weapon; only this one beam is ever created
+    this.beamWidth = new LaserWeapon().fireLaser(0, 0).getWidth();
+    this.pierce = pierce;
+    this.damage = damage;
+    this.burnDamage = burnDamage;
+    this.burnTicks = burnTicks;
+  }
+
+  /**
+   * Fires a beam from the specified position and resolves it at once.
+   *
+   * @param x the x-coordinate of the beam's left edge
+   * @param y the y-coordinate the beam is fired from
+   * @param sink the sink that resolves the beam against the enemies
+   */
+  @Override
+  public void fire(int x, int y, ProjectileSink sink) {
+    sink.hitscan(x, y, beamWidth, pierce, damage, burnDamage, burnTicks);
+  }
+
+  /**
+   * Returns 0, since a hitscan beam fires no projectiles.
+   *
+   * @return 0
+   */
+  @Override
+  public int getMaxProjectiles() {
+    return 0;
+  }
+
+  /**
+   * Returns the width of the beam.
+   *
+   * @return the beam width
+   */
+  public int getBeamWidth() {
+    return beamWidth;
+  }
+
+  /**
+   * Returns the largest number of enemies one beam hits.
+   *
+   * @return the pierce count
+   */
+  public int getPierce() {
+    return pierce;
+  }
+}
@@ -2,6 +2,7 @@ package com.spaceshooter.adapter;
 
 import com.spaceshooter.model.Missile;
 import com.spaceshooter.model.Enemy;
+import com.spaceshooter.model.GameModel;
 import com.spaceshooter.model.Player;
 import com.spaceshooter.strategy.MissileStrategy;
 
@@ -40,13 +41,23 @@ public class LaserMissileAdapter implements MissileStrategy {
    */
   @Override
   public Missile createMissile(int initialX, int initialY) {
-    LaserBeam beam = laserWeapon.fireLaser(initialX, initialY);
-    return new Missile(initialX, initialY, true) {
+    return wrap(laserWeapon.fireLaser(initialX, initialY));
+  }
+
+  /**
+   * Wraps a laser beam in an anonymous missile that delegates to the beam.
+   *
+   * @param beam the beam to wrap
+   * @return a missile that moves, collides and measures like the beam
+   */
+  private Missile wrap(LaserBeam beam) {
+    return new Missile(beam.getSourceX(), beam.getSourceY(), true) {
       @Override
       public void update() {
         beam.move();
         this.x = beam.getSourceX();
         this.y = beam.getSourceY();
+        stateChanged();
       }
 
       @Override
@@ -69,6 +80,17 @@ public class LaserMissileAdapter implements MissileStrategy {
       public int getHeight() {
         return beam.getHeight();
       }
+
+      @Override
+      public int getKind() {
+        return KIND_LASER;
+      }
+
+      @Override
+      public Missile copyFor(GameModel model) {
+        // A beam is fully described by its position, so a new beam fired there is a copy
+        return wrap(laserWeapon.fireLaser(beam.getSourceX(), beam.getSourceY()));
+      }
     };
   }
 }
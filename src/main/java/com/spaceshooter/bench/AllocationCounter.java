@@ -0,0 +1,56 @@
+package com.spaceshooter.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reads how many bytes the calling thread has allocated, for benchmarks that check a
+ * hot path allocates nothing.
+ *
+ * The JVM counts allocation per thread id. The id is read through
+ * {@code Thread.threadId()} where the running JDK has it and through the older
+ * {@code Thread.getId()}, deprecated since JDK 19, where it does not, so the
+ * benchmarks build without warnings for both Java 11 and Java 21. The method is
+ * looked up once and called through an exact method handle, which boxes nothing.
+ */
+final class AllocationCounter {
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private static final MethodHandle THREAD_ID = findThreadId();
+
+  private AllocationCounter() {
+  }
+
+  /**
+   * Returns the bytes the calling thread has allocated since it started.
+   *
+   * @return the allocated byte count
+   */
+  static long allocatedBytes() {
+    return THREADS.getThreadAllocatedBytes(threadId(Thread.currentThread()));
+  }
+
+  private static long threadId(Thread thread) {
+    try {
+      return (long) THREAD_ID.invokeExact(thread);
+    } catch (Throwable e) {
+      throw new IllegalStateException("Cannot read the thread id", e);
+    }
+  }
+
+  private static MethodHandle findThreadId() {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    MethodType type = MethodType.methodType(long.class);
+    try {
+      return lookup.findVirtual(Thread.class, "threadId", type);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      try {
+        return lookup.findVirtual(Thread.class, "getId", type);
+      } catch (NoSuchMethodException | IllegalAccessException e2) {
+        throw new ExceptionInInitializerError(e2);
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.BulletPattern;
+import com.spaceshooter.model.BulletWave;
+import com.spaceshooter.model.DifficultySettings;
+import com.spaceshooter.model.GameModel;
+
+/**
+ * Measures tick time against the number of live enemy bullets.
+ * The enemies play a stress wave of overlapping spirals, sweeping fans and aimed
+ * bursts that fires thousands of bullets a second, with the bullet limit set to the
+ * size being measured. Once the field has filled up to that limit, every tick moves
+ * all of the bullets, drops those that leave the field and checks the rest against
+ * the player's band while new volleys top the field up again. Bullets do no damage,
+ * so the game runs for as long as the benchmark needs. The benchmark reports the
+ * average and worst tick time and whether the worst tick still fits in a 60 Hz frame.
+ *
+ * Usage: {@code BulletHellBenchmark [maxBullets]}
+ */
+public class BulletHellBenchmark {
+  private static final long SEED = 11L;
+  private static final int MAX_FILL_TICKS = 5_000;
+  private static final int MEASURED_TICKS = 300;
+  private static final double FRAME_MILLIS = 1000.0 / 60;
+
+  /**
+   * Runs the benchmark and prints one line per bullet count.
+   *
+   * @param args optional largest number of live bullets
+   */
+  public static void main(String[] args) {
+    int maxBullets = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+
+    System.out.printf("%8s %10s %8s %12s %12s %14s %s%n", "bullets", "live avg", "fill",
+        "ms/tick", "worst ms", "ns/bullet", "60 Hz");
+    for (int size = Math.max(1, maxBullets / 8); size <= maxBullets; size *= 2) {
+      run(size);
+    }
+  }
+
+  /**
+   * Builds the stress wave: three spirals turning both ways running all the time, fans
+   * sweeping across the field and bursts aimed at the player.
+   */
+  private static BulletWave stressWave() {
+    BulletWave wave = new BulletWave(120);
+    wave.addCue(0, BulletPattern.spiral(36, 0.75, 7, 120, 1));
+    wave.addCue(0, BulletPattern.spiral(30, 1.0, -11, 120, 1));
+    wave.addCue(60, BulletPattern.spiral(40, 0.6, 5, 120, 1));
+    for (int tick = 0; tick < 120; tick += 30) {
+      wave.addCue(tick, BulletPattern.fan(48, 150, 1.25, 4, 15, 2));
+    }
+    for (int tick = 10; tick < 120; tick += 20) {
+      wave.addCue(tick, BulletPattern.aimed(16, 40, 2.0, 5, 4));
+    }
+    return wave;
+  }
+
+  private static void run(int size) {
+    DifficultySettings settings = new DifficultySettings();
+    settings.setBulletWave(stressWave());
+    settings.setEnemyBulletLimit(size);
+    settings.setBulletDamage(0);
+    settings.setEnemyMoveInterval(Integer.MAX_VALUE); // Keep the formation where it is
+    GameModel model = new GameModel(SEED, settings);
+    model.toggleGodMode(); // Ordinary enemy fire only scratches the player
+
+    int fill = 0;
+    while (model.getEnemyBullets().getCount() < size * 95L / 100 && fill < MAX_FILL_TICKS) {
+      model.update();
+      fill++;
+    }
+    long total = 0;
+    long worst = 0;
+    long live = 0;
+    for (int tick = 0; tick < MEASURED_TICKS; tick++) {
+      long start = System.nanoTime();
+      model.update();
+      long elapsed = System.nanoTime() - start;
+      total += elapsed;
+      worst = Math.max(worst, elapsed);
+      live += model.getEnemyBullets().getCount();
+    }
+    if (model.isGameOver()) {
+      System.out.println("Game over during the run; the numbers below are not meaningful");
+    }
+
+    double average = total / 1e6 / MEASURED_TICKS;
+    double liveAverage = (double) live / MEASURED_TICKS;
+    System.out.printf("%8d %10.0f %8d %12.3f %12.3f %14.1f %s%n", size, liveAverage, fill,
+        average, worst / 1e6, average * 1e6 / Math.max(1, liveAverage),
+        worst / 1e6 <= FRAME_MILLIS ? "yes" : "no");
+  }
+}
@@ -0,0 +1,220 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.CollisionMask;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.ParallelTick;
+import com.spaceshooter.model.SpriteMasks;
+import com.spaceshooter.sim.SimpleBot;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks and measures the bitmask collision narrowphase.
+ * First, random pairs of masks, some built from random sprite pixels and some ellipses,
+ * are placed so that their boxes mostly overlap and tested both with
+ * {@link CollisionMask#overlaps} and {@link CollisionMask#overlapsRectangle} and with a
+ * brute-force comparison of every pixel the boxes share. The benchmark reports any pair
+ * where the two disagree and the time per test of each.
+ * Then a bot plays the same seeded game in god mode with bounding boxes only, with
+ * {@link SpriteMasks#rounded()} on the sequential tick and with the same masks on the
+ * parallel tick. The benchmark reports the best time per tick of a few games and the
+ * score of each configuration, and checks that the sequential and parallel games end
+ * in exactly the same state.
+ *
+ * Usage: {@code CollisionMaskBenchmark [pairs] [ticks]}
+ */
+public class CollisionMaskBenchmark {
+  private static final long SEED = 43L;
+  private static final int MAX_WIDTH = 150;
+  private static final int MAX_HEIGHT = 40;
+  private static final int ROUNDS = 3;
+
+  /**
+   * Runs the benchmark and prints its results.
+   *
+   * @param args optional number of mask pairs and of game ticks
+   */
+  public static void main(String[] args) {
+    int pairs = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 3_000;
+    comparePairs(pairs);
+    comparePlay(ticks);
+  }
+
+  private static void comparePairs(int pairs) {
+    Random random = new Random(SEED);
+    CollisionMask[] masks = new CollisionMask[pairs * 2];
+    int[] positions = new int[pairs * 4];
+    int[] rectangles = new int[pairs * 2];
+    for (int i = 0; i < masks.length; i++) {
+      int width = 1 + random.nextInt(MAX_WIDTH);
+      int height = 1 + random.nextInt(MAX_HEIGHT);
+      masks[i] = random.nextBoolean() ? randomMask(random, width, height)
+          : CollisionMask.ellipse(width, height);
+      positions[i * 2] = random.nextInt(MAX_WIDTH) - MAX_WIDTH / 2;
+      positions[i * 2 + 1] = random.nextInt(MAX_HEIGHT) - MAX_HEIGHT / 2;
+    }
+    for (int i = 0; i < pairs; i++) {
+      rectangles[i * 2] = 1 + random.nextInt(MAX_WIDTH);
+      rectangles[i * 2 + 1] = 1 + random.nextInt(MAX_HEIGHT);
+    }
+
+    int mismatches = 0;
+    int hits = 0;
+    for (int i = 0; i < pairs; i++) {
+      boolean expected = bruteForce(masks, positions, i);
+      if (expected != masksOverlap(masks, positions, i)) {
+        mismatches++;
+      }
+      if (bruteForceRectangle(masks, positions, rectangles, i)
+          != rectangleOverlaps(masks, positions, rectangles, i)) {
+        mismatches++;
+      }
+      hits += expected ? 1 : 0;
+    }
+
+    long maskNanos = Long.MAX_VALUE;
+    long bruteNanos = Long.MAX_VALUE;
+    int sink = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < pairs; i++) {
+        sink += masksOverlap(masks, positions, i) ? 1 : 0;
+      }
+      maskNanos = Math.min(maskNanos, System.nanoTime() - start);
+      start = System.nanoTime();
+      for (int i = 0; i < pairs; i++) {
+        sink += bruteForce(masks, positions, i) ? 1 : 0;
+      }
+      bruteNanos = Math.min(bruteNanos, System.nanoTime() - start);
+    }
+    if (sink != 2 * ROUNDS * hits) {
+      mismatches++; // The timed runs must agree too, which also keeps them from being elided
+    }
+    System.out.printf("Pairs      %d tested, %d overlapping, %s%n", pairs, hits,
+        mismatches == 0 ? "matches brute force" : "DIFFERS in " + mismatches + " tests");
+    System.out.printf("Masks      %7.1f ns per test%n", (double) maskNanos / pairs);
+    System.out.printf("Brute      %7.1f ns per test%n", (double) bruteNanos / pairs);
+  }
+
+  private static CollisionMask randomMask(Random random, int width, int height) {
+    int[] argb = new int[width * height];
+    double density = random.nextDouble() * 0.3;
+    for (int i = 0; i < argb.length; i++) {
+      argb[i] = random.nextDouble() < density ? 0xFF000000 : 0;
+    }
+    return CollisionMask.fromPixels(argb, width, height);
+  }
+
+  private static boolean masksOverlap(CollisionMask[] masks, int[] positions, int pair) {
+    return masks[pair * 2].overlaps(positions[pair * 4], positions[pair * 4 + 1],
+        masks[pair * 2 + 1], positions[pair * 4 + 2], positions[pair * 4 + 3]);
+  }
+
+  private static boolean rectangleOverlaps(CollisionMask[] masks, int[] positions,
+      int[] rectangles, int pair) {
+    return masks[pair * 2].overlapsRectangle(positions[pair * 4], positions[pair * 4 + 1],
+        positions[pair * 4 + 2], positions[pair * 4 + 3], rectangles[pair * 2],
+        rectangles[pair * 2 + 1]);
+  }
+
+  /**
+   * Compares the two masks of a pair one shared pixel at a time.
+   */
+  private static boolean bruteForce(CollisionMask[] masks, int[] positions, int pair) {
+    CollisionMask a = masks[pair * 2];
+    CollisionMask b = masks[pair * 2 + 1];
+    int ax = positions[pair * 4];
+    int ay = positions[pair * 4 + 1];
+    int bx = positions[pair * 4 + 2];
+    int by = positions[pair * 4 + 3];
+    for (int y = Math.max(ay, by); y < Math.min(ay + a.getHeight(), by + b.getHeight()); y++) {
+      for (int x = Math.max(ax, bx); x < Math.min(ax + a.getWidth(), bx + b.getWidth()); x++) {
+        if (a.isSolid(x - ax, y - ay) && b.isSolid(x - bx, y - by)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Looks for a solid pixel of the first mask of a pair inside the pair's rectangle,
+   * one pixel at a time.
+   */
+  private static boolean bruteForceRectangle(CollisionMask[] masks, int[] positions,
+      int[] rectangles, int pair) {
+    CollisionMask a = masks[pair * 2];
+    int ax = positions[pair * 4];
+    int ay = positions[pair * 4 + 1];
+    int rx = positions[pair * 4 + 2];
+    int ry = positions[pair * 4 + 3];
+    for (int y = ry; y < ry + rectangles[pair * 2 + 1]; y++) {
+      for (int x = rx; x < rx + rectangles[pair * 2]; x++) {
+        if (a.isSolid(x - ax, y - ay)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static void comparePlay(int ticks) {
+    SpriteMasks masks = SpriteMasks.rounded();
+    ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    try {
+      Run boxes = play("Boxes", null, null, ticks);
+      Run sequential = play("Sequential", masks, null, ticks);
+      Run parallel = play("Parallel", masks, new ParallelTick(pool), ticks);
+      System.out.printf("State      parallel %s sequential with masks%n",
+          parallel.hash == sequential.hash ? "matches" : "DIFFERS from");
+      System.out.printf("Scores     %d with bounding boxes, %d with rounded masks%n",
+          boxes.score, sequential.score);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Plays the game a few times with one configuration and reports the fastest run.
+   */
+  private static Run play(String name, SpriteMasks masks, ParallelTick parallelTick,
+      int ticks) {
+    Run best = null;
+    for (int round = 0; round < ROUNDS; round++) {
+      GameModel model = new GameModel(SEED);
+      model.setSpriteMasks(masks);
+      model.setParallelTick(parallelTick);
+      model.toggleGodMode();
+      SimpleBot bot = new SimpleBot(SEED, 2, true);
+      long start = System.nanoTime();
+      int tick = 0;
+      for (; tick < ticks && !model.isGameOver(); tick++) {
+        model.applyAction(bot.nextAction(model, tick));
+        model.update();
+      }
+      Run run = new Run();
+      run.nanos = System.nanoTime() - start;
+      run.ticks = tick;
+      run.score = model.getScore();
+      run.hash = model.getStateHash();
+      if (best == null || run.nanos < best.nanos) {
+        best = run;
+      }
+    }
+    System.out.printf("%-10s %7.2f us per tick over %d ticks%n", name,
+        best.nanos / 1e3 / Math.max(1, best.ticks), best.ticks);
+    return best;
+  }
+
+  /**
+   * The outcome of one game.
+   */
+  private static class Run {
+    private long nanos;
+    private int ticks;
+    private int score;
+    private long hash;
+  }
+}
@@ -0,0 +1,147 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.GameEventRing;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.PlayerAction;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures what publishing game events costs the tick, with consumers draining the
+ * event ring on their own threads.
+ * The player fires the bullet curtain every tick into a field kept topped up with
+ * enemies, in god mode, so nearly every tick publishes a shot and a burst of kills.
+ * The same game is played once without the ring and once with it; two consumer threads
+ * drain the ring in batches, one keeping a count per event type like a telemetry sink,
+ * one adding up the points of every kill like a score display. The benchmark reports
+ * the tick time of both runs, the events published and dropped, the average batch
+ * size, and checks that the points drained add up to the final score and that the
+ * ring left the game state untouched.
+ *
+ * Usage: {@code EventRingBenchmark [ticks]}
+ */
+public class EventRingBenchmark {
+  private static final long SEED = 13L;
+  private static final int ENEMIES = 40;
+
+  /**
+   * Runs the benchmark and prints its results.
+   *
+   * @param args optional number of ticks to play
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+    play(newGame(), ticks); // Warm up
+    GameModel plain = newGame();
+    long plainNanos = play(plain, ticks);
+
+    GameModel published = newGame();
+    GameEventRing ring = published.getEvents();
+    Drainer telemetry = new Drainer(ring.addConsumer(), new TypeCounter());
+    Drainer score = new Drainer(ring.addConsumer(), new ScoreKeeper());
+    telemetry.start();
+    score.start();
+    long publishedNanos = play(published, ticks);
+    telemetry.finish();
+    score.finish();
+
+    long events = ring.getCursor() + 1;
+    TypeCounter counts = (TypeCounter) telemetry.handler;
+    System.out.printf("Ticks      %d, %d enemies destroyed, %d shots%n", ticks,
+        counts.counts[GameEventRing.ENEMY_DESTROYED], counts.counts[GameEventRing.SHOT_FIRED]);
+    System.out.printf("Tick       %.2f us without the ring, %.2f us with it%n",
+        plainNanos / 1e3 / ticks, publishedNanos / 1e3 / ticks);
+    System.out.printf("Events     %d published, %d dropped, %.1f per batch%n", events,
+        ring.getDropped(), (double) telemetry.drained / Math.max(1, telemetry.batches));
+    System.out.printf("Score      %d drained, %d in the game%n",
+        ((ScoreKeeper) score.handler).points, published.getScore());
+    System.out.printf("State      %s%n", plain.getStateHash() == published.getStateHash()
+        ? "identical with and without the ring" : "DIFFERS with the ring");
+  }
+
+  private static GameModel newGame() {
+    GameModel model = new GameModel(SEED);
+    model.toggleGodMode(); // Every hit is a kill, and enemy fire only scratches the player
+    model.applyAction(PlayerAction.SELECT_CURTAIN);
+    return model;
+  }
+
+  private static long play(GameModel model, int ticks) {
+    Random scenario = new Random(SEED);
+    long start = System.nanoTime();
+    for (int tick = 0; tick < ticks; tick++) {
+      while (model.getEnemies().size() < ENEMIES) {
+        model.spawnEnemy(scenario.nextInt(570), 50 + scenario.nextInt(250));
+      }
+      model.fireMissile();
+      model.update();
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Drains one consumer on its own thread until told to finish.
+   */
+  private static final class Drainer extends Thread {
+    private final GameEventRing.Consumer consumer;
+    private final GameEventRing.Handler handler;
+    private volatile boolean finishing;
+    private long drained;
+    private long batches;
+
+    Drainer(GameEventRing.Consumer consumer, GameEventRing.Handler handler) {
+      this.consumer = consumer;
+      this.handler = handler;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        boolean last = finishing;
+        int count = consumer.drain(handler);
+        if (count > 0) {
+          drained += count;
+          batches++;
+        } else if (last) {
+          return;
+        } else {
+          LockSupport.parkNanos(20_000);
+        }
+      }
+    }
+
+    void finish() throws InterruptedException {
+      finishing = true;
+      join();
+    }
+  }
+
+  /**
+   * Counts the events of each type.
+   */
+  private static final class TypeCounter implements GameEventRing.Handler {
+    private final long[] counts = new long[GameEventRing.GAME_OVER + 1];
+
+    @Override
+    public void onEvent(int type, int tick, int subject, int x, int y, int value) {
+      counts[type]++;
+    }
+  }
+
+  /**
+   * Adds up the points of every kill.
+   */
+  private static final class ScoreKeeper implements GameEventRing.Handler {
+    private long points;
+
+    @Override
+    public void onEvent(int type, int tick, int subject, int x, int y, int value) {
+      if (type == GameEventRing.ENEMY_DESTROYED) {
+        points += value;
+      }
+    }
+  }
+}
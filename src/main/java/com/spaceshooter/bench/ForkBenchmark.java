@@ -0,0 +1,82 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.sim.MctsBot;
+import com.spaceshooter.sim.SimpleBot;
+
+/**
+ * Measures how fast a game can be forked and stepped, and what an MCTS decision costs.
+ * The benchmark first plays a game for a while with the simple bot so that the forked
+ * state has missiles in flight and a partly destroyed formation, then reports:
+ * - {@link GameModel#copy()}: a fork into a newly allocated model
+ * - {@link GameModel#copyFrom(GameModel)}: a fork into a reused scratch model
+ * - fork plus ten ticks, the basic unit of a rollout
+ * - one MCTS decision with the default search budget
+ *
+ * Usage: {@code ForkBenchmark [iterations]}
+ */
+public class ForkBenchmark {
+  private static final long SEED = 7L;
+  private static final int SETUP_TICKS = 600;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional number of timed iterations per measurement
+   */
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    GameModel game = new GameModel(SEED);
+    SimpleBot bot = new SimpleBot(SEED, 2, false);
+    for (int tick = 0; tick < SETUP_TICKS && !game.isGameOver(); tick++) {
+      game.applyAction(bot.nextAction(game, tick));
+      game.update();
+    }
+    System.out.printf("State: %d enemies, %d missiles%n",
+        game.getEnemies().size(), game.getMissiles().size());
+
+    long checksum = 0;
+    for (int round = 0; round < 2; round++) { // The first round warms up the JIT
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        checksum += game.copy().getMissiles().size();
+      }
+      report(round, "copy()", start, iterations);
+
+      GameModel scratch = game.copy();
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        scratch.copyFrom(game);
+        checksum += scratch.getScore();
+      }
+      report(round, "copyFrom()", start, iterations);
+
+      int stepIterations = iterations / 10;
+      start = System.nanoTime();
+      for (int i = 0; i < stepIterations; i++) {
+        scratch.copyFrom(game);
+        for (int tick = 0; tick < 10; tick++) {
+          scratch.update();
+        }
+        checksum += scratch.getScore();
+      }
+      report(round, "copyFrom() + 10 ticks", start, stepIterations);
+
+      MctsBot mcts = new MctsBot(SEED);
+      int decisions = Math.max(1, iterations / 2000);
+      start = System.nanoTime();
+      for (int i = 0; i < decisions; i++) {
+        checksum += mcts.nextAction(game, 0);
+      }
+      report(round, "MCTS decision", start, decisions);
+    }
+    System.out.println("(checksum " + checksum + ")");
+  }
+
+  private static void report(int round, String name, long start, int operations) {
+    if (round > 0) {
+      double micros = (System.nanoTime() - start) / 1e3 / operations;
+      System.out.printf("%-24s %10.3f us/op%n", name, micros);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.sim.Replay;
+import com.spaceshooter.sim.SimpleBot;
+import com.spaceshooter.view.FrameRecorder;
+import com.spaceshooter.view.GameRenderer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Measures what recording a game to images costs the thread that plays it.
+ * A bot plays a game once to record a replay; the replay is then played back headless
+ * three times: without recording, recording every tick as fast as the encoder allows,
+ * waiting for it when it falls behind, and recording at the live game's 50 ticks a
+ * second, dropping frames when it falls behind. The benchmark reports the tick time
+ * with and without recording, how much of it went to drawing and to waiting, the
+ * frames written and dropped, the encoder's time per frame and throughput, and checks
+ * that every frame written is on disk.
+ *
+ * Usage: {@code FrameCaptureBenchmark [ticks] [poolSize]}
+ */
+public class FrameCaptureBenchmark {
+  private static final long SEED = 21L;
+  private static final int WIDTH = 600;
+  private static final int HEIGHT = 700;
+  private static final long LIVE_TICK_NANOS = 20_000_000L;
+  private static final int LIVE_TICKS = 250;
+
+  /**
+   * Runs the benchmark and prints its results.
+   *
+   * @param args optional number of ticks to play and image pool size
+   */
+  public static void main(String[] args) throws IOException {
+    System.setProperty("java.awt.headless", "true");
+    int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+    int poolSize = args.length > 1 ? Integer.parseInt(args[1]) : FrameRecorder.DEFAULT_POOL_SIZE;
+    Replay replay = Replay.record(new GameModel(SEED), SEED, new SimpleBot(SEED), ticks);
+    int length = replay.getLength();
+
+    play(replay, length, null, 0); // Warm up
+    long plainNanos = play(replay, length, null, 0);
+    System.out.printf("Replay     %d ticks, %.3f ms per tick without recording%n", length,
+        plainNanos / 1e6 / length);
+    record(replay, length, poolSize, false, 0);
+    record(replay, Math.min(length, LIVE_TICKS), poolSize, true, LIVE_TICK_NANOS);
+  }
+
+  private static void record(Replay replay, int ticks, int poolSize, boolean dropWhenBehind,
+      long tickNanos) throws IOException {
+    Path directory = Files.createTempDirectory("frame-capture-bench");
+    try {
+      FrameRecorder recorder = new FrameRecorder(directory, new GameRenderer(), WIDTH, HEIGHT,
+          poolSize, dropWhenBehind);
+      long playNanos = play(replay, ticks, recorder, tickNanos);
+      long start = System.nanoTime();
+      recorder.close();
+      long flushNanos = System.nanoTime() - start;
+      long files;
+      long bytes = 0;
+      try (Stream<Path> listing = Files.list(directory)) {
+        files = listing.count();
+      }
+      try (Stream<Path> listing = Files.list(directory)) {
+        for (Path file : (Iterable<Path>) listing::iterator) {
+          bytes += Files.size(file);
+        }
+      }
+
+      long written = recorder.getWritten();
+      System.out.printf("%s%n", dropWhenBehind
+          ? String.format("Live       %d ticks at %d Hz, dropping frames when behind", ticks,
+              1_000_000_000L / tickNanos)
+          : String.format("Recording  %d ticks, waiting for the encoder when behind", ticks));
+      if (!dropWhenBehind) {
+        System.out.printf("  Tick     %.3f ms with recording%n", playNanos / 1e6 / ticks);
+      }
+      System.out.printf("  Capture  %.3f ms drawing, %.3f ms waiting per tick%n",
+          recorder.getCaptureNanos() / 1e6 / ticks, recorder.getWaitNanos() / 1e6 / ticks);
+      System.out.printf("  Frames   %d written, %d dropped, %.1f ms to flush at the end%n",
+          written, recorder.getDropped(), flushNanos / 1e6);
+      System.out.printf("  Encoder  %.3f ms per frame, %.0f MB/s%n",
+          recorder.getEncodeNanos() / 1e6 / Math.max(1, written),
+          bytes / 1e6 / Math.max(1e-9, recorder.getEncodeNanos() / 1e9));
+      System.out.printf("  Files    %s%n", files == written
+          ? files + " on disk, " + bytes / Math.max(1, files) + " bytes each"
+          : "MISSING: " + files + " on disk for " + written + " written");
+    } finally {
+      try (Stream<Path> listing = Files.list(directory)) {
+        for (Path file : (Iterable<Path>) listing::iterator) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(directory);
+    }
+  }
+
+  /**
+   * Plays a replay into a fresh game, recording each tick if given a recorder, and
+   * returns the time spent playing and recording. With a tick length, each tick waits
+   * for its turn like the live game's timer.
+   */
+  private static long play(Replay replay, int ticks, FrameRecorder recorder, long tickNanos) {
+    GameModel model = new GameModel(replay.getSeed());
+    long busy = 0;
+    long next = System.nanoTime();
+    for (int tick = 0; tick < ticks; tick++) {
+      if (tickNanos > 0) {
+        next += tickNanos;
+        LockSupport.parkNanos(next - System.nanoTime());
+      }
+      long start = System.nanoTime();
+      model.applyAction(replay.getAction(tick));
+      model.update();
+      if (recorder != null) {
+        recorder.capture(model, null);
+      }
+      busy += System.nanoTime() - start;
+    }
+    return busy;
+  }
+}
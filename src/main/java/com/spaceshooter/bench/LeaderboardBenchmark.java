@@ -0,0 +1,202 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.persistence.Leaderboard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures the leaderboard with millions of results stored.
+ * Several threads, standing in for headless sessions, submit random scores at once into
+ * a fresh leaderboard in a temporary directory. The benchmark then times rank,
+ * percentile, score-at-percentile and top-ten queries at random scores, reporting the
+ * median, 99th percentile and worst of each, closes the board and reopens it from its
+ * index, then deletes the index and reopens it again to time a rebuild from the log.
+ * Every phase checks that no result went missing, and the queries are checked against
+ * a sorted copy of the scores submitted.
+ *
+ * Usage: {@code LeaderboardBenchmark [records] [threads]}
+ */
+public class LeaderboardBenchmark {
+  private static final long SEED = 17L;
+  private static final int MAX_SCORE = 1_000_000;
+  private static final int QUERIES = 20_000;
+  private static final int CHECKS = 200;
+
+  /**
+   * Runs the benchmark and prints its results.
+   *
+   * @param args optional number of results and of submitting threads
+   */
+  public static void main(String[] args) throws Exception {
+    int records = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    Path directory = Files.createTempDirectory("leaderboard-bench");
+    Path base = directory.resolve("board");
+    int[] scores = new int[records];
+    try {
+      Leaderboard board = new Leaderboard(base);
+      long submitNanos = submit(board, scores, threadCount);
+      System.out.printf("Submit     %d results from %d threads in %.0f ms, %.2f us each%n",
+          records, threadCount, submitNanos / 1e6, submitNanos / 1e3 / records);
+
+      query(board); // Warm up, and drain everything submitted
+      int[] sorted = scores.clone();
+      Arrays.sort(sorted);
+      query(board);
+      System.out.printf("Checks     %s%n", check(board, sorted) ? "passed" : "FAILED");
+
+      long start = System.nanoTime();
+      board.close();
+      long closeNanos = System.nanoTime() - start;
+      start = System.nanoTime();
+      board = new Leaderboard(base);
+      long reopenNanos = System.nanoTime() - start;
+      System.out.printf("Close      %.1f ms writing the index%n", closeNanos / 1e6);
+      System.out.printf("Reopen     %.1f ms from the index, %d results%n", reopenNanos / 1e6,
+          board.size());
+      board.close();
+
+      try (var files = Files.list(directory)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          if (file.getFileName().toString().endsWith(".idx")) {
+            Files.delete(file);
+          }
+        }
+      }
+      start = System.nanoTime();
+      board = new Leaderboard(base);
+      long rebuildNanos = System.nanoTime() - start;
+      System.out.printf("Rebuild    %.1f ms from the log, %d results%n", rebuildNanos / 1e6,
+          board.size());
+      System.out.printf("Checks     %s after the rebuild%n",
+          check(board, sorted) ? "passed" : "FAILED");
+      board.close();
+    } finally {
+      try (var files = Files.list(directory)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(directory);
+    }
+  }
+
+  private static long submit(Leaderboard board, int[] scores, int threadCount)
+      throws InterruptedException, IOException {
+    AtomicReference<IOException> failure = new AtomicReference<>();
+    Thread[] threads = new Thread[threadCount];
+    for (int t = 0; t < threadCount; t++) {
+      int first = (int) ((long) scores.length * t / threadCount);
+      int last = (int) ((long) scores.length * (t + 1) / threadCount);
+      Random random = new Random(SEED + t);
+      threads[t] = new Thread(() -> {
+        try {
+          for (int i = first; i < last; i++) {
+            scores[i] = random.nextInt(MAX_SCORE);
+            board.submit(scores[i], 1000 + (i & 1023), 1);
+          }
+        } catch (IOException e) {
+          failure.set(e);
+        }
+      });
+    }
+    long start = System.nanoTime();
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long elapsed = System.nanoTime() - start;
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    return elapsed;
+  }
+
+  private static void query(Leaderboard board) throws IOException {
+    Random random = new Random(SEED);
+    long[][] latencies = new long[4][QUERIES];
+    long sink = 0;
+    for (int q = 0; q < QUERIES; q++) {
+      int score = random.nextInt(MAX_SCORE);
+      long t0 = System.nanoTime();
+      sink += board.rank(score);
+      long t1 = System.nanoTime();
+      sink += (long) board.percentileOf(score);
+      long t2 = System.nanoTime();
+      sink += board.scoreAtPercentile(random.nextDouble() * 100);
+      long t3 = System.nanoTime();
+      sink += board.top(10).size();
+      long t4 = System.nanoTime();
+      long[] elapsed = {t1 - t0, t2 - t1, t3 - t2, t4 - t3};
+      for (int k = 0; k < 4; k++) {
+        latencies[k][q] = elapsed[k];
+      }
+    }
+    String[] names = {"rank", "percentile", "at percentile", "top 10"};
+    for (int k = 0; k < 4; k++) {
+      long[] sorted = latencies[k];
+      Arrays.sort(sorted);
+      System.out.printf("Query      %-14s %7.2f us median, %7.2f us p99, %8.1f us worst%n",
+          names[k], sorted[QUERIES / 2] / 1e3, sorted[QUERIES * 99 / 100] / 1e3,
+          sorted[QUERIES - 1] / 1e3);
+    }
+    if (sink == 42) {
+      System.out.println(); // Keeps the queries from being optimised away
+    }
+  }
+
+  /**
+   * Checks the size, the top of the board and a sample of ranks and percentiles against
+   * the scores submitted, sorted in ascending order.
+   */
+  private static boolean check(Leaderboard board, int[] sorted) throws IOException {
+    int n = sorted.length;
+    if (board.size() != n) {
+      return false;
+    }
+    List<Leaderboard.Entry> top = board.top(10);
+    for (int i = 0; i < top.size(); i++) {
+      if (top.get(i).getScore() != sorted[n - 1 - i]) {
+        return false;
+      }
+    }
+    Random random = new Random(SEED);
+    for (int c = 0; c < CHECKS; c++) {
+      int score = sorted[random.nextInt(n)];
+      int below = lowerBound(sorted, score);
+      int above = n - lowerBound(sorted, score + 1);
+      if (board.rank(score) != above + 1
+          || Math.abs(board.percentileOf(score) - 100.0 * below / n) > 1e-9) {
+        return false;
+      }
+      double percentile = random.nextDouble() * 100;
+      int fromBottom = (int) Math.max(1, Math.ceil(percentile / 100 * n));
+      if (board.scoreAtPercentile(percentile) != sorted[fromBottom - 1]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int lowerBound(int[] sorted, int value) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (sorted[middle] < value) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,223 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.BulletField;
+import com.spaceshooter.model.BulletPattern;
+import com.spaceshooter.model.BulletWave;
+import com.spaceshooter.model.DifficultySettings;
+import com.spaceshooter.model.Enemy;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.Missile;
+import com.spaceshooter.model.Player;
+import com.spaceshooter.sim.ObservationRaster;
+import com.spaceshooter.sim.Replay;
+import com.spaceshooter.sim.SimpleBot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Measures encoding games into low-resolution observations with
+ * {@link ObservationRaster}.
+ * A bot plays a game once to record a replay, which is then played back while every
+ * tick is encoded; a bullet-hell wave with thousands of bullets on screen is encoded
+ * the same way. After a few untimed passes to warm up, each scene is encoded at a few
+ * grid sizes, in planes and interleaved.
+ * The benchmark reports the average and worst time to encode a frame in the best of
+ * a few rounds, the average number of objects encoded and the bytes allocated while
+ * encoding, and checks every frame against a straightforward floating-point
+ * rasterization of the same objects. The raster itself allocates nothing; the few
+ * hundred bytes that can turn up over thousands of frames are the JVM's own.
+ *
+ * Usage: {@code ObservationBenchmark [ticks]}
+ */
+public class ObservationBenchmark {
+  private static final long SEED = 29L;
+  private static final int FIELD_WIDTH = 600;
+  private static final int FIELD_HEIGHT = 700;
+  private static final int WARMUP_PASSES = 3;
+  private static final int ROUNDS = 5;
+  private static final double EPSILON = 1e-9; // Below rounding error of cell edges
+  private static final int[][] GRIDS = {{84, 84}, {60, 70}, {150, 175}};
+
+  /**
+   * Runs the benchmark and prints one block per scene.
+   *
+   * @param args optional number of ticks to play
+   */
+  public static void main(String[] args) {
+    int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+    Replay replay = Replay.record(new GameModel(SEED), SEED, new SimpleBot(SEED), ticks);
+    for (int i = 0; i < WARMUP_PASSES; i++) {
+      encodeAll(new ObservationRaster(GRIDS[0][0], GRIDS[0][1]), replay, null,
+          replay.getLength());
+      encodeAll(new ObservationRaster(GRIDS[0][0], GRIDS[0][1]), null, bulletHell(), 600);
+    }
+    run("Game", replay, null);
+    run("Bullets", null, bulletHell());
+  }
+
+  /**
+   * Returns settings that fill the field with overlapping spirals and sweeping fans.
+   */
+  private static DifficultySettings bulletHell() {
+    BulletWave wave = new BulletWave(120);
+    wave.addCue(0, BulletPattern.spiral(36, 0.75, 7, 120, 1));
+    wave.addCue(0, BulletPattern.spiral(30, 1.0, -11, 120, 1));
+    for (int tick = 0; tick < 120; tick += 30) {
+      wave.addCue(tick, BulletPattern.fan(48, 150, 1.25, 4, 15, 2));
+    }
+    DifficultySettings settings = new DifficultySettings();
+    settings.setBulletWave(wave);
+    settings.setBulletDamage(0);
+    settings.setEnemyMoveInterval(Integer.MAX_VALUE);
+    return settings;
+  }
+
+  private static void run(String scene, Replay replay, DifficultySettings settings) {
+    int ticks = replay != null ? replay.getLength() : 600;
+    System.out.printf("%s: %d ticks%n", scene, ticks);
+    for (int[] grid : GRIDS) {
+      for (boolean interleaved : new boolean[] {false, true}) {
+        ObservationRaster raster = new ObservationRaster(grid[0], grid[1], interleaved,
+            ObservationRaster.CHANNEL_PLAYERS, ObservationRaster.CHANNEL_ENEMIES,
+            ObservationRaster.CHANNEL_PLAYER_MISSILES, ObservationRaster.CHANNEL_ENEMY_MISSILES,
+            ObservationRaster.CHANNEL_ENEMY_BULLETS);
+        measure(raster, replay, settings, ticks);
+      }
+    }
+  }
+
+  private static void measure(ObservationRaster raster, Replay replay,
+      DifficultySettings settings, int ticks) {
+    AllocationCounter.allocatedBytes(); // The first call allocates
+    long total = Long.MAX_VALUE;
+    long worst = 0;
+    long allocated = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      GameModel model = newGame(replay, settings);
+      long roundTotal = 0;
+      long roundWorst = 0;
+      for (int tick = 0; tick < ticks; tick++) {
+        advance(model, replay, tick);
+        long allocatedBefore = AllocationCounter.allocatedBytes();
+        long start = System.nanoTime();
+        raster.encode(model);
+        long elapsed = System.nanoTime() - start;
+        allocated += AllocationCounter.allocatedBytes() - allocatedBefore;
+        roundTotal += elapsed;
+        roundWorst = Math.max(roundWorst, elapsed);
+      }
+      if (roundTotal < total) {
+        total = roundTotal;
+        worst = roundWorst;
+      }
+    }
+
+    GameModel model = newGame(replay, settings);
+    long objects = 0;
+    int mismatches = 0;
+    for (int tick = 0; tick < ticks; tick++) {
+      advance(model, replay, tick);
+      objects += model.getPlayers().size() + model.getEnemies().size()
+          + model.getMissiles().size() + model.getEnemyBullets().getCount();
+      if (!matchesReference(raster, model, raster.encode(model))) {
+        mismatches++;
+      }
+    }
+    System.out.printf("  %3dx%-3d %-11s %7.2f us per frame, worst %7.2f us, %5d objects,"
+        + " %d bytes allocated, %s%n", raster.getGridWidth(), raster.getGridHeight(),
+        raster.isInterleaved() ? "interleaved" : "planes", total / 1e3 / ticks, worst / 1e3,
+        objects / ticks, allocated,
+        mismatches == 0 ? "matches reference" : "DIFFERS in " + mismatches + " frames");
+  }
+
+  private static void encodeAll(ObservationRaster raster, Replay replay,
+      DifficultySettings settings, int ticks) {
+    GameModel model = newGame(replay, settings);
+    for (int tick = 0; tick < ticks; tick++) {
+      advance(model, replay, tick);
+      raster.encode(model);
+    }
+  }
+
+  private static GameModel newGame(Replay replay, DifficultySettings settings) {
+    GameModel model = replay != null ? new GameModel(replay.getSeed())
+        : new GameModel(SEED, settings);
+    if (replay == null) {
+      model.toggleGodMode();
+    }
+    return model;
+  }
+
+  private static void advance(GameModel model, Replay replay, int tick) {
+    if (replay != null) {
+      model.applyAction(replay.getAction(tick));
+    }
+    model.update();
+  }
+
+  /**
+   * Rasterizes the game again in floating point and compares it with an encoded
+   * observation, allowing each cell to differ by one level for rounding.
+   */
+  private static boolean matchesReference(ObservationRaster raster, GameModel model,
+      ByteBuffer observation) {
+    double[] expected = new double[raster.getSize()];
+    for (Player player : model.getPlayers()) {
+      cover(raster, expected, ObservationRaster.CHANNEL_PLAYERS, player.getX(), player.getY(),
+          player.getWidth(), player.getHeight());
+    }
+    for (Enemy enemy : model.getEnemies()) {
+      cover(raster, expected, ObservationRaster.CHANNEL_ENEMIES, enemy.getX(), enemy.getY(),
+          enemy.getWidth(), enemy.getHeight());
+    }
+    for (Missile missile : model.getMissiles()) {
+      int channel = missile.isPlayerMissile() ? ObservationRaster.CHANNEL_PLAYER_MISSILES
+          : ObservationRaster.CHANNEL_ENEMY_MISSILES;
+      cover(raster, expected, channel, missile.getX(), missile.getY(), missile.getWidth(),
+          missile.getHeight());
+    }
+    BulletField bullets = model.getEnemyBullets();
+    for (int i = 0; i < bullets.getCount(); i++) {
+      cover(raster, expected, ObservationRaster.CHANNEL_ENEMY_BULLETS, bullets.getX(i),
+          bullets.getY(i), BulletField.SIZE, BulletField.SIZE);
+    }
+    for (int i = 0; i < expected.length; i++) {
+      int value = observation.get(i) & 255;
+      int reference = expected[i] == 0 ? 0 : Math.max(1, (int) (Math.min(1, expected[i]) * 255));
+      if (Math.abs(value - reference) > 1 || (value == 0) != (reference == 0)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds the fraction of each cell a rectangle covers.
+   */
+  private static void cover(ObservationRaster raster, double[] expected, int channel, int x,
+      int y, int width, int height) {
+    double cellWidth = (double) FIELD_WIDTH / raster.getGridWidth();
+    double cellHeight = (double) FIELD_HEIGHT / raster.getGridHeight();
+    double left = Math.max(0, x);
+    double right = Math.min(FIELD_WIDTH, x + width);
+    double top = Math.max(0, y);
+    double bottom = Math.min(FIELD_HEIGHT, y + height);
+    int lastRow = Math.min(raster.getGridHeight() - 1, (int) (bottom / cellHeight));
+    int lastColumn = Math.min(raster.getGridWidth() - 1, (int) (right / cellWidth));
+    for (int row = Math.max(0, (int) (top / cellHeight) - 1); row <= lastRow; row++) {
+      double rowHeight = Math.min(bottom, (row + 1) * cellHeight) - Math.max(top, row * cellHeight);
+      if (rowHeight <= EPSILON) {
+        continue;
+      }
+      for (int column = Math.max(0, (int) (left / cellWidth) - 1); column <= lastColumn;
+          column++) {
+        double columnWidth = Math.min(right, (column + 1) * cellWidth)
+            - Math.max(left, column * cellWidth);
+        if (columnWidth > EPSILON) {
+          expected[raster.indexOf(channel, column, row)] +=
+              columnWidth * rowHeight / (cellWidth * cellHeight);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.Missile;
+import com.spaceshooter.model.ParallelTick;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the parallel tick against the sequential tick on a stress scenario.
+ * Every run replays the same seeded scenario: the field is kept topped up with
+ * thousands of enemies and tens of thousands of player missiles. The benchmark
+ * reports the average tick time for the sequential tick and for a parallel tick on
+ * 1 to N worker threads, and checks that every parallel run ends in exactly the same
+ * state as the sequential one.
+ *
+ * Usage: {@code ParallelTickBenchmark [maxThreads] [enemies] [missiles]}
+ */
+public class ParallelTickBenchmark {
+  private static final long SEED = 42L;
+  private static final int WARMUP_TICKS = 100;
+  private static final int MEASURED_TICKS = 200;
+
+  /**
+   * Runs the benchmark and prints one line per thread count.
+   *
+   * @param args optional maximum thread count, enemy count and missile count
+   */
+  public static void main(String[] args) {
+    int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+        : Runtime.getRuntime().availableProcessors();
+    int enemyCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+    int missileCount = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+    System.out.printf("Stress scenario: %d enemies, %d missiles, %d ticks%n",
+        enemyCount, missileCount, MEASURED_TICKS);
+    RunResult sequential = run(null, enemyCount, missileCount);
+    System.out.printf("sequential  %8.3f ms/tick  score=%d%n",
+        sequential.millisPerTick, sequential.score);
+
+    for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      try {
+        RunResult parallel = run(new ParallelTick(pool), enemyCount, missileCount);
+        System.out.printf("%2d threads  %8.3f ms/tick  speedup=%5.2fx  %s%n",
+            threads, parallel.millisPerTick, sequential.millisPerTick / parallel.millisPerTick,
+            parallel.sameStateAs(sequential) ? "state matches" : "STATE MISMATCH");
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  private static int nextThreadCount(int threads, int maxThreads) {
+    // Double each step, but always finish with the full thread count
+    if (threads == maxThreads) {
+      return maxThreads + 1;
+    }
+    return Math.min(threads * 2, maxThreads);
+  }
+
+  private static RunResult run(ParallelTick parallelTick, int enemyCount, int missileCount) {
+    GameModel model = new GameModel(SEED);
+    model.setParallelTick(parallelTick);
+    Random scenario = new Random(SEED);
+
+    for (int tick = 0; tick < WARMUP_TICKS; tick++) {
+      topUp(model, scenario, enemyCount, missileCount);
+      model.update();
+    }
+    long start = System.nanoTime();
+    for (int tick = 0; tick < MEASURED_TICKS; tick++) {
+      topUp(model, scenario, enemyCount, missileCount);
+      model.update();
+    }
+    long elapsed = System.nanoTime() - start;
+
+    RunResult result = new RunResult();
+    result.millisPerTick = elapsed / 1e6 / MEASURED_TICKS;
+    result.score = model.getScore();
+    result.enemies = model.getEnemies().size();
+    result.missiles = model.getMissiles().size();
+    result.playerHealth = model.getPlayer().getHealth();
+    result.gameOver = model.isGameOver();
+    return result;
+  }
+
+  private static void topUp(GameModel model, Random scenario, int enemyCount, int missileCount) {
+    while (model.getEnemies().size() < enemyCount) {
+      model.spawnEnemy(scenario.nextInt(570), scenario.nextInt(200));
+    }
+    while (model.getMissiles().size() < missileCount) {
+      model.addMissile(new Missile(scenario.nextInt(590), 300 + scenario.nextInt(280), true));
+    }
+  }
+
+  /**
+   * The outcome of one benchmark run.
+   */
+  private static class RunResult {
+    private double millisPerTick;
+    private int score;
+    private int enemies;
+    private int missiles;
+    private int playerHealth;
+    private boolean gameOver;
+
+    private boolean sameStateAs(RunResult other) {
+      return score == other.score
+          && enemies == other.enemies
+          && missiles == other.missiles
+          && playerHealth == other.playerHealth
+          && gameOver == other.gameOver;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.view.ParticleSystem;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Measures the particle system with its pool full.
+ * Every frame throws out enough explosions to replace the particles that burn out, so
+ * the pool stays at its capacity and evicts its oldest particles, then moves every
+ * particle and renders them into an image the size of the game panel. The benchmark
+ * reports the average and worst time to update and to render a frame, whether the
+ * worst frame fits in 60 Hz, and how many bytes the measured frames allocated. The
+ * particle system itself allocates nothing; what is left is Java2D's own bookkeeping
+ * for the one image drawn per frame, a few dozen bytes.
+ *
+ * Usage: {@code ParticleBenchmark [capacity]}
+ */
+public class ParticleBenchmark {
+  private static final int WIDTH = 600;
+  private static final int HEIGHT = 700;
+  private static final int WARMUP_FRAMES = 300;
+  private static final int MEASURED_FRAMES = 600;
+  private static final int BURST = 90; // One enemy explosion
+  private static final double FRAME_MILLIS = 1000.0 / 60;
+
+  /**
+   * Runs the benchmark and prints its results.
+   *
+   * @param args optional pool capacity
+   */
+  public static void main(String[] args) {
+    int capacity = args.length > 0 ? Integer.parseInt(args[0]) : ParticleSystem.DEFAULT_CAPACITY;
+    ParticleSystem particles = new ParticleSystem(capacity);
+    BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = frame.createGraphics();
+    // Enough bursts each frame to refill what the shortest-lived particles give back
+    int bursts = Math.max(1, capacity / 14 / BURST + 1);
+
+    for (int i = 0; i < WARMUP_FRAMES; i++) {
+      frame(particles, g, bursts, i);
+    }
+    long allocatedBefore = AllocationCounter.allocatedBytes();
+    long updateTotal = 0;
+    long renderTotal = 0;
+    long worst = 0;
+    long live = 0;
+    for (int i = 0; i < MEASURED_FRAMES; i++) {
+      long start = System.nanoTime();
+      emitBursts(particles, bursts, i);
+      particles.update();
+      long updated = System.nanoTime();
+      particles.render(g, WIDTH, HEIGHT);
+      long rendered = System.nanoTime();
+      updateTotal += updated - start;
+      renderTotal += rendered - updated;
+      worst = Math.max(worst, rendered - start);
+      live += particles.getLiveCount();
+    }
+    long allocated = AllocationCounter.allocatedBytes() - allocatedBefore;
+    g.dispose();
+
+    double worstMillis = worst / 1e6;
+    System.out.printf("Particles  %d live on average of %d%n", live / MEASURED_FRAMES, capacity);
+    System.out.printf("Update     %.3f ms per frame%n", updateTotal / 1e6 / MEASURED_FRAMES);
+    System.out.printf("Render     %.3f ms per frame%n", renderTotal / 1e6 / MEASURED_FRAMES);
+    System.out.printf("Worst      %.3f ms, %s at 60 Hz%n", worstMillis,
+        worstMillis <= FRAME_MILLIS ? "fits" : "does not fit");
+    System.out.printf("Allocated  %d bytes over %d frames%n", allocated, MEASURED_FRAMES);
+  }
+
+  private static void frame(ParticleSystem particles, Graphics2D g, int bursts, int index) {
+    emitBursts(particles, bursts, index);
+    particles.update();
+    particles.render(g, WIDTH, HEIGHT);
+  }
+
+  private static void emitBursts(ParticleSystem particles, int bursts, int index) {
+    for (int b = 0; b < bursts; b++) {
+      // Spread the explosions over the upper field, where the enemies fly
+      int spot = index * 31 + b * 97;
+      float x = 30 + spot % (WIDTH - 60);
+      float y = 100 + (spot / 7) % 400;
+      particles.emit(ParticleSystem.KIND_FIRE, x, y, BURST * 2 / 3);
+      particles.emit(ParticleSystem.KIND_SPARK, x, y, BURST / 3);
+    }
+  }
+}
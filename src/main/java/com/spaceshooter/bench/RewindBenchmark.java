@@ -0,0 +1,98 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.RewindHistory;
+import com.spaceshooter.model.SnapshotCodec;
+import com.spaceshooter.sim.SimpleBot;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures what the rewind history costs while recording and how fast it can scrub.
+ * A bot plays a game while every tick is recorded. The benchmark reports the time
+ * spent in {@link GameModel#update()} against the time spent in
+ * {@link RewindHistory#record(GameModel)}, both headless and as a share of a frame at
+ * the game's real tick rate, the average bytes stored per tick, and the
+ * latency of restoring random ticks. Every sampled tick is restored and re-encoded to
+ * check that it matches the snapshot taken while playing.
+ *
+ * Usage: {@code RewindBenchmark [ticks] [arenaKilobytes]}
+ */
+public class RewindBenchmark {
+  private static final long SEED = 11L;
+  private static final int SAMPLE_INTERVAL = 37;
+  private static final int FRAME_MILLIS = 20; // The game timer's delay
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional tick count and arena size in kilobytes
+   */
+  public static void main(String[] args) {
+    int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 15_000;
+    int arenaKilobytes = args.length > 1 ? Integer.parseInt(args[1]) : 16 * 1024;
+    RewindHistory history = new RewindHistory(ticks, 50, arenaKilobytes * 1024);
+    Map<Long, byte[]> samples = new HashMap<>();
+
+    GameModel game = new GameModel(SEED);
+    SimpleBot bot = new SimpleBot(SEED);
+    long updateNanos = 0;
+    long recordNanos = 0;
+    long recorded = 0;
+    for (int tick = 0; tick < ticks; tick++) {
+      if (game.isGameOver()) {
+        game.reset(SEED + tick);
+      }
+      long start = System.nanoTime();
+      game.applyAction(bot.nextAction(game, tick));
+      game.update();
+      long updated = System.nanoTime();
+      long recordedTick = history.record(game);
+      recordNanos += System.nanoTime() - updated;
+      updateNanos += updated - start;
+      recorded++;
+      if (recordedTick % SAMPLE_INTERVAL == 0) {
+        samples.put(recordedTick, encode(game));
+      }
+    }
+    System.out.printf("update()  %8.2f us/tick%n", updateNanos / 1e3 / recorded);
+    System.out.printf("record()  %8.2f us/tick (%.1f%% of update, %.3f%% of a %d ms frame)%n",
+        recordNanos / 1e3 / recorded, 100.0 * recordNanos / updateNanos,
+        100.0 * recordNanos / recorded / (FRAME_MILLIS * 1e6), FRAME_MILLIS);
+    long kept = history.getNewestTick() - history.getOldestTick() + 1;
+    System.out.printf("History   %d ticks kept, %d KB, %.0f bytes/tick%n",
+        kept, history.getBytesUsed() / 1024, (double) history.getBytesUsed() / kept);
+
+    GameModel scratch = new GameModel(SEED);
+    int checked = 0;
+    for (Map.Entry<Long, byte[]> sample : samples.entrySet()) {
+      if (history.restore(sample.getKey(), scratch)) {
+        if (!Arrays.equals(sample.getValue(), encode(scratch))) {
+          throw new IllegalStateException("Tick " + sample.getKey() + " restored incorrectly");
+        }
+        checked++;
+      }
+    }
+    System.out.println("Verified  " + checked + " sampled ticks");
+
+    long oldest = history.getOldestTick();
+    int restores = 2000;
+    long checksum = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < restores; i++) {
+      history.restore(oldest + (i * 7919L) % kept, scratch);
+      checksum += scratch.getScore();
+    }
+    System.out.printf("restore() %8.2f us (checksum %d)%n",
+        (System.nanoTime() - start) / 1e3 / restores, checksum);
+  }
+
+  private static byte[] encode(GameModel game) {
+    ByteBuffer buffer = ByteBuffer.allocate(SnapshotCodec.maxSize(game));
+    SnapshotCodec.encode(game, buffer);
+    return Arrays.copyOf(buffer.array(), buffer.position());
+  }
+}
@@ -0,0 +1,101 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.net.RollbackSession;
+import com.spaceshooter.sim.SimpleBot;
+
+/**
+ * Finds the deepest rollback that fits in one 16 ms frame.
+ * A rollback of depth N restores a saved state and then, for each of N ticks, saves the
+ * state again and simulates the tick with both players' inputs, which is exactly the
+ * work {@link RollbackSession} does after a misprediction. For growing depths the
+ * benchmark reports the average and worst time of a rollback and the bytes allocated
+ * per re-simulated tick, then the deepest rollback whose worst case stays within the
+ * frame budget. The two-player game is played by bots in between rollbacks so that
+ * each one starts from a different, realistic state.
+ *
+ * Usage: {@code RollbackBenchmark [trials]}
+ */
+public class RollbackBenchmark {
+  private static final long SEED = 5L;
+  private static final int SETUP_TICKS = 300;
+  private static final long FRAME_BUDGET_NANOS = 16_000_000L;
+  private static final int[] DEPTHS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024};
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional number of timed rollbacks per depth
+   */
+  public static void main(String[] args) {
+    int trials = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    GameModel game = new GameModel(SEED);
+    game.addPlayer();
+    SimpleBot botA = new SimpleBot(SEED, 2, true);
+    SimpleBot botB = new SimpleBot(SEED + 1, 3, true);
+    int[] tick = {0};
+    for (int i = 0; i < SETUP_TICKS; i++) {
+      step(game, botA, botB, tick);
+    }
+    System.out.printf("State: 2 players, %d enemies, %d missiles%n",
+        game.getEnemies().size(), game.getMissiles().size());
+
+    System.out.printf("%6s %12s %12s %14s%n", "depth", "average ms", "worst ms", "bytes/tick");
+    int deepestInBudget = 0;
+    boolean budgetExceeded = false;
+    for (int depth : DEPTHS) {
+      GameModel[] saved = new GameModel[depth + 1];
+      for (int i = 0; i < saved.length; i++) {
+        saved[i] = game.copy();
+        saved[i].setIncrementalHashing(false);
+      }
+      int rounds = Math.max(5, trials * 8 / depth);
+      long total = 0;
+      long worst = 0;
+      long allocated = 0;
+      for (int round = 0; round < rounds * 2; round++) { // The first half warms up the JIT
+        saved[0].copyFrom(game);
+        step(game, botA, botB, tick);
+
+        long bytesBefore = AllocationCounter.allocatedBytes();
+        long start = System.nanoTime();
+        game.copyFrom(saved[0]);
+        for (int i = 0; i < depth; i++) {
+          if (i > 0) {
+            saved[i].copyFrom(game);
+          }
+          step(game, botA, botB, tick);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = AllocationCounter.allocatedBytes() - bytesBefore;
+        if (round >= rounds) {
+          total += elapsed;
+          worst = Math.max(worst, elapsed);
+          allocated += bytes;
+        }
+      }
+      System.out.printf("%6d %12.3f %12.3f %14.1f%n", depth, total / 1e6 / rounds, worst / 1e6,
+          (double) allocated / rounds / depth);
+      if (worst <= FRAME_BUDGET_NANOS) {
+        deepestInBudget = depth;
+      } else {
+        budgetExceeded = true;
+        break;
+      }
+    }
+    System.out.printf("Deepest rollback whose worst case fits in %d ms: %s%d ticks "
+            + "(sessions default to %d)%n",
+        FRAME_BUDGET_NANOS / 1_000_000, budgetExceeded ? "" : "at least ", deepestInBudget,
+        RollbackSession.DEFAULT_MAX_ROLLBACK);
+  }
+
+  private static void step(GameModel game, SimpleBot botA, SimpleBot botB, int[] tick) {
+    game.applyAction(0, botA.nextAction(game, tick[0]));
+    game.applyAction(1, botB.nextAction(game, tick[0]));
+    game.update();
+    if (game.isGameOver()) {
+      game.reset(SEED + tick[0]);
+    }
+    tick[0]++;
+  }
+}
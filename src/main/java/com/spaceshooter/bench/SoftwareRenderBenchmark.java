@@ -0,0 +1,170 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.BulletPattern;
+import com.spaceshooter.model.BulletWave;
+import com.spaceshooter.model.DifficultySettings;
+import com.spaceshooter.model.GameEventRing;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.PlayerAction;
+import com.spaceshooter.view.GameRenderer;
+import com.spaceshooter.view.ParticleSystem;
+import com.spaceshooter.view.SoftwareRenderer;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares drawing a frame through Java2D with the software rasterizer.
+ * Two scenes are drawn into an image the size of the game panel: an ordinary game in
+ * debug mode, with the bullet curtain firing into a full formation and the explosions
+ * it sets off, and a bullet-hell stress wave with tens of thousands of bullets on
+ * screen. Each scene is drawn by {@link GameRenderer} through Java2D, by
+ * {@link SoftwareRenderer} on the calling thread, and by a software renderer banded
+ * across a pool. All three are warmed up before any is timed, then timed in turns over
+ * a few rounds, and the benchmark reports the best round's average time per frame of
+ * each. It also checks that the software frames match the Java2D frame: shapes and
+ * text exactly, and blended particles to within one level per channel.
+ *
+ * Usage: {@code SoftwareRenderBenchmark [threads]}
+ */
+public class SoftwareRenderBenchmark {
+  private static final long SEED = 23L;
+  private static final int WIDTH = 600;
+  private static final int HEIGHT = 700;
+  private static final int WARMUP_FRAMES = 600;
+  private static final int MEASURED_FRAMES = 200;
+  private static final int ROUNDS = 5;
+  private static final int ENEMIES = 40;
+
+  /**
+   * Runs the benchmark and prints one block per scene.
+   *
+   * @param args optional number of threads for the banded renderer
+   */
+  public static void main(String[] args) {
+    System.setProperty("java.awt.headless", "true");
+    int threads = args.length > 0 ? Integer.parseInt(args[0])
+        : Runtime.getRuntime().availableProcessors();
+    ForkJoinPool pool = new ForkJoinPool(threads);
+
+    ParticleSystem particles = new ParticleSystem();
+    run("Game", battle(particles), particles, pool);
+    run("Bullets", bulletHell(), null, pool);
+    pool.shutdown();
+  }
+
+  /**
+   * Plays a game with the curtain firing into a formation kept full, feeding the
+   * explosions into the particles.
+   */
+  private static GameModel battle(ParticleSystem particles) {
+    GameModel model = new GameModel(SEED);
+    model.toggleGodMode();
+    model.toggleDebugMode();
+    model.applyAction(PlayerAction.SELECT_CURTAIN);
+    GameEventRing.Consumer events = model.getEvents().addConsumer();
+    Random scenario = new Random(SEED);
+    for (int tick = 0; tick < 200; tick++) {
+      while (model.getEnemies().size() < ENEMIES) {
+        model.spawnEnemy(scenario.nextInt(570), 50 + scenario.nextInt(250));
+      }
+      model.fireMissile();
+      model.update();
+      events.drain(particles);
+      particles.update();
+    }
+    return model;
+  }
+
+  /**
+   * Fills the field with the bullets of overlapping spirals and sweeping fans.
+   */
+  private static GameModel bulletHell() {
+    BulletWave wave = new BulletWave(120);
+    wave.addCue(0, BulletPattern.spiral(36, 0.75, 7, 120, 1));
+    wave.addCue(0, BulletPattern.spiral(30, 1.0, -11, 120, 1));
+    for (int tick = 0; tick < 120; tick += 30) {
+      wave.addCue(tick, BulletPattern.fan(48, 150, 1.25, 4, 15, 2));
+    }
+    DifficultySettings settings = new DifficultySettings();
+    settings.setBulletWave(wave);
+    settings.setBulletDamage(0);
+    settings.setEnemyMoveInterval(Integer.MAX_VALUE);
+    GameModel model = new GameModel(SEED, settings);
+    model.toggleGodMode();
+    for (int tick = 0; tick < 600; tick++) {
+      model.update();
+    }
+    return model;
+  }
+
+  private static void run(String scene, GameModel model, ParticleSystem particles,
+      ForkJoinPool pool) {
+    BufferedImage java2d = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    BufferedImage sequential = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    BufferedImage banded = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = java2d.createGraphics();
+    GameRenderer[] renderers = {new GameRenderer(), new SoftwareRenderer(),
+        new SoftwareRenderer(pool)};
+    BufferedImage[] images = {java2d, sequential, banded};
+    for (int r = 0; r < renderers.length; r++) {
+      draw(renderers[r], images[r], g, model, particles, WARMUP_FRAMES);
+    }
+    long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+    for (int round = 0; round < ROUNDS; round++) {
+      for (int r = 0; r < renderers.length; r++) {
+        best[r] = Math.min(best[r],
+            draw(renderers[r], images[r], g, model, particles, MEASURED_FRAMES));
+      }
+    }
+    long java2dNanos = best[0];
+    long sequentialNanos = best[1];
+    long bandedNanos = best[2];
+    g.dispose();
+
+    System.out.printf("%s: %d enemies, %d missiles, %d bullets, %d particles%n", scene,
+        model.getEnemies().size(), model.getMissiles().size(),
+        model.getEnemyBullets().getCount(), particles == null ? 0 : particles.getLiveCount());
+    System.out.printf("  Java2D      %7.3f ms per frame%n", java2dNanos / 1e6 / MEASURED_FRAMES);
+    System.out.printf("  Software    %7.3f ms per frame, %s%n",
+        sequentialNanos / 1e6 / MEASURED_FRAMES, compare(java2d, sequential));
+    System.out.printf("  Banded x%-3d %7.3f ms per frame, %s%n", pool.getParallelism(),
+        bandedNanos / 1e6 / MEASURED_FRAMES, compare(java2d, banded));
+  }
+
+  private static long draw(GameRenderer renderer, BufferedImage image, Graphics2D g,
+      GameModel model, ParticleSystem particles, int frames) {
+    long start = System.nanoTime();
+    for (int i = 0; i < frames; i++) {
+      renderer.render(image, g, model, particles);
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Describes how a software frame differs from the Java2D frame.
+   */
+  private static String compare(BufferedImage expected, BufferedImage actual) {
+    int[] a = ((DataBufferInt) expected.getRaster().getDataBuffer()).getData();
+    int[] b = ((DataBufferInt) actual.getRaster().getDataBuffer()).getData();
+    int differing = 0;
+    int largest = 0;
+    for (int i = 0; i < a.length; i++) {
+      if ((a[i] & 0xFFFFFF) == (b[i] & 0xFFFFFF)) {
+        continue;
+      }
+      differing++;
+      for (int shift = 0; shift < 24; shift += 8) {
+        largest = Math.max(largest, Math.abs((a[i] >> shift & 255) - (b[i] >> shift & 255)));
+      }
+    }
+    if (differing == 0) {
+      return "identical to Java2D";
+    }
+    return String.format("%s: %d pixels differ by up to %d", largest <= 1 ? "matches" : "DIFFERS",
+        differing, largest);
+  }
+}
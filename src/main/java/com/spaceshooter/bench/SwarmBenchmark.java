@@ -0,0 +1,80 @@
+package com.spaceshooter.bench;
+
+import com.spaceshooter.model.DifficultySettings;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.strategy.SwarmMissileStrategy;
+
+import java.util.Random;
+
+/**
+ * Measures tick time against the number of swarm missiles in flight.
+ * For each swarm size the player keeps launching swarms until that many swarm missiles
+ * are live, while the field is kept topped up with stationary enemies for them to chase.
+ * Every tick therefore steers the whole swarm on the neighbour grid, moves it and
+ * checks it for collisions. The benchmark reports the average and worst tick time and
+ * whether the worst tick still fits in a 60 Hz frame.
+ *
+ * Usage: {@code SwarmBenchmark [maxMissiles] [enemies]}
+ */
+public class SwarmBenchmark {
+  private static final long SEED = 9L;
+  private static final int WARMUP_TICKS = 200;
+  private static final int MEASURED_TICKS = 300;
+  private static final int LAUNCH_SIZE = 100;
+  private static final double FRAME_MILLIS = 1000.0 / 60;
+
+  /**
+   * Runs the benchmark and prints one line per swarm size.
+   *
+   * @param args optional largest swarm size and enemy count
+   */
+  public static void main(String[] args) {
+    int maxMissiles = args.length > 0 ? Integer.parseInt(args[0]) : 8_000;
+    int enemyCount = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+
+    System.out.printf("%8s %10s %12s %12s %14s %s%n", "missiles", "live avg", "ms/tick",
+        "worst ms", "us/missile", "60 Hz");
+    for (int size = 250; size <= maxMissiles; size *= 2) {
+      run(size, enemyCount);
+    }
+  }
+
+  private static void run(int size, int enemyCount) {
+    DifficultySettings settings = new DifficultySettings();
+    settings.setSwarmMissileLimit(size);
+    settings.setEnemyMoveInterval(Integer.MAX_VALUE); // Keep the targets where they are
+    GameModel model = new GameModel(SEED, settings);
+    model.toggleGodMode(); // Enemy fire only scratches the player
+    model.setMissileStrategy(new SwarmMissileStrategy(model, Math.min(LAUNCH_SIZE, size)));
+    Random scenario = new Random(SEED);
+
+    for (int tick = 0; tick < WARMUP_TICKS; tick++) {
+      step(model, scenario, enemyCount);
+    }
+    long total = 0;
+    long worst = 0;
+    long live = 0;
+    for (int tick = 0; tick < MEASURED_TICKS; tick++) {
+      long start = System.nanoTime();
+      step(model, scenario, enemyCount);
+      long elapsed = System.nanoTime() - start;
+      total += elapsed;
+      worst = Math.max(worst, elapsed);
+      live += model.getSwarmMissilesLive();
+    }
+
+    double average = total / 1e6 / MEASURED_TICKS;
+    double liveAverage = (double) live / MEASURED_TICKS;
+    System.out.printf("%8d %10.0f %12.3f %12.3f %14.3f %s%n", size, liveAverage, average,
+        worst / 1e6, average * 1000 / Math.max(1, liveAverage),
+        worst / 1e6 <= FRAME_MILLIS ? "yes" : "no");
+  }
+
+  private static void step(GameModel model, Random scenario, int enemyCount) {
+    while (model.getEnemies().size() < enemyCount) {
+      model.spawnEnemy(scenario.nextInt(570), 50 + scenario.nextInt(250));
+    }
+    model.fireMissile();
+    model.update();
+  }
+}
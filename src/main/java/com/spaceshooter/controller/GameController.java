@@ -1,18 +1,26 @@
 package com.spaceshooter.controller;
 
+import com.spaceshooter.model.GameEventRing;
 import com.spaceshooter.model.GameModel;
-import com.spaceshooter.model.Player;
-import com.spaceshooter.strategy.BasicMissileStrategy;
-import com.spaceshooter.strategy.DoubleMissileStrategy;
-import com.spaceshooter.strategy.TargetingMissileStrategy;
-import com.spaceshooter.adapter.LaserMissileAdapter;
-import com.spaceshooter.adapter.LaserWeapon;
+import com.spaceshooter.model.PlayerAction;
+import com.spaceshooter.model.RewindHistory;
+import com.spaceshooter.persistence.CheckpointWriter;
+import com.spaceshooter.persistence.Leaderboard;
+import com.spaceshooter.view.FrameRecorder;
 import com.spaceshooter.view.GameView;
 
+import javax.swing.AbstractButton;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import javax.swing.Timer;
 
 /**
@@ -20,15 +28,36 @@ import javax.swing.Timer;
  * This class manages the game model, view, and user interactions.
  * It handles:
  * - Game timing and updates
- * - Keyboard input for player movement and weapon selection
+ * - Keyboard and button input for player movement and weapon selection, collected in
+ *   a {@link HeldInput} and applied once per tick
  * - Strategy selection through both keyboard and UI buttons
  * - Game state management (start, restart, game over)
+ * - Checkpoints: an autosave every few seconds, quick save (F5) and quick load (F9)
+ * - Rewind: in debug mode every tick is recorded and can be scrubbed back to any of
+ *   the last five minutes with Backspace and the arrow keys, then played on from there
+ * - Input latency: in debug mode the time from an input to the frame showing it
+ * - Leaderboard: every finished game is stored, and its rank shown with the score
+ * - Recording (F10): every tick is drawn offscreen and written as an image sequence
  */
 public class GameController {
   private static final int DELAY = 20;
+  private static final int AUTOSAVE_INTERVAL = 250; // Ticks between autosaves (5 seconds)
+  private static final Path CHECKPOINT_PATH = Paths.get("space-shooter-checkpoint");
+  private static final Path LEADERBOARD_PATH = Paths.get("space-shooter-leaderboard");
+  private static final String RECORDING_PREFIX = "space-shooter-recording-";
   private GameModel model;
   private GameView view;
   private Timer gameTimer;
+  private final CheckpointWriter checkpoints;
+  private final Leaderboard leaderboard;
+  private FrameRecorder recorder;
+  private int ticksSinceCheckpoint;
+  private final RewindHistory history = new RewindHistory();
+  private boolean rewinding;
+  private long rewindTick;
+  private final HeldInput input = new HeldInput();
+  private final InputLatencyMeter latency = new InputLatencyMeter();
+  private final GameEventRing.Consumer particleEvents;
 
   /**
    * Constructs a new GameController with the specified model and view.
@@ -42,7 +71,61 @@ public class GameController {
     this.view = view;
     this.view.addKeyListener(new KeyHandler());
     this.view.setStrategyButtonListeners(new StrategyButtonListener());
+    this.view.setMovementButtonListener(new MovementButtonListener());
+    this.view.addWindowFocusListener(new WindowAdapter() {
+      @Override
+      public void windowLostFocus(WindowEvent e) {
+        // Keys let go while another window has focus would otherwise stay held
+        input.releaseAll();
+      }
+    });
+    this.particleEvents = model.getEvents().addConsumer();
     this.gameTimer = new Timer(DELAY, new GameTimerListener());
+    this.checkpoints = new CheckpointWriter(CHECKPOINT_PATH);
+    this.leaderboard = openLeaderboard();
+  }
+
+  /**
+   * Opens the leaderboard, closing it again when the program exits so the next start
+   * can use its index as it is.
+   *
+   * @return the leaderboard, or null if it cannot be opened
+   */
+  private static Leaderboard openLeaderboard() {
+    try {
+      Leaderboard board = new Leaderboard(LEADERBOARD_PATH);
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try {
+          board.close();
+        } catch (IOException e) {
+          System.err.println("Could not save leaderboard index: " + e.getMessage());
+        }
+      }));
+      return board;
+    } catch (IOException e) {
+      System.err.println("Could not open leaderboard: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Stores the result of the finished game on the leaderboard.
+   *
+   * @return where the score places, or null if it could not be stored
+   */
+  private String submitScore() {
+    if (leaderboard == null) {
+      return null;
+    }
+    try {
+      int score = model.getScore();
+      leaderboard.submit(score, (int) model.getTick(), model.getPlayers().size());
+      return String.format("Rank %d of %d, better than %.1f%% of games",
+          leaderboard.rank(score), leaderboard.size(), leaderboard.percentileOf(score));
+    } catch (IOException e) {
+      System.err.println("Could not submit score: " + e.getMessage());
+      return null;
+    }
   }
 
   /**
@@ -57,74 +140,283 @@ public class GameController {
   }
 
   /**
-   * Restarts the game by creating a new game model and resetting the view.
-   * The game timer is restarted to begin the new game.
+   * Restarts the game by resetting the current model in place with a new seed.
+   * The view and the strategies keep referring to the same model, so nothing has
+   * to be rebuilt. The game timer is restarted to begin the new game.
    */
   private void restartGame() {
-    model = new GameModel();
-    view.setModel(model);
+    model.reset(System.nanoTime());
+    view.getParticles().clear();
+    input.releaseAll();
+    ticksSinceCheckpoint = 0;
+    stopRewinding();
+    history.clear();
+    view.repaint();
     gameTimer.start();
   }
 
+  /**
+   * Restores the most recent checkpoint into the current model and resumes play.
+   */
+  private void loadCheckpoint() {
+    try {
+      if (CheckpointWriter.restore(CHECKPOINT_PATH, model)) {
+        view.getParticles().clear();
+        input.releaseAll();
+        ticksSinceCheckpoint = 0;
+        stopRewinding();
+        history.clear();
+        view.repaint();
+        if (!model.isGameOver()) {
+          gameTimer.start();
+        }
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      System.err.println("Could not load checkpoint: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Starts recording every tick to a new directory of images, or stops the recording
+   * in progress. A recording drops frames rather than slow the game down.
+   */
+  private void toggleRecording() {
+    try {
+      if (recorder == null) {
+        Path directory = Paths.get(RECORDING_PREFIX + System.currentTimeMillis());
+        recorder = new FrameRecorder(directory, view.getRenderer(), view.getGameWidth(),
+            view.getGameHeight(), FrameRecorder.DEFAULT_POOL_SIZE, true);
+      } else {
+        FrameRecorder finished = recorder;
+        recorder = null;
+        finished.close();
+      }
+    } catch (IOException e) {
+      System.err.println("Could not record: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Pauses the game and places the rewind cursor on the newest recorded tick.
+   */
+  private void startRewinding() {
+    if (history.getNewestTick() < 0) {
+      return;
+    }
+    gameTimer.stop();
+    input.releaseAll();
+    latency.cancel();
+    view.getParticles().clear();
+    rewinding = true;
+    rewindTick = history.getNewestTick();
+    showRewindStatus();
+  }
+
+  /**
+   * Moves the rewind cursor and shows the game as it was at that tick.
+   *
+   * @param ticks the number of ticks to move, negative to go back in time
+   */
+  private void scrub(long ticks) {
+    long target = Math.max(history.getOldestTick(),
+        Math.min(history.getNewestTick(), rewindTick + ticks));
+    if (history.restore(target, model)) {
+      rewindTick = target;
+    }
+    showRewindStatus();
+  }
+
+  /**
+   * Resumes play from the tick under the rewind cursor, discarding the ticks after it.
+   */
+  private void resumeFromRewind() {
+    history.resumeFrom(rewindTick, model);
+    stopRewinding();
+    if (!model.isGameOver()) {
+      gameTimer.start();
+    }
+  }
+
+  private void stopRewinding() {
+    rewinding = false;
+    view.setDebugStatus(null);
+    view.repaint();
+  }
+
+  private void showRewindStatus() {
+    long behind = history.getNewestTick() - rewindTick;
+    view.setDebugStatus(String.format("REWIND tick %d (-%.2f s)  <-/-> step, Shift x50,"
+        + " PgUp/PgDn x500, Backspace resume", rewindTick, behind * DELAY / 1000.0));
+    view.repaint();
+  }
+
+  private void showLatencyStatus() {
+    if (latency.hasMeasurements()) {
+      view.setLatencyStatus(String.format("Input latency: %.1f ms (average %.1f, worst %.1f"
+              + " of last %d)", latency.getLastMillis(), latency.getAverageMillis(),
+          latency.getWorstMillis(), InputLatencyMeter.WINDOW));
+    }
+  }
+
+  private void showHistoryStatus() {
+    long ticks = history.getNewestTick() - history.getOldestTick() + 1;
+    view.setDebugStatus(String.format("History: %.1f s, %d KB (Backspace to rewind)",
+        ticks * DELAY / 1000.0, history.getBytesUsed() / 1024));
+  }
+
+  /**
+   * Handles keyboard input while the game is paused for rewinding.
+   *
+   * @param e the key event
+   */
+  private void rewindKeyPressed(KeyEvent e) {
+    long step = e.isShiftDown() ? 50 : 1;
+    switch (e.getKeyCode()) {
+      case KeyEvent.VK_LEFT:
+        scrub(-step);
+        break;
+      case KeyEvent.VK_RIGHT:
+        scrub(step);
+        break;
+      case KeyEvent.VK_PAGE_UP:
+        scrub(-500);
+        break;
+      case KeyEvent.VK_PAGE_DOWN:
+        scrub(500);
+        break;
+      case KeyEvent.VK_BACK_SPACE:
+        resumeFromRewind();
+        break;
+    }
+  }
+
   /**
    * Handles keyboard input for the game.
    * Controls include:
    * - Arrow keys for player movement
-   * - Space for firing missiles
-   * - X, C, V, B for selecting different weapon strategies
+   * - Space for firing missiles, repeating at a fixed rate while held
+   * - Z, X, C, V, B, N, M, S for selecting different weapon strategies
    * - G for toggling god mode
    * - ESC for toggling debug mode
+   * - F5 for saving a checkpoint, F9 for loading the latest one
+   * - F10 for starting and stopping a recording
+   * - Backspace in debug mode for rewinding, with the arrow keys then scrubbing
    */
   private class KeyHandler extends KeyAdapter {
     @Override
     public void keyPressed(KeyEvent e) {
-      Player player = model.getPlayer();
+      if (rewinding) {
+        rewindKeyPressed(e);
+        return;
+      }
+      int flags = actionFlags(e.getKeyCode());
+      if (flags != PlayerAction.NONE) {
+        input.press(flags, System.nanoTime());
+        return;
+      }
       switch (e.getKeyCode()) {
-        case KeyEvent.VK_LEFT:
-          player.moveLeft();
+        case KeyEvent.VK_G:
+          model.toggleGodMode();
           break;
-        case KeyEvent.VK_RIGHT:
-          player.moveRight();
+        case KeyEvent.VK_ESCAPE:
+          model.toggleDebugMode();
+          if (!model.isDebugMode()) {
+            history.clear();
+            view.setDebugStatus(null);
+          }
           break;
-        case KeyEvent.VK_SPACE:
-          model.fireMissile();
+        case KeyEvent.VK_BACK_SPACE:
+          if (model.isDebugMode()) {
+            startRewinding();
+          }
           break;
-        case KeyEvent.VK_X:
-          model.setMissileStrategy(new BasicMissileStrategy());
+        case KeyEvent.VK_F5:
+          checkpoints.checkpoint(model);
           break;
-        case KeyEvent.VK_C:
-          model.setMissileStrategy(new DoubleMissileStrategy(model));
+        case KeyEvent.VK_F9:
+          loadCheckpoint();
           break;
-        case KeyEvent.VK_V:
-          model.setMissileStrategy(new TargetingMissileStrategy(model.getEnemies()));
+        case KeyEvent.VK_F10:
+          toggleRecording();
           break;
+      }
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+      int flags = actionFlags(e.getKeyCode());
+      if (flags != PlayerAction.NONE) {
+        input.release(flags, System.nanoTime());
+      }
+    }
+
+    private int actionFlags(int keyCode) {
+      switch (keyCode) {
+        case KeyEvent.VK_LEFT:
+          return PlayerAction.LEFT;
+        case KeyEvent.VK_RIGHT:
+          return PlayerAction.RIGHT;
+        case KeyEvent.VK_SPACE:
+          return PlayerAction.FIRE;
+        case KeyEvent.VK_X:
+          return PlayerAction.SELECT_BASIC;
+        case KeyEvent.VK_C:
+          return PlayerAction.SELECT_DOUBLE;
+        case KeyEvent.VK_V:
+          return PlayerAction.SELECT_TARGETING;
         case KeyEvent.VK_B:
-          model.setMissileStrategy(new LaserMissileAdapter());
-          break;
-        case KeyEvent.VK_G:
-          model.toggleGodMode();
-          break;
-        case KeyEvent.VK_ESCAPE:
-          model.toggleDebugMode();
-          break;
+          return PlayerAction.SELECT_LASER;
+        case KeyEvent.VK_N:
+          return PlayerAction.SELECT_SPREAD;
+        case KeyEvent.VK_M:
+          return PlayerAction.SELECT_CURTAIN;
+        case KeyEvent.VK_Z:
+          return PlayerAction.SELECT_HITSCAN;
+        case KeyEvent.VK_S:
+          return PlayerAction.SELECT_SWARM;
+        default:
+          return PlayerAction.NONE;
       }
     }
   }
 
   /**
    * Handles the game timer events.
-   * Updates the game model and view on each tick.
+   * Samples the held input, applies it and updates the game model, its particle effects
+   * and the view on each tick.
+   * Saves an autosave checkpoint every few seconds.
+   * Records the tick into the rewind history while debug mode is on.
    * Checks for game over condition and stops the timer if necessary.
    */
   private class GameTimerListener implements ActionListener {
     @Override
     public void actionPerformed(ActionEvent e) {
+      // The frame painted since the last tick shows the input that tick applied
+      latency.framePainted(view.getLastFrameNanos());
+      model.applyAction(input.sample());
+      latency.inputApplied(input.getSampledChangeNanos(), System.nanoTime());
       model.update();
+      particleEvents.drain(view.getParticles());
+      view.getParticles().update();
+      if (recorder != null) {
+        recorder.capture(model, view.getParticles());
+      }
+      if (model.isDebugMode()) {
+        history.record(model);
+        showHistoryStatus();
+        showLatencyStatus();
+      }
       view.repaint();
 
+      if (++ticksSinceCheckpoint >= AUTOSAVE_INTERVAL && !model.isGameOver()) {
+        ticksSinceCheckpoint = 0;
+        checkpoints.checkpoint(model);
+      }
+
       if (model.isGameOver()) {
         gameTimer.stop();
-        view.showGameOver(model.getScore());
+        latency.cancel();
+        view.showGameOver(model.getScore(), submitScore());
       }
     }
   }
@@ -136,23 +428,40 @@ public class GameController {
    * - Double missile strategy
    * - Targeting missile strategy
    * - Laser weapon strategy
+   * - Spread and bullet-curtain strategies
+   * - Hitscan laser strategy
+   * - Swarm missile strategy
+   * The selection is applied on the next tick, like the matching key.
    */
   private class StrategyButtonListener implements ActionListener {
     @Override
     public void actionPerformed(ActionEvent e) {
       String command = e.getActionCommand();
+      long now = System.nanoTime();
       switch (command) {
         case "basic":
-          model.setMissileStrategy(new BasicMissileStrategy());
+          input.tap(PlayerAction.SELECT_BASIC, now);
           break;
         case "double":
-          model.setMissileStrategy(new DoubleMissileStrategy(model));
+          input.tap(PlayerAction.SELECT_DOUBLE, now);
           break;
         case "targeting":
-          model.setMissileStrategy(new TargetingMissileStrategy(model.getEnemies()));
+          input.tap(PlayerAction.SELECT_TARGETING, now);
           break;
         case "laser":
-          model.setMissileStrategy(new LaserMissileAdapter());
+          input.tap(PlayerAction.SELECT_LASER, now);
+          break;
+        case "spread":
+          input.tap(PlayerAction.SELECT_SPREAD, now);
+          break;
+        case "curtain":
+          input.tap(PlayerAction.SELECT_CURTAIN, now);
+          break;
+        case "hitscan":
+          input.tap(PlayerAction.SELECT_HITSCAN, now);
+          break;
+        case "swarm":
+          input.tap(PlayerAction.SELECT_SWARM, now);
           break;
         case "restart":
           restartGame();
@@ -161,4 +470,26 @@ public class GameController {
       view.requestFocus();
     }
   }
+
+  /**
+   * Holds movement for as long as one of the on-screen movement buttons is pressed.
+   */
+  private class MovementButtonListener extends MouseAdapter {
+    @Override
+    public void mousePressed(MouseEvent e) {
+      input.press(movementFlag(e), System.nanoTime());
+      view.requestFocus();
+    }
+
+    @Override
+    public void mouseReleased(MouseEvent e) {
+      input.release(movementFlag(e), System.nanoTime());
+      view.requestFocus();
+    }
+
+    private int movementFlag(MouseEvent e) {
+      String command = ((AbstractButton) e.getSource()).getActionCommand();
+      return "left".equals(command) ? PlayerAction.LEFT : PlayerAction.RIGHT;
+    }
+  }
 }
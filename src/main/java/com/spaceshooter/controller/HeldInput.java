@@ -0,0 +1,133 @@
+package com.spaceshooter.controller;
+
+import com.spaceshooter.model.PlayerAction;
+
+/**
+ * The player's input as a set of {@link PlayerAction} flags, sampled once per tick.
+ * Keyboard and on-screen buttons both press and release flags here instead of acting
+ * on the model directly, so the game sees the same input however it was given and
+ * nothing depends on the operating system's key repeat: a press of something already
+ * held, which is what a repeat is, is ignored.
+ * - Movement flags count for every tick they are held.
+ * - Fire counts on the first tick after it is pressed and then every
+ *   {@link #FIRE_INTERVAL} ticks for as long as it is held.
+ * - Weapon selections count once per press.
+ * A press that is released again before the next tick still counts for that tick, so
+ * short taps are never lost.
+ *
+ * The time of the oldest change not yet sampled is kept, so that the controller can
+ * measure how long a change takes to reach the screen.
+ */
+public class HeldInput {
+  /** The number of ticks between shots while fire is held. */
+  public static final int FIRE_INTERVAL = 5;
+  private static final int HELD_FLAGS = PlayerAction.LEFT | PlayerAction.RIGHT
+      | PlayerAction.FIRE;
+  private int held;
+  private int heldWeapon;
+  private int pressedSinceSample;
+  private int ticksSinceShot;
+  private long pendingChangeNanos;
+  private long sampledChangeNanos;
+
+  /**
+   * Presses the given flags. Flags that are already held are ignored.
+   *
+   * @param flags the {@link PlayerAction} flags to press
+   * @param nanos the {@link System#nanoTime()} at which the input arrived
+   */
+  public void press(int flags, long nanos) {
+    int newlyHeld = flags & HELD_FLAGS & ~held;
+    int weapon = flags & PlayerAction.WEAPON_MASK;
+    if (weapon == heldWeapon) {
+      weapon = 0;
+    }
+    if (newlyHeld == 0 && weapon == 0) {
+      return;
+    }
+    noteChange(nanos);
+    if (weapon != 0) {
+      // Weapon selections share a field, so a later one replaces an earlier one
+      heldWeapon = weapon;
+      pressedSinceSample = (pressedSinceSample & ~PlayerAction.WEAPON_MASK) | weapon;
+    }
+    held |= newlyHeld;
+    pressedSinceSample |= newlyHeld;
+  }
+
+  /**
+   * Releases the given flags.
+   *
+   * @param flags the {@link PlayerAction} flags to release
+   * @param nanos the {@link System#nanoTime()} at which the input arrived
+   */
+  public void release(int flags, long nanos) {
+    if ((held & flags & (PlayerAction.LEFT | PlayerAction.RIGHT)) != 0) {
+      noteChange(nanos);
+    }
+    held &= ~(flags & HELD_FLAGS);
+    if ((flags & PlayerAction.WEAPON_MASK) == heldWeapon) {
+      heldWeapon = 0;
+    }
+  }
+
+  /**
+   * Presses and at once releases the given flags, for inputs such as buttons that
+   * act on a click and are never held.
+   *
+   * @param flags the {@link PlayerAction} flags to tap
+   * @param nanos the {@link System#nanoTime()} at which the input arrived
+   */
+  public void tap(int flags, long nanos) {
+    press(flags, nanos);
+    release(flags, nanos);
+  }
+
+  /**
+   * Releases every flag, for example when the window loses focus and would not see
+   * the keys being let go.
+   */
+  public void releaseAll() {
+    held = 0;
+    heldWeapon = 0;
+    pressedSinceSample = 0;
+    pendingChangeNanos = 0;
+  }
+
+  private void noteChange(long nanos) {
+    if (pendingChangeNanos == 0) {
+      pendingChangeNanos = nanos;
+    }
+  }
+
+  /**
+   * Returns the input for the next tick and starts collecting presses for the one after.
+   *
+   * @return the combined {@link PlayerAction} flags
+   */
+  public int sample() {
+    int action = (held | pressedSinceSample) & (PlayerAction.LEFT | PlayerAction.RIGHT);
+    action |= pressedSinceSample & PlayerAction.WEAPON_MASK;
+    if ((pressedSinceSample & PlayerAction.FIRE) != 0) {
+      action |= PlayerAction.FIRE;
+      ticksSinceShot = 0;
+    } else if ((held & PlayerAction.FIRE) != 0 && ++ticksSinceShot >= FIRE_INTERVAL) {
+      action |= PlayerAction.FIRE;
+      ticksSinceShot = 0;
+    }
+    pressedSinceSample = 0;
+    sampledChangeNanos = pendingChangeNanos;
+    pendingChangeNanos = 0;
+    return action;
+  }
+
+  /**
+   * Returns when the oldest change in the last sample arrived.
+   *
+   * @return the {@link System#nanoTime()} of the change, or 0 if the last sample
+   *     held no new input
+   */
+  public long getSampledChangeNanos() {
+    return sampledChangeNanos;
+  }
+}
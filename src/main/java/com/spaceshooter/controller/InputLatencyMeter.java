@@ -0,0 +1,100 @@
+package com.spaceshooter.controller;
+
+/**
+ * Measures input-to-display latency: the time from an input event arriving until the
+ * first frame painted after the tick that applied it.
+ * Only one change is followed at a time; changes made while one is still on its way to
+ * the screen are not measured. The average and worst case cover the most recent
+ * {@link #WINDOW} measurements.
+ */
+public class InputLatencyMeter {
+  /** The number of recent measurements the average and worst case cover. */
+  public static final int WINDOW = 32;
+  private final long[] recent = new long[WINDOW];
+  private int count;
+  private long inputNanos;
+  private long appliedNanos;
+  private long last;
+
+  /**
+   * Starts following an input change that was just applied to the game.
+   * Does nothing if a change is already being followed.
+   *
+   * @param inputNanos when the change arrived, as {@link System#nanoTime()}
+   * @param appliedNanos when the tick that applied it ran
+   */
+  public void inputApplied(long inputNanos, long appliedNanos) {
+    if (this.inputNanos == 0 && inputNanos != 0) {
+      this.inputNanos = inputNanos;
+      this.appliedNanos = appliedNanos;
+    }
+  }
+
+  /**
+   * Completes the measurement if the given frame was painted after the change was
+   * applied.
+   *
+   * @param frameNanos when the most recent frame finished painting
+   */
+  public void framePainted(long frameNanos) {
+    if (inputNanos == 0 || frameNanos - appliedNanos < 0) {
+      return;
+    }
+    last = frameNanos - inputNanos;
+    recent[count++ % WINDOW] = last;
+    inputNanos = 0;
+  }
+
+  /**
+   * Forgets the change being followed, for example when the game is paused.
+   */
+  public void cancel() {
+    inputNanos = 0;
+  }
+
+  /**
+   * Returns whether any latency has been measured.
+   *
+   * @return true once the first measurement completed
+   */
+  public boolean hasMeasurements() {
+    return count > 0;
+  }
+
+  /**
+   * Returns the latest measurement.
+   *
+   * @return the latency in milliseconds
+   */
+  public double getLastMillis() {
+    return last / 1e6;
+  }
+
+  /**
+   * Returns the average of the recent measurements.
+   *
+   * @return the latency in milliseconds
+   */
+  public double getAverageMillis() {
+    int n = Math.min(count, WINDOW);
+    long sum = 0;
+    for (int i = 0; i < n; i++) {
+      sum += recent[i];
+    }
+    return n == 0 ? 0 : sum / 1e6 / n;
+  }
+
+  /**
+   * Returns the worst of the recent measurements.
+   *
+   * @return the latency in milliseconds
+   */
+  public double getWorstMillis() {
+    int n = Math.min(count, WINDOW);
+    long worst = 0;
+    for (int i = 0; i < n; i++) {
+      worst = Math.max(worst, recent[i]);
+    }
+    return worst / 1e6;
+  }
+}
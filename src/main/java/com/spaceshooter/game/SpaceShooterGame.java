@@ -2,7 +2,12 @@ package com.spaceshooter.game;
 
 import com.spaceshooter.controller.GameController;
 import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.SpriteMasks;
 import com.spaceshooter.view.GameView;
+import com.spaceshooter.view.SoftwareRenderer;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The main entry point for the Space Shooter game.
@@ -13,12 +18,22 @@ public class SpaceShooterGame {
     /**
      * The main method that starts the Space Shooter game.
      * It creates the game model, view, and controller, then starts the game.
+     * With {@code --software} the game is drawn by the software rasterizer, in bands
+     * on the common ForkJoinPool, instead of through Java2D. With {@code --masks} hits
+     * are pixel accurate against {@link SpriteMasks#rounded() rounded} ships and
+     * missiles instead of their bounding boxes.
      *
-     * @param args command line arguments (not used)
+     * @param args command line arguments: optionally {@code --software} and {@code --masks}
      */
     public static void main(String[] args) {
+        boolean software = Arrays.asList(args).contains("--software");
         GameModel model = new GameModel();
-        GameView view = new GameView();
+        if (Arrays.asList(args).contains("--masks")) {
+            model.setSpriteMasks(SpriteMasks.rounded());
+        }
+        GameView view = software
+            ? new GameView(new SoftwareRenderer(ForkJoinPool.commonPool()))
+            : new GameView();
         GameController controller = new GameController(model, view);
         controller.startGame();
     }
@@ -0,0 +1,87 @@
+package com.spaceshooter.ipc;
+
+import com.spaceshooter.model.GameModel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a headless game driven by an external agent through a {@link SharedMemoryBridge}.
+ * The game advances one tick for every action the agent queues and publishes the
+ * resulting state after each tick, so the agent controls the pace and the game runs
+ * as fast as the agent can act. The {@link SharedMemoryBridge#RESET} flag starts a new
+ * game with the next seed and {@link SharedMemoryBridge#SHUTDOWN} stops the runner.
+ *
+ * Usage: {@code HeadlessBridgeRunner [file] [seed]}
+ */
+public class HeadlessBridgeRunner {
+  private static final int ACTION_CAPACITY = 1024;
+  private static final int SPINS_BEFORE_PARKING = 10_000;
+  private final SharedMemoryBridge bridge;
+  private final GameModel model;
+  private long seed;
+  private long tick;
+
+  /**
+   * Constructs a runner for the given bridge.
+   *
+   * @param bridge the bridge to read actions from and publish state to
+   * @param seed the seed of the first game
+   */
+  public HeadlessBridgeRunner(SharedMemoryBridge bridge, long seed) {
+    this.bridge = bridge;
+    this.seed = seed;
+    this.model = new GameModel(seed);
+  }
+
+  /**
+   * Runs until the agent sends {@link SharedMemoryBridge#SHUTDOWN}.
+   */
+  public void run() {
+    bridge.publishState(model, tick);
+    int idleSpins = 0;
+    while (true) {
+      int action = bridge.pollAction();
+      if (action == SharedMemoryBridge.NO_ACTION) {
+        // Spin briefly for low latency, then back off so an idle agent costs no CPU
+        if (++idleSpins < SPINS_BEFORE_PARKING) {
+          Thread.onSpinWait();
+        } else {
+          LockSupport.parkNanos(50_000);
+        }
+        continue;
+      }
+      idleSpins = 0;
+
+      if ((action & SharedMemoryBridge.SHUTDOWN) != 0) {
+        return;
+      }
+      if ((action & SharedMemoryBridge.RESET) != 0) {
+        model.reset(++seed);
+        tick = 0;
+      } else {
+        model.applyAction(action);
+        model.update();
+        tick++;
+      }
+      bridge.publishState(model, tick);
+    }
+  }
+
+  /**
+   * Creates the bridge file and serves it until shut down.
+   *
+   * @param args optional bridge file path and seed
+   * @throws IOException if the bridge file cannot be created
+   */
+  public static void main(String[] args) throws IOException {
+    Path path = Paths.get(args.length > 0 ? args[0] : "space-shooter.bridge");
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+    try (SharedMemoryBridge bridge = SharedMemoryBridge.create(path, ACTION_CAPACITY)) {
+      System.out.println("Serving " + path.toAbsolutePath());
+      new HeadlessBridgeRunner(bridge, seed).run();
+    }
+  }
+}
@@ -0,0 +1,306 @@
+package com.spaceshooter.ipc;
+
+import com.spaceshooter.model.Enemy;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.Missile;
+import com.spaceshooter.model.Player;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A memory-mapped file that lets an out-of-process agent drive a headless game.
+ * The file holds two channels:
+ * - An action ring: a single-producer/single-consumer queue of int actions written by
+ *   the agent and consumed by the simulation, one action per tick.
+ * - A state block: the latest tick state, written by the simulation and protected by
+ *   a seqlock so the agent can read a consistent copy without locks.
+ * Both sides read and write the mapped memory directly, so there are no sockets,
+ * system calls or intermediate copies on the hot path.
+ *
+ * File layout (little-endian, offsets in bytes):
+ * <pre>
+ *   0  int   magic ("SSHM")          4  int  version
+ *   8  int   action ring capacity   12  int  state payload size
+ *  64  long  producer sequence (written by the agent)
+ * 128  long  consumer sequence (written by the simulation)
+ * 192  int[capacity] action slots, slot = sequence &amp; (capacity - 1)
+ *   S  long  state seqlock, odd while the simulation is writing
+ * S+8  state payload, see the STATE_* offsets
+ * </pre>
+ * where S is the end of the action slots rounded up to 64 bytes.
+ *
+ * A reader of the state copies the payload between two reads of the seqlock and
+ * retries if the sequence was odd or changed.
+ */
+public class SharedMemoryBridge implements Closeable {
+  /** The magic number at the start of the file. */
+  public static final int MAGIC = 0x5353484D;
+  /** The layout version. */
+  public static final int VERSION = 1;
+  /** Returned by {@link #pollAction()} when the ring is empty. */
+  public static final int NO_ACTION = -1;
+  /** Action flag asking the simulation to start a new game. */
+  public static final int RESET = 1 << 30;
+  /** Action flag asking the simulation to stop. */
+  public static final int SHUTDOWN = 1 << 29;
+  /** The maximum number of enemies written to the state block. */
+  public static final int MAX_ENEMIES = 64;
+  /** The maximum number of missiles written to the state block. */
+  public static final int MAX_MISSILES = 512;
+  /** Payload offset of the tick number (long). */
+  public static final int STATE_TICK = 0;
+  /** Payload offset of the score. */
+  public static final int STATE_SCORE = 8;
+  /** Payload offset of the flags: bit 0 game over, bit 1 wave cleared. */
+  public static final int STATE_FLAGS = 12;
+  /** Payload offset of the player x, y and health. */
+  public static final int STATE_PLAYER = 16;
+  /** Payload offset of the remaining targeting and laser missiles. */
+  public static final int STATE_WEAPONS = 28;
+  /** Payload offset of the enemy count. */
+  public static final int STATE_ENEMY_COUNT = 36;
+  /** Payload offset of the missile count. */
+  public static final int STATE_MISSILE_COUNT = 40;
+  /** Payload offset of the enemy records: x, y, health. */
+  public static final int STATE_ENEMIES = 44;
+  /** Payload offset of the missile records: x, y, flags (bit 0 player missile). */
+  public static final int STATE_MISSILES = STATE_ENEMIES + MAX_ENEMIES * 12;
+  /** The size of the state payload in bytes. */
+  public static final int STATE_SIZE = STATE_MISSILES + MAX_MISSILES * 12;
+  private static final int PRODUCER_OFFSET = 64;
+  private static final int CONSUMER_OFFSET = 128;
+  private static final int SLOTS_OFFSET = 192;
+  private static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle INTS =
+      MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final int capacity;
+  private final int mask;
+  private final int seqlockOffset;
+  private final int payloadOffset;
+  // Each side caches the other side's cursor and only rereads it when it must
+  private long cachedConsumer;
+  private long cachedProducer;
+
+  private SharedMemoryBridge(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.seqlockOffset = alignTo64(SLOTS_OFFSET + capacity * 4);
+    this.payloadOffset = seqlockOffset + 8;
+  }
+
+  /**
+   * Creates (or truncates) a bridge file. Called by the simulation side.
+   *
+   * @param path the file to map, typically on a RAM-backed file system
+   * @param actionCapacity the number of action slots, a power of two
+   * @return the bridge
+   * @throws IOException if the file cannot be created or mapped
+   */
+  public static SharedMemoryBridge create(Path path, int actionCapacity) throws IOException {
+    if (actionCapacity < 1 || Integer.bitCount(actionCapacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + actionCapacity);
+    }
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    long size = fileSize(actionCapacity);
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(4, VERSION);
+    buffer.putInt(8, actionCapacity);
+    buffer.putInt(12, STATE_SIZE);
+    LONGS.setRelease(buffer, PRODUCER_OFFSET, 0L);
+    LONGS.setRelease(buffer, CONSUMER_OFFSET, 0L);
+    // The magic is written last so that an agent never sees a half-initialized header
+    INTS.setRelease(buffer, 0, MAGIC);
+    return new SharedMemoryBridge(channel, buffer, actionCapacity);
+  }
+
+  /**
+   * Opens an existing bridge file. Called by the agent side.
+   *
+   * @param path the file created by {@link #create(Path, int)}
+   * @return the bridge
+   * @throws IOException if the file cannot be mapped or is not a bridge file
+   */
+  public static SharedMemoryBridge open(Path path) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 16);
+    header.order(ByteOrder.LITTLE_ENDIAN);
+    if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+        || header.getInt(12) != STATE_SIZE) {
+      channel.close();
+      throw new IOException("Not a version " + VERSION + " bridge file: " + path);
+    }
+    int actionCapacity = header.getInt(8);
+    MappedByteBuffer buffer =
+        channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(actionCapacity));
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    return new SharedMemoryBridge(channel, buffer, actionCapacity);
+  }
+
+  /**
+   * Queues an action for the simulation. Called by the agent side only.
+   *
+   * @param action the action flags
+   * @return true if the action was queued, false if the ring is full
+   */
+  public boolean offerAction(int action) {
+    long producer = (long) LONGS.getOpaque(buffer, PRODUCER_OFFSET);
+    if (producer - cachedConsumer >= capacity) {
+      cachedConsumer = (long) LONGS.getAcquire(buffer, CONSUMER_OFFSET);
+      if (producer - cachedConsumer >= capacity) {
+        return false;
+      }
+    }
+    INTS.set(buffer, slotOffset(producer), action);
+    LONGS.setRelease(buffer, PRODUCER_OFFSET, producer + 1);
+    return true;
+  }
+
+  /**
+   * Takes the next queued action. Called by the simulation side only.
+   *
+   * @return the action flags, or {@link #NO_ACTION} if the ring is empty
+   */
+  public int pollAction() {
+    long consumer = (long) LONGS.getOpaque(buffer, CONSUMER_OFFSET);
+    if (consumer >= cachedProducer) {
+      cachedProducer = (long) LONGS.getAcquire(buffer, PRODUCER_OFFSET);
+      if (consumer >= cachedProducer) {
+        return NO_ACTION;
+      }
+    }
+    int action = (int) INTS.get(buffer, slotOffset(consumer));
+    LONGS.setRelease(buffer, CONSUMER_OFFSET, consumer + 1);
+    return action;
+  }
+
+  /**
+   * Writes the model's state into the state block. Called by the simulation side only.
+   * Entities beyond {@link #MAX_ENEMIES} and {@link #MAX_MISSILES} are not published.
+   *
+   * @param model the game to publish
+   * @param tick the number of ticks played in the current game
+   */
+  public void publishState(GameModel model, long tick) {
+    long sequence = (long) LONGS.getOpaque(buffer, seqlockOffset);
+    LONGS.setOpaque(buffer, seqlockOffset, sequence + 1);
+    VarHandle.storeStoreFence();
+
+    int base = payloadOffset;
+    Player player = model.getPlayer();
+    buffer.putLong(base + STATE_TICK, tick);
+    buffer.putInt(base + STATE_SCORE, model.getScore());
+    int flags = (model.isGameOver() ? 1 : 0) | (model.getEnemies().isEmpty() ? 2 : 0);
+    buffer.putInt(base + STATE_FLAGS, flags);
+    buffer.putInt(base + STATE_PLAYER, player.getX());
+    buffer.putInt(base + STATE_PLAYER + 4, player.getY());
+    buffer.putInt(base + STATE_PLAYER + 8, player.getHealth());
+    buffer.putInt(base + STATE_WEAPONS, model.getRemainingTargetingMissiles());
+    buffer.putInt(base + STATE_WEAPONS + 4, model.getRemainingLaserMissiles());
+
+    List<Enemy> enemies = model.getEnemies();
+    int enemyCount = Math.min(enemies.size(), MAX_ENEMIES);
+    buffer.putInt(base + STATE_ENEMY_COUNT, enemyCount);
+    for (int i = 0; i < enemyCount; i++) {
+      Enemy enemy = enemies.get(i);
+      int record = base + STATE_ENEMIES + i * 12;
+      buffer.putInt(record, enemy.getX());
+      buffer.putInt(record + 4, enemy.getY());
+      buffer.putInt(record + 8, enemy.getHealth());
+    }
+
+    List<Missile> missiles = model.getMissiles();
+    int missileCount = Math.min(missiles.size(), MAX_MISSILES);
+    buffer.putInt(base + STATE_MISSILE_COUNT, missileCount);
+    for (int i = 0; i < missileCount; i++) {
+      Missile missile = missiles.get(i);
+      int record = base + STATE_MISSILES + i * 12;
+      buffer.putInt(record, missile.getX());
+      buffer.putInt(record + 4, missile.getY());
+      buffer.putInt(record + 8, missile.isPlayerMissile() ? 1 : 0);
+    }
+
+    LONGS.setRelease(buffer, seqlockOffset, sequence + 2);
+  }
+
+  /**
+   * Copies a consistent snapshot of the state payload. Called by the agent side.
+   * Spins while the simulation is in the middle of publishing.
+   *
+   * @param target receives {@link #STATE_SIZE} bytes at its current position,
+   *               laid out as described by the STATE_* offsets
+   * @return the seqlock sequence of the copied state, which grows with every publish;
+   *         0 means nothing has been published yet
+   */
+  public long readState(ByteBuffer target) {
+    if (target.remaining() < STATE_SIZE) {
+      throw new IllegalArgumentException("Target needs " + STATE_SIZE + " bytes");
+    }
+    int start = target.position();
+    ByteBuffer source = buffer.duplicate();
+    while (true) {
+      long before = (long) LONGS.getAcquire(buffer, seqlockOffset);
+      if ((before & 1) != 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+      source.limit(payloadOffset + STATE_SIZE).position(payloadOffset);
+      target.position(start);
+      target.put(source);
+      VarHandle.loadLoadFence();
+      long after = (long) LONGS.getOpaque(buffer, seqlockOffset);
+      if (before == after) {
+        target.position(start + STATE_SIZE);
+        return before / 2;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of action slots in the ring.
+   *
+   * @return the ring capacity
+   */
+  public int getActionCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Closes the file channel. The mapping stays valid until it is garbage collected.
+   *
+   * @throws IOException if the channel cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private int slotOffset(long sequence) {
+    return SLOTS_OFFSET + (int) (sequence & mask) * 4;
+  }
+
+  private static long fileSize(int actionCapacity) {
+    return alignTo64(SLOTS_OFFSET + actionCapacity * 4) + 8L + STATE_SIZE;
+  }
+
+  private static int alignTo64(int offset) {
+    return (offset + 63) & ~63;
+  }
+}
@@ -0,0 +1,416 @@
+package com.spaceshooter.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The enemy bullets of a bullet-hell wave and the patterns that fire them.
+ * Bullets are not entities: each one is four ints, position and velocity in 1/256
+ * pixels, held in parallel arrays. A tick moves every bullet in one pass over those
+ * arrays, dropping bullets that leave the field by moving the last bullet into their
+ * place, so the live bullets always fill the front of the arrays and the pool never
+ * shrinks or allocates once it has grown to its peak.
+ *
+ * Bullets only hit players. Every player flies at the same height near the bottom of
+ * the field, so the pass first tests a bullet against the band of rows the players
+ * occupy and only looks at the players themselves for the few bullets inside it.
+ *
+ * The running patterns are kept in the same way: one row of ints per pattern started
+ * by a cue of the game's {@link BulletWave}, holding its origin, its current angle
+ * and the volleys it has left. The bullets, the patterns and the position in the wave
+ * are game state, saved in snapshots and folded into the state hash.
+ */
+public final class BulletField {
+  /** The size of a bullet in pixels; bullets are square. */
+  public static final int SIZE = 6;
+  /** Fixed-point scale of bullet positions and speeds: 1/256 pixel. */
+  static final int ONE = 256;
+  private static final int SHIFT = 8;
+  private static final int SINE_ONE = 1 << 14;
+  private static final int ANGLE_MASK = BulletPattern.TURN - 1;
+  private static final int[] SINE = new int[BulletPattern.TURN];
+  private static final int INITIAL_CAPACITY = 256;
+  private static final int RUN_FIELDS = 6;
+
+  static {
+    for (int i = 0; i < SINE.length; i++) {
+      SINE[i] = (int) Math.round(StrictMath.sin(2 * StrictMath.PI * i / BulletPattern.TURN)
+          * SINE_ONE);
+    }
+  }
+
+  private int[] xs = new int[INITIAL_CAPACITY];
+  private int[] ys = new int[INITIAL_CAPACITY];
+  private int[] velocityXs = new int[INITIAL_CAPACITY];
+  private int[] velocityYs = new int[INITIAL_CAPACITY];
+  private int count;
+
+  // Running patterns: cue, origin x, origin y, angle, volleys left, ticks to next volley
+  private int[] runs = new int[8 * RUN_FIELDS];
+  private int runCount;
+  private int nextCue;
+
+  /**
+   * Returns the number of live bullets.
+   *
+   * @return the bullet count
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the x-coordinate of a bullet's top-left corner.
+   *
+   * @param index the index of the bullet, below {@link #getCount()}
+   * @return the x-coordinate in pixels
+   */
+  public int getX(int index) {
+    return xs[index] >> SHIFT;
+  }
+
+  /**
+   * Returns the y-coordinate of a bullet's top-left corner.
+   *
+   * @param index the index of the bullet, below {@link #getCount()}
+   * @return the y-coordinate in pixels
+   */
+  public int getY(int index) {
+    return ys[index] >> SHIFT;
+  }
+
+  /**
+   * Returns the number of patterns still firing.
+   *
+   * @return the running pattern count
+   */
+  public int getRunningPatterns() {
+    return runCount;
+  }
+
+  /**
+   * Removes every bullet and pattern and goes back to the start of the wave.
+   */
+  void clear() {
+    count = 0;
+    runCount = 0;
+    nextCue = 0;
+  }
+
+  /**
+   * Moves every bullet one tick, removes those that have left the field and applies
+   * the hits of those that reached a live player.
+   *
+   * @param width the width of the field
+   * @param height the height of the field
+   * @param players the players the bullets can hit
+   * @param damage the damage a bullet does to the player it hits
+   * @param ring the ring hits are published into, or null
+   * @param tick the current tick, for the published events
+   * @return the number of bullets that hit a player
+   */
+  int update(int width, int height, List<Player> players, int damage, GameEventRing ring,
+      int tick) {
+    // The rows a bullet's top edge must be in to touch any live player
+    int bandTop = Integer.MAX_VALUE;
+    int bandBottom = Integer.MIN_VALUE;
+    for (int p = 0; p < players.size(); p++) {
+      Player player = players.get(p);
+      if (!player.isDestroyed()) {
+        bandTop = Math.min(bandTop, (player.getY() - SIZE + 1) << SHIFT);
+        bandBottom = Math.max(bandBottom, (player.getY() + player.getHeight()) << SHIFT);
+      }
+    }
+    int minX = -SIZE << SHIFT;
+    int maxX = width << SHIFT;
+    int minY = -SIZE << SHIFT;
+    int maxY = height << SHIFT;
+
+    int hits = 0;
+    int i = 0;
+    while (i < count) {
+      int x = xs[i] + velocityXs[i];
+      int y = ys[i] + velocityYs[i];
+      boolean gone = x < minX || x >= maxX || y < minY || y >= maxY;
+      if (!gone && y >= bandTop && y < bandBottom
+          && hitPlayer(x >> SHIFT, y >> SHIFT, players, damage, ring, tick)) {
+        hits++;
+        gone = true;
+      }
+      if (gone) {
+        // The last bullet takes this one's place and is moved on the next pass
+        count--;
+        xs[i] = xs[count];
+        ys[i] = ys[count];
+        velocityXs[i] = velocityXs[count];
+        velocityYs[i] = velocityYs[count];
+        continue;
+      }
+      xs[i] = x;
+      ys[i] = y;
+      i++;
+    }
+    return hits;
+  }
+
+  private static boolean hitPlayer(int x, int y, List<Player> players, int damage,
+      GameEventRing ring, int tick) {
+    for (int p = 0; p < players.size(); p++) {
+      Player player = players.get(p);
+      if (!player.isDestroyed() && x + SIZE > player.getX()
+          && x < player.getX() + player.getWidth()
+          && y + SIZE > player.getY() && y < player.getY() + player.getHeight()) {
+        player.takeDamage(damage);
+        if (ring != null) {
+          ring.publish(player.isDestroyed() ? GameEventRing.PLAYER_DESTROYED
+              : GameEventRing.PLAYER_HIT, tick, p, x + SIZE / 2, y + SIZE / 2, damage);
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Starts the patterns of the wave's next cue, and of every following cue on the same
+   * tick, each from a random enemy.
+   *
+   * @param wave the wave being played
+   * @param enemies the enemies the patterns can be fired from
+   * @param players the players aimed bursts aim at
+   * @param random the game's random source
+   * @param limit the largest number of live bullets
+   * @return the number of ticks until the next cue is due, at least 1
+   */
+  int startCues(BulletWave wave, List<Enemy> enemies, List<Player> players,
+      GameRandom random, int limit) {
+    int delay;
+    do {
+      if (!enemies.isEmpty()) {
+        Enemy enemy = enemies.get(random.nextInt(enemies.size()));
+        int x = enemy.getX() + (enemy.getWidth() - SIZE) / 2;
+        int y = enemy.getY() + enemy.getHeight();
+        start(wave, nextCue, x << SHIFT, y << SHIFT, players, limit);
+      }
+      delay = wave.delayAfter(nextCue);
+      nextCue = (nextCue + 1) % wave.getCueCount();
+    } while (delay == 0);
+    return delay;
+  }
+
+  private void start(BulletWave wave, int cue, int x, int y, List<Player> players,
+      int limit) {
+    BulletPattern pattern = wave.getCuePattern(cue);
+    if (runs.length < (runCount + 1) * RUN_FIELDS) {
+      int[] grown = new int[runs.length * 2];
+      System.arraycopy(runs, 0, grown, 0, runCount * RUN_FIELDS);
+      runs = grown;
+    }
+    int run = runCount * RUN_FIELDS;
+    runs[run] = cue;
+    runs[run + 1] = x;
+    runs[run + 2] = y;
+    runs[run + 3] = pattern.initialAngle();
+    runs[run + 4] = pattern.getVolleys();
+    runs[run + 5] = 1;
+    runCount++;
+    // The first volley leaves at once
+    fireVolleys(wave, players, limit, runCount - 1);
+  }
+
+  /**
+   * Fires the volleys of the running patterns that are due this tick and drops the
+   * patterns that have fired their last volley.
+   *
+   * @param wave the wave the patterns were started from
+   * @param players the players aimed bursts aim at
+   * @param limit the largest number of live bullets
+   */
+  void fireVolleys(BulletWave wave, List<Player> players, int limit) {
+    fireVolleys(wave, players, limit, 0);
+  }
+
+  private void fireVolleys(BulletWave wave, List<Player> players, int limit, int first) {
+    int r = first;
+    while (r < runCount) {
+      int run = r * RUN_FIELDS;
+      if (--runs[run + 5] > 0) {
+        r++;
+        continue;
+      }
+      BulletPattern pattern = wave.getCuePattern(runs[run]);
+      fireVolley(pattern, run, players, limit);
+      runs[run + 5] = pattern.getInterval();
+      if (--runs[run + 4] > 0) {
+        r++;
+        continue;
+      }
+      // The last running pattern takes this one's place and is looked at next
+      runCount--;
+      System.arraycopy(runs, runCount * RUN_FIELDS, runs, run, RUN_FIELDS);
+    }
+  }
+
+  private void fireVolley(BulletPattern pattern, int run, List<Player> players, int limit) {
+    int x = runs[run + 1];
+    int y = runs[run + 2];
+    int center = runs[run + 3];
+    if (pattern.getShape() == BulletPattern.SHAPE_AIMED) {
+      center = aim(x >> SHIFT, y >> SHIFT, players);
+    } else {
+      runs[run + 3] = (center + pattern.getSpin()) & ANGLE_MASK;
+    }
+    int speed = pattern.getSpeed();
+    for (int i = 0; i < pattern.getBullets() && count < limit; i++) {
+      int direction = pattern.direction(i, center) & ANGLE_MASK;
+      int cosine = SINE[(direction + BulletPattern.TURN / 4) & ANGLE_MASK];
+      spawn(x, y, speed * cosine >> 14, speed * SINE[direction] >> 14);
+    }
+  }
+
+  /**
+   * Returns the direction from a point to the centre of the nearest live player, or
+   * straight down if every player is destroyed.
+   */
+  private static int aim(int x, int y, List<Player> players) {
+    Player nearest = null;
+    long nearestDistance = Long.MAX_VALUE;
+    int dx = 0;
+    int dy = 0;
+    for (int p = 0; p < players.size(); p++) {
+      Player player = players.get(p);
+      if (player.isDestroyed()) {
+        continue;
+      }
+      int px = player.getX() + player.getWidth() / 2 - SIZE / 2 - x;
+      int py = player.getY() + player.getHeight() / 2 - SIZE / 2 - y;
+      long distance = (long) px * px + (long) py * py;
+      if (distance < nearestDistance) {
+        nearest = player;
+        nearestDistance = distance;
+        dx = px;
+        dy = py;
+      }
+    }
+    if (nearest == null) {
+      return BulletPattern.TURN / 4;
+    }
+    double turns = StrictMath.atan2(dy, dx) / (2 * StrictMath.PI);
+    return (int) Math.round(turns * BulletPattern.TURN) & ANGLE_MASK;
+  }
+
+  private void spawn(int x, int y, int velocityX, int velocityY) {
+    if (count == xs.length) {
+      grow(count * 2);
+    }
+    xs[count] = x;
+    ys[count] = y;
+    velocityXs[count] = velocityX;
+    velocityYs[count] = velocityY;
+    count++;
+  }
+
+  private void grow(int capacity) {
+    xs = Arrays.copyOf(xs, capacity);
+    ys = Arrays.copyOf(ys, capacity);
+    velocityXs = Arrays.copyOf(velocityXs, capacity);
+    velocityYs = Arrays.copyOf(velocityYs, capacity);
+  }
+
+  /**
+   * Overwrites this field with a copy of another field's bullets, patterns and wave
+   * position.
+   *
+   * @param source the field to copy
+   */
+  void copyFrom(BulletField source) {
+    if (xs.length < source.count) {
+      grow(source.xs.length);
+    }
+    System.arraycopy(source.xs, 0, xs, 0, source.count);
+    System.arraycopy(source.ys, 0, ys, 0, source.count);
+    System.arraycopy(source.velocityXs, 0, velocityXs, 0, source.count);
+    System.arraycopy(source.velocityYs, 0, velocityYs, 0, source.count);
+    count = source.count;
+    if (runs.length < source.runCount * RUN_FIELDS) {
+      runs = new int[source.runs.length];
+    }
+    System.arraycopy(source.runs, 0, runs, 0, source.runCount * RUN_FIELDS);
+    runCount = source.runCount;
+    nextCue = source.nextCue;
+  }
+
+  /**
+   * Writes the wave position, the running patterns and every bullet.
+   *
+   * @param out the buffer to write to
+   */
+  void writeState(ByteBuffer out) {
+    out.putInt(nextCue);
+    out.putInt(runCount);
+    for (int i = 0; i < runCount * RUN_FIELDS; i++) {
+      out.putInt(runs[i]);
+    }
+    out.putInt(count);
+    for (int i = 0; i < count; i++) {
+      out.putInt(xs[i]).putInt(ys[i]).putInt(velocityXs[i]).putInt(velocityYs[i]);
+    }
+  }
+
+  /**
+   * Replaces this field's contents with a state written by
+   * {@link #writeState(ByteBuffer)}.
+   *
+   * @param in the buffer to read from
+   */
+  void readState(ByteBuffer in) {
+    nextCue = in.getInt();
+    runCount = in.getInt();
+    if (runs.length < runCount * RUN_FIELDS) {
+      runs = new int[runCount * RUN_FIELDS];
+    }
+    for (int i = 0; i < runCount * RUN_FIELDS; i++) {
+      runs[i] = in.getInt();
+    }
+    count = in.getInt();
+    if (xs.length < count) {
+      grow(count);
+    }
+    for (int i = 0; i < count; i++) {
+      xs[i] = in.getInt();
+      ys[i] = in.getInt();
+      velocityXs[i] = in.getInt();
+      velocityYs[i] = in.getInt();
+    }
+  }
+
+  /**
+   * Returns the number of bytes {@link #writeState(ByteBuffer)} writes.
+   *
+   * @return the encoded size
+   */
+  int stateSize() {
+    return 12 + runCount * RUN_FIELDS * 4 + count * 16;
+  }
+
+  /**
+   * Folds the wave position, the running patterns and the bullets into a state hash.
+   * Bullets are hashed in order, since their order decides which of them hits first.
+   *
+   * @param hash the hash so far
+   * @return the combined hash
+   */
+  long hash(long hash) {
+    hash = StateHash.combine(hash, nextCue);
+    for (int i = 0; i < runCount * RUN_FIELDS; i++) {
+      hash = StateHash.combine(hash, runs[i]);
+    }
+    hash = StateHash.combine(hash, count);
+    for (int i = 0; i < count; i++) {
+      hash = StateHash.combine(hash,
+          StateHash.fields(xs[i], ys[i], velocityXs[i], velocityYs[i]));
+    }
+    return hash;
+  }
+}
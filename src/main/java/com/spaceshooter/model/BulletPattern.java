@@ -0,0 +1,193 @@
+package com.spaceshooter.model;
+
+/**
+ * A descriptor of one enemy bullet pattern: the shape of a volley and how often it
+ * repeats. Patterns are started by the cues of a {@link BulletWave}; each start fires
+ * a number of volleys a fixed number of ticks apart from the enemy it was given.
+ *
+ * Directions are measured in {@link #TURN} units per full circle, clockwise from the
+ * positive x-axis, so a quarter turn points straight down the field. Speeds are in
+ * 1/256 pixels per tick. Both are whole numbers so every machine plays a pattern out
+ * identically. Patterns are immutable and can be shared between games and threads.
+ */
+public final class BulletPattern {
+  /** The number of direction units in a full circle. */
+  public static final int TURN = 4096;
+  /** A ring of bullets spread evenly round the circle, turning a little every volley. */
+  public static final int SHAPE_SPIRAL = 0;
+  /** A fan of bullets centred on straight down. */
+  public static final int SHAPE_FAN = 1;
+  /** A fan of bullets centred on the nearest live player. */
+  public static final int SHAPE_AIMED = 2;
+  private static final int DOWN = TURN / 4;
+  private final int shape;
+  private final int bullets;
+  private final int spread;
+  private final int speed;
+  private final int spin;
+  private final int volleys;
+  private final int interval;
+
+  private BulletPattern(int shape, int bullets, int spread, int speed, int spin, int volleys,
+      int interval) {
+    if (bullets < 1 || volleys < 1 || interval < 1 || speed < 1) {
+      throw new IllegalArgumentException("Invalid bullet pattern: " + bullets + " bullets, "
+          + volleys + " volleys every " + interval + " ticks at speed " + speed);
+    }
+    this.shape = shape;
+    this.bullets = bullets;
+    this.spread = spread;
+    this.speed = speed;
+    this.spin = spin;
+    this.volleys = volleys;
+    this.interval = interval;
+  }
+
+  /**
+   * Describes a spiral: arms evenly spaced round the circle, the whole ring turning by
+   * a fixed angle between volleys. A spin of 0 fires plain rings.
+   *
+   * @param arms the number of bullets in each volley
+   * @param speed the bullet speed in pixels per tick
+   * @param spinDegrees the turn between volleys in degrees, clockwise
+   * @param volleys the number of volleys
+   * @param interval the number of ticks between volleys
+   * @return the pattern
+   */
+  public static BulletPattern spiral(int arms, double speed, double spinDegrees, int volleys,
+      int interval) {
+    return new BulletPattern(SHAPE_SPIRAL, arms, 0, toSpeed(speed), toAngle(spinDegrees),
+        volleys, interval);
+  }
+
+  /**
+   * Describes a fan fired straight down, optionally sweeping by a fixed angle between
+   * volleys.
+   *
+   * @param bullets the number of bullets in each volley
+   * @param spreadDegrees the angle between the outermost bullets in degrees
+   * @param speed the bullet speed in pixels per tick
+   * @param sweepDegrees the turn between volleys in degrees, clockwise
+   * @param volleys the number of volleys
+   * @param interval the number of ticks between volleys
+   * @return the pattern
+   */
+  public static BulletPattern fan(int bullets, double spreadDegrees, double speed,
+      double sweepDegrees, int volleys, int interval) {
+    return new BulletPattern(SHAPE_FAN, bullets, toAngle(spreadDegrees), toSpeed(speed),
+        toAngle(sweepDegrees), volleys, interval);
+  }
+
+  /**
+   * Describes a burst aimed at the nearest live player, taking aim again every volley.
+   *
+   * @param bullets the number of bullets in each volley
+   * @param spreadDegrees the angle between the outermost bullets in degrees
+   * @param speed the bullet speed in pixels per tick
+   * @param volleys the number of volleys
+   * @param interval the number of ticks between volleys
+   * @return the pattern
+   */
+  public static BulletPattern aimed(int bullets, double spreadDegrees, double speed,
+      int volleys, int interval) {
+    return new BulletPattern(SHAPE_AIMED, bullets, toAngle(spreadDegrees), toSpeed(speed), 0,
+        volleys, interval);
+  }
+
+  private static int toAngle(double degrees) {
+    return (int) Math.round(degrees * TURN / 360);
+  }
+
+  private static int toSpeed(double pixelsPerTick) {
+    return (int) Math.round(pixelsPerTick * BulletField.ONE);
+  }
+
+  /**
+   * Returns the direction of one bullet of a volley.
+   *
+   * @param index the index of the bullet in the volley
+   * @param center the direction the volley is centred on, or the turn of a spiral
+   * @return the direction in {@link #TURN} units
+   */
+  int direction(int index, int center) {
+    if (shape == SHAPE_SPIRAL) {
+      return center + index * TURN / bullets;
+    }
+    if (bullets == 1) {
+      return center;
+    }
+    return center - spread / 2 + index * spread / (bullets - 1);
+  }
+
+  /**
+   * Returns the direction a fan starts centred on.
+   *
+   * @return the direction in {@link #TURN} units
+   */
+  int initialAngle() {
+    return shape == SHAPE_FAN ? DOWN : 0;
+  }
+
+  /**
+   * Returns the shape of the volleys.
+   *
+   * @return one of the SHAPE_ constants
+   */
+  public int getShape() {
+    return shape;
+  }
+
+  /**
+   * Returns the number of bullets in each volley.
+   *
+   * @return the bullets per volley
+   */
+  public int getBullets() {
+    return bullets;
+  }
+
+  /**
+   * Returns the angle between the outermost bullets of a fan or aimed burst.
+   *
+   * @return the spread in {@link #TURN} units
+   */
+  public int getSpread() {
+    return spread;
+  }
+
+  /**
+   * Returns the bullet speed.
+   *
+   * @return the speed in 1/256 pixels per tick
+   */
+  public int getSpeed() {
+    return speed;
+  }
+
+  /**
+   * Returns the turn between volleys.
+   *
+   * @return the spin in {@link #TURN} units, clockwise
+   */
+  public int getSpin() {
+    return spin;
+  }
+
+  /**
+   * Returns the number of volleys the pattern fires.
+   *
+   * @return the volley count
+   */
+  public int getVolleys() {
+    return volleys;
+  }
+
+  /**
+   * Returns the number of ticks between volleys.
+   *
+   * @return the volley interval
+   */
+  public int getInterval() {
+    return interval;
+  }
+}
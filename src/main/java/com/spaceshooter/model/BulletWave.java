@@ -0,0 +1,104 @@
+package com.spaceshooter.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A timed sequence of bullet patterns that repeats for as long as the game lasts.
+ * Each cue starts one {@link BulletPattern} from a random enemy at a fixed tick of the
+ * wave; when the wave's length has passed it starts over from its first cue. Several
+ * cues on the same tick start their patterns together, in the order they were added.
+ *
+ * A wave is configuration rather than game state, like the other difficulty settings:
+ * snapshots only record how far through it a game is, so it must not be changed while
+ * a game is playing it.
+ */
+public final class BulletWave {
+  private final int length;
+  private final List<Integer> ticks = new ArrayList<>();
+  private final List<BulletPattern> patterns = new ArrayList<>();
+
+  /**
+   * Constructs an empty wave.
+   *
+   * @param length the number of ticks before the wave repeats, at least 1
+   */
+  public BulletWave(int length) {
+    if (length < 1) {
+      throw new IllegalArgumentException("A wave must last at least one tick: " + length);
+    }
+    this.length = length;
+  }
+
+  /**
+   * Adds a cue that starts a pattern at a tick of the wave.
+   *
+   * @param tick the tick the pattern starts on, from 0 to below the wave's length
+   * @param pattern the pattern to start
+   */
+  public void addCue(int tick, BulletPattern pattern) {
+    if (tick < 0 || tick >= length) {
+      throw new IllegalArgumentException("Cue outside the wave: " + tick);
+    }
+    // Keep the cues in tick order, later cues after earlier ones on the same tick
+    int index = ticks.size();
+    while (index > 0 && ticks.get(index - 1) > tick) {
+      index--;
+    }
+    ticks.add(index, tick);
+    patterns.add(index, pattern);
+  }
+
+  /**
+   * Returns the number of ticks before the wave repeats.
+   *
+   * @return the wave length
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Returns the number of cues in the wave.
+   *
+   * @return the cue count
+   */
+  public int getCueCount() {
+    return ticks.size();
+  }
+
+  /**
+   * Returns the tick a cue starts on.
+   *
+   * @param cue the index of the cue, in tick order
+   * @return the tick within the wave
+   */
+  public int getCueTick(int cue) {
+    return ticks.get(cue);
+  }
+
+  /**
+   * Returns the pattern a cue starts.
+   *
+   * @param cue the index of the cue, in tick order
+   * @return the pattern
+   */
+  public BulletPattern getCuePattern(int cue) {
+    return patterns.get(cue);
+  }
+
+  /**
+   * Returns the number of ticks from one cue to the next, wrapping round to the start
+   * of the wave after the last cue.
+   *
+   * @param cue the index of the cue
+   * @return the delay, at least 0; 0 when the next cue is on the same tick
+   */
+  int delayAfter(int cue) {
+    int next = cue + 1;
+    if (next < ticks.size()) {
+      return ticks.get(next) - ticks.get(cue);
+    }
+    return length - ticks.get(cue) + ticks.get(0);
+  }
+}
@@ -0,0 +1,198 @@
+package com.spaceshooter.model;
+
+/**
+ * The solid pixels of a sprite, for pixel-accurate collision checks.
+ * Each row of the sprite is stored as a bitset in one or more longs, bit i of word w
+ * standing for column 64 * w + i. Two masks are tested by shifting the overlapping
+ * part of each row into line and AND-ing it, so up to 64 pixels are compared per
+ * operation. A mask is anchored at its entity's top-left corner; pixels outside it
+ * are empty. Masks are immutable and can be shared between games and threads.
+ */
+public final class CollisionMask {
+  private final int width;
+  private final int height;
+  private final int wordsPerRow;
+  private final long[] rows;
+
+  private CollisionMask(int width, int height) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Invalid mask size: " + width + "x" + height);
+    }
+    this.width = width;
+    this.height = height;
+    this.wordsPerRow = (width + 63) >>> 6;
+    this.rows = new long[wordsPerRow * height];
+  }
+
+  /**
+   * Builds a mask from sprite pixels, such as those returned by
+   * {@code BufferedImage.getRGB}. Pixels with a non-zero alpha are solid.
+   *
+   * @param argb the pixels in row-major order, packed as ARGB
+   * @param width the width of the sprite
+   * @param height the height of the sprite
+   * @return the mask
+   */
+  public static CollisionMask fromPixels(int[] argb, int width, int height) {
+    CollisionMask mask = new CollisionMask(width, height);
+    for (int row = 0; row < height; row++) {
+      for (int column = 0; column < width; column++) {
+        if ((argb[row * width + column] >>> 24) != 0) {
+          mask.set(column, row);
+        }
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Builds a mask of the ellipse that fills a width by height box.
+   *
+   * @param width the width of the box
+   * @param height the height of the box
+   * @return the mask
+   */
+  public static CollisionMask ellipse(int width, int height) {
+    CollisionMask mask = new CollisionMask(width, height);
+    // Pixel centres inside the ellipse, in integer arithmetic so every machine agrees
+    long a = width;
+    long b = height;
+    for (int row = 0; row < height; row++) {
+      long dy = 2L * row + 1 - b;
+      for (int column = 0; column < width; column++) {
+        long dx = 2L * column + 1 - a;
+        if (dx * dx * b * b + dy * dy * a * a <= a * a * b * b) {
+          mask.set(column, row);
+        }
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Builds a mask whose every pixel is solid.
+   *
+   * @param width the width of the mask
+   * @param height the height of the mask
+   * @return the mask
+   */
+  public static CollisionMask rectangle(int width, int height) {
+    CollisionMask mask = new CollisionMask(width, height);
+    for (int row = 0; row < height; row++) {
+      for (int column = 0; column < width; column++) {
+        mask.set(column, row);
+      }
+    }
+    return mask;
+  }
+
+  private void set(int column, int row) {
+    rows[row * wordsPerRow + (column >>> 6)] |= 1L << column;
+  }
+
+  /**
+   * Checks whether a pixel of the mask is solid.
+   *
+   * @param column the column of the pixel
+   * @param row the row of the pixel
+   * @return true if the pixel is inside the mask and solid
+   */
+  public boolean isSolid(int column, int row) {
+    if (column < 0 || column >= width || row < 0 || row >= height) {
+      return false;
+    }
+    return (rows[row * wordsPerRow + (column >>> 6)] & (1L << column)) != 0;
+  }
+
+  /**
+   * Checks whether this mask, placed at (x, y), shares a solid pixel with another mask.
+   *
+   * @param x the x-coordinate of this mask's top-left corner
+   * @param y the y-coordinate of this mask's top-left corner
+   * @param other the other mask
+   * @param otherX the x-coordinate of the other mask's top-left corner
+   * @param otherY the y-coordinate of the other mask's top-left corner
+   * @return true if the masks overlap in at least one solid pixel
+   */
+  public boolean overlaps(int x, int y, CollisionMask other, int otherX, int otherY) {
+    int left = Math.max(x, otherX);
+    int right = Math.min(x + width, otherX + other.width);
+    int top = Math.max(y, otherY);
+    int bottom = Math.min(y + height, otherY + other.height);
+    for (int row = top; row < bottom; row++) {
+      for (int column = left; column < right; column += 64) {
+        long span = spanMask(right - column);
+        if ((bits(row - y, column - x) & other.bits(row - otherY, column - otherX) & span)
+            != 0) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether this mask, placed at (x, y), has a solid pixel inside a rectangle.
+   * This is the test against an entity that has no mask and is treated as solid.
+   *
+   * @param x the x-coordinate of this mask's top-left corner
+   * @param y the y-coordinate of this mask's top-left corner
+   * @param rectX the x-coordinate of the rectangle
+   * @param rectY the y-coordinate of the rectangle
+   * @param rectWidth the width of the rectangle
+   * @param rectHeight the height of the rectangle
+   * @return true if a solid pixel lies inside the rectangle
+   */
+  public boolean overlapsRectangle(int x, int y, int rectX, int rectY, int rectWidth,
+      int rectHeight) {
+    int left = Math.max(x, rectX);
+    int right = Math.min(x + width, rectX + rectWidth);
+    int top = Math.max(y, rectY);
+    int bottom = Math.min(y + height, rectY + rectHeight);
+    for (int row = top; row < bottom; row++) {
+      for (int column = left; column < right; column += 64) {
+        if ((bits(row - y, column - x) & spanMask(right - column)) != 0) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the 64 pixels of a row starting at a column, shifted down to bit 0.
+   * Pixels beyond the mask's width read as empty.
+   */
+  private long bits(int row, int column) {
+    int word = column >>> 6;
+    int shift = column & 63;
+    int base = row * wordsPerRow;
+    long bits = rows[base + word] >>> shift;
+    if (shift != 0 && word + 1 < wordsPerRow) {
+      bits |= rows[base + word + 1] << (64 - shift);
+    }
+    return bits;
+  }
+
+  private static long spanMask(int pixels) {
+    return pixels >= 64 ? -1L : (1L << pixels) - 1;
+  }
+
+  /**
+   * Returns the width of the mask.
+   *
+   * @return the width in pixels
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the mask.
+   *
+   * @return the height in pixels
+   */
+  public int getHeight() {
+    return height;
+  }
+}
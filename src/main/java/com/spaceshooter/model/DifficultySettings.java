@@ -0,0 +1,261 @@
+package com.spaceshooter.model;
+
+/**
+ * Tunable difficulty parameters for a game.
+ * The defaults reproduce the standard game. Tools such as the batch simulator
+ * change these values to evaluate difficulty without editing the model's constants.
+ */
+public class DifficultySettings {
+  private int enemyMoveInterval = 30;
+  private int enemySpeedPercent = 100;
+  private int basicMissileLimit = GameModel.BASIC_MISSILE_LIMIT;
+  private int doubleMissileLimit = GameModel.DOUBLE_MISSILE_LIMIT;
+  private int targetingMissileLimit = GameModel.TARGETING_MISSILE_LIMIT;
+  private int laserMissileLimit = GameModel.LASER_MISSILE_LIMIT;
+  private int patternMissileLimit = GameModel.PATTERN_MISSILE_LIMIT;
+  private int swarmMissileLimit = GameModel.SWARM_MISSILE_LIMIT;
+  private BulletWave bulletWave;
+  private int enemyBulletLimit = GameModel.ENEMY_BULLET_LIMIT;
+  private int bulletDamage = 5;
+  private int targetingMissileStock = 2;
+  private int laserMissileStock = 30;
+
+  /**
+   * Returns the number of updates between enemy formation moves.
+   *
+   * @return the enemy move interval in ticks
+   */
+  public int getEnemyMoveInterval() {
+    return enemyMoveInterval;
+  }
+
+  /**
+   * Sets the number of updates between enemy formation moves.
+   *
+   * @param enemyMoveInterval the enemy move interval in ticks, at least 1
+   */
+  public void setEnemyMoveInterval(int enemyMoveInterval) {
+    this.enemyMoveInterval = Math.max(1, enemyMoveInterval);
+  }
+
+  /**
+   * Returns the scale applied to the speed computed by {@link Enemy#updateSpeed(int, int)}.
+   *
+   * @return the enemy speed scale in percent
+   */
+  public int getEnemySpeedPercent() {
+    return enemySpeedPercent;
+  }
+
+  /**
+   * Sets the scale applied to the speed computed by {@link Enemy#updateSpeed(int, int)}.
+   *
+   * @param enemySpeedPercent the enemy speed scale in percent, 100 for the standard game
+   */
+  public void setEnemySpeedPercent(int enemySpeedPercent) {
+    this.enemySpeedPercent = Math.max(1, enemySpeedPercent);
+  }
+
+  /**
+   * Returns the maximum number of live basic missiles.
+   *
+   * @return the basic missile limit
+   */
+  public int getBasicMissileLimit() {
+    return basicMissileLimit;
+  }
+
+  /**
+   * Sets the maximum number of live basic missiles.
+   *
+   * @param basicMissileLimit the basic missile limit
+   */
+  public void setBasicMissileLimit(int basicMissileLimit) {
+    this.basicMissileLimit = basicMissileLimit;
+  }
+
+  /**
+   * Returns the maximum number of live double missiles.
+   *
+   * @return the double missile limit
+   */
+  public int getDoubleMissileLimit() {
+    return doubleMissileLimit;
+  }
+
+  /**
+   * Sets the maximum number of live double missiles.
+   *
+   * @param doubleMissileLimit the double missile limit
+   */
+  public void setDoubleMissileLimit(int doubleMissileLimit) {
+    this.doubleMissileLimit = doubleMissileLimit;
+  }
+
+  /**
+   * Returns the maximum number of live targeting missiles.
+   *
+   * @return the targeting missile limit
+   */
+  public int getTargetingMissileLimit() {
+    return targetingMissileLimit;
+  }
+
+  /**
+   * Sets the maximum number of live targeting missiles.
+   *
+   * @param targetingMissileLimit the targeting missile limit
+   */
+  public void setTargetingMissileLimit(int targetingMissileLimit) {
+    this.targetingMissileLimit = targetingMissileLimit;
+  }
+
+  /**
+   * Returns the maximum number of live laser missiles.
+   *
+   * @return the laser missile limit
+   */
+  public int getLaserMissileLimit() {
+    return laserMissileLimit;
+  }
+
+  /**
+   * Sets the maximum number of live laser missiles.
+   *
+   * @param laserMissileLimit the laser missile limit
+   */
+  public void setLaserMissileLimit(int laserMissileLimit) {
+    this.laserMissileLimit = laserMissileLimit;
+  }
+
+  /**
+   * Returns the maximum number of live missiles from pattern weapons such as the spread
+   * shot and the bullet curtain. A pattern weapon can fire while its player has fewer
+   * live pattern missiles than this, so one shot may go over the limit.
+   *
+   * @return the pattern missile limit
+   */
+  public int getPatternMissileLimit() {
+    return patternMissileLimit;
+  }
+
+  /**
+   * Sets the maximum number of live missiles from pattern weapons.
+   *
+   * @param patternMissileLimit the pattern missile limit
+   */
+  public void setPatternMissileLimit(int patternMissileLimit) {
+    this.patternMissileLimit = patternMissileLimit;
+  }
+
+  /**
+   * Returns the maximum number of live swarm missiles. The swarm can launch while its
+   * player has fewer live swarm missiles than this, so one swarm may go over the limit.
+   *
+   * @return the swarm missile limit
+   */
+  public int getSwarmMissileLimit() {
+    return swarmMissileLimit;
+  }
+
+  /**
+   * Sets the maximum number of live swarm missiles.
+   *
+   * @param swarmMissileLimit the swarm missile limit
+   */
+  public void setSwarmMissileLimit(int swarmMissileLimit) {
+    this.swarmMissileLimit = swarmMissileLimit;
+  }
+
+  /**
+   * Returns the bullet patterns the enemies fire on top of their ordinary shots.
+   *
+   * @return the bullet wave, or null if the enemies fire no patterns
+   */
+  public BulletWave getBulletWave() {
+    return bulletWave;
+  }
+
+  /**
+   * Sets the bullet patterns the enemies fire on top of their ordinary shots.
+   * The wave is read when a game starts or is reset, and must not change afterwards.
+   *
+   * @param bulletWave the bullet wave, or null for the standard game without patterns
+   */
+  public void setBulletWave(BulletWave bulletWave) {
+    this.bulletWave = bulletWave;
+  }
+
+  /**
+   * Returns the maximum number of live enemy bullets. Volleys that would go over it
+   * are cut short.
+   *
+   * @return the enemy bullet limit
+   */
+  public int getEnemyBulletLimit() {
+    return enemyBulletLimit;
+  }
+
+  /**
+   * Sets the maximum number of live enemy bullets.
+   *
+   * @param enemyBulletLimit the enemy bullet limit
+   */
+  public void setEnemyBulletLimit(int enemyBulletLimit) {
+    this.enemyBulletLimit = enemyBulletLimit;
+  }
+
+  /**
+   * Returns the damage an enemy bullet does to the player it hits.
+   *
+   * @return the bullet damage
+   */
+  public int getBulletDamage() {
+    return bulletDamage;
+  }
+
+  /**
+   * Sets the damage an enemy bullet does to the player it hits.
+   *
+   * @param bulletDamage the bullet damage, 0 for bullets that only get in the way
+   */
+  public void setBulletDamage(int bulletDamage) {
+    this.bulletDamage = Math.max(0, bulletDamage);
+  }
+
+  /**
+   * Returns the number of targeting missiles the player starts with.
+   *
+   * @return the initial targeting missile stock
+   */
+  public int getTargetingMissileStock() {
+    return targetingMissileStock;
+  }
+
+  /**
+   * Sets the number of targeting missiles the player starts with.
+   *
+   * @param targetingMissileStock the initial targeting missile stock
+   */
+  public void setTargetingMissileStock(int targetingMissileStock) {
+    this.targetingMissileStock = targetingMissileStock;
+  }
+
+  /**
+   * Returns the number of laser missiles the player starts with.
+   *
+   * @return the initial laser missile stock
+   */
+  public int getLaserMissileStock() {
+    return laserMissileStock;
+  }
+
+  /**
+   * Sets the number of laser missiles the player starts with.
+   *
+   * @param laserMissileStock the initial laser missile stock
+   */
+  public void setLaserMissileStock(int laserMissileStock) {
+    this.laserMissileStock = laserMissileStock;
+  }
+}
@@ -1,11 +1,14 @@
 package com.spaceshooter.model;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents an enemy spaceship in the game.
  * Enemies can move left, right, and down, and have health that can be reduced by taking damage.
  * Their speed increases as the game progresses and fewer enemies remain.
+ * An enemy set burning by a hitscan laser loses health every tick until the burn ends.
  */
-public class Enemy {
+public class Enemy extends TrackedEntity {
   private static final int WIDTH = 30;
   private static final int HEIGHT = 30;
   private static final int INITIAL_HEALTH = 100;
@@ -14,7 +17,10 @@ public class Enemy {
   private int y;
   private int health;
   private int currentSpeed;
+  private int burnDamage;
+  private int burnTicks;
   private int gameWidth;
+  private long handle = SlotMap.NULL_HANDLE;
 
   /**
    * Constructs a new enemy at the specified position.
@@ -31,6 +37,74 @@ public class Enemy {
     this.gameWidth = gameWidth;
   }
 
+  /**
+   * Returns the enemy to its initial state at the specified position.
+   * Lets a model reuse enemy objects when it starts a new game.
+   *
+   * @param x the new x-coordinate of the enemy
+   * @param y the new y-coordinate of the enemy
+   */
+  public void reset(int x, int y) {
+    this.x = x;
+    this.y = y;
+    this.health = INITIAL_HEALTH;
+    this.currentSpeed = BASE_SPEED;
+    this.burnDamage = 0;
+    this.burnTicks = 0;
+    this.handle = SlotMap.NULL_HANDLE;
+    stateChanged();
+  }
+
+  /**
+   * Copies the complete state of another enemy, including its handle, into this one.
+   *
+   * @param other the enemy to copy
+   */
+  void copyStateFrom(Enemy other) {
+    this.x = other.x;
+    this.y = other.y;
+    this.health = other.health;
+    this.currentSpeed = other.currentSpeed;
+    this.burnDamage = other.burnDamage;
+    this.burnTicks = other.burnTicks;
+    this.gameWidth = other.gameWidth;
+    this.handle = other.handle;
+    stateChanged();
+  }
+
+  /**
+   * Writes the enemy's state, including its handle, to a snapshot buffer.
+   *
+   * @param out the buffer to write to
+   */
+  void writeState(ByteBuffer out) {
+    out.putInt(x).putInt(y).putInt(health).putInt(currentSpeed).putLong(handle);
+    out.putInt(burnDamage).putInt(burnTicks);
+  }
+
+  /**
+   * Reads state written by {@link #writeState(ByteBuffer)} into this enemy.
+   *
+   * @param in the buffer to read from
+   */
+  void readState(ByteBuffer in) {
+    x = in.getInt();
+    y = in.getInt();
+    health = in.getInt();
+    currentSpeed = in.getInt();
+    handle = in.getLong();
+    burnDamage = in.getInt();
+    burnTicks = in.getInt();
+    stateChanged();
+  }
+
+  @Override
+  long hashState() {
+    return StateHash.finish(0x454E454DL // "ENEM"
+        + StateHash.fields(handle, x, y, ((long) health << 32) + currentSpeed)
+        + StateHash.fields(burnDamage, burnTicks, 0, 0));
+  }
+
   /**
    * Moves the enemy to the left by its current speed.
    * The enemy will not move beyond the left edge of the game area.
@@ -40,6 +114,7 @@ public class Enemy {
     if (x < 0) {
       x = 0;
     }
+    stateChanged();
   }
 
   /**
@@ -51,6 +126,7 @@ public class Enemy {
     if (x + WIDTH > gameWidth) {
       x = gameWidth - WIDTH;
     }
+    stateChanged();
   }
 
   /**
@@ -58,6 +134,7 @@ public class Enemy {
    */
   public void moveDown() {
     y += currentSpeed;
+    stateChanged();
   }
 
   /**
@@ -80,7 +157,27 @@ public class Enemy {
     }
 
     // Add the inverse scaling based on total enemies
-    currentSpeed = baseSpeed + (int) (20.0 / (totalEnemies + 1));
+    int speed = baseSpeed + (int) (20.0 / (totalEnemies + 1));
+    if (speed != currentSpeed) {
+      currentSpeed = speed;
+      stateChanged();
+    }
+  }
+
+  /**
+   * Updates the enemy's speed as {@link #updateSpeed(int, int)} does and then scales it.
+   * The scaled speed never drops below 1.
+   *
+   * @param totalEnemies the current number of enemies in the game
+   * @param dropCount the number of times the enemies have moved down
+   * @param speedPercent the scale to apply, in percent of the standard speed
+   */
+  public void updateSpeed(int totalEnemies, int dropCount, int speedPercent) {
+    updateSpeed(totalEnemies, dropCount);
+    if (speedPercent != 100) {
+      currentSpeed = Math.max(1, currentSpeed * speedPercent / 100);
+      stateChanged();
+    }
   }
 
   /**
@@ -91,6 +188,46 @@ public class Enemy {
    */
   public void takeDamage(int damage) {
     health = Math.max(0, health - damage);
+    stateChanged();
+  }
+
+  /**
+   * Sets the enemy burning. A burn already in progress keeps the higher damage and the
+   * longer time left of the two.
+   *
+   * @param damagePerTick the health lost each tick
+   * @param ticks the number of ticks the burn lasts
+   */
+  void ignite(int damagePerTick, int ticks) {
+    burnDamage = Math.max(burnDamage, damagePerTick);
+    burnTicks = Math.max(burnTicks, ticks);
+    stateChanged();
+  }
+
+  /**
+   * Applies one tick of burn damage, if the enemy is burning.
+   *
+   * @return true if the enemy was burning
+   */
+  boolean burn() {
+    if (burnTicks == 0) {
+      return false;
+    }
+    health = Math.max(0, health - burnDamage);
+    if (--burnTicks == 0) {
+      burnDamage = 0;
+    }
+    stateChanged();
+    return true;
+  }
+
+  /**
+   * Checks if the enemy is burning.
+   *
+   * @return true if the enemy takes burn damage on the coming ticks
+   */
+  public boolean isBurning() {
+    return burnTicks > 0;
   }
 
   /**
@@ -127,6 +264,7 @@ public class Enemy {
    */
   public void setX(int x) {
     this.x = x;
+    stateChanged();
   }
 
   /**
@@ -145,6 +283,7 @@ public class Enemy {
    */
   public void setY(int y) {
     this.y = y;
+    stateChanged();
   }
 
   /**
@@ -173,4 +312,23 @@ public class Enemy {
   public int getCurrentSpeed() {
     return currentSpeed;
   }
+
+  /**
+   * Returns the handle that refers to this enemy in its game model.
+   *
+   * @return the enemy's handle, or {@link SlotMap#NULL_HANDLE} if it is not registered
+   */
+  public long getHandle() {
+    return handle;
+  }
+
+  /**
+   * Sets the handle that refers to this enemy in its game model.
+   *
+   * @param handle the handle issued by the model's enemy registry
+   */
+  void setHandle(long handle) {
+    this.handle = handle;
+    stateChanged();
+  }
 }
@@ -0,0 +1,118 @@
+package com.spaceshooter.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An index of the live enemies by the x-interval they cover, used to resolve hitscan
+ * shots without testing every enemy.
+ * Enemies are kept sorted by their left edge. A vertical ray only needs the enemies
+ * whose left edge lies less than one enemy width to its left, which one binary search
+ * finds, so a shot costs O(log n) plus the enemies in its column.
+ * The index is rebuilt on the next shot after the enemies have moved, been added or
+ * been removed; it is derived from the enemy list and is not part of the game state.
+ */
+final class EnemyColumnIndex {
+  // Left edge in the high half, list index in the low half, so sorting orders by x
+  private long[] entries = new long[64];
+  private int count;
+  private int maxWidth;
+  private boolean valid;
+  private int[] hitBottoms = new int[8];
+
+  /**
+   * Marks the index as out of date, so the next cast rebuilds it.
+   */
+  void invalidate() {
+    valid = false;
+  }
+
+  private void rebuild(List<Enemy> enemies) {
+    count = enemies.size();
+    if (entries.length < count) {
+      entries = new long[Math.max(count, entries.length * 2)];
+    }
+    maxWidth = 0;
+    for (int i = 0; i < count; i++) {
+      Enemy enemy = enemies.get(i);
+      entries[i] = ((long) enemy.getX() << 32) | i;
+      maxWidth = Math.max(maxWidth, enemy.getWidth());
+    }
+    Arrays.sort(entries, 0, count);
+    valid = true;
+  }
+
+  /**
+   * Finds the enemies a beam fired straight up hits, nearest first.
+   * An enemy is hit if it overlaps the beam's columns and its top edge is above the
+   * point the beam is fired from. Enemies at the same height are ordered by their
+   * position in the enemy list, so the result does not depend on the sort.
+   *
+   * @param enemies the live enemies
+   * @param x the left edge of the beam
+   * @param y the y-coordinate the beam is fired from
+   * @param width the width of the beam
+   * @param limit the largest number of enemies to return
+   * @param hits receives the list indices of the enemies hit; at least limit long
+   * @param masks the collision masks the beam must also hit, or null
+   * @return the number of enemies hit, at most limit
+   */
+  int cast(List<Enemy> enemies, int x, int y, int width, int limit, int[] hits,
+      SpriteMasks masks) {
+    if (!valid) {
+      rebuild(enemies);
+    }
+    if (hitBottoms.length < limit) {
+      hitBottoms = new int[limit];
+    }
+    int hitCount = 0;
+    int right = x + width;
+    for (int i = lowerBound(x - maxWidth + 1); i < count; i++) {
+      long entry = entries[i];
+      if ((int) (entry >> 32) >= right) {
+        break;
+      }
+      int index = (int) entry;
+      Enemy enemy = enemies.get(index);
+      if (enemy.getX() + enemy.getWidth() <= x || enemy.getY() >= y
+          || masks != null && !masks.beamHits(x, y, width, enemy)) {
+        continue;
+      }
+      // Keep the nearest enemies, those with the lowest bottom edge, in order
+      int bottom = enemy.getY() + enemy.getHeight();
+      int slot = hitCount;
+      while (slot > 0 && (hitBottoms[slot - 1] < bottom
+          || hitBottoms[slot - 1] == bottom && hits[slot - 1] > index)) {
+        slot--;
+      }
+      if (slot >= limit) {
+        continue;
+      }
+      int last = Math.min(hitCount, limit - 1);
+      System.arraycopy(hits, slot, hits, slot + 1, last - slot);
+      System.arraycopy(hitBottoms, slot, hitBottoms, slot + 1, last - slot);
+      hits[slot] = index;
+      hitBottoms[slot] = bottom;
+      hitCount = Math.min(hitCount + 1, limit);
+    }
+    return hitCount;
+  }
+
+  /**
+   * Returns the position of the first entry whose left edge is at least x.
+   */
+  private int lowerBound(int x) {
+    long key = (long) x << 32;
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (entries[middle] < key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
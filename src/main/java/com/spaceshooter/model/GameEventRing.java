@@ -0,0 +1,250 @@
+package com.spaceshooter.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A ring of game events, such as hits, kills and shots, published by a game as it
+ * updates and read by any number of consumers, in the style of the Disruptor.
+ * The game is the only producer. It fills preallocated slots, held as parallel int
+ * arrays, and then moves the ring's cursor forward; each consumer keeps its own
+ * sequence of the last event it has read, so consumers never wait for each other and
+ * the game never waits for them. A consumer drains every event published since its
+ * last drain in one batch and publishes its new sequence once, so it can run on
+ * another thread, a frame or more behind the game.
+ *
+ * A slot is only reused once every consumer has read it. If the slowest consumer
+ * falls a whole ring behind, new events are dropped and counted rather than holding
+ * up the tick, so the ring should be sized for the longest gap between drains.
+ *
+ * Events are effects of the game, not game state. Copies of a game do not publish, a
+ * restored snapshot publishes nothing, and a game that replays ticks publishes their
+ * events again.
+ */
+public final class GameEventRing {
+  /** An enemy was hit and survived. Value: the damage done, 0 in god mode. */
+  public static final int ENEMY_HIT = 0;
+  /** An enemy was destroyed. Value: the points scored. */
+  public static final int ENEMY_DESTROYED = 1;
+  /** A player was hit and survived. Subject: the player index. Value: the damage. */
+  public static final int PLAYER_HIT = 2;
+  /** A player was destroyed. Subject: the player index. Value: the damage. */
+  public static final int PLAYER_DESTROYED = 3;
+  /** A player fired. Subject: the player index. Value: the weapon's loadout tag. */
+  public static final int SHOT_FIRED = 4;
+  /** The game ended. Value: the final score. */
+  public static final int GAME_OVER = 5;
+  /** The default number of slots. */
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  private static final VarHandle CURSOR;
+  private static final VarHandle SEQUENCE;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      CURSOR = lookup.findVarHandle(GameEventRing.class, "cursor", long.class);
+      SEQUENCE = lookup.findVarHandle(Consumer.class, "sequence", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final int mask;
+  private final int[] types;
+  private final int[] ticks;
+  private final int[] subjects;
+  private final int[] xs;
+  private final int[] ys;
+  private final int[] values;
+  @SuppressWarnings("unused") // Accessed through CURSOR
+  private long cursor = -1;
+  private long next; // Producer only: the sequence of the next event
+  private long gate = -1; // Producer only: the slowest consumer's sequence when last read
+  private volatile Consumer[] consumers = new Consumer[0];
+  private volatile long dropped;
+
+  /**
+   * Receives events drained from the ring.
+   */
+  public interface Handler {
+    /**
+     * Handles one event. The arguments are only valid during the call.
+     *
+     * @param type one of the event type constants
+     * @param tick the game tick the event happened on
+     * @param subject the enemy's handle slot or the player's index
+     * @param x the x-coordinate of the centre of the subject
+     * @param y the y-coordinate of the centre of the subject
+     * @param value the damage, points, weapon or score, depending on the type
+     */
+    void onEvent(int type, int tick, int subject, int x, int y, int value);
+  }
+
+  /**
+   * One reader of the ring, with its own position in it.
+   * A consumer must only be drained by one thread at a time.
+   */
+  public static final class Consumer {
+    private final GameEventRing ring;
+    @SuppressWarnings("unused") // Accessed through SEQUENCE
+    private long sequence;
+
+    private Consumer(GameEventRing ring, long sequence) {
+      this.ring = ring;
+      this.sequence = sequence;
+    }
+
+    /**
+     * Hands every event published since the last drain to a handler, oldest first,
+     * then frees their slots for reuse.
+     *
+     * @param handler the handler to call
+     * @return the number of events handled
+     */
+    public int drain(Handler handler) {
+      long from = (long) SEQUENCE.getOpaque(this) + 1;
+      long to = (long) CURSOR.getAcquire(ring);
+      for (long s = from; s <= to; s++) {
+        int slot = (int) s & ring.mask;
+        handler.onEvent(ring.types[slot], ring.ticks[slot], ring.subjects[slot],
+            ring.xs[slot], ring.ys[slot], ring.values[slot]);
+      }
+      if (to >= from) {
+        SEQUENCE.setRelease(this, to);
+      }
+      return (int) Math.max(0, to - from + 1);
+    }
+
+    /**
+     * Returns the number of events published but not yet drained.
+     *
+     * @return the backlog of this consumer
+     */
+    public long getBacklog() {
+      return (long) CURSOR.getAcquire(ring) - (long) SEQUENCE.getOpaque(this);
+    }
+  }
+
+  /**
+   * Constructs a ring with the default capacity.
+   */
+  public GameEventRing() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs a ring.
+   *
+   * @param capacity the number of slots, a power of two
+   */
+  public GameEventRing(int capacity) {
+    if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+    }
+    this.mask = capacity - 1;
+    this.types = new int[capacity];
+    this.ticks = new int[capacity];
+    this.subjects = new int[capacity];
+    this.xs = new int[capacity];
+    this.ys = new int[capacity];
+    this.values = new int[capacity];
+  }
+
+  /**
+   * Adds a consumer that will see every event published from now on.
+   *
+   * @return the new consumer
+   */
+  public synchronized Consumer addConsumer() {
+    Consumer consumer = new Consumer(this, (long) CURSOR.getAcquire(this));
+    Consumer[] current = consumers;
+    Consumer[] grown = Arrays.copyOf(current, current.length + 1);
+    grown[current.length] = consumer;
+    consumers = grown;
+    return consumer;
+  }
+
+  /**
+   * Removes a consumer, so the ring no longer waits for it to free slots.
+   *
+   * @param consumer the consumer to remove
+   */
+  public synchronized void removeConsumer(Consumer consumer) {
+    Consumer[] current = consumers;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == consumer) {
+        Consumer[] shrunk = new Consumer[current.length - 1];
+        System.arraycopy(current, 0, shrunk, 0, i);
+        System.arraycopy(current, i + 1, shrunk, i, current.length - i - 1);
+        consumers = shrunk;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Publishes an event. Called only by the game that owns the ring.
+   *
+   * @return true if the event was published, false if it was dropped because the
+   *     slowest consumer is a whole ring behind
+   */
+  boolean publish(int type, int tick, int subject, int x, int y, int value) {
+    long sequence = next;
+    long wrapPoint = sequence - types.length;
+    if (wrapPoint > gate) {
+      gate = slowestSequence(sequence - 1);
+      if (wrapPoint > gate) {
+        dropped++;
+        return false;
+      }
+    }
+    int slot = (int) sequence & mask;
+    types[slot] = type;
+    ticks[slot] = tick;
+    subjects[slot] = subject;
+    xs[slot] = x;
+    ys[slot] = y;
+    values[slot] = value;
+    next = sequence + 1;
+    CURSOR.setRelease(this, sequence);
+    return true;
+  }
+
+  private long slowestSequence(long published) {
+    long slowest = published;
+    Consumer[] current = consumers;
+    for (int i = 0; i < current.length; i++) {
+      slowest = Math.min(slowest, (long) SEQUENCE.getAcquire(current[i]));
+    }
+    return slowest;
+  }
+
+  /**
+   * Returns the sequence of the last event published.
+   *
+   * @return the cursor, -1 before the first event
+   */
+  public long getCursor() {
+    return (long) CURSOR.getAcquire(this);
+  }
+
+  /**
+   * Returns the number of events dropped because a consumer fell too far behind.
+   *
+   * @return the dropped event count
+   */
+  public long getDropped() {
+    return dropped;
+  }
+
+  /**
+   * Returns the number of slots.
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return types.length;
+  }
+}
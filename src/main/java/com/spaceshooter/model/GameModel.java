@@ -2,13 +2,23 @@ package com.spaceshooter.model;
 
 import com.spaceshooter.strategy.MissileStrategy;
 import com.spaceshooter.strategy.BasicMissileStrategy;
+import com.spaceshooter.strategy.BulletCurtainStrategy;
 import com.spaceshooter.strategy.DoubleMissileStrategy;
+import com.spaceshooter.strategy.ProjectileSink;
+import com.spaceshooter.strategy.SpreadMissileStrategy;
+import com.spaceshooter.strategy.SwarmMissileStrategy;
 import com.spaceshooter.strategy.TargetingMissileStrategy;
+import com.spaceshooter.adapter.HitscanLaserAdapter;
 import com.spaceshooter.adapter.LaserMissileAdapter;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * The main game model that manages the state and logic of the Space Shooter game.
@@ -26,65 +36,626 @@ public class GameModel {
   public static final int DOUBLE_MISSILE_LIMIT = Integer.MAX_VALUE;  // Infinite
   public static final int TARGETING_MISSILE_LIMIT = 1;  // Changed from 4 to 1
   public static final int LASER_MISSILE_LIMIT = 2;  // Changed from 30 to 2
-  private static final int ENEMY_MOVE_INTERVAL = 30; // Move every 30 updates
+  public static final int PATTERN_MISSILE_LIMIT = 600;  // Spread and curtain missiles
+  public static final int SWARM_MISSILE_LIMIT = 2000;
+  public static final int ENEMY_BULLET_LIMIT = 65_536;  // Bullets of bullet-hell waves
+  private static final int BEAM_DISPLAY_TICKS = 3;
+  /** The largest number of players a game can hold. */
+  public static final int MAX_PLAYERS = 8;
   private static final int WIDTH = 600; // Game width
+  private static final int HEIGHT = 700; // Game height
   private static final int ENEMY_MOVE_DOWN_AMOUNT = 50;
-  private Player player;
+  private static final int PLAYER_Y = 600;
+  private static final double ENEMY_FIRE_CHANCE = 0.02; // Per tick
+  private static final int EVENT_SLOTS = 64;
+  // Kinds of scheduled event, in the order they are handled when due on the same tick
+  private static final int EVENT_ENEMY_MOVE = 0;
+  private static final int EVENT_ENEMY_FIRE = 1;
+  private static final int EVENT_BULLET_CUE = 2;
+  private Player player; // Player 0, the local player of a single-player game
+  private final List<Player> players = new ArrayList<>();
+  private final List<Loadout> loadouts = new ArrayList<>();
   private List<Enemy> enemies;
+  private SlotMap<Enemy> enemyRegistry;
   private List<Missile> missiles;
-  private MissileStrategy missileStrategy;
-  private Random random;
+  private GameRandom random;
+  private final DifficultySettings settings;
   private int score;
   private boolean gameOver = false;
   private boolean debugMode = false;
   private boolean godMode = false;
   private int leftmostX = 0;
   private int rightmostX = 0;
-  // Remaining weapon counts
-  private int remainingTargetingMissiles = 2;  // Start with 2 targeting missiles
-  private int remainingLaserMissiles = 30;  // Start with 30 laser missiles
-  // Current live missile counts
-  private int basicMissilesLive;
-  private int doubleMissilesLive;
-  private int targetingMissilesLive;
-  private int laserMissilesLive;
+  private int firingPlayer; // The player whose weapon is creating missiles right now
+  private int firingWeapon; // The tag of that player's weapon, recorded on its missiles
+  private final Emitter emitter = new Emitter();
+  private int nextMissileId = 1;
   private boolean movingRight = true;
-  private int moveCounter = 0;
+  private final TickWheel events = new TickWheel(EVENT_SLOTS);
+  // Enemy speeds only change with the enemy count and drop count, so they are
+  // recomputed on the next tick after either changes rather than every tick
+  private boolean enemySpeedsDirty = true;
+  // Enemies by x-interval for hitscan shots, rebuilt on the first shot after they change
+  private final EnemyColumnIndex enemyIndex = new EnemyColumnIndex();
+  private final SwarmSteering swarmSteering = new SwarmSteering();
+  private final BulletField enemyBullets = new BulletField();
+  private int[] beamHits = new int[HitscanLaserAdapter.DEFAULT_PIERCE];
+  // The last hitscan beam, shown for a few ticks; display only, not part of the state
+  private int beamX;
+  private int beamWidth;
+  private int beamTop;
+  private int beamBottom;
+  private int beamTicksLeft;
   // Amount to move down when enemies hit the edge
   private int enemyDirection = 1; // Direction of enemy movement
   private int dropCount = 0; // Track how many times enemies have dropped
+  // Scratch sets reused by every tick; enemy removal order is kept for determinism
+  private final Set<Missile> missilesToRemove = new HashSet<>();
+  private final Set<Enemy> enemiesToRemove = new LinkedHashSet<>();
+  private ParallelTick parallelTick;
+  private SpriteMasks spriteMasks; // Null for bounding-box collisions only
+  private GameEventRing eventRing; // Created when something first asks for the events
+  // The enemies of the starting formation, kept so that reset() can reuse them
+  private final List<Enemy> formation = new ArrayList<>();
+  // Enemy and plain missile objects that copyFrom() can reuse
+  private final List<Enemy> spareEnemies = new ArrayList<>();
+  private final List<Missile> spareMissiles = new ArrayList<>();
+  // Running sum of the attached entities' state hashes, or null if hashing is off
+  private StateHash stateHash = new StateHash();
 
   /**
    * Constructs a new GameModel with initial game state.
    * Initializes the player, enemies, missiles, and sets up the default missile strategy.
    */
   public GameModel() {
-    this.player = new Player(300, 600);
+    this(new Random().nextLong(), new DifficultySettings());
+  }
+
+  /**
+   * Constructs a new GameModel whose random events are driven by the given seed.
+   * Two models built with the same seed and fed the same input play out identically.
+   *
+   * @param seed the seed for enemy fire and other random events
+   */
+  public GameModel(long seed) {
+    this(seed, new DifficultySettings());
+  }
+
+  /**
+   * Constructs a new seeded GameModel with custom difficulty settings.
+   *
+   * @param seed the seed for enemy fire and other random events
+   * @param settings the difficulty settings to play with
+   */
+  public GameModel(long seed, DifficultySettings settings) {
+    this.settings = settings;
+    this.player = new Player(spawnX(0), PLAYER_Y);
+    attach(this.player);
+    this.players.add(player);
+    this.loadouts.add(new Loadout(settings));
     this.enemies = new ArrayList<>();
+    this.enemyRegistry = new SlotMap<>();
     this.missiles = new ArrayList<>();
-    this.missileStrategy = new BasicMissileStrategy();
-    this.random = new Random();
+    this.random = new GameRandom(seed);
     this.score = 0;
 
-    // Initialize live missile counts
-    resetLiveMissileCounts();
-
     initializeEnemies();
+    scheduleOpeningEvents();
   }
 
-  private void resetLiveMissileCounts() {
-    basicMissilesLive = 0;
-    doubleMissilesLive = 0;
-    targetingMissilesLive = 0;
-    laserMissilesLive = 0;
+  private static int spawnX(int playerIndex) {
+    // Player 0 starts in the middle; the others are spread across the field
+    return (300 + playerIndex * 150) % 560;
+  }
+
+  /**
+   * Schedules the first formation move, the first enemy shot and, when the enemies
+   * fire bullet patterns, the first cue of the wave of a new game.
+   */
+  private void scheduleOpeningEvents() {
+    events.clear();
+    events.schedule(settings.getEnemyMoveInterval(), EVENT_ENEMY_MOVE);
+    events.schedule(random.nextGeometric(ENEMY_FIRE_CHANCE), EVENT_ENEMY_FIRE);
+    BulletWave wave = settings.getBulletWave();
+    if (wave != null && wave.getCueCount() > 0) {
+      events.schedule(Math.max(1, wave.getCueTick(0)), EVENT_BULLET_CUE);
+    }
   }
 
   private void initializeEnemies() {
     for (int row = 0; row < 3; row++) {
       for (int col = 0; col < 8; col++) {
-        enemies.add(new Enemy(50 + col * 70, 150 + row * 60, WIDTH));
+        Enemy enemy = new Enemy(50 + col * 70, 150 + row * 60, WIDTH);
+        formation.add(enemy);
+        addEnemy(enemy);
+      }
+    }
+  }
+
+  /**
+   * Starts a new game in this model with a new seed.
+   * The model, its player and its formation enemies are reused rather than rebuilt,
+   * so resetting does not allocate entities. Difficulty settings, the parallel
+   * tick and the number of players are kept; all other state returns to what the
+   * constructor and {@link #addPlayer()} set up.
+   *
+   * @param seed the seed for the new game's random events
+   */
+  public void reset(long seed) {
+    random.setSeed(seed);
+    for (int i = 0; i < players.size(); i++) {
+      players.get(i).reset(spawnX(i), PLAYER_Y);
+      loadouts.get(i).reset(settings);
+    }
+    recycleEntities();
+    // Every missile holding a handle has been recycled, so the generations can start
+    // over and the new game's handles and hash match a newly constructed game's
+    enemyRegistry.reset();
+    enemyBullets.clear();
+    score = 0;
+    beamTicksLeft = 0;
+    gameOver = false;
+    debugMode = false;
+    godMode = false;
+    leftmostX = 0;
+    rightmostX = 0;
+    nextMissileId = 1;
+    movingRight = true;
+    enemyDirection = 1;
+    dropCount = 0;
+
+    for (int i = 0; i < formation.size(); i++) {
+      Enemy enemy = formation.get(i);
+      enemy.reset(50 + (i % 8) * 70, 150 + (i / 8) * 60);
+      addEnemy(enemy);
+    }
+    scheduleOpeningEvents();
+  }
+
+  private void addEnemy(Enemy enemy) {
+    enemy.setHandle(enemyRegistry.insert(enemy));
+    attach(enemy);
+    enemies.add(enemy);
+    enemySpeedsDirty = true;
+    enemyIndex.invalidate();
+  }
+
+  private void removeEnemies(Collection<Enemy> enemiesToRemove) {
+    if (enemiesToRemove.isEmpty()) {
+      return;
+    }
+    for (Enemy enemy : enemiesToRemove) {
+      // Invalidate the handle so missiles tracking this enemy let go of it
+      enemyRegistry.remove(enemy.getHandle());
+      enemy.detachHash();
+    }
+    enemies.removeAll(enemiesToRemove);
+    enemySpeedsDirty = true;
+    enemyIndex.invalidate();
+  }
+
+  private void track(Missile missile) {
+    attach(missile);
+    missiles.add(missile);
+  }
+
+  /**
+   * Adds a newly created missile, giving it an identifier and an owner.
+   */
+  private void launch(Missile missile) {
+    missile.setOwner(missile.isPlayerMissile() ? firingPlayer : 0);
+    missile.setWeapon(missile.isPlayerMissile() ? firingWeapon : 0);
+    missile.setId(nextMissileId++);
+    track(missile);
+  }
+
+  /**
+   * The projectile sink handed to missile strategies when a player fires.
+   * Plain projectiles come from the pool of spare missiles.
+   */
+  private final class Emitter implements ProjectileSink {
+    private int hitscans; // Hitscan beams resolved during the current shot
+
+    @Override
+    public void emit(int x, int y, int velocityX, int velocityY) {
+      Missile missile = reusableMissile();
+      missile.reuse(x, y, velocityX, velocityY, true);
+      launch(missile);
+    }
+
+    @Override
+    public void add(Missile missile) {
+      launch(missile);
+    }
+
+    @Override
+    public int hitscan(int x, int y, int width, int pierce, int damage, int burnDamage,
+        int burnTicks) {
+      hitscans++;
+      return resolveHitscan(x, y, width, pierce, damage, burnDamage, burnTicks);
+    }
+
+    @Override
+    public int getFieldWidth() {
+      return WIDTH;
+    }
+  }
+
+  /**
+   * Casts a hitscan beam against the enemy index and applies its damage at once.
+   * Enemies destroyed by the beam are removed straight away and score like laser hits.
+   */
+  private int resolveHitscan(int x, int y, int width, int pierce, int damage, int burnDamage,
+      int burnTicks) {
+    if (beamHits.length < pierce) {
+      beamHits = new int[pierce];
+    }
+    int hits = enemyIndex.cast(enemies, x, y, width, pierce, beamHits, spriteMasks);
+    // The beam ends inside the last enemy it can pierce, or at the top of the field
+    beamX = x;
+    beamWidth = width;
+    beamBottom = y;
+    beamTop = hits == pierce ? enemies.get(beamHits[hits - 1]).getY() : 0;
+    beamTicksLeft = BEAM_DISPLAY_TICKS;
+
+    enemiesToRemove.clear();
+    for (int i = 0; i < hits; i++) {
+      Enemy enemy = enemies.get(beamHits[i]);
+      if (godMode) {
+        enemiesToRemove.add(enemy);
+        score += 100;
+        publishEnemyHit(enemy, true, 100);
+        continue;
+      }
+      enemy.takeDamage(damage);
+      if (enemy.isDestroyed()) {
+        enemiesToRemove.add(enemy);
+        score += 200; // Double points for laser hits
+        publishEnemyHit(enemy, true, 200);
+      } else {
+        if (burnTicks > 0) {
+          enemy.ignite(burnDamage, burnTicks);
+        }
+        publishEnemyHit(enemy, false, damage);
+      }
+    }
+    removeEnemies(enemiesToRemove);
+    return hits;
+  }
+
+  /**
+   * Applies a tick of burn damage to every burning enemy, removing those it destroys.
+   */
+  private void burnEnemies() {
+    enemiesToRemove.clear();
+    for (int i = 0; i < enemies.size(); i++) {
+      Enemy enemy = enemies.get(i);
+      if (enemy.burn() && enemy.isDestroyed()) {
+        enemiesToRemove.add(enemy);
+        score += 200; // A burn is laser damage, so it scores like a laser hit
+        publishEnemyHit(enemy, true, 200);
+      }
+    }
+    removeEnemies(enemiesToRemove);
+  }
+
+  /**
+   * Makes sure a shot of the given size takes its missiles from the pool and does not
+   * grow the missile list.
+   */
+  private void reserveMissiles(int count) {
+    while (spareMissiles.size() < count) {
+      spareMissiles.add(new Missile(0, 0, true));
+    }
+    ((ArrayList<Missile>) missiles).ensureCapacity(missiles.size() + count);
+  }
+
+  /**
+   * Grows or shrinks the player and loadout lists to the given size.
+   */
+  private void matchPlayerCount(int count) {
+    while (players.size() < count) {
+      Player added = new Player(spawnX(players.size()), PLAYER_Y);
+      attach(added);
+      players.add(added);
+      loadouts.add(new Loadout(settings));
+    }
+    while (players.size() > count) {
+      players.remove(players.size() - 1).detachHash();
+      loadouts.remove(loadouts.size() - 1);
+    }
+  }
+
+  private void attach(TrackedEntity entity) {
+    if (stateHash != null) {
+      entity.attachHash(stateHash);
+    }
+  }
+
+  private void removeMissiles(Collection<Missile> missilesToRemove) {
+    if (missilesToRemove.isEmpty()) {
+      return; // Iterating the reused set would scan its whole table for nothing
+    }
+    for (Missile missile : missilesToRemove) {
+      missile.detachHash();
+      if (missile.getClass() == Missile.class) {
+        spareMissiles.add(missile); // Fired again by the next shot that needs one
+      }
+    }
+    missiles.removeAll(missilesToRemove);
+  }
+
+  /**
+   * Returns an independent copy of this game.
+   * The copy shares only the difficulty settings with this model; stepping either
+   * game afterwards does not affect the other. Handles held by targeting missiles
+   * stay valid in the copy because the enemy registry keeps the same slot layout.
+   *
+   * @return the forked game
+   */
+  public GameModel copy() {
+    GameModel fork = new GameModel(0L, settings);
+    fork.spriteMasks = spriteMasks;
+    fork.copyFrom(this);
+    return fork;
+  }
+
+  /**
+   * Overwrites this game's state with a copy of another game's state.
+   * Enemy, player and plain missile objects already owned by this model are reused,
+   * so copying into the same model repeatedly, as a lookahead search does, allocates
+   * only for special missiles such as targeting missiles and laser beams.
+   * The parallel tick and debug settings of this model are kept.
+   *
+   * @param source the game to copy
+   */
+  public void copyFrom(GameModel source) {
+    if (source == this) {
+      return;
+    }
+    matchPlayerCount(source.players.size());
+    for (int i = 0; i < players.size(); i++) {
+      players.get(i).copyStateFrom(source.players.get(i));
+      Loadout loadout = loadouts.get(i);
+      Loadout sourceLoadout = source.loadouts.get(i);
+      loadout.copyFrom(sourceLoadout,
+          copyStrategy(sourceLoadout.getMissileStrategy(), loadout.getMissileStrategy()));
+    }
+    recycleEntities();
+
+    enemyRegistry.copyLayoutFrom(source.enemyRegistry);
+    List<Enemy> sourceEnemies = source.enemies;
+    for (int i = 0; i < sourceEnemies.size(); i++) {
+      Enemy enemy = reusableEnemy(i);
+      enemy.copyStateFrom(sourceEnemies.get(i));
+      enemyRegistry.restore(enemy.getHandle(), enemy);
+      attach(enemy);
+      enemies.add(enemy);
+    }
+
+    List<Missile> sourceMissiles = source.missiles;
+    for (int i = 0; i < sourceMissiles.size(); i++) {
+      Missile original = sourceMissiles.get(i);
+      if (original.getClass() == Missile.class) {
+        Missile missile = reusableMissile();
+        missile.copyStateFrom(original);
+        track(missile);
+      } else {
+        Missile copy = original.copyFor(this);
+        copy.setOwner(original.getOwner());
+        copy.setId(original.getId());
+        copy.setWeapon(original.getWeapon());
+        track(copy);
       }
     }
+
+    random.setState(source.random.getState());
+    score = source.score;
+    gameOver = source.gameOver;
+    godMode = source.godMode;
+    leftmostX = source.leftmostX;
+    rightmostX = source.rightmostX;
+    nextMissileId = source.nextMissileId;
+    movingRight = source.movingRight;
+    events.copyFrom(source.events);
+    enemyBullets.copyFrom(source.enemyBullets);
+    enemyDirection = source.enemyDirection;
+    dropCount = source.dropCount;
+    enemySpeedsDirty = true;
+    enemyIndex.invalidate();
+  }
+
+  /**
+   * Empties the entity lists, keeping plain missiles for reuse.
+   * Enemies need no bookkeeping: the formation and spare enemies are always owned.
+   * Every removed entity stops contributing to the state hash.
+   */
+  private void recycleEntities() {
+    // Indexed loops here and in the tick keep rollback re-simulation free of iterators
+    for (int i = 0; i < missiles.size(); i++) {
+      Missile missile = missiles.get(i);
+      missile.detachHash();
+      if (missile.getClass() == Missile.class) {
+        spareMissiles.add(missile);
+      }
+    }
+    for (int i = 0; i < enemies.size(); i++) {
+      enemies.get(i).detachHash();
+    }
+    missiles.clear();
+    enemies.clear();
+  }
+
+  /**
+   * Returns the enemy object to use for the i-th enemy when rebuilding the enemy list.
+   */
+  private Enemy reusableEnemy(int index) {
+    if (index < formation.size()) {
+      return formation.get(index);
+    }
+    int spare = index - formation.size();
+    if (spare == spareEnemies.size()) {
+      spareEnemies.add(new Enemy(0, 0, WIDTH));
+    }
+    return spareEnemies.get(spare);
+  }
+
+  private Missile reusableMissile() {
+    if (spareMissiles.isEmpty()) {
+      return new Missile(0, 0, true);
+    }
+    return spareMissiles.remove(spareMissiles.size() - 1);
+  }
+
+  /**
+   * Writes the complete game state to a snapshot buffer.
+   * Used by {@link SnapshotCodec}; debug mode and the parallel tick are not saved.
+   *
+   * @param out the buffer to write to
+   */
+  void writeState(ByteBuffer out) {
+    int flags = (gameOver ? 1 : 0) | (godMode ? 2 : 0) | (movingRight ? 4 : 0);
+    out.put((byte) flags);
+    out.putInt(score);
+    out.putInt(leftmostX).putInt(rightmostX);
+    out.putInt(enemyDirection).putInt(dropCount);
+    out.putLong(random.getState());
+    events.writeState(out);
+    out.putInt(nextMissileId);
+    out.put((byte) players.size());
+    for (int i = 0; i < players.size(); i++) {
+      players.get(i).writeState(out);
+      Loadout loadout = loadouts.get(i);
+      out.put((byte) strategyTag(loadout.getMissileStrategy()));
+      loadout.writeState(out);
+    }
+
+    enemyRegistry.writeLayout(out);
+    out.putInt(enemies.size());
+    for (Enemy enemy : enemies) {
+      enemy.writeState(out);
+    }
+    out.putInt(missiles.size());
+    for (Missile missile : missiles) {
+      out.put((byte) missile.getKind());
+      missile.writeState(out);
+    }
+    enemyBullets.writeState(out);
+  }
+
+  /**
+   * Replaces the game state with one written by {@link #writeState(ByteBuffer)}.
+   * Entity objects are reused the same way {@link #copyFrom(GameModel)} reuses them.
+   *
+   * @param in the buffer to read from
+   */
+  void readState(ByteBuffer in) {
+    int flags = in.get();
+    gameOver = (flags & 1) != 0;
+    godMode = (flags & 2) != 0;
+    movingRight = (flags & 4) != 0;
+    score = in.getInt();
+    leftmostX = in.getInt();
+    rightmostX = in.getInt();
+    enemyDirection = in.getInt();
+    dropCount = in.getInt();
+    random.setState(in.getLong());
+    events.readState(in);
+    enemySpeedsDirty = true;
+    enemyIndex.invalidate();
+    nextMissileId = in.getInt();
+    int playerCount = in.get();
+    if (playerCount < 1 || playerCount > MAX_PLAYERS) {
+      throw new IllegalArgumentException("Invalid player count in snapshot: " + playerCount);
+    }
+    matchPlayerCount(playerCount);
+    for (int i = 0; i < playerCount; i++) {
+      players.get(i).readState(in);
+      loadouts.get(i).readState(in, strategyForTag(in.get()));
+    }
+
+    recycleEntities();
+    enemyRegistry.readLayout(in);
+    int enemyCount = in.getInt();
+    for (int i = 0; i < enemyCount; i++) {
+      Enemy enemy = reusableEnemy(i);
+      enemy.readState(in);
+      enemyRegistry.restore(enemy.getHandle(), enemy);
+      attach(enemy);
+      enemies.add(enemy);
+    }
+    int missileCount = in.getInt();
+    for (int i = 0; i < missileCount; i++) {
+      int kind = in.get();
+      Missile missile;
+      if (kind == Missile.KIND_BASIC) {
+        missile = reusableMissile();
+      } else if (kind == Missile.KIND_TARGETING) {
+        missile = new TargetingMissile(0, 0, enemyRegistry, SlotMap.NULL_HANDLE);
+      } else if (kind == Missile.KIND_SWARM) {
+        missile = new SwarmMissile(0, 0, enemyRegistry, SlotMap.NULL_HANDLE, 0, 0);
+      } else if (kind == Missile.KIND_LASER) {
+        // A laser missile is rebuilt by firing a beam at its saved position
+        int position = in.position();
+        missile = new LaserMissileAdapter().createMissile(in.getInt(position),
+            in.getInt(position + 4));
+      } else {
+        throw new IllegalArgumentException("Unknown missile kind in snapshot: " + kind);
+      }
+      missile.readState(in);
+      track(missile);
+    }
+    enemyBullets.readState(in);
+  }
+
+  /**
+   * Returns an upper bound on the number of bytes {@link #writeState(ByteBuffer)} writes.
+   *
+   * @return the maximum encoded size of the current state
+   */
+  int stateSizeBound() {
+    return 64 + events.stateSize() + players.size() * 52 + enemyRegistry.layoutSize()
+        + enemies.size() * 32 + missiles.size() * 80 + enemyBullets.stateSize();
+  }
+
+  private int strategyTag(MissileStrategy strategy) {
+    return Loadout.tagOf(strategy);
+  }
+
+  private MissileStrategy strategyForTag(int tag) {
+    switch (tag) {
+      case Loadout.TAG_BASIC:
+        return new BasicMissileStrategy();
+      case Loadout.TAG_DOUBLE:
+        return new DoubleMissileStrategy(this);
+      case Loadout.TAG_TARGETING:
+        return new TargetingMissileStrategy(this);
+      case Loadout.TAG_LASER:
+        return new LaserMissileAdapter();
+      case Loadout.TAG_SPREAD:
+        return new SpreadMissileStrategy();
+      case Loadout.TAG_CURTAIN:
+        return new BulletCurtainStrategy();
+      case Loadout.TAG_HITSCAN:
+        return new HitscanLaserAdapter();
+      case Loadout.TAG_SWARM:
+        return new SwarmMissileStrategy(this);
+      default:
+        throw new IllegalArgumentException("Unknown missile strategy in snapshot: " + tag);
+    }
+  }
+
+  private MissileStrategy copyStrategy(MissileStrategy strategy, MissileStrategy current) {
+    // Strategies that hold a model must be rebound to this one; the others are stateless
+    if (strategy instanceof DoubleMissileStrategy) {
+      return current instanceof DoubleMissileStrategy ? current : new DoubleMissileStrategy(this);
+    } else if (strategy instanceof TargetingMissileStrategy) {
+      return current instanceof TargetingMissileStrategy
+          ? current : new TargetingMissileStrategy(this);
+    } else if (strategy instanceof SwarmMissileStrategy) {
+      return current instanceof SwarmMissileStrategy ? current : new SwarmMissileStrategy(this);
+    }
+    return strategy;
   }
 
   /**
@@ -99,111 +670,123 @@ public class GameModel {
       return;
     }
 
-    // Update missiles
-    List<Missile> missilesToRemove = new ArrayList<>();
-    for (Missile missile : missiles) {
-      missile.update();
-      if (missile.getY() < 0) {
-        missilesToRemove.add(missile);
-        decrementLiveMissileCount(missile);
+    // Steer all swarm missiles together before any missile moves
+    swarmSteering.steer(missiles);
+
+    if (parallelTick != null) {
+      // Move missiles and check for collisions across the worker pool
+      updateMissilesInParallel();
+    } else {
+      // Update missiles
+      missilesToRemove.clear();
+      for (int i = 0; i < missiles.size(); i++) {
+        Missile missile = missiles.get(i);
+        missile.update();
+        if (missile.isOutOfPlay(WIDTH, HEIGHT)) {
+          missilesToRemove.add(missile);
+          decrementLiveMissileCount(missile);
+        }
       }
-    }
-    missiles.removeAll(missilesToRemove);
+      removeMissiles(missilesToRemove);
 
-    // Check for collisions
-    checkCollisions();
+      // Check for collisions
+      checkCollisions();
+    }
 
-    // Update enemy speeds every frame
-    updateEnemySpeeds();
+    if (!gameOver) {
+      burnEnemies();
+    }
+    if (!gameOver) {
+      updateEnemyBullets();
+    }
+    if (beamTicksLeft > 0) {
+      beamTicksLeft--;
+    }
 
-    // Move enemies
-    updateEnemies();
+    if (enemySpeedsDirty) {
+      updateEnemySpeeds();
+    }
 
-    // Enemy shooting
-    if (!enemies.isEmpty() && random.nextInt(100) < 2) {
-      int index = random.nextInt(enemies.size());
-      Enemy enemy = enemies.get(index);
-      Missile enemyMissile = new Missile(enemy.getX() + 15, enemy.getY() + 30, false);
-      missiles.add(enemyMissile);
+    // Move and fire enemies when their scheduled events come due
+    int due = events.advance();
+    for (int i = 0; i < due; i++) {
+      int kind = events.getDueKind(i);
+      if (kind == EVENT_ENEMY_MOVE) {
+        moveEnemies();
+        events.schedule(settings.getEnemyMoveInterval(), EVENT_ENEMY_MOVE);
+      } else if (kind == EVENT_ENEMY_FIRE) {
+        fireFromRandomEnemy();
+        events.schedule(random.nextGeometric(ENEMY_FIRE_CHANCE), EVENT_ENEMY_FIRE);
+      } else if (kind == EVENT_BULLET_CUE) {
+        events.schedule(enemyBullets.startCues(settings.getBulletWave(), enemies, players,
+            random, settings.getEnemyBulletLimit()), EVENT_BULLET_CUE);
+      }
     }
 
     // Check for game over
     if (enemies.isEmpty()) {
       gameOver = true;
     }
+    if (gameOver && eventRing != null) {
+      eventRing.publish(GameEventRing.GAME_OVER, (int) events.getTick(), 0, 0, 0, score);
+    }
+  }
+
+  /**
+   * Moves the enemy bullets, applies their hits and fires the pattern volleys due.
+   */
+  private void updateEnemyBullets() {
+    int damage = godMode ? Math.min(1, settings.getBulletDamage()) : settings.getBulletDamage();
+    int hits = enemyBullets.update(WIDTH, HEIGHT, players, damage, eventRing,
+        (int) events.getTick());
+    if (hits > 0 && allPlayersDestroyed()) {
+      gameOver = true;
+      return;
+    }
+    if (enemyBullets.getRunningPatterns() > 0) {
+      enemyBullets.fireVolleys(settings.getBulletWave(), players,
+          settings.getEnemyBulletLimit());
+    }
   }
 
   private void decrementLiveMissileCount(Missile missile) {
-    if (missile instanceof TargetingMissile) {
-      targetingMissilesLive--;
-    } else if (missileStrategy instanceof DoubleMissileStrategy) {
-      doubleMissilesLive--;
-    } else if (missileStrategy instanceof LaserMissileAdapter) {
-      laserMissilesLive--;
-    } else {
-      basicMissilesLive--;
+    // Only player missiles count against a loadout; enemy missiles have owner 0
+    if (missile.isPlayerMissile()) {
+      loadouts.get(missile.getOwner()).missileGone(missile);
     }
   }
 
   private void checkCollisions() {
-    List<Missile> missilesToRemove = new ArrayList<>();
-    List<Enemy> enemiesToRemove = new ArrayList<>();
+    missilesToRemove.clear();
+    enemiesToRemove.clear();
 
     // Check if any enemy has moved below the player's ship
-    for (Enemy enemy : enemies) {
-      if (enemy.getY() + enemy.getHeight() >= player.getY()) {
-        gameOver = true;
-        return;
-      }
+    if (isEnemyBelowPlayer()) {
+      gameOver = true;
+      return;
     }
 
-    for (Missile missile : missiles) {
+    for (int m = 0; m < missiles.size(); m++) {
+      Missile missile = missiles.get(m);
       if (missile.isPlayerMissile()) {
-        for (Enemy enemy : enemies) {
-          if (missile.collidesWith(enemy)) {
-            missilesToRemove.add(missile);
-            // In god mode, missiles instantly kill aliens
-            if (godMode) {
-              enemiesToRemove.add(enemy);
-              score += 100;
-            } else {
-              // Calculate damage based on missile type
-              int damage = 20; // Basic missile damage
-              if (missileStrategy instanceof LaserMissileAdapter) {
-                damage = 40; // Laser does more damage
-              } else if (missileStrategy instanceof TargetingMissileStrategy) {
-                damage = 75; // Targeting missile does the most damage
-              }
-              enemy.takeDamage(damage);
-
-              if (enemy.isDestroyed()) {
-                enemiesToRemove.add(enemy);
-                // Add more score for laser hits
-                if (missileStrategy instanceof LaserMissileAdapter) {
-                  score += 200; // Double points for laser hits
-                } else {
-                  score += 100;
-                }
-              }
-            }
-            decrementLiveMissileCount(missile);
+        for (int e = 0; e < enemies.size(); e++) {
+          Enemy enemy = enemies.get(e);
+          if (missile.collidesWith(enemy)
+              && (spriteMasks == null || spriteMasks.overlaps(missile, enemy))) {
+            hitEnemy(missile, enemy);
             break;
           }
         }
       } else {
-        if (missile.collidesWith(player) && !missile.isPlayerMissile()) {
-          missilesToRemove.add(missile);
-          player.takeDamage(
-              godMode ? 1 : 20); // Enemy missiles do 1 damage in god mode, 20 normally
-          if (player.isDestroyed()) {
-            gameOver = true;
-          }
+        Player target = firstPlayerHit(missile, 0);
+        if (target != null) {
+          hitPlayer(missile, target);
         }
       }
     }
 
-    missiles.removeAll(missilesToRemove);
-    enemies.removeAll(enemiesToRemove);
+    removeMissiles(missilesToRemove);
+    removeEnemies(enemiesToRemove);
 
     // Check for game over
     if (enemies.isEmpty()) {
@@ -211,115 +794,558 @@ public class GameModel {
     }
   }
 
-  private void updateEnemySpeeds() {
-    int totalEnemies = enemies.size();
+  /**
+   * Parallel counterpart of the missile update and {@link #checkCollisions()}.
+   * Workers only move missiles and log hits; the hits are applied here, in missile
+   * order, so score, damage and game over match the sequential tick exactly.
+   */
+  private void updateMissilesInParallel() {
+    if (stateHash == null) {
+      parallelTick.run(missiles, enemies, players, WIDTH, HEIGHT, spriteMasks);
+    } else {
+      stateHash.beginConcurrent();
+      try {
+        parallelTick.run(missiles, enemies, players, WIDTH, HEIGHT, spriteMasks);
+      } finally {
+        stateHash.endConcurrent();
+      }
+    }
+
+    missilesToRemove.clear();
+    enemiesToRemove.clear();
+    for (int i = 0; i < missiles.size(); i++) {
+      Missile missile = missiles.get(i);
+      if (missile.isOutOfPlay(WIDTH, HEIGHT)) {
+        missilesToRemove.add(missile);
+        decrementLiveMissileCount(missile);
+      }
+    }
+
+    if (isEnemyBelowPlayer()) {
+      removeMissiles(missilesToRemove);
+      gameOver = true;
+      return;
+    }
+
+    for (int hit = 0; hit < parallelTick.getHitCount(); hit++) {
+      Missile missile = missiles.get(parallelTick.getHitMissile(hit));
+      int target = parallelTick.getHitTarget(hit);
+      if (target <= ParallelTick.PLAYER_TARGET) {
+        // An earlier missile this tick may have destroyed the player the worker saw;
+        // like the sequential tick, the missile then hits the next live player instead
+        Player player = firstPlayerHit(missile, ParallelTick.PLAYER_TARGET - target);
+        if (player != null) {
+          hitPlayer(missile, player);
+        }
+      } else {
+        hitEnemy(missile, enemies.get(target));
+      }
+    }
+
+    removeMissiles(missilesToRemove);
+    removeEnemies(enemiesToRemove);
+
+    // Check for game over
+    if (enemies.isEmpty()) {
+      gameOver = true;
+    }
+  }
+
+  /**
+   * Returns the first live player, from the given index on, that an enemy missile
+   * overlaps, or null if there is none.
+   */
+  private Player firstPlayerHit(Missile missile, int from) {
+    for (int p = from; p < players.size(); p++) {
+      Player target = players.get(p);
+      if (!target.isDestroyed() && missile.collidesWith(target)
+          && (spriteMasks == null || spriteMasks.overlaps(missile, target))) {
+        return target;
+      }
+    }
+    return null;
+  }
+
+  private boolean isEnemyBelowPlayer() {
     for (Enemy enemy : enemies) {
-      enemy.updateSpeed(totalEnemies, dropCount);
+      if (enemy.getY() + enemy.getHeight() >= player.getY()) {
+        return true;
+      }
     }
+    return false;
   }
 
-  private void updateEnemies() {
-    moveCounter++;
-    if (moveCounter >= ENEMY_MOVE_INTERVAL) {
-      moveCounter = 0;
+  private void hitEnemy(Missile missile, Enemy enemy) {
+    missilesToRemove.add(missile);
+    // In god mode, missiles instantly kill aliens
+    if (godMode) {
+      enemiesToRemove.add(enemy);
+      score += 100;
+      publishEnemyHit(enemy, true, 100);
+    } else {
+      // Calculate damage based on the weapon that fired the missile, which may no
+      // longer be the one its owner has selected
+      int weapon = missile.getWeapon();
+      int damage = 20; // Basic missile damage
+      if (weapon == Loadout.TAG_LASER) {
+        damage = 40; // Laser does more damage
+      } else if (weapon == Loadout.TAG_TARGETING) {
+        damage = 75; // Targeting missile does the most damage
+      }
+      enemy.takeDamage(damage);
 
-      // Find the leftmost and rightmost enemies
-      leftmostX = Integer.MAX_VALUE;
-      rightmostX = Integer.MIN_VALUE;
-      for (Enemy enemy : enemies) {
-        leftmostX = Math.min(leftmostX, enemy.getX());
-        rightmostX = Math.max(rightmostX, enemy.getX() + enemy.getWidth());
+      if (enemy.isDestroyed()) {
+        enemiesToRemove.add(enemy);
+        // Add more score for laser hits
+        int points = weapon == Loadout.TAG_LASER ? 200 : 100;
+        score += points;
+        publishEnemyHit(enemy, true, points);
+      } else {
+        publishEnemyHit(enemy, false, damage);
       }
+    }
+    decrementLiveMissileCount(missile);
+  }
 
-      // Check if we need to change direction and move down
-      if (enemyDirection > 0 && rightmostX >= WIDTH) {
-        enemyDirection = -1;
-        for (Enemy enemy : enemies) {
-          enemy.moveDown();
-        }
-        dropCount++; // Increment drop count
-        updateEnemySpeeds(); // Update speeds after drop
-      } else if (enemyDirection < 0 && leftmostX <= 0) {
-        enemyDirection = 1;
-        for (Enemy enemy : enemies) {
-          enemy.moveDown();
-        }
-        dropCount++; // Increment drop count
-        updateEnemySpeeds(); // Update speeds after drop
+  private void hitPlayer(Missile missile, Player target) {
+    missilesToRemove.add(missile);
+    int damage = godMode ? 1 : 20; // Enemy missiles do 1 damage in god mode, 20 normally
+    target.takeDamage(damage);
+    if (eventRing != null) {
+      eventRing.publish(
+          target.isDestroyed() ? GameEventRing.PLAYER_DESTROYED : GameEventRing.PLAYER_HIT,
+          (int) events.getTick(), players.indexOf(target), target.getX() + target.getWidth() / 2,
+          target.getY() + target.getHeight() / 2, damage);
+    }
+    if (target.isDestroyed() && allPlayersDestroyed()) {
+      gameOver = true;
+    }
+  }
+
+  private void publishEnemyHit(Enemy enemy, boolean destroyed, int value) {
+    if (eventRing != null) {
+      eventRing.publish(destroyed ? GameEventRing.ENEMY_DESTROYED : GameEventRing.ENEMY_HIT,
+          (int) events.getTick(), (int) enemy.getHandle(), enemy.getX() + enemy.getWidth() / 2,
+          enemy.getY() + enemy.getHeight() / 2, value);
+    }
+  }
+
+  private boolean allPlayersDestroyed() {
+    for (Player each : players) {
+      if (!each.isDestroyed()) {
+        return false;
+      }
+    }
+    return true;
+  }
+  private void updateEnemySpeeds() {
+    int totalEnemies = enemies.size();
+    for (int i = 0; i < totalEnemies; i++) {
+      enemies.get(i).updateSpeed(totalEnemies, dropCount, settings.getEnemySpeedPercent());
+    }
+    enemySpeedsDirty = false;
+  }
+
+  private void fireFromRandomEnemy() {
+    if (enemies.isEmpty()) {
+      return;
+    }
+    Enemy enemy = enemies.get(random.nextInt(enemies.size()));
+    Missile missile = reusableMissile();
+    missile.reuse(enemy.getX() + 15, enemy.getY() + 30, 0, Missile.ENEMY_SPEED, false);
+    launch(missile);
+  }
+
+  private void moveEnemies() {
+    // Find the leftmost and rightmost enemies
+    leftmostX = Integer.MAX_VALUE;
+    rightmostX = Integer.MIN_VALUE;
+    for (int i = 0; i < enemies.size(); i++) {
+      Enemy enemy = enemies.get(i);
+      leftmostX = Math.min(leftmostX, enemy.getX());
+      rightmostX = Math.max(rightmostX, enemy.getX() + enemy.getWidth());
+    }
+
+    // Check if we need to change direction and move down
+    if (enemyDirection > 0 && rightmostX >= WIDTH) {
+      enemyDirection = -1;
+      for (int i = 0; i < enemies.size(); i++) {
+        enemies.get(i).moveDown();
       }
+      dropCount++; // Increment drop count
+      updateEnemySpeeds(); // Update speeds after drop
+    } else if (enemyDirection < 0 && leftmostX <= 0) {
+      enemyDirection = 1;
+      for (int i = 0; i < enemies.size(); i++) {
+        enemies.get(i).moveDown();
+      }
+      dropCount++; // Increment drop count
+      updateEnemySpeeds(); // Update speeds after drop
+    }
 
-      // Move all enemies horizontally
-      for (Enemy enemy : enemies) {
-        if (enemyDirection > 0) {
-          enemy.moveRight();
-        } else {
-          enemy.moveLeft();
-        }
+    // Move all enemies horizontally
+    for (int i = 0; i < enemies.size(); i++) {
+      Enemy enemy = enemies.get(i);
+      if (enemyDirection > 0) {
+        enemy.moveRight();
+      } else {
+        enemy.moveLeft();
       }
     }
+    enemyIndex.invalidate();
   }
 
   /**
    * Fires a missile from the player's current position if allowed.
    * The type of missile fired depends on the current missile strategy.
+   *
+   * @return true if the weapon fired, false if it was blocked by a limit or the game is over
    */
-  public void fireMissile() {
-    if (!gameOver) {
-      if (canFireMissile()) {
-        Missile missile = missileStrategy.createMissile(player.getX() + 20, player.getY() - 10);
-        if (missile != null) {
-          missiles.add(missile);
-          incrementLiveMissileCount();
+  public boolean fireMissile() {
+    return fireMissile(0);
+  }
+
+  /**
+   * Fires a missile from one player's current position if that player's weapon allows it.
+   *
+   * @param playerIndex the index of the player who fires
+   * @return true if the weapon fired, false if it was blocked by a limit, the player is
+   *     destroyed or the game is over
+   */
+  public boolean fireMissile(int playerIndex) {
+    Player shooter = players.get(playerIndex);
+    Loadout loadout = loadouts.get(playerIndex);
+    if (!gameOver && !shooter.isDestroyed()) {
+      if (loadout.canFire(settings)) {
+        MissileStrategy strategy = loadout.getMissileStrategy();
+        firingPlayer = playerIndex;
+        firingWeapon = strategyTag(strategy);
+        reserveMissiles(strategy.getMaxProjectiles());
+        int firstId = nextMissileId;
+        emitter.hitscans = 0;
+        strategy.fire(shooter.getX() + 20, shooter.getY() - 10, emitter);
+        if (nextMissileId != firstId || emitter.hitscans > 0) {
+          loadout.fired(nextMissileId - firstId);
+          if (eventRing != null) {
+            eventRing.publish(GameEventRing.SHOT_FIRED, (int) events.getTick(), playerIndex,
+                shooter.getX() + 20, shooter.getY() - 10, firingWeapon);
+          }
         }
+        firingPlayer = 0;
+        firingWeapon = 0;
+        return true;
       }
     }
+    return false;
   }
 
-  private boolean canFireMissile() {
-    if (missileStrategy instanceof BasicMissileStrategy) {
-      return basicMissilesLive < BASIC_MISSILE_LIMIT;
-    } else if (missileStrategy instanceof DoubleMissileStrategy) {
-      return doubleMissilesLive < DOUBLE_MISSILE_LIMIT;
-    } else if (missileStrategy instanceof TargetingMissileStrategy) {
-      return targetingMissilesLive < TARGETING_MISSILE_LIMIT && remainingTargetingMissiles > 0;
-    } else if (missileStrategy instanceof LaserMissileAdapter) {
-      return laserMissilesLive < LASER_MISSILE_LIMIT && remainingLaserMissiles > 0;
+  /**
+   * Applies one tick of player input given as {@link PlayerAction} flags.
+   * A weapon selection is applied first, then movement, then firing.
+   *
+   * @param action the combined action flags
+   * @return true if the action fired a weapon, false otherwise
+   */
+  public boolean applyAction(int action) {
+    return applyAction(0, action);
+  }
+
+  /**
+   * Applies one tick of input for one player. Destroyed players cannot act.
+   * Call this once per tick for every player, with no movement flags if the player
+   * has let go: movement flags steer the ship, which keeps its velocity between ticks
+   * and only brakes when it is steered with no direction held.
+   *
+   * @param playerIndex the index of the player the input belongs to
+   * @param action the combined {@link PlayerAction} flags
+   * @return true if the action fired a weapon, false otherwise
+   */
+  public boolean applyAction(int playerIndex, int action) {
+    Player actor = players.get(playerIndex);
+    if (actor.isDestroyed()) {
+      return false;
+    }
+    MissileStrategy current = loadouts.get(playerIndex).getMissileStrategy();
+    int selection = action & PlayerAction.WEAPON_MASK;
+    if (selection == PlayerAction.SELECT_BASIC
+        && !(current instanceof BasicMissileStrategy)) {
+      setMissileStrategy(playerIndex, new BasicMissileStrategy());
+    } else if (selection == PlayerAction.SELECT_DOUBLE
+        && !(current instanceof DoubleMissileStrategy)) {
+      setMissileStrategy(playerIndex, new DoubleMissileStrategy(this));
+    } else if (selection == PlayerAction.SELECT_TARGETING
+        && !(current instanceof TargetingMissileStrategy)) {
+      setMissileStrategy(playerIndex, new TargetingMissileStrategy(this));
+    } else if (selection == PlayerAction.SELECT_LASER
+        && !(current instanceof LaserMissileAdapter)) {
+      setMissileStrategy(playerIndex, new LaserMissileAdapter());
+    } else if (selection == PlayerAction.SELECT_SPREAD
+        && !(current instanceof SpreadMissileStrategy)) {
+      setMissileStrategy(playerIndex, new SpreadMissileStrategy());
+    } else if (selection == PlayerAction.SELECT_CURTAIN
+        && !(current instanceof BulletCurtainStrategy)) {
+      setMissileStrategy(playerIndex, new BulletCurtainStrategy());
+    } else if (selection == PlayerAction.SELECT_HITSCAN
+        && !(current instanceof HitscanLaserAdapter)) {
+      setMissileStrategy(playerIndex, new HitscanLaserAdapter());
+    } else if (selection == PlayerAction.SELECT_SWARM
+        && !(current instanceof SwarmMissileStrategy)) {
+      setMissileStrategy(playerIndex, new SwarmMissileStrategy(this));
+    }
+
+    int direction = ((action & PlayerAction.RIGHT) != 0 ? 1 : 0)
+        - ((action & PlayerAction.LEFT) != 0 ? 1 : 0);
+    actor.steer(direction);
+    if ((action & PlayerAction.FIRE) != 0) {
+      return fireMissile(playerIndex);
     }
     return false;
   }
 
-  private void incrementLiveMissileCount() {
-    if (missileStrategy instanceof BasicMissileStrategy) {
-      basicMissilesLive++;
-    } else if (missileStrategy instanceof DoubleMissileStrategy) {
-      doubleMissilesLive++;
-    } else if (missileStrategy instanceof TargetingMissileStrategy) {
-      targetingMissilesLive++;
-      remainingTargetingMissiles--;
-    } else if (missileStrategy instanceof LaserMissileAdapter) {
-      laserMissilesLive++;
-      remainingLaserMissiles--;
+  /**
+   * Adds a player to the game, for example when a client joins a multiplayer game.
+   * The new player starts with full health, the basic weapon and its own stock.
+   *
+   * @return the index of the new player
+   * @throws IllegalStateException if the game already holds {@link #MAX_PLAYERS} players
+   */
+  public int addPlayer() {
+    if (players.size() >= MAX_PLAYERS) {
+      throw new IllegalStateException("A game holds at most " + MAX_PLAYERS + " players");
     }
+    matchPlayerCount(players.size() + 1);
+    return players.size() - 1;
+  }
+
+  /**
+   * Brings a player back at its starting position with full health and a fresh loadout.
+   *
+   * @param playerIndex the index of the player
+   */
+  public void respawnPlayer(int playerIndex) {
+    players.get(playerIndex).reset(spawnX(playerIndex), PLAYER_Y);
+    loadouts.get(playerIndex).reset(settings);
   }
 
   /**
    * Adds a missile to the game.
+   * A player missile added while a player is firing belongs to that player.
    *
    * @param missile the missile to add
    */
   public void addMissile(Missile missile) {
     if (!gameOver) {
-      missiles.add(missile);
+      launch(missile);
+    }
+  }
+
+  /**
+   * Adds an enemy at the specified position.
+   * Used to build custom waves and stress scenarios on top of the default formation.
+   *
+   * @param x the x-coordinate of the new enemy
+   * @param y the y-coordinate of the new enemy
+   * @return the new enemy
+   */
+  public Enemy spawnEnemy(int x, int y) {
+    Enemy enemy = new Enemy(x, y, WIDTH);
+    addEnemy(enemy);
+    return enemy;
+  }
+
+  /**
+   * Returns a 64-bit hash of the complete simulation state after the last tick.
+   * Two games with the same hash are, with overwhelming probability, in the same
+   * state, so comparing hashes tick by tick finds the exact tick where two runs of
+   * a replay, two peers or the sequential and parallel ticks diverge.
+   * The entity part of the hash is maintained incrementally as entities change, so
+   * this call only folds in the model's own counters and costs O(1). If incremental
+   * hashing has been turned off, the hash is recomputed from scratch instead.
+   * Debug mode and the parallel tick do not affect the simulation and are not hashed.
+   *
+   * @return the state hash
+   */
+  public long getStateHash() {
+    return stateHash == null ? computeStateHash() : hashScalars(stateHash.sum());
+  }
+
+  /**
+   * Turns incremental state hashing on or off. It is on by default. Models that are
+   * copied into and stepped many times without ever being hashed, such as the scratch
+   * game of a lookahead search, can turn it off to skip the per-mutation bookkeeping.
+   *
+   * @param enabled true to maintain the hash incrementally
+   */
+  public void setIncrementalHashing(boolean enabled) {
+    if (enabled == (stateHash != null)) {
+      return;
+    }
+    if (enabled) {
+      stateHash = new StateHash();
+      for (Player each : players) {
+        attach(each);
+      }
+      for (Enemy enemy : enemies) {
+        attach(enemy);
+      }
+      for (Missile missile : missiles) {
+        attach(missile);
+      }
+    } else {
+      for (Player each : players) {
+        each.detachHash();
+      }
+      for (Enemy enemy : enemies) {
+        enemy.detachHash();
+      }
+      for (Missile missile : missiles) {
+        missile.detachHash();
+      }
+      stateHash = null;
     }
   }
 
+  /**
+   * Recomputes the state hash from scratch by visiting every entity.
+   * It always equals {@link #getStateHash()}; comparing the two checks that every
+   * entity mutation keeps the incremental hash up to date.
+   *
+   * @return the state hash
+   */
+  public long computeStateHash() {
+    long sum = 0;
+    for (Player each : players) {
+      sum += each.hashState();
+    }
+    for (Enemy enemy : enemies) {
+      sum += enemy.hashState();
+    }
+    for (Missile missile : missiles) {
+      sum += missile.hashState();
+    }
+    return hashScalars(sum);
+  }
+
+  private long hashScalars(long entitySum) {
+    long hash = StateHash.combine(entitySum, score);
+    int flags = (gameOver ? 1 : 0) | (godMode ? 2 : 0) | (movingRight ? 4 : 0);
+    hash = StateHash.combine(hash, flags | players.size() << 8);
+    for (Loadout loadout : loadouts) {
+      hash = StateHash.combine(hash, strategyTag(loadout.getMissileStrategy()));
+      hash = loadout.hash(hash);
+    }
+    hash = StateHash.combine(hash, leftmostX);
+    hash = StateHash.combine(hash, rightmostX);
+    hash = events.hash(hash);
+    hash = StateHash.combine(hash, enemyDirection);
+    hash = StateHash.combine(hash, dropCount);
+    hash = StateHash.combine(hash, random.getState());
+    hash = StateHash.combine(hash, enemies.size());
+    hash = StateHash.combine(hash, missiles.size());
+    hash = enemyBullets.hash(hash);
+    return StateHash.finish(hash);
+  }
+
+  /**
+   * Enables or disables the parallel tick.
+   * When set, missile movement and collision detection are split across the tick's
+   * ForkJoinPool; the resulting game state is identical to the sequential tick.
+   *
+   * @param parallelTick the parallel tick to use, or null to run sequentially
+   */
+  public void setParallelTick(ParallelTick parallelTick) {
+    this.parallelTick = parallelTick;
+  }
+
+  /**
+   * Returns the ring this game publishes its hits, kills, shots and game over into.
+   * The ring is created by the first call; until then the game publishes nothing, so
+   * copies and scratch games that nobody listens to pay nothing for it.
+   *
+   * @return the event ring
+   */
+  public GameEventRing getEvents() {
+    if (eventRing == null) {
+      eventRing = new GameEventRing();
+    }
+    return eventRing;
+  }
+
+  /**
+   * Enables or disables pixel-accurate collisions.
+   * Without sprite masks, the default, collisions are decided by bounding boxes alone.
+   * With them, pairs whose bounding boxes overlap must also share a solid pixel.
+   * Copies made with {@link #copy()} use the same masks.
+   *
+   * @param spriteMasks the masks to check after the bounding boxes, or null
+   */
+  public void setSpriteMasks(SpriteMasks spriteMasks) {
+    this.spriteMasks = spriteMasks;
+  }
+
+  /**
+   * Returns the collision masks in use.
+   *
+   * @return the sprite masks, or null if collisions use bounding boxes only
+   */
+  public SpriteMasks getSpriteMasks() {
+    return spriteMasks;
+  }
+
+  /**
+   * Returns the bullets fired by the enemies' bullet patterns.
+   * The field is updated in place by the game and must only be read.
+   *
+   * @return the enemy bullets
+   */
+  public BulletField getEnemyBullets() {
+    return enemyBullets;
+  }
+
+  /**
+   * Returns the current missile strategy.
+   *
+   * @return the missile strategy used when the player fires
+   */
+  public MissileStrategy getMissileStrategy() {
+    return loadouts.get(0).getMissileStrategy();
+  }
+
+  /**
+   * Returns the random number generator that drives this game's random events.
+   *
+   * @return the game's random number generator
+   */
+  public GameRandom getRandom() {
+    return random;
+  }
+
+  /**
+   * Returns the difficulty settings this game is played with.
+   *
+   * @return the difficulty settings
+   */
+  public DifficultySettings getSettings() {
+    return settings;
+  }
+
   /**
    * Sets the current missile strategy.
    *
    * @param strategy the new missile strategy to use
    */
   public void setMissileStrategy(MissileStrategy strategy) {
-    this.missileStrategy = strategy;
+    setMissileStrategy(0, strategy);
+  }
+
+  /**
+   * Sets the missile strategy of one player.
+   *
+   * @param playerIndex the index of the player
+   * @param strategy the new missile strategy to use
+   */
+  public void setMissileStrategy(int playerIndex, MissileStrategy strategy) {
+    loadouts.get(playerIndex).setMissileStrategy(strategy);
   }
 
   /**
@@ -331,6 +1357,35 @@ public class GameModel {
     return player;
   }
 
+  /**
+   * Returns one of the players of a multiplayer game.
+   *
+   * @param playerIndex the index of the player; 0 is the player of a single-player game
+   * @return the player
+   */
+  public Player getPlayer(int playerIndex) {
+    return players.get(playerIndex);
+  }
+
+  /**
+   * Returns all players, in index order.
+   *
+   * @return the list of players
+   */
+  public List<Player> getPlayers() {
+    return players;
+  }
+
+  /**
+   * Returns the weapon state of one player.
+   *
+   * @param playerIndex the index of the player
+   * @return the player's loadout
+   */
+  public Loadout getLoadout(int playerIndex) {
+    return loadouts.get(playerIndex);
+  }
+
   /**
    * Returns the list of enemies.
    *
@@ -340,6 +1395,16 @@ public class GameModel {
     return enemies;
   }
 
+  /**
+   * Returns the registry that issues handles for the live enemies.
+   * A handle obtained from {@link Enemy#getHandle()} resolves to null once that enemy is removed.
+   *
+   * @return the enemy registry
+   */
+  public SlotMap<Enemy> getEnemyRegistry() {
+    return enemyRegistry;
+  }
+
   /**
    * Returns the list of active missiles.
    *
@@ -358,6 +1423,15 @@ public class GameModel {
     return score;
   }
 
+  /**
+   * Returns how long the current game has been played.
+   *
+   * @return the number of ticks since the game started
+   */
+  public long getTick() {
+    return events.getTick();
+  }
+
   /**
    * Checks if the game is over.
    *
@@ -373,7 +1447,7 @@ public class GameModel {
    * @return the number of live basic missiles
    */
   public int getBasicMissilesLive() {
-    return basicMissilesLive;
+    return loadouts.get(0).getBasicMissilesLive();
   }
 
   /**
@@ -382,7 +1456,7 @@ public class GameModel {
    * @return the number of live double missiles
    */
   public int getDoubleMissilesLive() {
-    return doubleMissilesLive;
+    return loadouts.get(0).getDoubleMissilesLive();
   }
 
   /**
@@ -391,7 +1465,7 @@ public class GameModel {
    * @return the number of live targeting missiles
    */
   public int getTargetingMissilesLive() {
-    return targetingMissilesLive;
+    return loadouts.get(0).getTargetingMissilesLive();
   }
 
   /**
@@ -400,7 +1474,70 @@ public class GameModel {
    * @return the number of live laser missiles
    */
   public int getLaserMissilesLive() {
-    return laserMissilesLive;
+    return loadouts.get(0).getLaserMissilesLive();
+  }
+
+  /**
+   * Returns the number of live spread and curtain missiles.
+   *
+   * @return the number of live pattern missiles
+   */
+  public int getPatternMissilesLive() {
+    return loadouts.get(0).getPatternMissilesLive();
+  }
+
+  /**
+   * Returns the number of live swarm missiles.
+   *
+   * @return the number of live swarm missiles
+   */
+  public int getSwarmMissilesLive() {
+    return loadouts.get(0).getSwarmMissilesLive();
+  }
+
+  /**
+   * Checks whether a hitscan beam was fired in the last few ticks and should be drawn.
+   *
+   * @return true if the last beam is still visible
+   */
+  public boolean isBeamVisible() {
+    return beamTicksLeft > 0;
+  }
+
+  /**
+   * Returns the left edge of the last hitscan beam.
+   *
+   * @return the beam's x-coordinate
+   */
+  public int getBeamX() {
+    return beamX;
+  }
+
+  /**
+   * Returns the width of the last hitscan beam.
+   *
+   * @return the beam width
+   */
+  public int getBeamWidth() {
+    return beamWidth;
+  }
+
+  /**
+   * Returns the y-coordinate where the last hitscan beam ended.
+   *
+   * @return the top of the beam
+   */
+  public int getBeamTop() {
+    return beamTop;
+  }
+
+  /**
+   * Returns the y-coordinate the last hitscan beam was fired from.
+   *
+   * @return the bottom of the beam
+   */
+  public int getBeamBottom() {
+    return beamBottom;
   }
 
   /**
@@ -477,7 +1614,7 @@ public class GameModel {
    * @return the number of remaining targeting missiles
    */
   public int getRemainingTargetingMissiles() {
-    return remainingTargetingMissiles;
+    return loadouts.get(0).getRemainingTargetingMissiles();
   }
 
   /**
@@ -486,6 +1623,6 @@ public class GameModel {
    * @return the number of remaining laser missiles
    */
   public int getRemainingLaserMissiles() {
-    return remainingLaserMissiles;
+    return loadouts.get(0).getRemainingLaserMissiles();
   }
 }
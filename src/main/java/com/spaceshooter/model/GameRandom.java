@@ -0,0 +1,105 @@
+package com.spaceshooter.model;
+
+/**
+ * The random number generator used by the game simulation.
+ * It is a SplitMix64 generator whose whole state is a single long, so a game's
+ * random stream can be copied into a fork, saved in a snapshot and restored exactly,
+ * which {@link java.util.Random} does not allow.
+ */
+public class GameRandom {
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+  private long state;
+
+  /**
+   * Constructs a generator with the given seed.
+   *
+   * @param seed the initial state
+   */
+  public GameRandom(long seed) {
+    this.state = seed;
+  }
+
+  /**
+   * Restarts the generator from a seed.
+   *
+   * @param seed the new state
+   */
+  public void setSeed(long seed) {
+    this.state = seed;
+  }
+
+  /**
+   * Returns the generator's internal state.
+   *
+   * @return the state, which can be passed to {@link #setState(long)} to resume the stream
+   */
+  public long getState() {
+    return state;
+  }
+
+  /**
+   * Restores the generator's internal state.
+   *
+   * @param state a value previously returned by {@link #getState()}
+   */
+  public void setState(long state) {
+    this.state = state;
+  }
+
+  /**
+   * Returns the next pseudo-random long.
+   *
+   * @return a uniformly distributed long
+   */
+  public long nextLong() {
+    long z = (state += GOLDEN_GAMMA);
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Returns a pseudo-random int between 0 (inclusive) and the bound (exclusive).
+   *
+   * @param bound the upper bound, must be positive
+   * @return a uniformly distributed int in [0, bound)
+   */
+  public int nextInt(int bound) {
+    if (bound <= 0) {
+      throw new IllegalArgumentException("bound must be positive: " + bound);
+    }
+    // Scale 31 random bits into the range without a division
+    return (int) (((nextLong() >>> 33) * bound) >>> 31);
+  }
+
+  /**
+   * Returns a pseudo-random double between 0 (inclusive) and 1 (exclusive).
+   *
+   * @return a uniformly distributed double
+   */
+  public double nextDouble() {
+    return (nextLong() >>> 11) * 0x1.0p-53;
+  }
+
+  /**
+   * Returns the number of trials up to and including the first success, when each trial
+   * succeeds with the given probability.
+   * This is the wait until an event that has the given chance of happening every tick,
+   * drawn with one random number instead of one per tick. StrictMath is used so that
+   * every JVM draws the same wait.
+   *
+   * @param probability the chance of success per trial, greater than 0 and at most 1
+   * @return a geometrically distributed int, at least 1
+   */
+  public int nextGeometric(double probability) {
+    if (!(probability > 0 && probability <= 1)) {
+      throw new IllegalArgumentException("probability must be in (0, 1]: " + probability);
+    }
+    if (probability == 1) {
+      return 1;
+    }
+    // 1 - nextDouble() is in (0, 1], so the logarithm is finite
+    double trials = StrictMath.log(1.0 - nextDouble()) / StrictMath.log1p(-probability);
+    return (int) Math.min(Integer.MAX_VALUE - 1, (long) trials) + 1;
+  }
+}
@@ -0,0 +1,336 @@
+package com.spaceshooter.model;
+
+import com.spaceshooter.adapter.HitscanLaserAdapter;
+import com.spaceshooter.adapter.LaserMissileAdapter;
+import com.spaceshooter.strategy.BasicMissileStrategy;
+import com.spaceshooter.strategy.BulletCurtainStrategy;
+import com.spaceshooter.strategy.DoubleMissileStrategy;
+import com.spaceshooter.strategy.MissileStrategy;
+import com.spaceshooter.strategy.SpreadMissileStrategy;
+import com.spaceshooter.strategy.SwarmMissileStrategy;
+import com.spaceshooter.strategy.TargetingMissileStrategy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The weapon state of one player: the selected missile strategy, the remaining stock
+ * of limited weapons and the number of each player's missiles in flight.
+ * Every player in a game has its own loadout, so players can use different weapons
+ * without sharing limits.
+ */
+public class Loadout {
+  // Snapshot tags of the strategies, also recorded on the missiles each one fires
+  static final int TAG_BASIC = 0;
+  static final int TAG_DOUBLE = 1;
+  static final int TAG_TARGETING = 2;
+  static final int TAG_LASER = 3;
+  static final int TAG_SPREAD = 4;
+  static final int TAG_CURTAIN = 5;
+  static final int TAG_HITSCAN = 6;
+  static final int TAG_SWARM = 7;
+  private MissileStrategy missileStrategy;
+  private int remainingTargetingMissiles;
+  private int remainingLaserMissiles;
+  private int basicMissilesLive;
+  private int doubleMissilesLive;
+  private int targetingMissilesLive;
+  private int laserMissilesLive;
+  private int patternMissilesLive;
+  private int swarmMissilesLive;
+
+  /**
+   * Constructs a loadout with the basic strategy and full stock.
+   *
+   * @param settings the settings that define the starting stock
+   */
+  Loadout(DifficultySettings settings) {
+    reset(settings);
+  }
+
+  /**
+   * Returns the loadout to the basic strategy, full stock and no missiles in flight.
+   * The basic strategy object is kept if it is already selected.
+   *
+   * @param settings the settings that define the starting stock
+   */
+  void reset(DifficultySettings settings) {
+    if (!(missileStrategy instanceof BasicMissileStrategy)) {
+      missileStrategy = new BasicMissileStrategy();
+    }
+    remainingTargetingMissiles = settings.getTargetingMissileStock();
+    remainingLaserMissiles = settings.getLaserMissileStock();
+    basicMissilesLive = 0;
+    doubleMissilesLive = 0;
+    targetingMissilesLive = 0;
+    laserMissilesLive = 0;
+    patternMissilesLive = 0;
+    swarmMissilesLive = 0;
+  }
+
+  /**
+   * Copies the counters of another loadout into this one.
+   *
+   * @param other the loadout to copy
+   * @param strategy the strategy to use, already bound to this loadout's game
+   */
+  void copyFrom(Loadout other, MissileStrategy strategy) {
+    missileStrategy = strategy;
+    remainingTargetingMissiles = other.remainingTargetingMissiles;
+    remainingLaserMissiles = other.remainingLaserMissiles;
+    basicMissilesLive = other.basicMissilesLive;
+    doubleMissilesLive = other.doubleMissilesLive;
+    targetingMissilesLive = other.targetingMissilesLive;
+    laserMissilesLive = other.laserMissilesLive;
+    patternMissilesLive = other.patternMissilesLive;
+    swarmMissilesLive = other.swarmMissilesLive;
+  }
+
+  /**
+   * Writes the counters to a snapshot buffer. The strategy is written by the model.
+   *
+   * @param out the buffer to write to
+   */
+  void writeState(ByteBuffer out) {
+    out.putInt(remainingTargetingMissiles).putInt(remainingLaserMissiles);
+    out.putInt(basicMissilesLive).putInt(doubleMissilesLive);
+    out.putInt(targetingMissilesLive).putInt(laserMissilesLive).putInt(patternMissilesLive);
+    out.putInt(swarmMissilesLive);
+  }
+
+  /**
+   * Reads counters written by {@link #writeState(ByteBuffer)}.
+   *
+   * @param in the buffer to read from
+   * @param strategy the strategy to use, already bound to this loadout's game
+   */
+  void readState(ByteBuffer in, MissileStrategy strategy) {
+    missileStrategy = strategy;
+    remainingTargetingMissiles = in.getInt();
+    remainingLaserMissiles = in.getInt();
+    basicMissilesLive = in.getInt();
+    doubleMissilesLive = in.getInt();
+    targetingMissilesLive = in.getInt();
+    laserMissilesLive = in.getInt();
+    patternMissilesLive = in.getInt();
+    swarmMissilesLive = in.getInt();
+  }
+
+  /**
+   * Folds the counters into a state hash.
+   *
+   * @param hash the hash so far
+   * @return the combined hash
+   */
+  long hash(long hash) {
+    hash = StateHash.combine(hash, remainingTargetingMissiles);
+    hash = StateHash.combine(hash, remainingLaserMissiles);
+    hash = StateHash.combine(hash, basicMissilesLive);
+    hash = StateHash.combine(hash, doubleMissilesLive);
+    hash = StateHash.combine(hash, targetingMissilesLive);
+    hash = StateHash.combine(hash, laserMissilesLive);
+    hash = StateHash.combine(hash, patternMissilesLive);
+    return StateHash.combine(hash, swarmMissilesLive);
+  }
+
+  /**
+   * Returns the tag that identifies a strategy in snapshots and on fired missiles.
+   *
+   * @param strategy the strategy
+   * @return one of the TAG_ constants
+   * @throws IllegalStateException if the strategy has no tag
+   */
+  static int tagOf(MissileStrategy strategy) {
+    if (strategy instanceof BasicMissileStrategy) {
+      return TAG_BASIC;
+    } else if (strategy instanceof DoubleMissileStrategy) {
+      return TAG_DOUBLE;
+    } else if (strategy instanceof TargetingMissileStrategy) {
+      return TAG_TARGETING;
+    } else if (strategy instanceof LaserMissileAdapter) {
+      return TAG_LASER;
+    } else if (strategy instanceof SpreadMissileStrategy) {
+      return TAG_SPREAD;
+    } else if (strategy instanceof BulletCurtainStrategy) {
+      return TAG_CURTAIN;
+    } else if (strategy instanceof HitscanLaserAdapter) {
+      return TAG_HITSCAN;
+    } else if (strategy instanceof SwarmMissileStrategy) {
+      return TAG_SWARM;
+    }
+    throw new IllegalStateException(
+        "Cannot save missile strategy " + strategy.getClass().getName());
+  }
+
+  private static boolean isPattern(int tag) {
+    return tag == TAG_SPREAD || tag == TAG_CURTAIN;
+  }
+
+  /**
+   * Checks whether the selected weapon is below its live limit and has stock left.
+   *
+   * @param settings the settings that define the limits
+   * @return true if the weapon may fire
+   */
+  boolean canFire(DifficultySettings settings) {
+    if (missileStrategy instanceof BasicMissileStrategy) {
+      return basicMissilesLive < settings.getBasicMissileLimit();
+    } else if (missileStrategy instanceof DoubleMissileStrategy) {
+      return doubleMissilesLive < settings.getDoubleMissileLimit();
+    } else if (missileStrategy instanceof TargetingMissileStrategy) {
+      return targetingMissilesLive < settings.getTargetingMissileLimit()
+          && remainingTargetingMissiles > 0;
+    } else if (missileStrategy instanceof LaserMissileAdapter) {
+      return laserMissilesLive < settings.getLaserMissileLimit() && remainingLaserMissiles > 0;
+    } else if (missileStrategy instanceof SpreadMissileStrategy
+        || missileStrategy instanceof BulletCurtainStrategy) {
+      return patternMissilesLive < settings.getPatternMissileLimit();
+    } else if (missileStrategy instanceof HitscanLaserAdapter) {
+      return remainingLaserMissiles > 0; // Nothing stays in flight, so only stock limits it
+    } else if (missileStrategy instanceof SwarmMissileStrategy) {
+      return swarmMissilesLive < settings.getSwarmMissileLimit();
+    }
+    return false;
+  }
+
+  /**
+   * Counts a shot of the selected weapon. Limited weapons lose one unit of stock
+   * per shot, however many missiles the shot fired.
+   *
+   * @param missiles the number of missiles the shot fired
+   */
+  void fired(int missiles) {
+    if (missileStrategy instanceof BasicMissileStrategy) {
+      basicMissilesLive += missiles;
+    } else if (missileStrategy instanceof DoubleMissileStrategy) {
+      doubleMissilesLive += missiles;
+    } else if (missileStrategy instanceof TargetingMissileStrategy) {
+      targetingMissilesLive += missiles;
+      remainingTargetingMissiles--;
+    } else if (missileStrategy instanceof LaserMissileAdapter) {
+      laserMissilesLive += missiles;
+      remainingLaserMissiles--;
+    } else if (missileStrategy instanceof SpreadMissileStrategy
+        || missileStrategy instanceof BulletCurtainStrategy) {
+      patternMissilesLive += missiles;
+    } else if (missileStrategy instanceof HitscanLaserAdapter) {
+      remainingLaserMissiles--;
+    } else if (missileStrategy instanceof SwarmMissileStrategy) {
+      swarmMissilesLive += missiles;
+    }
+  }
+
+  /**
+   * Counts a missile of this player leaving the game.
+   * The missile is counted against the weapon that fired it, recorded on the missile,
+   * whichever weapon is selected when it leaves, so switching weapons while missiles
+   * are in flight leaves every limit intact.
+   *
+   * @param missile the missile that hit something or left the screen
+   */
+  void missileGone(Missile missile) {
+    int weapon = missile.getWeapon();
+    if (missile instanceof SwarmMissile) {
+      swarmMissilesLive--;
+    } else if (missile instanceof TargetingMissile) {
+      targetingMissilesLive--;
+    } else if (isPattern(weapon)) {
+      patternMissilesLive--;
+    } else if (weapon == TAG_DOUBLE) {
+      doubleMissilesLive--;
+    } else if (weapon == TAG_LASER) {
+      laserMissilesLive--;
+    } else {
+      basicMissilesLive--;
+    }
+  }
+
+  /**
+   * Returns the selected missile strategy.
+   *
+   * @return the missile strategy used when this player fires
+   */
+  public MissileStrategy getMissileStrategy() {
+    return missileStrategy;
+  }
+
+  /**
+   * Selects a missile strategy.
+   *
+   * @param missileStrategy the new missile strategy
+   */
+  void setMissileStrategy(MissileStrategy missileStrategy) {
+    this.missileStrategy = missileStrategy;
+  }
+
+  /**
+   * Returns the number of remaining targeting missiles.
+   *
+   * @return the number of remaining targeting missiles
+   */
+  public int getRemainingTargetingMissiles() {
+    return remainingTargetingMissiles;
+  }
+
+  /**
+   * Returns the number of remaining laser missiles.
+   *
+   * @return the number of remaining laser missiles
+   */
+  public int getRemainingLaserMissiles() {
+    return remainingLaserMissiles;
+  }
+
+  /**
+   * Returns the number of live basic missiles.
+   *
+   * @return the number of live basic missiles
+   */
+  public int getBasicMissilesLive() {
+    return basicMissilesLive;
+  }
+
+  /**
+   * Returns the number of live double missiles.
+   *
+   * @return the number of live double missiles
+   */
+  public int getDoubleMissilesLive() {
+    return doubleMissilesLive;
+  }
+
+  /**
+   * Returns the number of live targeting missiles.
+   *
+   * @return the number of live targeting missiles
+   */
+  public int getTargetingMissilesLive() {
+    return targetingMissilesLive;
+  }
+
+  /**
+   * Returns the number of live laser missiles.
+   *
+   * @return the number of live laser missiles
+   */
+  public int getLaserMissilesLive() {
+    return laserMissilesLive;
+  }
+
+  /**
+   * Returns the number of live missiles from pattern weapons.
+   *
+   * @return the number of live spread and curtain missiles
+   */
+  public int getPatternMissilesLive() {
+    return patternMissilesLive;
+  }
+
+  /**
+   * Returns the number of live swarm missiles.
+   *
+   * @return the number of live swarm missiles
+   */
+  public int getSwarmMissilesLive() {
+    return swarmMissilesLive;
+  }
+}
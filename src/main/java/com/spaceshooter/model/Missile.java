@@ -1,17 +1,35 @@
 package com.spaceshooter.model;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a missile in the Space Shooter game.
  * Missiles can be fired by either the player or enemies, and move in different directions accordingly.
  * This class handles missile movement and collision detection with players and enemies.
  */
-public class Missile {
+public class Missile extends TrackedEntity {
+  /** Kind of a plain missile that flies straight up or down. */
+  public static final int KIND_BASIC = 0;
+  /** Kind of a {@link TargetingMissile}. */
+  public static final int KIND_TARGETING = 1;
+  /** Kind of a missile that wraps a laser beam. */
+  public static final int KIND_LASER = 2;
+  /** Kind of a {@link SwarmMissile}. */
+  public static final int KIND_SWARM = 3;
+  /** The vertical speed of a player missile, in units per tick; negative is up. */
+  public static final int PLAYER_SPEED = -10;
+  /** The vertical speed of an enemy missile, in units per tick. */
+  public static final int ENEMY_SPEED = 5;
   private static final int WIDTH = 10;
   private static final int HEIGHT = 20;
   protected int x;
   protected int y;
   private boolean playerMissile;
   private int speed;
+  private int velocityX;
+  private int owner;
+  private int id;
+  private int weapon;
 
   /**
    * Constructs a new missile at the specified position.
@@ -24,15 +42,124 @@ public class Missile {
     this.x = x;
     this.y = y;
     this.playerMissile = playerMissile;
-    this.speed = playerMissile ? -10 : 5; // Player missiles go up, enemy missiles go down
+    this.speed = playerMissile ? PLAYER_SPEED : ENEMY_SPEED;
+  }
+
+  /**
+   * Turns this missile into a new one, so that a pooled missile can be fired again.
+   * The owner, identifier and weapon are set when the game adds the missile.
+   *
+   * @param x the x-coordinate where the missile starts
+   * @param y the y-coordinate where the missile starts
+   * @param velocityX the horizontal distance the missile moves each tick
+   * @param velocityY the vertical distance the missile moves each tick
+   * @param playerMissile true if this is a player-fired missile, false if enemy-fired
+   */
+  void reuse(int x, int y, int velocityX, int velocityY, boolean playerMissile) {
+    this.x = x;
+    this.y = y;
+    this.velocityX = velocityX;
+    this.speed = velocityY;
+    this.playerMissile = playerMissile;
+    stateChanged();
   }
 
   /**
    * Updates the missile's position based on its speed.
-   * Player missiles move upward, enemy missiles move downward.
+   * Player missiles move upward, enemy missiles move downward; missiles from pattern
+   * weapons may also move sideways.
    */
   public void update() {
+    x += velocityX;
     y += speed;
+    stateChanged();
+  }
+
+  /**
+   * Checks whether the missile has left the play field: player missiles through the
+   * top, enemy missiles through the bottom, and either kind through the sides.
+   * Missiles that leave the field this way are removed from the game.
+   *
+   * @param fieldWidth the width of the play field
+   * @param fieldHeight the height of the play field
+   * @return true if the missile can no longer hit anything
+   */
+  public boolean isOutOfPlay(int fieldWidth, int fieldHeight) {
+    return y < 0 || y >= fieldHeight || x + getWidth() <= 0 || x >= fieldWidth;
+  }
+
+  /**
+   * Creates an independent copy of this missile for a forked game.
+   * Subclasses that keep extra state or refer to their game must override this.
+   *
+   * @param model the game the copy will belong to
+   * @return the copy
+   */
+  public Missile copyFor(GameModel model) {
+    Missile copy = new Missile(x, y, playerMissile);
+    copy.copyStateFrom(this);
+    return copy;
+  }
+
+  /**
+   * Copies the position, owner and speed of another missile into this one.
+   *
+   * @param other the missile to copy
+   */
+  void copyStateFrom(Missile other) {
+    this.x = other.x;
+    this.y = other.y;
+    this.playerMissile = other.playerMissile;
+    this.speed = other.speed;
+    this.velocityX = other.velocityX;
+    this.owner = other.owner;
+    this.id = other.id;
+    this.weapon = other.weapon;
+    stateChanged();
+  }
+
+  /**
+   * Returns the kind of this missile, which snapshots use to recreate it.
+   * Subclasses that need their own snapshot handling override this.
+   *
+   * @return one of the KIND_ constants
+   */
+  public int getKind() {
+    return KIND_BASIC;
+  }
+
+  /**
+   * Writes the missile's state to a snapshot buffer.
+   *
+   * @param out the buffer to write to
+   */
+  void writeState(ByteBuffer out) {
+    out.putInt(x).putInt(y).put((byte) (playerMissile ? 1 : 0)).putInt(speed);
+    out.putInt(velocityX).put((byte) owner).putInt(id).put((byte) weapon);
+  }
+
+  /**
+   * Reads state written by {@link #writeState(ByteBuffer)} into this missile.
+   *
+   * @param in the buffer to read from
+   */
+  void readState(ByteBuffer in) {
+    x = in.getInt();
+    y = in.getInt();
+    playerMissile = in.get() != 0;
+    speed = in.getInt();
+    velocityX = in.getInt();
+    owner = in.get();
+    id = in.getInt();
+    weapon = in.get();
+    stateChanged();
+  }
+
+  @Override
+  long hashState() {
+    return StateHash.finish(0x4D49534CL // "MISL"
+        + StateHash.fields(getKind() + owner * 8L + weapon * 64L, x, y,
+            speed * 2L + (playerMissile ? 1 : 0) + ((long) velocityX << 32)));
   }
 
   /**
@@ -97,6 +224,75 @@ public class Missile {
     return HEIGHT;
   }
 
+  /**
+   * Returns the horizontal distance the missile moves each tick.
+   *
+   * @return the horizontal velocity, negative when moving left
+   */
+  public int getVelocityX() {
+    return velocityX;
+  }
+
+  /**
+   * Returns the index of the player who fired this missile.
+   * Enemy missiles belong to player 0; check {@link #isPlayerMissile()} first.
+   *
+   * @return the owning player's index
+   */
+  public int getOwner() {
+    return owner;
+  }
+
+  /**
+   * Sets the index of the player who fired this missile.
+   *
+   * @param owner the owning player's index
+   */
+  void setOwner(int owner) {
+    this.owner = owner;
+    stateChanged();
+  }
+
+  /**
+   * Returns the identifier the game assigned to this missile when it was added.
+   * Identifiers are unique within a game and let network clients match a missile
+   * across snapshots. They do not affect the simulation and are not hashed.
+   *
+   * @return the missile's identifier
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Sets the identifier of this missile.
+   *
+   * @param id the identifier
+   */
+  void setId(int id) {
+    this.id = id;
+  }
+
+  /**
+   * Returns the weapon that fired this missile, as recorded in snapshots.
+   * Enemy missiles and missiles added outside of a player's shot have weapon 0.
+   *
+   * @return the firing weapon's snapshot tag
+   */
+  public int getWeapon() {
+    return weapon;
+  }
+
+  /**
+   * Sets the weapon that fired this missile.
+   *
+   * @param weapon the firing weapon's snapshot tag
+   */
+  void setWeapon(int weapon) {
+    this.weapon = weapon;
+    stateChanged();
+  }
+
   /**
    * Checks if this missile was fired by the player.
    *
@@ -0,0 +1,276 @@
+package com.spaceshooter.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the missile half of a game tick in parallel on a ForkJoinPool.
+ * The play field is split into vertical bands. Each band task moves the missiles that
+ * started the tick in its band and then tests them against the enemies (and the players)
+ * that overlap the band's missiles. Hits are not applied by the workers; each band
+ * writes them to its own hit log, and the logs are merged in missile order so that
+ * {@link GameModel} can apply damage and score exactly as the sequential loop would.
+ *
+ * All buffers and tasks are reused from tick to tick, so a steady-state tick does
+ * not allocate.
+ */
+public class ParallelTick {
+  /**
+   * Hit log target value meaning the missile hit player 0. A hit on player i is
+   * logged as {@code PLAYER_TARGET - i}. Player i is the first player that was alive
+   * when the tick started, so the model re-checks it when the hit is applied.
+   */
+  static final int PLAYER_TARGET = -1;
+  private final ForkJoinPool pool;
+  private final BandTask[] bands;
+  private final RootTask root;
+  private List<Missile> missiles;
+  private List<Enemy> enemies;
+  private List<Player> players;
+  private int gameWidth;
+  private int gameHeight;
+  private SpriteMasks masks;
+  private int[] mergedMissiles = new int[64];
+  private int[] mergedTargets = new int[64];
+  private int mergedCount;
+
+  /**
+   * Constructs a parallel tick that uses four bands per worker thread of the pool.
+   *
+   * @param pool the pool to run band tasks on
+   */
+  public ParallelTick(ForkJoinPool pool) {
+    this(pool, pool.getParallelism() * 4);
+  }
+
+  /**
+   * Constructs a parallel tick with an explicit number of bands.
+   *
+   * @param pool the pool to run band tasks on
+   * @param bandCount the number of vertical bands to split the play field into
+   */
+  public ParallelTick(ForkJoinPool pool, int bandCount) {
+    if (bandCount < 1) {
+      throw new IllegalArgumentException("bandCount must be positive: " + bandCount);
+    }
+    this.pool = pool;
+    this.bands = new BandTask[bandCount];
+    for (int i = 0; i < bandCount; i++) {
+      bands[i] = new BandTask();
+    }
+    this.root = new RootTask();
+  }
+
+  /**
+   * Moves every missile and records its first hit, if any.
+   * Missiles are assigned to bands by their x-coordinate before they move.
+   * After this returns, the merged hit log can be read with {@link #getHitCount()},
+   * {@link #getHitMissile(int)} and {@link #getHitTarget(int)}.
+   *
+   * @param missiles the live missiles, which must not be modified while this runs
+   * @param enemies the live enemies, which must not be modified while this runs
+   * @param players the players that enemy missiles are tested against
+   * @param gameWidth the width of the play field
+   * @param gameHeight the height of the play field
+   * @param masks the collision masks checked after the bounding boxes, or null
+   */
+  void run(List<Missile> missiles, List<Enemy> enemies, List<Player> players, int gameWidth,
+      int gameHeight, SpriteMasks masks) {
+    this.missiles = missiles;
+    this.enemies = enemies;
+    this.players = players;
+    this.gameWidth = gameWidth;
+    this.gameHeight = gameHeight;
+    this.masks = masks;
+
+    for (BandTask band : bands) {
+      band.missileCount = 0;
+    }
+    int bandCount = bands.length;
+    for (int i = 0; i < missiles.size(); i++) {
+      int x = missiles.get(i).getX();
+      int band = x <= 0 ? 0 : (int) ((long) x * bandCount / gameWidth);
+      bands[Math.min(band, bandCount - 1)].addMissile(i);
+    }
+
+    for (BandTask band : bands) {
+      band.reinitialize();
+    }
+    root.reinitialize();
+    pool.invoke(root);
+
+    mergeHitLogs();
+    this.missiles = null;
+    this.enemies = null;
+    this.players = null;
+  }
+
+  /**
+   * Returns the number of hits in the merged log of the last run.
+   *
+   * @return the number of hits
+   */
+  int getHitCount() {
+    return mergedCount;
+  }
+
+  /**
+   * Returns the index of the missile for a merged hit.
+   * Hits are ordered by ascending missile index.
+   *
+   * @param hit the position in the merged log
+   * @return the index of the missile in the model's missile list
+   */
+  int getHitMissile(int hit) {
+    return mergedMissiles[hit];
+  }
+
+  /**
+   * Returns what a merged hit struck.
+   *
+   * @param hit the position in the merged log
+   * @return the index of the enemy in the model's enemy list, or {@link #PLAYER_TARGET}
+   *     minus the index of the player that was hit
+   */
+  int getHitTarget(int hit) {
+    return mergedTargets[hit];
+  }
+
+  private void mergeHitLogs() {
+    int total = 0;
+    for (BandTask band : bands) {
+      band.cursor = 0;
+      total += band.hitCount;
+    }
+    if (mergedMissiles.length < total) {
+      mergedMissiles = new int[Math.max(total, mergedMissiles.length * 2)];
+      mergedTargets = new int[mergedMissiles.length];
+    }
+    // Each band log is already sorted by missile index, so a k-way merge restores
+    // the order in which the sequential loop would have found the same hits.
+    for (int out = 0; out < total; out++) {
+      BandTask next = null;
+      for (BandTask band : bands) {
+        if (band.cursor < band.hitCount
+            && (next == null || band.hitMissiles[band.cursor] < next.hitMissiles[next.cursor])) {
+          next = band;
+        }
+      }
+      mergedMissiles[out] = next.hitMissiles[next.cursor];
+      mergedTargets[out] = next.hitTargets[next.cursor];
+      next.cursor++;
+    }
+    mergedCount = total;
+  }
+
+  /**
+   * Forks one task per band and waits for all of them.
+   */
+  private class RootTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void compute() {
+      ForkJoinTask.invokeAll(bands);
+    }
+  }
+
+  /**
+   * Moves and collision-tests the missiles of one band, logging hits locally.
+   */
+  private class BandTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private int[] missileIndices = new int[64];
+    private int missileCount;
+    private int[] candidates = new int[64];
+    private int[] hitMissiles = new int[16];
+    private int[] hitTargets = new int[16];
+    private int hitCount;
+    private int cursor;
+
+    private void addMissile(int index) {
+      if (missileCount == missileIndices.length) {
+        missileIndices = Arrays.copyOf(missileIndices, missileCount * 2);
+      }
+      missileIndices[missileCount++] = index;
+    }
+
+    private void logHit(int missileIndex, int target) {
+      if (hitCount == hitMissiles.length) {
+        hitMissiles = Arrays.copyOf(hitMissiles, hitCount * 2);
+        hitTargets = Arrays.copyOf(hitTargets, hitCount * 2);
+      }
+      hitMissiles[hitCount] = missileIndex;
+      hitTargets[hitCount] = target;
+      hitCount++;
+    }
+
+    @Override
+    protected void compute() {
+      hitCount = 0;
+      if (missileCount == 0) {
+        return;
+      }
+
+      // Move this band's missiles and measure the area its player missiles cover
+      int minX = Integer.MAX_VALUE;
+      int minY = Integer.MAX_VALUE;
+      int maxX = Integer.MIN_VALUE;
+      int maxY = Integer.MIN_VALUE;
+      for (int k = 0; k < missileCount; k++) {
+        Missile missile = missiles.get(missileIndices[k]);
+        missile.update();
+        if (!missile.isOutOfPlay(gameWidth, gameHeight) && missile.isPlayerMissile()) {
+          minX = Math.min(minX, missile.getX());
+          minY = Math.min(minY, missile.getY());
+          maxX = Math.max(maxX, missile.getX() + missile.getWidth());
+          maxY = Math.max(maxY, missile.getY() + missile.getHeight());
+        }
+      }
+
+      // Only enemies overlapping that area can be hit; keep them in list order
+      int candidateCount = 0;
+      if (minX != Integer.MAX_VALUE) {
+        if (candidates.length < enemies.size()) {
+          candidates = new int[enemies.size()];
+        }
+        for (int j = 0; j < enemies.size(); j++) {
+          Enemy enemy = enemies.get(j);
+          if (enemy.getX() < maxX && enemy.getX() + enemy.getWidth() > minX
+              && enemy.getY() < maxY && enemy.getY() + enemy.getHeight() > minY) {
+            candidates[candidateCount++] = j;
+          }
+        }
+      }
+
+      for (int k = 0; k < missileCount; k++) {
+        int missileIndex = missileIndices[k];
+        Missile missile = missiles.get(missileIndex);
+        if (missile.isOutOfPlay(gameWidth, gameHeight)) {
+          continue; // Removed as off-screen before collisions are checked
+        }
+        if (missile.isPlayerMissile()) {
+          for (int c = 0; c < candidateCount; c++) {
+            Enemy enemy = enemies.get(candidates[c]);
+            if (missile.collidesWith(enemy) && (masks == null || masks.overlaps(missile, enemy))) {
+              logHit(missileIndex, candidates[c]);
+              break;
+            }
+          }
+        } else {
+          for (int p = 0; p < players.size(); p++) {
+            Player target = players.get(p);
+            if (!target.isDestroyed() && missile.collidesWith(target)
+                && (masks == null || masks.overlaps(missile, target))) {
+              logHit(missileIndex, PLAYER_TARGET - p);
+              break;
+            }
+          }
+        }
+      }
+    }
+  }
+}
@@ -1,18 +1,27 @@
 package com.spaceshooter.model;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents the player's spaceship in the Space Shooter game.
  * The player can move left and right within the game boundaries and has health that can be damaged.
  * The player's position and health status are tracked and can be queried.
+ * Steering gives the ship a horizontal velocity that speeds up while a direction is
+ * held and brakes when it is released, so movement is smooth at any tick rate.
  */
-public class Player {
+public class Player extends TrackedEntity {
   private static final int WIDTH = 40;
   private static final int HEIGHT = 40;
   private static final int GAME_WIDTH = 600;
   private static final int INITIAL_HEALTH = 100;
+  /** The fastest the ship moves when steered, in units per tick. */
+  public static final int MAX_SPEED = 10;
+  private static final int ACCELERATION = 3;
+  private static final int BRAKING = 5;
   private int x;
   private int y;
   private int health;
+  private int velocity;
 
   /**
    * Constructs a new player at the specified position with full health.
@@ -26,11 +35,102 @@ public class Player {
     this.health = INITIAL_HEALTH;
   }
 
+  /**
+   * Returns the player to full health at the specified position.
+   *
+   * @param x the new x-coordinate of the player
+   * @param y the new y-coordinate of the player
+   */
+  public void reset(int x, int y) {
+    this.x = x;
+    this.y = y;
+    this.health = INITIAL_HEALTH;
+    this.velocity = 0;
+    stateChanged();
+  }
+
+  /**
+   * Copies the complete state of another player into this one.
+   *
+   * @param other the player to copy
+   */
+  void copyStateFrom(Player other) {
+    this.x = other.x;
+    this.y = other.y;
+    this.health = other.health;
+    this.velocity = other.velocity;
+    stateChanged();
+  }
+
+  /**
+   * Writes the player's state to a snapshot buffer.
+   *
+   * @param out the buffer to write to
+   */
+  void writeState(ByteBuffer out) {
+    out.putInt(x).putInt(y).putInt(health).putInt(velocity);
+  }
+
+  /**
+   * Reads state written by {@link #writeState(ByteBuffer)} into this player.
+   *
+   * @param in the buffer to read from
+   */
+  void readState(ByteBuffer in) {
+    x = in.getInt();
+    y = in.getInt();
+    health = in.getInt();
+    velocity = in.getInt();
+    stateChanged();
+  }
+
+  @Override
+  long hashState() {
+    return StateHash.finish(0x504C4159L + StateHash.fields(x, y, health, velocity)); // "PLAY"
+  }
+
+  /**
+   * Steers the ship for one tick and moves it by its new velocity.
+   * Holding a direction accelerates towards {@link #MAX_SPEED}; releasing it, or
+   * holding the opposite direction, brakes harder than that. The ship stops dead
+   * when it reaches the edge of the game.
+   *
+   * @param direction -1 to steer left, 1 to steer right, 0 to let go
+   */
+  public void steer(int direction) {
+    int target = Integer.signum(direction) * MAX_SPEED;
+    int rate = direction == 0 || velocity * direction < 0 ? BRAKING : ACCELERATION;
+    int previousVelocity = velocity;
+    if (velocity < target) {
+      velocity = Math.min(target, velocity + rate);
+    } else {
+      velocity = Math.max(target, velocity - rate);
+    }
+    int moved = Math.max(0, Math.min(GAME_WIDTH - WIDTH, x + velocity));
+    if (moved != x + velocity) {
+      velocity = 0;
+    }
+    if (moved != x || velocity != previousVelocity) {
+      x = moved;
+      stateChanged();
+    }
+  }
+
+  /**
+   * Returns the ship's horizontal velocity.
+   *
+   * @return the velocity in units per tick, negative when moving left
+   */
+  public int getVelocity() {
+    return velocity;
+  }
+
   /**
    * Moves the player to the left by 10 units, but not beyond the left edge of the game.
    */
   public void moveLeft() {
     x = Math.max(0, x - 10);
+    stateChanged();
   }
 
   /**
@@ -38,6 +138,7 @@ public class Player {
    */
   public void moveRight() {
     x = Math.min(GAME_WIDTH - WIDTH, x + 10);
+    stateChanged();
   }
 
   /**
@@ -48,6 +149,7 @@ public class Player {
    */
   public void takeDamage(int damage) {
     health = Math.max(0, health - damage);
+    stateChanged();
   }
 
   /**
@@ -84,6 +186,7 @@ public class Player {
    */
   public void setX(int x) {
     this.x = x;
+    stateChanged();
   }
 
   /**
@@ -102,6 +205,7 @@ public class Player {
    */
   public void setY(int y) {
     this.y = y;
+    stateChanged();
   }
 
   /**
@@ -0,0 +1,42 @@
+package com.spaceshooter.model;
+
+/**
+ * Bit flags describing the input a player gives in one game tick.
+ * Flags are combined with bitwise OR, so a single int carries a whole tick of input.
+ * Weapon selections are the exception: they are values of a four-bit field,
+ * {@link #WEAPON_MASK}, so an action selects at most one weapon and OR-ing two
+ * selections together gives a different weapon. Every action fits in seven bits.
+ * This gives bots, scripts and tools a way to drive {@link GameModel} without
+ * going through Swing key events.
+ */
+public final class PlayerAction {
+  /** No input this tick. */
+  public static final int NONE = 0;
+  /** Steer the player left; held over several ticks, the ship speeds up. */
+  public static final int LEFT = 1;
+  /** Steer the player right; held over several ticks, the ship speeds up. */
+  public static final int RIGHT = 1 << 1;
+  /** Fire the current weapon. */
+  public static final int FIRE = 1 << 2;
+  /** The bits that hold a weapon selection, 0 when the weapon does not change. */
+  public static final int WEAPON_MASK = 15 << 3;
+  /** Switch to the basic missile strategy. */
+  public static final int SELECT_BASIC = 1 << 3;
+  /** Switch to the double missile strategy. */
+  public static final int SELECT_DOUBLE = 2 << 3;
+  /** Switch to the targeting missile strategy. */
+  public static final int SELECT_TARGETING = 3 << 3;
+  /** Switch to the laser weapon. */
+  public static final int SELECT_LASER = 4 << 3;
+  /** Switch to the spread shot. */
+  public static final int SELECT_SPREAD = 5 << 3;
+  /** Switch to the bullet curtain. */
+  public static final int SELECT_CURTAIN = 6 << 3;
+  /** Switch to the hitscan laser. */
+  public static final int SELECT_HITSCAN = 7 << 3;
+  /** Switch to the missile swarm. */
+  public static final int SELECT_SWARM = 8 << 3;
+
+  private PlayerAction() {
+  }
+}
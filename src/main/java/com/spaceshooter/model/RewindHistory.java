@@ -0,0 +1,373 @@
+package com.spaceshooter.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A bounded history of game states that can be scrubbed backward and forward.
+ * Every recorded tick is encoded with {@link SnapshotCodec}. Every
+ * {@code keyframeInterval} ticks the full snapshot is stored as a keyframe; in
+ * between, only a delta against the previous tick is stored: the byte ranges of the
+ * snapshot that changed. Entries live in a fixed-size byte arena used as a ring, so
+ * when it fills up the oldest keyframe and its deltas are dropped and memory use
+ * never grows. Restoring a tick decodes the nearest keyframe before it and applies
+ * at most {@code keyframeInterval - 1} deltas in place.
+ *
+ * Ticks are numbered by the history itself, starting at 0 for the first recorded state.
+ */
+public class RewindHistory {
+  private static final int MAX_GAP = 4; // Unchanged bytes folded into a run to save headers
+  private final int keyframeInterval;
+  private final byte[] arena;
+  private final int[] entryOffsets;
+  private final int[] entryLengths;
+  private final boolean[] entryKeyframes;
+  private int head;
+  private int count;
+  private long headTick;
+  private int arenaWrite;
+  private ByteBuffer encodeBuffer = ByteBuffer.allocate(4096);
+  private byte[] previous = new byte[4096];
+  private int previousLength;
+  private byte[] delta = new byte[4096];
+  private byte[] reconstruction = new byte[4096];
+  private int ticksSinceKeyframe;
+
+  /**
+   * Constructs a history of five minutes at 50 ticks per second in a 16 MB arena.
+   */
+  public RewindHistory() {
+    this(5 * 60 * 50, 50, 16 * 1024 * 1024);
+  }
+
+  /**
+   * Constructs a history with custom limits.
+   *
+   * @param maxTicks the maximum number of ticks kept
+   * @param keyframeInterval the number of ticks between keyframes
+   * @param arenaBytes the size of the byte arena holding keyframes and deltas
+   */
+  public RewindHistory(int maxTicks, int keyframeInterval, int arenaBytes) {
+    this.keyframeInterval = Math.max(1, keyframeInterval);
+    this.arena = new byte[arenaBytes];
+    this.entryOffsets = new int[maxTicks];
+    this.entryLengths = new int[maxTicks];
+    this.entryKeyframes = new boolean[maxTicks];
+  }
+
+  /**
+   * Records the game's current state as the next tick.
+   *
+   * @param model the game to record
+   * @return the tick number assigned to this state
+   */
+  public long record(GameModel model) {
+    int length = encode(model);
+    byte[] current = encodeBuffer.array();
+
+    boolean keyframe = count == 0 || ticksSinceKeyframe + 1 >= keyframeInterval;
+    int deltaLength = keyframe ? 0 : encodeDelta(current, length);
+    if (!keyframe && deltaLength >= length) {
+      keyframe = true; // The delta would not save anything
+    }
+    makeRoom(keyframe ? length : deltaLength);
+    if (!keyframe && count == 0) {
+      // Eviction removed the keyframe this delta depends on
+      keyframe = true;
+      makeRoom(length);
+    }
+
+    if (keyframe) {
+      append(current, length, true);
+      ticksSinceKeyframe = 0;
+    } else {
+      append(delta, deltaLength, false);
+      ticksSinceKeyframe++;
+    }
+
+    // The current snapshot becomes the base for the next delta
+    if (previous.length < length) {
+      previous = new byte[current.length];
+    }
+    System.arraycopy(current, 0, previous, 0, length);
+    previousLength = length;
+    return getNewestTick();
+  }
+
+  /**
+   * Restores a recorded tick into a game without changing the history.
+   *
+   * @param tick the tick to restore, between the oldest and newest tick
+   * @param model the game to overwrite
+   * @return true if the tick was restored, false if it is no longer (or not yet) recorded
+   */
+  public boolean restore(long tick, GameModel model) {
+    int length = reconstruct(tick);
+    if (length < 0) {
+      return false;
+    }
+    SnapshotCodec.decode(ByteBuffer.wrap(reconstruction, 0, length), model);
+    return true;
+  }
+
+  /**
+   * Restores a recorded tick and discards every tick after it, so that recording
+   * continues from that point.
+   *
+   * @param tick the tick to resume from
+   * @param model the game to overwrite
+   * @return true if the tick was restored, false if it is not recorded
+   */
+  public boolean resumeFrom(long tick, GameModel model) {
+    int length = reconstruct(tick);
+    if (length < 0) {
+      return false;
+    }
+    SnapshotCodec.decode(ByteBuffer.wrap(reconstruction, 0, length), model);
+
+    int kept = (int) (tick - headTick) + 1;
+    int last = slot(kept - 1);
+    count = kept;
+    arenaWrite = entryOffsets[last] + entryLengths[last];
+    ticksSinceKeyframe = 0;
+    for (int i = kept - 1; !entryKeyframes[slot(i)]; i--) {
+      ticksSinceKeyframe++;
+    }
+    if (previous.length < length) {
+      previous = new byte[reconstruction.length];
+    }
+    System.arraycopy(reconstruction, 0, previous, 0, length);
+    previousLength = length;
+    return true;
+  }
+
+  /**
+   * Discards all recorded ticks. Tick numbering continues where it left off.
+   */
+  public void clear() {
+    headTick = count == 0 ? headTick : getNewestTick() + 1;
+    count = 0;
+    head = 0;
+    arenaWrite = 0;
+    previousLength = 0;
+    ticksSinceKeyframe = 0;
+  }
+
+  /**
+   * Returns the oldest tick that can still be restored.
+   *
+   * @return the oldest tick, or -1 if nothing is recorded
+   */
+  public long getOldestTick() {
+    return count == 0 ? -1 : headTick;
+  }
+
+  /**
+   * Returns the most recently recorded tick.
+   *
+   * @return the newest tick, or -1 if nothing is recorded
+   */
+  public long getNewestTick() {
+    return count == 0 ? -1 : headTick + count - 1;
+  }
+
+  /**
+   * Returns the number of arena bytes holding recorded ticks.
+   *
+   * @return the bytes in use
+   */
+  public int getBytesUsed() {
+    if (count == 0) {
+      return 0;
+    }
+    int start = entryOffsets[head];
+    return start < arenaWrite ? arenaWrite - start : arena.length - start + arenaWrite;
+  }
+
+  /**
+   * Returns the size of the arena, the upper bound on memory used by recorded ticks.
+   *
+   * @return the arena size in bytes
+   */
+  public int getCapacityBytes() {
+    return arena.length;
+  }
+
+  private int encode(GameModel model) {
+    int needed = SnapshotCodec.maxSize(model);
+    if (encodeBuffer.capacity() < needed) {
+      encodeBuffer = ByteBuffer.allocate(Math.max(needed, encodeBuffer.capacity() * 2));
+    }
+    encodeBuffer.clear();
+    SnapshotCodec.encode(model, encodeBuffer);
+    return encodeBuffer.position();
+  }
+
+  /**
+   * Writes the delta from the previous snapshot to the current one into the delta buffer.
+   * Format: varint new length, then runs of (varint gap since last run, varint length, bytes).
+   */
+  private int encodeDelta(byte[] current, int length) {
+    if (delta.length < length * 2 + 16) {
+      delta = new byte[length * 2 + 16];
+    }
+    int out = writeVarint(delta, 0, length);
+    int common = Math.min(length, previousLength);
+    int lastEnd = 0;
+    int i = 0;
+    while (i < length) {
+      if (i < common) {
+        // Skip the unchanged stretch; mismatch compares many bytes at a time
+        int mismatch = Arrays.mismatch(current, i, common, previous, i, common);
+        if (mismatch < 0) {
+          i = common;
+          continue;
+        }
+        i += mismatch;
+      }
+      int start = i;
+      int end = i + 1;
+      // Extend the run, bridging short stretches of unchanged bytes
+      int probe = end;
+      while (probe < length && probe - end <= MAX_GAP) {
+        if (probe >= previousLength || current[probe] != previous[probe]) {
+          end = probe + 1;
+        }
+        probe++;
+      }
+      out = writeVarint(delta, out, start - lastEnd);
+      out = writeVarint(delta, out, end - start);
+      System.arraycopy(current, start, delta, out, end - start);
+      out += end - start;
+      lastEnd = end;
+      i = end;
+    }
+    return out;
+  }
+
+  /**
+   * Rebuilds the snapshot bytes of a tick in the reconstruction buffer.
+   *
+   * @return the snapshot length, or -1 if the tick is not recorded
+   */
+  private int reconstruct(long tick) {
+    if (count == 0 || tick < headTick || tick > getNewestTick()) {
+      return -1;
+    }
+    int target = (int) (tick - headTick);
+    int keyframe = target;
+    while (!entryKeyframes[slot(keyframe)]) {
+      keyframe--;
+    }
+
+    int entry = slot(keyframe);
+    int length = entryLengths[entry];
+    ensureReconstructionCapacity(length);
+    System.arraycopy(arena, entryOffsets[entry], reconstruction, 0, length);
+
+    for (int i = keyframe + 1; i <= target; i++) {
+      entry = slot(i);
+      length = applyDelta(entryOffsets[entry], entryLengths[entry]);
+    }
+    return length;
+  }
+
+  private int applyDelta(int offset, int deltaLength) {
+    int end = offset + deltaLength;
+    int[] cursor = {offset};
+    int length = readVarint(cursor);
+    ensureReconstructionCapacity(length);
+    int position = 0;
+    while (cursor[0] < end) {
+      position += readVarint(cursor);
+      int runLength = readVarint(cursor);
+      System.arraycopy(arena, cursor[0], reconstruction, position, runLength);
+      cursor[0] += runLength;
+      position += runLength;
+    }
+    return length;
+  }
+
+  private void ensureReconstructionCapacity(int length) {
+    if (reconstruction.length < length) {
+      byte[] larger = new byte[Math.max(length, reconstruction.length * 2)];
+      System.arraycopy(reconstruction, 0, larger, 0, reconstruction.length);
+      reconstruction = larger;
+    }
+  }
+
+  /**
+   * Evicts the oldest entries until an entry of the given size fits after the newest one.
+   */
+  private void makeRoom(int length) {
+    if (length > arena.length) {
+      throw new IllegalStateException("Snapshot of " + length + " bytes exceeds the arena");
+    }
+    while (count > 0) {
+      if (count == entryOffsets.length) {
+        evictOldest();
+        continue;
+      }
+      int headStart = entryOffsets[head];
+      boolean fitsAtWrite = arenaWrite + length <= arena.length;
+      boolean fits;
+      if (headStart < arenaWrite) {
+        // Live data is [headStart, arenaWrite); the tail and the front are free
+        fits = fitsAtWrite || length <= headStart;
+      } else {
+        // Live data wraps around; only [arenaWrite, headStart) is free
+        fits = fitsAtWrite && arenaWrite + length <= headStart;
+      }
+      if (fits) {
+        return;
+      }
+      evictOldest();
+    }
+    arenaWrite = 0;
+  }
+
+  private void evictOldest() {
+    // A delta is useless without its keyframe, so drop up to the next keyframe
+    do {
+      head = (head + 1) % entryOffsets.length;
+      headTick++;
+      count--;
+    } while (count > 0 && !entryKeyframes[head]);
+  }
+
+  private void append(byte[] source, int length, boolean keyframe) {
+    int offset = arenaWrite + length <= arena.length ? arenaWrite : 0;
+    System.arraycopy(source, 0, arena, offset, length);
+    int entry = slot(count);
+    entryOffsets[entry] = offset;
+    entryLengths[entry] = length;
+    entryKeyframes[entry] = keyframe;
+    count++;
+    arenaWrite = offset + length;
+  }
+
+  private int slot(int index) {
+    return (head + index) % entryOffsets.length;
+  }
+
+  private static int writeVarint(byte[] target, int offset, int value) {
+    while ((value & ~0x7F) != 0) {
+      target[offset++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    target[offset++] = (byte) value;
+    return offset;
+  }
+
+  private int readVarint(int[] cursor) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = arena[cursor[0]++];
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+}
@@ -0,0 +1,284 @@
+package com.spaceshooter.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A generational slot map that hands out stable handles for game entities.
+ * A handle packs a slot index (low 32 bits) and the generation of that slot
+ * (high 32 bits) into a single long. Removing an entity bumps the generation
+ * of its slot, so every handle that still points at the old occupant becomes
+ * invalid and resolves to null in constant time, even after the slot is reused.
+ *
+ * Handles are plain primitives: they can be stored by other entities without
+ * keeping the referenced object reachable, and they can be written to a snapshot
+ * or replay as-is.
+ *
+ * @param <T> the type of entity stored in the map
+ */
+public class SlotMap<T> {
+  /** A handle value that never resolves to an entity. */
+  public static final long NULL_HANDLE = 0L;
+  private static final int INITIAL_CAPACITY = 32;
+  private Object[] values;
+  private int[] generations;
+  private int[] freeSlots;
+  private int freeCount;
+  private int highWater;
+  private int size;
+
+  /**
+   * Constructs an empty slot map.
+   */
+  public SlotMap() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Constructs an empty slot map with room for the given number of entities.
+   *
+   * @param capacity the initial number of slots
+   */
+  public SlotMap(int capacity) {
+    int initial = Math.max(1, capacity);
+    this.values = new Object[initial];
+    this.generations = new int[initial];
+    this.freeSlots = new int[initial];
+    // Generation 0 is reserved so that NULL_HANDLE can never be valid
+    Arrays.fill(generations, 1);
+  }
+
+  /**
+   * Inserts an entity and returns the handle that refers to it.
+   *
+   * @param value the entity to store, must not be null
+   * @return the handle for the stored entity
+   */
+  public long insert(T value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Cannot store null in a slot map");
+    }
+    int index;
+    if (freeCount > 0) {
+      index = freeSlots[--freeCount];
+    } else {
+      if (highWater == values.length) {
+        grow();
+      }
+      index = highWater++;
+    }
+    values[index] = value;
+    size++;
+    return toHandle(index, generations[index]);
+  }
+
+  /**
+   * Returns the entity a handle refers to.
+   *
+   * @param handle the handle to resolve
+   * @return the entity, or null if the handle is stale or was never issued
+   */
+  @SuppressWarnings("unchecked")
+  public T get(long handle) {
+    int index = indexOf(handle);
+    if (index < 0 || index >= highWater || generations[index] != generationOf(handle)) {
+      return null;
+    }
+    return (T) values[index];
+  }
+
+  /**
+   * Checks whether a handle still refers to a live entity.
+   *
+   * @param handle the handle to check
+   * @return true if the handle is valid, false otherwise
+   */
+  public boolean contains(long handle) {
+    return get(handle) != null;
+  }
+
+  /**
+   * Removes the entity a handle refers to and invalidates the handle.
+   *
+   * @param handle the handle of the entity to remove
+   * @return true if an entity was removed, false if the handle was already stale
+   */
+  public boolean remove(long handle) {
+    if (get(handle) == null) {
+      return false;
+    }
+    int index = indexOf(handle);
+    values[index] = null;
+    generations[index]++;
+    if (generations[index] == 0) {
+      generations[index] = 1; // Skip the reserved generation on wrap-around
+    }
+    freeSlots[freeCount++] = index;
+    size--;
+    return true;
+  }
+
+  /**
+   * Removes every entity and invalidates all outstanding handles.
+   */
+  public void clear() {
+    for (int i = 0; i < highWater; i++) {
+      if (values[i] != null) {
+        remove(toHandle(i, generations[i]));
+      }
+    }
+  }
+
+  /**
+   * Removes every entity and returns the map to the state of a new one, so it hands
+   * out the same handles in the same order as a freshly constructed map. Unlike
+   * {@link #clear()}, handles issued before the reset may become valid again, so
+   * nothing may still hold one.
+   */
+  public void reset() {
+    Arrays.fill(values, 0, highWater, null);
+    Arrays.fill(generations, 0, highWater, 1);
+    freeCount = 0;
+    highWater = 0;
+    size = 0;
+  }
+
+  /**
+   * Gives this map the same slots, generations and free list as another map, with
+   * every slot emptied. Each entity is then put back with {@link #restore(long, Object)},
+   * after which every handle issued by the other map resolves the same way in this one.
+   *
+   * @param other the map whose layout to copy
+   */
+  public void copyLayoutFrom(SlotMap<?> other) {
+    if (values.length < other.values.length) {
+      values = new Object[other.values.length];
+      generations = new int[other.values.length];
+      freeSlots = new int[other.values.length];
+    }
+    Arrays.fill(values, null);
+    System.arraycopy(other.generations, 0, generations, 0, other.highWater);
+    Arrays.fill(generations, other.highWater, generations.length, 1);
+    System.arraycopy(other.freeSlots, 0, freeSlots, 0, other.freeCount);
+    freeCount = other.freeCount;
+    highWater = other.highWater;
+    size = other.size;
+  }
+
+  /**
+   * Writes the slot layout (generations and free list, not the entities) to a buffer.
+   *
+   * @param out the buffer to write to
+   */
+  void writeLayout(ByteBuffer out) {
+    out.putInt(highWater).putInt(freeCount).putInt(size);
+    for (int i = 0; i < highWater; i++) {
+      out.putInt(generations[i]);
+    }
+    for (int i = 0; i < freeCount; i++) {
+      out.putInt(freeSlots[i]);
+    }
+  }
+
+  /**
+   * Replaces this map's layout with one written by {@link #writeLayout(ByteBuffer)}.
+   * As with {@link #copyLayoutFrom(SlotMap)}, every slot is left empty until its entity
+   * is put back with {@link #restore(long, Object)}.
+   *
+   * @param in the buffer to read from
+   */
+  void readLayout(ByteBuffer in) {
+    int newHighWater = in.getInt();
+    int newFreeCount = in.getInt();
+    int newSize = in.getInt();
+    if (values.length < newHighWater) {
+      int capacity = Math.max(newHighWater, values.length * 2);
+      values = new Object[capacity];
+      generations = new int[capacity];
+      freeSlots = new int[capacity];
+    }
+    Arrays.fill(values, null);
+    for (int i = 0; i < newHighWater; i++) {
+      generations[i] = in.getInt();
+    }
+    Arrays.fill(generations, newHighWater, generations.length, 1);
+    for (int i = 0; i < newFreeCount; i++) {
+      freeSlots[i] = in.getInt();
+    }
+    highWater = newHighWater;
+    freeCount = newFreeCount;
+    size = newSize;
+  }
+
+  /**
+   * Returns the number of bytes {@link #writeLayout(ByteBuffer)} writes.
+   *
+   * @return the encoded layout size
+   */
+  int layoutSize() {
+    return 12 + (highWater + freeCount) * 4;
+  }
+
+  /**
+   * Puts an entity back into the slot named by a handle after {@link #copyLayoutFrom}.
+   *
+   * @param handle a handle that is valid in the copied layout
+   * @param value the entity to store in that slot
+   */
+  public void restore(long handle, T value) {
+    int index = indexOf(handle);
+    if (index < 0 || index >= highWater || generations[index] != generationOf(handle)) {
+      throw new IllegalArgumentException("Handle is not valid in this layout: " + handle);
+    }
+    values[index] = value;
+  }
+
+  /**
+   * Returns the number of live entities.
+   *
+   * @return the number of entities in the map
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Builds a handle from a slot index and generation.
+   *
+   * @param index the slot index
+   * @param generation the slot generation
+   * @return the packed handle
+   */
+  public static long toHandle(int index, int generation) {
+    return ((long) generation << 32) | (index & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Returns the slot index encoded in a handle.
+   *
+   * @param handle the handle
+   * @return the slot index
+   */
+  public static int indexOf(long handle) {
+    return (int) handle;
+  }
+
+  /**
+   * Returns the generation encoded in a handle.
+   *
+   * @param handle the handle
+   * @return the generation
+   */
+  public static int generationOf(long handle) {
+    return (int) (handle >>> 32);
+  }
+
+  private void grow() {
+    int oldCapacity = values.length;
+    int newCapacity = oldCapacity * 2;
+    values = Arrays.copyOf(values, newCapacity);
+    generations = Arrays.copyOf(generations, newCapacity);
+    freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+    Arrays.fill(generations, oldCapacity, newCapacity, 1);
+  }
+}
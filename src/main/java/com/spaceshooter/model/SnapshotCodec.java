@@ -0,0 +1,62 @@
+package com.spaceshooter.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a complete game state into a compact binary snapshot and back.
+ * A snapshot covers the player, the enemies and their handle registry, every missile,
+ * the weapon counters, the formation state and the random number generator, so a
+ * restored game continues exactly as the original would have.
+ *
+ * Encoding writes into a caller-supplied ByteBuffer, so callers can reuse one buffer
+ * for every snapshot. Decoding restores into an existing model and reuses its
+ * entity objects instead of building a new model.
+ */
+public final class SnapshotCodec {
+  /** The magic number at the start of every snapshot ("SSNP"). */
+  public static final int MAGIC = 0x53534E50;
+  /** The snapshot format version. */
+  public static final short VERSION = 8;
+  private static final int HEADER_SIZE = 6;
+
+  private SnapshotCodec() {
+  }
+
+  /**
+   * Writes a snapshot of a game at the buffer's position.
+   *
+   * @param model the game to save
+   * @param out the buffer to write to, which needs at least {@link #maxSize(GameModel)} bytes
+   */
+  public static void encode(GameModel model, ByteBuffer out) {
+    out.putInt(MAGIC);
+    out.putShort(VERSION);
+    model.writeState(out);
+  }
+
+  /**
+   * Restores a game from a snapshot at the buffer's position.
+   *
+   * @param in the buffer holding the snapshot
+   * @param model the game to overwrite with the snapshot's state
+   * @throws IllegalArgumentException if the buffer does not hold a supported snapshot
+   */
+  public static void decode(ByteBuffer in, GameModel model) {
+    int magic = in.getInt();
+    short version = in.getShort();
+    if (magic != MAGIC || version != VERSION) {
+      throw new IllegalArgumentException("Not a version " + VERSION + " game snapshot");
+    }
+    model.readState(in);
+  }
+
+  /**
+   * Returns an upper bound on the size of a snapshot of the game in its current state.
+   *
+   * @param model the game that will be saved
+   * @return the maximum number of bytes {@link #encode(GameModel, ByteBuffer)} writes
+   */
+  public static int maxSize(GameModel model) {
+    return HEADER_SIZE + model.stateSizeBound();
+  }
+}
@@ -0,0 +1,148 @@
+package com.spaceshooter.model;
+
+/**
+ * The collision masks a game uses for pixel-accurate hits.
+ * Collisions are found with bounding boxes first; only a pair whose boxes overlap is
+ * then checked against the masks, so the masks cost nothing for the many pairs that
+ * are far apart. Entities without a mask stay solid rectangles, and a game without
+ * sprite masks, the default, never gets past the bounding boxes.
+ *
+ * Masks are configuration rather than game state: they are not saved in snapshots and
+ * must not be changed while a game is being updated.
+ */
+public final class SpriteMasks {
+  private static final int MISSILE_KINDS = Missile.KIND_SWARM + 1;
+  private CollisionMask playerMask;
+  private CollisionMask enemyMask;
+  private final CollisionMask[] missileMasks = new CollisionMask[MISSILE_KINDS];
+
+  /**
+   * Returns masks that shape every ship and missile as the ellipse filling its
+   * bounding box, so two boxes that only touch at their corners no longer hit.
+   * Laser beams stay solid rectangles.
+   *
+   * @return the masks
+   */
+  public static SpriteMasks rounded() {
+    Player player = new Player(0, 0);
+    Enemy enemy = new Enemy(0, 0, 0);
+    Missile missile = new Missile(0, 0, true);
+    CollisionMask missileMask = CollisionMask.ellipse(missile.getWidth(), missile.getHeight());
+    SpriteMasks masks = new SpriteMasks();
+    masks.setPlayerMask(CollisionMask.ellipse(player.getWidth(), player.getHeight()));
+    masks.setEnemyMask(CollisionMask.ellipse(enemy.getWidth(), enemy.getHeight()));
+    masks.setMissileMask(Missile.KIND_BASIC, missileMask);
+    masks.setMissileMask(Missile.KIND_TARGETING, missileMask);
+    masks.setMissileMask(Missile.KIND_SWARM, missileMask);
+    return masks;
+  }
+
+  /**
+   * Sets the mask of the player ship.
+   *
+   * @param playerMask the mask, or null for a solid rectangle
+   */
+  public void setPlayerMask(CollisionMask playerMask) {
+    this.playerMask = playerMask;
+  }
+
+  /**
+   * Sets the mask of every enemy.
+   *
+   * @param enemyMask the mask, or null for a solid rectangle
+   */
+  public void setEnemyMask(CollisionMask enemyMask) {
+    this.enemyMask = enemyMask;
+  }
+
+  /**
+   * Sets the mask of one kind of missile.
+   *
+   * @param kind one of the KIND_ constants of {@link Missile}
+   * @param missileMask the mask, or null for a solid rectangle
+   */
+  public void setMissileMask(int kind, CollisionMask missileMask) {
+    missileMasks[kind] = missileMask;
+  }
+
+  /**
+   * Returns the mask of the player ship.
+   *
+   * @return the mask, or null for a solid rectangle
+   */
+  public CollisionMask getPlayerMask() {
+    return playerMask;
+  }
+
+  /**
+   * Returns the mask of every enemy.
+   *
+   * @return the mask, or null for a solid rectangle
+   */
+  public CollisionMask getEnemyMask() {
+    return enemyMask;
+  }
+
+  /**
+   * Returns the mask of one kind of missile.
+   *
+   * @param kind one of the KIND_ constants of {@link Missile}
+   * @return the mask, or null for a solid rectangle
+   */
+  public CollisionMask getMissileMask(int kind) {
+    return missileMasks[kind];
+  }
+
+  /**
+   * Checks a missile against an enemy whose bounding box it already overlaps.
+   *
+   * @param missile the missile
+   * @param enemy the enemy
+   * @return true if the two share a solid pixel
+   */
+  public boolean overlaps(Missile missile, Enemy enemy) {
+    return overlaps(missileMasks[missile.getKind()], missile.getX(), missile.getY(),
+        missile.getWidth(), missile.getHeight(),
+        enemyMask, enemy.getX(), enemy.getY(), enemy.getWidth(), enemy.getHeight());
+  }
+
+  /**
+   * Checks a missile against a player whose bounding box it already overlaps.
+   *
+   * @param missile the missile
+   * @param player the player
+   * @return true if the two share a solid pixel
+   */
+  public boolean overlaps(Missile missile, Player player) {
+    return overlaps(missileMasks[missile.getKind()], missile.getX(), missile.getY(),
+        missile.getWidth(), missile.getHeight(),
+        playerMask, player.getX(), player.getY(), player.getWidth(), player.getHeight());
+  }
+
+  /**
+   * Checks whether a hitscan beam, running from a point straight up to the top of the
+   * field, passes through a solid pixel of an enemy whose columns it already overlaps.
+   *
+   * @param beamX the left edge of the beam
+   * @param beamY the y-coordinate the beam is fired from
+   * @param beamWidth the width of the beam
+   * @param enemy the enemy
+   * @return true if the beam hits the enemy
+   */
+  public boolean beamHits(int beamX, int beamY, int beamWidth, Enemy enemy) {
+    return enemyMask == null
+        || enemyMask.overlapsRectangle(enemy.getX(), enemy.getY(), beamX, 0, beamWidth, beamY);
+  }
+
+  private static boolean overlaps(CollisionMask a, int ax, int ay, int aw, int ah,
+      CollisionMask b, int bx, int by, int bw, int bh) {
+    if (a == null && b == null) {
+      return true; // Two rectangles, which the bounding boxes have already settled
+    } else if (a == null) {
+      return b.overlapsRectangle(bx, by, ax, ay, aw, ah);
+    } else if (b == null) {
+      return a.overlapsRectangle(ax, ay, bx, by, bw, bh);
+    }
+    return a.overlaps(ax, ay, b, bx, by);
+  }
+}
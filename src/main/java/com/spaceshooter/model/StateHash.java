@@ -0,0 +1,100 @@
+package com.spaceshooter.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The running sum behind {@link GameModel#getStateHash()}.
+ * Every entity attached to a game contributes a 64-bit hash of its own state. When an
+ * entity changes it adds the difference between its new and old contribution, so the
+ * sum is kept up to date in O(changes) rather than O(world). Contributions are summed
+ * rather than XORed so that two identical entities, such as two missiles fired at the
+ * same spot, do not cancel each other out.
+ *
+ * The sum is a plain long, except while the parallel tick moves missiles from several
+ * threads at once: between {@link #beginConcurrent()} and {@link #endConcurrent()}
+ * changes go to a {@link LongAdder} instead.
+ */
+final class StateHash {
+  private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+  private final LongAdder concurrentSum = new LongAdder();
+  private long sum;
+  private boolean concurrent;
+
+  /**
+   * Adds a change in contribution to the sum.
+   *
+   * @param delta the new contribution minus the old one
+   */
+  void add(long delta) {
+    if (concurrent) {
+      concurrentSum.add(delta);
+    } else {
+      sum += delta;
+    }
+  }
+
+  /**
+   * Makes {@link #add(long)} safe to call from several threads.
+   * Must be called before the worker threads are started.
+   */
+  void beginConcurrent() {
+    concurrent = true;
+  }
+
+  /**
+   * Folds the changes made by worker threads back into the plain sum.
+   * Must be called after the worker threads have been joined.
+   */
+  void endConcurrent() {
+    concurrent = false;
+    sum += concurrentSum.sumThenReset();
+  }
+
+  /**
+   * Returns the sum of all attached contributions.
+   *
+   * @return the entity part of the state hash
+   */
+  long sum() {
+    return sum;
+  }
+
+  /**
+   * Folds a value into a running hash.
+   *
+   * @param hash the hash so far
+   * @param value the value to fold in
+   * @return the combined hash
+   */
+  static long combine(long hash, long value) {
+    return (hash ^ value) * MULTIPLIER + (hash >>> 29);
+  }
+
+  /**
+   * Hashes up to four fields of an entity. The products are independent of each
+   * other, so this is cheaper than folding the fields in one after another; the
+   * result still needs {@link #finish(long)}.
+   *
+   * @param a the first field
+   * @param b the second field
+   * @param c the third field
+   * @param d the fourth field
+   * @return the unfinished hash
+   */
+  static long fields(long a, long b, long c, long d) {
+    return a * 0x9E3779B97F4A7C15L + b * 0xC2B2AE3D27D4EB4FL
+        + c * 0x165667B19E3779F9L + d * 0xD6E8FEB86659FD93L;
+  }
+
+  /**
+   * Scrambles a hash so that every input bit affects every output bit.
+   *
+   * @param z the hash to finish
+   * @return the finished hash
+   */
+  static long finish(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,168 @@
+package com.spaceshooter.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A homing missile that flies as part of a swarm.
+ * Unlike a single {@link TargetingMissile}, a swarm missile does not steer itself: the
+ * game steers all swarm missiles together once per tick with {@link SwarmSteering},
+ * which turns each one towards its target while keeping it apart from and moving with
+ * its neighbours. The missile then moves by the velocity it was given.
+ * Its position and velocity are kept as doubles, so small steering changes add up.
+ * A swarm missile that has not hit anything when its fuel runs out is removed.
+ */
+public class SwarmMissile extends TargetingMissile {
+  /** The number of ticks a swarm missile flies before it is removed. */
+  public static final int FUEL_TICKS = 300;
+  private double positionX;
+  private double positionY;
+  private double velocityX;
+  private double velocityY;
+  private int fuel;
+
+  /**
+   * Constructs a new swarm missile.
+   *
+   * @param x the initial x-coordinate of the missile
+   * @param y the initial y-coordinate of the missile
+   * @param enemyRegistry the registry used to resolve the target handle
+   * @param targetHandle the handle of the enemy that the missile will home in on
+   * @param velocityX the initial horizontal velocity
+   * @param velocityY the initial vertical velocity, negative to fly up
+   */
+  public SwarmMissile(int x, int y, SlotMap<Enemy> enemyRegistry, long targetHandle,
+      double velocityX, double velocityY) {
+    super(x, y, enemyRegistry, targetHandle);
+    this.positionX = x;
+    this.positionY = y;
+    this.velocityX = velocityX;
+    this.velocityY = velocityY;
+    this.fuel = FUEL_TICKS;
+  }
+
+  /**
+   * Moves the missile by its velocity and burns one tick of fuel.
+   */
+  @Override
+  public void update() {
+    positionX += velocityX;
+    positionY += velocityY;
+    x = (int) positionX;
+    y = (int) positionY;
+    fuel--;
+    stateChanged();
+  }
+
+  /**
+   * Checks whether the missile has left the field or run out of fuel.
+   *
+   * @param fieldWidth the width of the play field
+   * @param fieldHeight the height of the play field
+   * @return true if the missile can no longer hit anything
+   */
+  @Override
+  public boolean isOutOfPlay(int fieldWidth, int fieldHeight) {
+    return fuel <= 0 || super.isOutOfPlay(fieldWidth, fieldHeight);
+  }
+
+  /**
+   * Sets the velocity the missile moves by on the next update.
+   *
+   * @param velocityX the horizontal velocity
+   * @param velocityY the vertical velocity
+   */
+  void setVelocity(double velocityX, double velocityY) {
+    this.velocityX = velocityX;
+    this.velocityY = velocityY;
+    stateChanged();
+  }
+
+  /**
+   * Creates a copy of this missile that homes in on the same enemy in a forked game.
+   *
+   * @param model the game the copy will belong to
+   * @return the copy
+   */
+  @Override
+  public SwarmMissile copyFor(GameModel model) {
+    SwarmMissile copy = new SwarmMissile(x, y, model.getEnemyRegistry(), getTargetHandle(),
+        velocityX, velocityY);
+    copy.positionX = positionX;
+    copy.positionY = positionY;
+    copy.fuel = fuel;
+    copy.stateChanged();
+    return copy;
+  }
+
+  /**
+   * Returns {@link Missile#KIND_SWARM}.
+   *
+   * @return the swarm missile kind
+   */
+  @Override
+  public int getKind() {
+    return KIND_SWARM;
+  }
+
+  @Override
+  void writeState(ByteBuffer out) {
+    super.writeState(out);
+    out.putDouble(positionX).putDouble(positionY);
+    out.putDouble(velocityX).putDouble(velocityY).putInt(fuel);
+  }
+
+  @Override
+  void readState(ByteBuffer in) {
+    super.readState(in);
+    positionX = in.getDouble();
+    positionY = in.getDouble();
+    velocityX = in.getDouble();
+    velocityY = in.getDouble();
+    fuel = in.getInt();
+    stateChanged();
+  }
+
+  @Override
+  long hashState() {
+    return StateHash.finish(super.hashState()
+        + StateHash.fields(Double.doubleToLongBits(positionX),
+            Double.doubleToLongBits(positionY), Double.doubleToLongBits(velocityX),
+            Double.doubleToLongBits(velocityY) + fuel));
+  }
+
+  /**
+   * Returns the exact horizontal position of the missile.
+   *
+   * @return the x-coordinate, including the fraction the integer position drops
+   */
+  public double getExactX() {
+    return positionX;
+  }
+
+  /**
+   * Returns the exact vertical position of the missile.
+   *
+   * @return the y-coordinate, including the fraction the integer position drops
+   */
+  public double getExactY() {
+    return positionY;
+  }
+
+  /**
+   * Returns the horizontal velocity of the missile.
+   *
+   * @return the horizontal distance the missile moves each tick
+   */
+  public double getExactVelocityX() {
+    return velocityX;
+  }
+
+  /**
+   * Returns the vertical velocity of the missile.
+   *
+   * @return the vertical distance the missile moves each tick
+   */
+  public double getExactVelocityY() {
+    return velocityY;
+  }
+}
@@ -0,0 +1,250 @@
+package com.spaceshooter.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Steers every {@link SwarmMissile} in a game at once, boids style.
+ * Each missile turns towards its target, or upward once the target is gone, and is
+ * pulled by the neighbours within {@link #NEIGHBOR_RADIUS}: towards their centre
+ * (cohesion), towards their average velocity (alignment) and away from the ones that
+ * are too close (separation).
+ *
+ * Comparing every pair of missiles would be O(n^2), so once per tick the missiles are
+ * bucketed into a uniform grid whose cells are one neighbour radius wide, and each
+ * missile only looks at the 3x3 cells around its own. The grid is built with a
+ * counting sort, and positions and velocities are copied into primitive arrays in
+ * cell order, so the neighbour loops run over contiguous memory without touching the
+ * missile objects. Only +, *, / and sqrt are used, which Java evaluates the same way
+ * on every machine, and neighbours are visited in a fixed order, so steering is
+ * deterministic.
+ */
+final class SwarmSteering {
+  /** The distance within which another missile counts as a neighbour. */
+  static final double NEIGHBOR_RADIUS = 20;
+  /** The distance below which neighbours push each other apart. */
+  static final double SEPARATION_RADIUS = 10;
+  /** The fastest a swarm missile flies, in units per tick. */
+  static final double MAX_SPEED = 7;
+  private static final double SEEK = 0.15;
+  private static final double COHESION = 0.01;
+  private static final double ALIGNMENT = 0.05;
+  private static final double SEPARATION = 1.5;
+  // Neighbours beyond this many add little and would make dense swarms quadratic again
+  private static final int MAX_NEIGHBORS = 12;
+  private static final double NO_TARGET = Double.NaN;
+
+  private SwarmMissile[] members = new SwarmMissile[64];
+  private int[] cells = new int[64];
+  private int[] order = new int[64];
+  private double[] targetX = new double[64];
+  private double[] targetY = new double[64];
+  // Positions and velocities in cell order, and the steered velocities
+  private double[] positionX = new double[64];
+  private double[] positionY = new double[64];
+  private double[] velocityX = new double[64];
+  private double[] velocityY = new double[64];
+  private double[] steeredX = new double[64];
+  private double[] steeredY = new double[64];
+  private int[] cellStart = new int[65];
+  private int[] cellFill = new int[64];
+  private int columns;
+  private int rows;
+
+  /**
+   * Steers the swarm missiles among the given missiles for the coming tick.
+   *
+   * @param missiles the live missiles; only swarm missiles are steered
+   * @return the number of swarm missiles steered
+   */
+  int steer(List<Missile> missiles) {
+    int count = gather(missiles);
+    if (count == 0) {
+      return 0;
+    }
+    buildGrid(count);
+    for (int k = 0; k < count; k++) {
+      steerOne(k);
+    }
+    for (int k = 0; k < count; k++) {
+      members[order[k]].setVelocity(steeredX[k], steeredY[k]);
+    }
+    Arrays.fill(members, 0, count, null); // Do not keep removed missiles reachable
+    return count;
+  }
+
+  /**
+   * Collects the swarm missiles and their targets, in missile list order.
+   */
+  private int gather(List<Missile> missiles) {
+    int count = 0;
+    for (int i = 0; i < missiles.size(); i++) {
+      Missile missile = missiles.get(i);
+      if (!(missile instanceof SwarmMissile)) {
+        continue;
+      }
+      if (count == members.length) {
+        grow(count * 2);
+      }
+      SwarmMissile member = (SwarmMissile) missile;
+      members[count] = member;
+      Enemy target = member.resolveTarget();
+      if (target != null) {
+        targetX[count] = target.getX() + target.getWidth() / 2.0;
+        targetY[count] = target.getY() + target.getHeight() / 2.0;
+      } else {
+        targetX[count] = NO_TARGET;
+      }
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Sorts the missiles into grid cells and copies their state into cell order.
+   */
+  private void buildGrid(int count) {
+    double minX = Double.MAX_VALUE;
+    double minY = Double.MAX_VALUE;
+    double maxX = -Double.MAX_VALUE;
+    double maxY = -Double.MAX_VALUE;
+    for (int i = 0; i < count; i++) {
+      minX = Math.min(minX, members[i].getExactX());
+      minY = Math.min(minY, members[i].getExactY());
+      maxX = Math.max(maxX, members[i].getExactX());
+      maxY = Math.max(maxY, members[i].getExactY());
+    }
+    columns = (int) ((maxX - minX) / NEIGHBOR_RADIUS) + 1;
+    rows = (int) ((maxY - minY) / NEIGHBOR_RADIUS) + 1;
+    int cellCount = columns * rows;
+    if (cellStart.length < cellCount + 1) {
+      cellStart = new int[Math.max(cellCount + 1, cellStart.length * 2)];
+      cellFill = new int[cellStart.length];
+    }
+
+    // Counting sort by cell; stable, so each cell keeps missile list order
+    for (int c = 0; c <= cellCount; c++) {
+      cellStart[c] = 0;
+    }
+    for (int i = 0; i < count; i++) {
+      int column = (int) ((members[i].getExactX() - minX) / NEIGHBOR_RADIUS);
+      int row = (int) ((members[i].getExactY() - minY) / NEIGHBOR_RADIUS);
+      cells[i] = row * columns + column;
+      cellStart[cells[i] + 1]++;
+    }
+    for (int c = 0; c < cellCount; c++) {
+      cellStart[c + 1] += cellStart[c];
+      cellFill[c] = cellStart[c];
+    }
+    for (int i = 0; i < count; i++) {
+      order[cellFill[cells[i]]++] = i;
+    }
+
+    for (int k = 0; k < count; k++) {
+      SwarmMissile member = members[order[k]];
+      positionX[k] = member.getExactX();
+      positionY[k] = member.getExactY();
+      velocityX[k] = member.getExactVelocityX();
+      velocityY[k] = member.getExactVelocityY();
+    }
+  }
+
+  /**
+   * Computes the new velocity of the k-th missile in cell order.
+   */
+  private void steerOne(int k) {
+    double x = positionX[k];
+    double y = positionY[k];
+    double vx = velocityX[k];
+    double vy = velocityY[k];
+
+    // Seek: steer towards the velocity that flies straight at the target
+    int member = order[k];
+    double desiredX = 0;
+    double desiredY = -MAX_SPEED;
+    if (!Double.isNaN(targetX[member])) {
+      double dx = targetX[member] - x;
+      double dy = targetY[member] - y;
+      double distance = Math.sqrt(dx * dx + dy * dy);
+      if (distance > 0) {
+        desiredX = dx / distance * MAX_SPEED;
+        desiredY = dy / distance * MAX_SPEED;
+      }
+    }
+    double ax = (desiredX - vx) * SEEK;
+    double ay = (desiredY - vy) * SEEK;
+
+    // Flocking against the neighbours in the surrounding 3x3 cells
+    int cell = cells[member];
+    int column = cell % columns;
+    int row = cell / columns;
+    int neighbors = 0;
+    double sumX = 0;
+    double sumY = 0;
+    double sumVx = 0;
+    double sumVy = 0;
+    double pushX = 0;
+    double pushY = 0;
+    double radiusSquared = NEIGHBOR_RADIUS * NEIGHBOR_RADIUS;
+    double separationSquared = SEPARATION_RADIUS * SEPARATION_RADIUS;
+    search:
+    for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+      for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+        int end = cellStart[r * columns + c + 1];
+        for (int j = cellStart[r * columns + c]; j < end; j++) {
+          if (j == k) {
+            continue;
+          }
+          double dx = positionX[j] - x;
+          double dy = positionY[j] - y;
+          double distanceSquared = dx * dx + dy * dy;
+          if (distanceSquared >= radiusSquared) {
+            continue;
+          }
+          sumX += positionX[j];
+          sumY += positionY[j];
+          sumVx += velocityX[j];
+          sumVy += velocityY[j];
+          if (distanceSquared > 0 && distanceSquared < separationSquared) {
+            pushX -= dx / distanceSquared;
+            pushY -= dy / distanceSquared;
+          }
+          if (++neighbors == MAX_NEIGHBORS) {
+            break search;
+          }
+        }
+      }
+    }
+    if (neighbors > 0) {
+      ax += (sumX / neighbors - x) * COHESION + (sumVx / neighbors - vx) * ALIGNMENT
+          + pushX * SEPARATION;
+      ay += (sumY / neighbors - y) * COHESION + (sumVy / neighbors - vy) * ALIGNMENT
+          + pushY * SEPARATION;
+    }
+
+    vx += ax;
+    vy += ay;
+    double speedSquared = vx * vx + vy * vy;
+    if (speedSquared > MAX_SPEED * MAX_SPEED) {
+      double scale = MAX_SPEED / Math.sqrt(speedSquared);
+      vx *= scale;
+      vy *= scale;
+    }
+    steeredX[k] = vx;
+    steeredY[k] = vy;
+  }
+
+  private void grow(int capacity) {
+    members = Arrays.copyOf(members, capacity);
+    cells = Arrays.copyOf(cells, capacity);
+    order = Arrays.copyOf(order, capacity);
+    targetX = Arrays.copyOf(targetX, capacity);
+    targetY = Arrays.copyOf(targetY, capacity);
+    positionX = new double[capacity];
+    positionY = new double[capacity];
+    velocityX = new double[capacity];
+    velocityY = new double[capacity];
+    steeredX = new double[capacity];
+    steeredY = new double[capacity];
+  }
+}
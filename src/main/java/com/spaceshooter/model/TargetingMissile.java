@@ -1,13 +1,20 @@
 package com.spaceshooter.model;
 
+import java.nio.ByteBuffer;
+
 /**
  * A specialized missile that can track and follow a target enemy.
  * This missile extends the basic Missile class and adds homing capabilities.
  * It calculates the direction to its target and smoothly turns towards it while moving.
+ * The target is held as a handle into the model's enemy registry rather than a direct
+ * reference, so a destroyed enemy is neither kept alive nor chased after it is removed.
+ * Steering uses StrictMath so that every JVM computes the same course, which the
+ * rollback peers rely on when they compare state hashes.
  */
 public class TargetingMissile extends Missile {
   private static final double TURN_RATE = 0.1; // How quickly the missile can turn
-  private Enemy target;
+  private final SlotMap<Enemy> enemyRegistry;
+  private long targetHandle;
   private double currentDirection; // Current direction in radians
 
   /**
@@ -15,27 +22,30 @@ public class TargetingMissile extends Missile {
    *
    * @param x the initial x-coordinate of the missile
    * @param y the initial y-coordinate of the missile
-   * @param target the enemy that the missile will track
+   * @param enemyRegistry the registry used to resolve the target handle
+   * @param targetHandle the handle of the enemy that the missile will track
    */
-  public TargetingMissile(int x, int y, Enemy target) {
+  public TargetingMissile(int x, int y, SlotMap<Enemy> enemyRegistry, long targetHandle) {
     super(x, y, true);
-    this.target = target;
+    this.enemyRegistry = enemyRegistry;
+    this.targetHandle = targetHandle;
     this.currentDirection = -Math.PI / 2; // Start moving upward
   }
 
   /**
    * Updates the missile's position and direction.
-   * If a target is set, the missile will calculate the direction to the target
-   * and smoothly turn towards it while moving. If no target is set,
+   * If the target is still alive, the missile will calculate the direction to the target
+   * and smoothly turn towards it while moving. Once the target has been removed,
    * it behaves like a normal missile moving upward.
    */
   @Override
   public void update() {
+    Enemy target = enemyRegistry.get(targetHandle);
     if (target != null) {
       // Calculate direction to target
       double targetX = target.getX() + target.getWidth() / 2;
       double targetY = target.getY() + target.getHeight() / 2;
-      double desiredDirection = Math.atan2(targetY - y, targetX - x);
+      double desiredDirection = StrictMath.atan2(targetY - y, targetX - x);
 
       // Smoothly turn towards target
       double angleDiff = desiredDirection - currentDirection;
@@ -52,11 +62,80 @@ public class TargetingMissile extends Missile {
 
       // Move in current direction
       int speed = 5;
-      x += Math.cos(currentDirection) * speed;
-      y += Math.sin(currentDirection) * speed;
+      x += StrictMath.cos(currentDirection) * speed;
+      y += StrictMath.sin(currentDirection) * speed;
+      stateChanged();
     } else {
-      // If no target, move upward like a normal missile
+      // If the target is gone, forget it and move upward like a normal missile
+      targetHandle = SlotMap.NULL_HANDLE;
       super.update();
     }
   }
+
+  /**
+   * Creates a copy of this missile that tracks the same enemy in a forked game.
+   *
+   * @param model the game the copy will belong to
+   * @return the copy
+   */
+  @Override
+  public TargetingMissile copyFor(GameModel model) {
+    TargetingMissile copy = new TargetingMissile(x, y, model.getEnemyRegistry(), targetHandle);
+    copy.currentDirection = currentDirection;
+    copy.stateChanged();
+    return copy;
+  }
+
+  /**
+   * Returns {@link Missile#KIND_TARGETING}.
+   *
+   * @return the targeting missile kind
+   */
+  @Override
+  public int getKind() {
+    return KIND_TARGETING;
+  }
+
+  @Override
+  void writeState(ByteBuffer out) {
+    super.writeState(out);
+    out.putLong(targetHandle).putDouble(currentDirection);
+  }
+
+  @Override
+  void readState(ByteBuffer in) {
+    super.readState(in);
+    targetHandle = in.getLong();
+    currentDirection = in.getDouble();
+    stateChanged();
+  }
+
+  @Override
+  long hashState() {
+    return StateHash.finish(super.hashState()
+        + StateHash.fields(targetHandle, Double.doubleToLongBits(currentDirection), 0, 0));
+  }
+
+  /**
+   * Returns the enemy this missile is tracking, letting go of it once it has been removed.
+   *
+   * @return the target, or null if it is gone
+   */
+  Enemy resolveTarget() {
+    Enemy target = enemyRegistry.get(targetHandle);
+    if (target == null && targetHandle != SlotMap.NULL_HANDLE) {
+      targetHandle = SlotMap.NULL_HANDLE;
+      stateChanged();
+    }
+    return target;
+  }
+
+  /**
+   * Returns the handle of the enemy this missile is tracking.
+   *
+   * @return the target handle, or {@link SlotMap#NULL_HANDLE} if the target was lost
+   */
+  public long getTargetHandle() {
+    return targetHandle;
+  }
 } 
\ No newline at end of file
@@ -0,0 +1,269 @@
+package com.spaceshooter.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A hashed timing wheel that schedules game events at exact future ticks.
+ * An event is an int kind that is due a given number of ticks from now. Events live in
+ * one of a fixed number of slots, chosen by their due tick, so advancing one tick only
+ * looks at the events in one slot instead of polling every periodic timer. An event
+ * further away than the wheel's size shares a slot with nearer ones and simply stays
+ * there until the wheel comes round to its tick.
+ *
+ * Events due on the same tick are returned in order of kind, and in the order they
+ * were scheduled within a kind, so the order never depends on how the wheel's slots
+ * happen to be laid out. Entries are kept in int and long arrays that are reused, so
+ * scheduling and advancing do not allocate once the wheel has grown to its peak size.
+ */
+public class TickWheel {
+  private static final int NONE = -1;
+  private static final int INITIAL_CAPACITY = 8;
+  private final int mask;
+  private final int[] heads;
+  private final int[] tails;
+  private int[] next;
+  private int[] kinds;
+  private long[] dueTicks;
+  private int[] freeEntries;
+  private int freeCount;
+  private int highWater;
+  private int size;
+  private long tick;
+  private int[] dueKinds = new int[INITIAL_CAPACITY];
+  private int dueCount;
+
+  /**
+   * Constructs an empty wheel at tick 0.
+   *
+   * @param slots the number of slots, rounded up to a power of two
+   */
+  public TickWheel(int slots) {
+    int count = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+    this.mask = count - 1;
+    this.heads = new int[count];
+    this.tails = new int[count];
+    Arrays.fill(heads, NONE);
+    Arrays.fill(tails, NONE);
+    this.next = new int[INITIAL_CAPACITY];
+    this.kinds = new int[INITIAL_CAPACITY];
+    this.dueTicks = new long[INITIAL_CAPACITY];
+    this.freeEntries = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Schedules an event.
+   *
+   * @param delay the number of ticks from now at which the event is due, at least 1
+   * @param kind the kind of event
+   */
+  public void schedule(int delay, int kind) {
+    if (delay < 1) {
+      throw new IllegalArgumentException("Events must be due in the future: " + delay);
+    }
+    int entry;
+    if (freeCount > 0) {
+      entry = freeEntries[--freeCount];
+    } else {
+      if (highWater == next.length) {
+        grow();
+      }
+      entry = highWater++;
+    }
+    long due = tick + delay;
+    kinds[entry] = kind;
+    dueTicks[entry] = due;
+    next[entry] = NONE;
+    int slot = (int) due & mask;
+    if (tails[slot] == NONE) {
+      heads[slot] = entry;
+    } else {
+      next[tails[slot]] = entry;
+    }
+    tails[slot] = entry;
+    size++;
+  }
+
+  /**
+   * Moves the wheel on by one tick and collects the events that are now due.
+   * The collected events are removed from the wheel and can be read with
+   * {@link #getDueKind(int)} until the next call.
+   *
+   * @return the number of events due on the new tick
+   */
+  public int advance() {
+    tick++;
+    dueCount = 0;
+    int slot = (int) tick & mask;
+    int previous = NONE;
+    int entry = heads[slot];
+    while (entry != NONE) {
+      int following = next[entry];
+      if (dueTicks[entry] == tick) {
+        if (previous == NONE) {
+          heads[slot] = following;
+        } else {
+          next[previous] = following;
+        }
+        if (tails[slot] == entry) {
+          tails[slot] = previous;
+        }
+        addDue(kinds[entry]);
+        freeEntries[freeCount++] = entry;
+        size--;
+      } else {
+        previous = entry;
+      }
+      entry = following;
+    }
+    return dueCount;
+  }
+
+  private void addDue(int kind) {
+    if (dueCount == dueKinds.length) {
+      dueKinds = Arrays.copyOf(dueKinds, dueCount * 2);
+    }
+    // Insertion sort by kind; equal kinds keep their scheduling order
+    int i = dueCount++;
+    while (i > 0 && dueKinds[i - 1] > kind) {
+      dueKinds[i] = dueKinds[i - 1];
+      i--;
+    }
+    dueKinds[i] = kind;
+  }
+
+  /**
+   * Returns one of the events collected by the last {@link #advance()}.
+   *
+   * @param index the index of the event, below the count advance() returned
+   * @return the kind of the event
+   */
+  public int getDueKind(int index) {
+    return dueKinds[index];
+  }
+
+  /**
+   * Returns the current tick.
+   *
+   * @return the number of times the wheel has advanced since it was cleared
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * Returns the number of events still scheduled.
+   *
+   * @return the pending event count
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes every event and moves the wheel back to tick 0.
+   */
+  public void clear() {
+    Arrays.fill(heads, NONE);
+    Arrays.fill(tails, NONE);
+    freeCount = 0;
+    highWater = 0;
+    size = 0;
+    tick = 0;
+    dueCount = 0;
+  }
+
+  /**
+   * Overwrites this wheel with a copy of another wheel of the same size.
+   *
+   * @param source the wheel to copy
+   */
+  public void copyFrom(TickWheel source) {
+    if (source.heads.length != heads.length) {
+      throw new IllegalArgumentException("Wheels differ in size");
+    }
+    if (next.length < source.highWater) {
+      int capacity = source.next.length;
+      next = new int[capacity];
+      kinds = new int[capacity];
+      dueTicks = new long[capacity];
+      freeEntries = new int[capacity];
+    }
+    System.arraycopy(source.heads, 0, heads, 0, heads.length);
+    System.arraycopy(source.tails, 0, tails, 0, tails.length);
+    System.arraycopy(source.next, 0, next, 0, source.highWater);
+    System.arraycopy(source.kinds, 0, kinds, 0, source.highWater);
+    System.arraycopy(source.dueTicks, 0, dueTicks, 0, source.highWater);
+    System.arraycopy(source.freeEntries, 0, freeEntries, 0, source.freeCount);
+    freeCount = source.freeCount;
+    highWater = source.highWater;
+    size = source.size;
+    tick = source.tick;
+    dueCount = 0;
+  }
+
+  /**
+   * Writes the current tick and every pending event.
+   *
+   * @param out the buffer to write to
+   */
+  void writeState(ByteBuffer out) {
+    out.putLong(tick);
+    out.putInt(size);
+    for (int slot = 0; slot < heads.length; slot++) {
+      for (int entry = heads[slot]; entry != NONE; entry = next[entry]) {
+        out.putInt((int) (dueTicks[entry] - tick)).putInt(kinds[entry]);
+      }
+    }
+  }
+
+  /**
+   * Replaces this wheel's contents with a state written by {@link #writeState(ByteBuffer)}.
+   *
+   * @param in the buffer to read from
+   */
+  void readState(ByteBuffer in) {
+    clear();
+    long savedTick = in.getLong();
+    int count = in.getInt();
+    tick = savedTick;
+    for (int i = 0; i < count; i++) {
+      int delay = in.getInt();
+      schedule(delay, in.getInt());
+    }
+  }
+
+  /**
+   * Returns the number of bytes {@link #writeState(ByteBuffer)} writes.
+   *
+   * @return the encoded size
+   */
+  int stateSize() {
+    return 12 + size * 8;
+  }
+
+  /**
+   * Folds the pending events into a state hash.
+   * The events are summed, so the result does not depend on the order of a slot's list.
+   *
+   * @param hash the hash so far
+   * @return the combined hash
+   */
+  long hash(long hash) {
+    long sum = 0;
+    for (int slot = 0; slot < heads.length; slot++) {
+      for (int entry = heads[slot]; entry != NONE; entry = next[entry]) {
+        sum += StateHash.finish(StateHash.combine(dueTicks[entry] - tick, kinds[entry]));
+      }
+    }
+    return StateHash.combine(StateHash.combine(hash, tick), sum);
+  }
+
+  private void grow() {
+    int capacity = next.length * 2;
+    next = Arrays.copyOf(next, capacity);
+    kinds = Arrays.copyOf(kinds, capacity);
+    dueTicks = Arrays.copyOf(dueTicks, capacity);
+    freeEntries = Arrays.copyOf(freeEntries, capacity);
+  }
+}
@@ -0,0 +1,56 @@
+package com.spaceshooter.model;
+
+/**
+ * Base class for the game objects whose state feeds the game's {@link StateHash}.
+ * While an entity is attached to a game, each of its mutators calls
+ * {@link #stateChanged()}, which recomputes the entity's contribution and hands the
+ * difference to the game's running sum. Detached entities, such as the spare objects
+ * a model keeps for reuse, change freely without touching any hash.
+ */
+abstract class TrackedEntity {
+  private StateHash stateHash;
+  private long contribution;
+
+  /**
+   * Starts contributing this entity's state to a game's hash.
+   *
+   * @param stateHash the running sum of the game the entity now belongs to
+   */
+  final void attachHash(StateHash stateHash) {
+    detachHash();
+    this.stateHash = stateHash;
+    this.contribution = hashState();
+    stateHash.add(contribution);
+  }
+
+  /**
+   * Withdraws this entity's contribution from the game it belonged to, if any.
+   */
+  final void detachHash() {
+    if (stateHash != null) {
+      stateHash.add(-contribution);
+      stateHash = null;
+    }
+  }
+
+  /**
+   * Brings the game's hash up to date after this entity's state changed.
+   * Subclasses call this at the end of every method that changes hashed state.
+   */
+  protected final void stateChanged() {
+    if (stateHash != null) {
+      long updated = hashState();
+      if (updated != contribution) {
+        stateHash.add(updated - contribution);
+        contribution = updated;
+      }
+    }
+  }
+
+  /**
+   * Returns a 64-bit hash of everything about this entity that affects the simulation.
+   *
+   * @return the hash of the entity's state
+   */
+  abstract long hashState();
+}
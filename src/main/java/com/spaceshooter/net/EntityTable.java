@@ -0,0 +1,437 @@
+package com.spaceshooter.net;
+
+import com.spaceshooter.model.Enemy;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.Missile;
+import com.spaceshooter.model.Player;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The networked view of a game: one row per entity, stored as parallel arrays sorted by
+ * entity id. Rows hold quantized positions and one extra value (health for ships, kind,
+ * side and owner for missiles), which is everything a client needs to draw the game.
+ *
+ * Ids are unique across entity types: the top bits name the type and the rest is the
+ * player index, the enemy's slot or the missile's id. Because both sides keep their
+ * tables sorted by id, {@link #writeDelta(EntityTable, ByteBuffer)} can compare a table
+ * with an older one in a single merge pass and send only removed rows, new rows and
+ * the fields that changed.
+ */
+public class EntityTable {
+  /** Positions are sent in units of this many pixels. */
+  public static final int QUANTUM = 2;
+  /** Id namespace of players. */
+  public static final int PLAYER_IDS = 0;
+  /** Id namespace of enemies. */
+  public static final int ENEMY_IDS = 1 << 28;
+  /** Id namespace of missiles. */
+  public static final int MISSILE_IDS = 2 << 28;
+  private static final int LOCAL_ID_MASK = (1 << 28) - 1;
+  private static final int CHANGED_X = 1;
+  private static final int CHANGED_Y = 2;
+  private static final int CHANGED_EXTRA = 4;
+  private static final int ADDED = 8;
+  private static final int SAME_MOTION = 16;
+  private static final int MAX_PACKED_GAP = 7;
+  private static final int MAX_VARINT_BYTES = 5;
+  // Header byte, unpacked id gap, then at most three values or deltas
+  private static final int MAX_ENTRY_BYTES = 1 + 4 * MAX_VARINT_BYTES;
+  private int[] ids = new int[128];
+  private int[] xs = new int[128];
+  private int[] ys = new int[128];
+  private int[] extras = new int[128];
+  private int size;
+  private long[] sortKeys = new long[128];
+  private int[] scratch = new int[128];
+
+  /**
+   * Replaces the contents with every entity of a game.
+   *
+   * @param model the game to capture
+   */
+  public void capture(GameModel model) {
+    size = 0;
+    List<Player> players = model.getPlayers();
+    for (int i = 0; i < players.size(); i++) {
+      Player player = players.get(i);
+      add(PLAYER_IDS | i, player.getX(), player.getY(), player.getHealth());
+    }
+    int enemiesStart = size;
+    for (Enemy enemy : model.getEnemies()) {
+      add(ENEMY_IDS | (int) (enemy.getHandle() & LOCAL_ID_MASK), enemy.getX(), enemy.getY(),
+          enemy.getHealth());
+    }
+    sortRows(enemiesStart, size);
+    int missilesStart = size;
+    for (Missile missile : model.getMissiles()) {
+      int extra = missile.getKind() | (missile.isPlayerMissile() ? 8 : 0)
+          | missile.getOwner() << 4;
+      add(MISSILE_IDS | (missile.getId() & LOCAL_ID_MASK), missile.getX(), missile.getY(), extra);
+    }
+    sortRows(missilesStart, size);
+  }
+
+  private void add(int id, int x, int y, int extra) {
+    if (size == ids.length) {
+      int capacity = size * 2;
+      ids = Arrays.copyOf(ids, capacity);
+      xs = Arrays.copyOf(xs, capacity);
+      ys = Arrays.copyOf(ys, capacity);
+      extras = Arrays.copyOf(extras, capacity);
+    }
+    ids[size] = id;
+    xs[size] = Math.floorDiv(x, QUANTUM);
+    ys[size] = Math.floorDiv(y, QUANTUM);
+    extras[size] = extra;
+    size++;
+  }
+
+  /**
+   * Sorts a range of rows by id. Missiles are usually already in id order, so the
+   * common case is a single check.
+   */
+  private void sortRows(int from, int to) {
+    boolean sorted = true;
+    for (int i = from + 1; i < to && sorted; i++) {
+      sorted = ids[i - 1] < ids[i];
+    }
+    if (sorted) {
+      return;
+    }
+    int count = to - from;
+    if (sortKeys.length < count) {
+      sortKeys = new long[ids.length];
+      scratch = new int[ids.length];
+    }
+    for (int i = 0; i < count; i++) {
+      sortKeys[i] = (long) ids[from + i] << 32 | i;
+    }
+    Arrays.sort(sortKeys, 0, count);
+    permute(ids, from, count);
+    permute(xs, from, count);
+    permute(ys, from, count);
+    permute(extras, from, count);
+  }
+
+  private void permute(int[] column, int from, int count) {
+    for (int i = 0; i < count; i++) {
+      scratch[i] = column[from + (int) sortKeys[i]];
+    }
+    System.arraycopy(scratch, 0, column, from, count);
+  }
+
+  /**
+   * Replaces the contents with the rows of another table a client is interested in:
+   * every player and enemy, and the missiles within a radius of the client's ship.
+   *
+   * @param world the table of the whole game
+   * @param centerX the x-coordinate of the client's ship in pixels
+   * @param centerY the y-coordinate of the client's ship in pixels
+   * @param radius the interest radius in pixels
+   */
+  public void filter(EntityTable world, int centerX, int centerY, int radius) {
+    size = 0;
+    int cx = Math.floorDiv(centerX, QUANTUM);
+    int cy = Math.floorDiv(centerY, QUANTUM);
+    long radiusSquared = (long) (radius / QUANTUM) * (radius / QUANTUM);
+    for (int i = 0; i < world.size; i++) {
+      int id = world.ids[i];
+      if (typeOf(id) == MISSILE_IDS) {
+        long dx = world.xs[i] - cx;
+        long dy = world.ys[i] - cy;
+        if (dx * dx + dy * dy > radiusSquared) {
+          continue;
+        }
+      }
+      ensureCapacity(size + 1);
+      ids[size] = id;
+      xs[size] = world.xs[i];
+      ys[size] = world.ys[i];
+      extras[size] = world.extras[i];
+      size++;
+    }
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > ids.length) {
+      int grown = Math.max(capacity, ids.length * 2);
+      ids = Arrays.copyOf(ids, grown);
+      xs = Arrays.copyOf(xs, grown);
+      ys = Arrays.copyOf(ys, grown);
+      extras = Arrays.copyOf(extras, grown);
+    }
+  }
+
+  /**
+   * Writes the difference between a baseline and this table.
+   * The removed ids come first, gap-coded, then one entry per new or changed row.
+   * An entry starts with a header byte holding a mask of what changed and, when it is
+   * small, the gap to the previous entry's id; then come the new values (for a new
+   * row) or the position deltas and new extra value (for a changed row). A row that
+   * moved exactly like the previous changed row sets {@code SAME_MOTION} instead of
+   * repeating the deltas, so a formation of enemies stepping together costs one byte
+   * per enemy. Unchanged rows cost nothing.
+   *
+   * @param baseline the table the receiver already has, or null to write every row
+   * @param out the buffer to write to
+   */
+  public void writeDelta(EntityTable baseline, ByteBuffer out) {
+    int baseSize = baseline == null ? 0 : baseline.size;
+    int countPosition = out.position();
+    out.putShort((short) 0);
+    int removed = 0;
+    int previousId = 0;
+    int j = 0;
+    for (int i = 0; i < baseSize; i++) {
+      int id = baseline.ids[i];
+      while (j < size && ids[j] < id) {
+        j++;
+      }
+      if (j == size || ids[j] != id) {
+        NetProtocol.putVarint(out, id - previousId);
+        previousId = id;
+        removed++;
+      }
+    }
+    out.putShort(countPosition, (short) removed);
+
+    countPosition = out.position();
+    out.putShort((short) 0);
+    int entries = 0;
+    previousId = 0;
+    int lastDx = 0;
+    int lastDy = 0;
+    int b = 0;
+    for (int i = 0; i < size; i++) {
+      int id = ids[i];
+      while (b < baseSize && baseline.ids[b] < id) {
+        b++;
+      }
+      int mask;
+      if (b < baseSize && baseline.ids[b] == id) {
+        mask = (xs[i] != baseline.xs[b] ? CHANGED_X : 0)
+            | (ys[i] != baseline.ys[b] ? CHANGED_Y : 0)
+            | (extras[i] != baseline.extras[b] ? CHANGED_EXTRA : 0);
+        if (mask == 0) {
+          continue;
+        }
+      } else {
+        mask = ADDED;
+      }
+      int dx = 0;
+      int dy = 0;
+      if (mask != ADDED) {
+        dx = xs[i] - baseline.xs[b];
+        dy = ys[i] - baseline.ys[b];
+        if ((mask & (CHANGED_X | CHANGED_Y)) != 0 && dx == lastDx && dy == lastDy) {
+          mask |= SAME_MOTION;
+        }
+        lastDx = dx;
+        lastDy = dy;
+      }
+      int gap = id - previousId;
+      previousId = id;
+      if (gap >= 1 && gap <= MAX_PACKED_GAP) {
+        out.put((byte) (mask | gap << 5));
+      } else {
+        out.put((byte) mask);
+        NetProtocol.putVarint(out, gap);
+      }
+      if (mask == ADDED) {
+        NetProtocol.putSignedVarint(out, xs[i]);
+        NetProtocol.putSignedVarint(out, ys[i]);
+        NetProtocol.putVarint(out, extras[i]);
+      } else {
+        if ((mask & SAME_MOTION) == 0) {
+          if ((mask & CHANGED_X) != 0) {
+            NetProtocol.putSignedVarint(out, dx);
+          }
+          if ((mask & CHANGED_Y) != 0) {
+            NetProtocol.putSignedVarint(out, dy);
+          }
+        }
+        if ((mask & CHANGED_EXTRA) != 0) {
+          NetProtocol.putVarint(out, extras[i]);
+        }
+      }
+      entries++;
+    }
+    out.putShort(countPosition, (short) entries);
+  }
+
+  /**
+   * Returns the most bytes {@link #writeDelta(EntityTable, ByteBuffer)} can write for
+   * this table or for any table filtered from it.
+   *
+   * @param baseline the table the delta would be written against, or null
+   * @return an upper bound on the size of the delta
+   */
+  public int maxDeltaBytes(EntityTable baseline) {
+    int baseSize = baseline == null ? 0 : baseline.size;
+    return 4 + baseSize * MAX_VARINT_BYTES + size * MAX_ENTRY_BYTES;
+  }
+
+  /**
+   * Rebuilds this table from a baseline and a delta written by
+   * {@link #writeDelta(EntityTable, ByteBuffer)}.
+   *
+   * @param baseline the table the delta was written against, or null for a full table;
+   *     must not be this table
+   * @param in the buffer to read from
+   */
+  public void readDelta(EntityTable baseline, ByteBuffer in) {
+    int baseSize = baseline == null ? 0 : baseline.size;
+    size = 0;
+    int removed = in.getShort() & 0xFFFF;
+    // Copy the baseline, skipping the removed rows
+    int b = 0;
+    int id = 0;
+    for (int r = 0; r < removed; r++) {
+      id += NetProtocol.getVarint(in);
+      while (b < baseSize && baseline.ids[b] < id) {
+        appendFrom(baseline, b++);
+      }
+      if (b < baseSize && baseline.ids[b] == id) {
+        b++;
+      }
+    }
+    while (b < baseSize) {
+      appendFrom(baseline, b++);
+    }
+
+    // Merge the entries into the surviving rows; new rows are inserted in id order
+    int entries = in.getShort() & 0xFFFF;
+    int row = 0;
+    id = 0;
+    int lastDx = 0;
+    int lastDy = 0;
+    for (int e = 0; e < entries; e++) {
+      int header = in.get() & 0xFF;
+      int mask = header & 0x1F;
+      int gap = header >>> 5;
+      id += gap != 0 ? gap : NetProtocol.getVarint(in);
+      while (row < size && ids[row] < id) {
+        row++;
+      }
+      if (mask == ADDED) {
+        insertAt(row, id);
+        xs[row] = NetProtocol.getSignedVarint(in);
+        ys[row] = NetProtocol.getSignedVarint(in);
+        extras[row] = NetProtocol.getVarint(in);
+      } else {
+        if (row == size || ids[row] != id) {
+          throw new IllegalArgumentException("Delta changes unknown entity " + id);
+        }
+        if ((mask & SAME_MOTION) == 0) {
+          lastDx = (mask & CHANGED_X) != 0 ? NetProtocol.getSignedVarint(in) : 0;
+          lastDy = (mask & CHANGED_Y) != 0 ? NetProtocol.getSignedVarint(in) : 0;
+        }
+        xs[row] += lastDx;
+        ys[row] += lastDy;
+        if ((mask & CHANGED_EXTRA) != 0) {
+          extras[row] = NetProtocol.getVarint(in);
+        }
+      }
+    }
+  }
+
+  private void appendFrom(EntityTable other, int row) {
+    ensureCapacity(size + 1);
+    ids[size] = other.ids[row];
+    xs[size] = other.xs[row];
+    ys[size] = other.ys[row];
+    extras[size] = other.extras[row];
+    size++;
+  }
+
+  private void insertAt(int row, int id) {
+    ensureCapacity(size + 1);
+    int moved = size - row;
+    System.arraycopy(ids, row, ids, row + 1, moved);
+    System.arraycopy(xs, row, xs, row + 1, moved);
+    System.arraycopy(ys, row, ys, row + 1, moved);
+    System.arraycopy(extras, row, extras, row + 1, moved);
+    ids[row] = id;
+    size++;
+  }
+
+  /**
+   * Returns a checksum of every row, which sender and receiver compare to detect a
+   * table that was rebuilt from the wrong baseline.
+   *
+   * @return the checksum
+   */
+  public int checksum() {
+    int hash = size;
+    for (int i = 0; i < size; i++) {
+      hash = hash * 31 + ids[i];
+      hash = hash * 31 + xs[i];
+      hash = hash * 31 + ys[i];
+      hash = hash * 31 + extras[i];
+    }
+    return hash;
+  }
+
+  /**
+   * Returns the namespace of an id.
+   *
+   * @param id an entity id
+   * @return {@link #PLAYER_IDS}, {@link #ENEMY_IDS} or {@link #MISSILE_IDS}
+   */
+  public static int typeOf(int id) {
+    return id & ~LOCAL_ID_MASK;
+  }
+
+  /**
+   * Returns the number of rows.
+   *
+   * @return the number of entities in the table
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the id of a row.
+   *
+   * @param row the row index
+   * @return the entity id, including its namespace bits
+   */
+  public int getId(int row) {
+    return ids[row];
+  }
+
+  /**
+   * Returns the x-coordinate of a row in pixels, accurate to {@link #QUANTUM}.
+   *
+   * @param row the row index
+   * @return the x-coordinate
+   */
+  public int getX(int row) {
+    return xs[row] * QUANTUM;
+  }
+
+  /**
+   * Returns the y-coordinate of a row in pixels, accurate to {@link #QUANTUM}.
+   *
+   * @param row the row index
+   * @return the y-coordinate
+   */
+  public int getY(int row) {
+    return ys[row] * QUANTUM;
+  }
+
+  /**
+   * Returns the extra value of a row: the health of a ship, or for a missile its kind
+   * in the low three bits, bit 3 set for player missiles and the owner above that.
+   *
+   * @param row the row index
+   * @return the extra value
+   */
+  public int getExtra(int row) {
+    return extras[row];
+  }
+}
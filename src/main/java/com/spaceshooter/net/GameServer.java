@@ -0,0 +1,453 @@
+package com.spaceshooter.net;
+
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.Player;
+import com.spaceshooter.model.PlayerAction;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Authoritative multiplayer server. One thread runs a single {@link Selector} loop that
+ * accepts clients, reads their input, advances the shared {@link GameModel} at
+ * {@link NetProtocol#TICK_RATE} ticks per second and sends every client a snapshot
+ * after each tick.
+ *
+ * Each client gets its own player slot, ship and weapon loadout. Snapshots are delta
+ * compressed: the server keeps the last {@link #HISTORY} tables it sent to each client
+ * and encodes the new table against the newest one the client has acknowledged, falling
+ * back to a full table when that one is no longer kept. Interest management trims each
+ * client's table to the missiles near its own ship. A client whose socket is backed up
+ * skips snapshots instead of growing its buffer; the next one it gets is still a valid
+ * delta because the baseline only moves when the client acknowledges.
+ */
+public class GameServer implements Runnable {
+  /** Missiles farther than this many pixels from a client's ship are not sent to it. */
+  public static final int INTEREST_RADIUS = 250;
+  /** Number of sent tables kept per client as possible delta baselines. */
+  public static final int HISTORY = 64;
+  private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+  private static final int INPUT_BUFFER_SIZE = 4096;
+  private static final long TICK_NANOS = 1_000_000_000L / NetProtocol.TICK_RATE;
+  private static final int COMPARISON_INTERVAL = 50;
+  // Frame header, tick, baseline tick, score varint, game over flag and checksum
+  private static final int SNAPSHOT_HEADER = NetProtocol.FRAME_HEADER + 4 + 4 + 5 + 1 + 4;
+  private final ServerSocketChannel serverChannel;
+  private final Selector selector;
+  private final GameModel model;
+  private final EntityTable world = new EntityTable();
+  private final Session[] slots = new Session[GameModel.MAX_PLAYERS];
+  private final ByteBuffer comparison = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+  private int connected;
+  private long seed;
+  private int tick;
+  private volatile boolean running = true;
+  // Statistics, read after the server thread has stopped
+  private long ticksRun;
+  private long tickNanos;
+  private long maxTickNanos;
+  private long fullSnapshots;
+  private long fullSnapshotBytes;
+  private long deltaSnapshots;
+  private long deltaSnapshotBytes;
+  private long skippedSnapshots;
+  private long comparedDeltaBytes;
+  private long comparedFullBytes;
+
+  /**
+   * Opens the server socket.
+   *
+   * @param address the address to listen on; port 0 picks a free port
+   * @param seed the seed of the first game
+   * @throws IOException if the socket cannot be opened
+   */
+  public GameServer(InetSocketAddress address, long seed) throws IOException {
+    this.seed = seed;
+    this.model = new GameModel(seed);
+    retire(0); // Player 0 waits for the first client like every other slot
+    this.selector = Selector.open();
+    this.serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(address);
+    serverChannel.configureBlocking(false);
+    serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return the local port
+   */
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Runs the selector loop until {@link #stop()} is called.
+   */
+  @Override
+  public void run() {
+    long nextTick = System.nanoTime();
+    try {
+      while (running) {
+        long wait = nextTick - System.nanoTime();
+        if (wait > 0) {
+          selector.select(Math.max(1, wait / 1_000_000));
+        } else {
+          selector.selectNow();
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          handle(key);
+        }
+        if (System.nanoTime() - nextTick >= 0) {
+          nextTick += TICK_NANOS;
+          tick();
+        }
+      }
+    } catch (IOException e) {
+      System.err.println("Game server stopped: " + e.getMessage());
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Asks the selector loop to stop and close every connection.
+   */
+  public void stop() {
+    running = false;
+    selector.wakeup();
+  }
+
+  private void handle(SelectionKey key) throws IOException {
+    if (!key.isValid()) {
+      return;
+    }
+    if (key.isAcceptable()) {
+      SocketChannel channel = serverChannel.accept();
+      if (channel != null) {
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Session session = new Session(channel);
+        session.key = channel.register(selector, SelectionKey.OP_READ, session);
+      }
+      return;
+    }
+    Session session = (Session) key.attachment();
+    try {
+      if (key.isReadable()) {
+        read(session);
+      }
+      if (key.isValid() && key.isWritable()) {
+        flush(session);
+      }
+    } catch (IOException | RuntimeException e) {
+      // A broken or misbehaving client only loses its own connection
+      disconnect(session);
+    }
+  }
+
+  private void read(Session session) throws IOException {
+    ByteBuffer in = session.in;
+    if (session.channel.read(in) < 0) {
+      disconnect(session);
+      return;
+    }
+    in.flip();
+    int length;
+    while ((length = NetProtocol.completeFrameLength(in)) >= 0) {
+      int end = in.position() + NetProtocol.FRAME_HEADER + length;
+      in.getInt();
+      byte type = in.get();
+      if (type == NetProtocol.HELLO && session.playerIndex < 0) {
+        join(session);
+      } else if (type == NetProtocol.INPUT) {
+        session.ackTick = in.getInt();
+        int action = NetProtocol.getVarint(in);
+        if ((action & PlayerAction.WEAPON_MASK) != 0) {
+          session.pendingAction &= ~PlayerAction.WEAPON_MASK; // The latest selection wins
+        }
+        session.pendingAction |= action;
+      }
+      in.position(end);
+    }
+    in.compact();
+  }
+
+  private void join(Session session) throws IOException {
+    int index = -1;
+    for (int i = 0; i < model.getPlayers().size(); i++) {
+      if (slots[i] == null) {
+        index = i;
+        break;
+      }
+    }
+    if (index < 0 && model.getPlayers().size() < GameModel.MAX_PLAYERS) {
+      index = model.addPlayer();
+    }
+    ByteBuffer out = session.out;
+    if (index < 0) {
+      int frame = NetProtocol.beginFrame(out, NetProtocol.FULL);
+      NetProtocol.endFrame(out, frame);
+      flush(session);
+      disconnect(session);
+      return;
+    }
+    model.respawnPlayer(index);
+    slots[index] = session;
+    session.playerIndex = index;
+    connected++;
+    int frame = NetProtocol.beginFrame(out, NetProtocol.WELCOME);
+    out.put((byte) index).put((byte) NetProtocol.TICK_RATE);
+    NetProtocol.endFrame(out, frame);
+    flush(session);
+  }
+
+  private void disconnect(Session session) {
+    session.key.cancel();
+    try {
+      session.channel.close();
+    } catch (IOException e) {
+      // The connection is being dropped anyway
+    }
+    if (session.playerIndex >= 0 && slots[session.playerIndex] == session) {
+      slots[session.playerIndex] = null;
+      retire(session.playerIndex);
+      session.playerIndex = -1;
+      connected--;
+    }
+  }
+
+  /**
+   * Takes the ship of an empty slot out of play. Destroyed ships cannot act and are
+   * not hit, so the slot's player stays inert until a client takes it over.
+   */
+  private void retire(int playerIndex) {
+    Player player = model.getPlayer(playerIndex);
+    player.takeDamage(player.getHealth());
+  }
+
+  private void tick() {
+    if (connected == 0) {
+      return;
+    }
+    long start = System.nanoTime();
+    for (Session session : slots) {
+      if (session != null) {
+        model.applyAction(session.playerIndex, session.pendingAction);
+        session.pendingAction = 0;
+      }
+    }
+    model.update();
+    tick++;
+    if (model.isGameOver()) {
+      // Everyone is brought back for the next round; empty slots stay retired
+      model.reset(++seed);
+      for (int i = 0; i < model.getPlayers().size(); i++) {
+        if (slots[i] == null) {
+          retire(i);
+        }
+      }
+    }
+    world.capture(model);
+    for (Session session : slots) {
+      if (session != null) {
+        sendSnapshot(session);
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    ticksRun++;
+    tickNanos += elapsed;
+    maxTickNanos = Math.max(maxTickNanos, elapsed);
+  }
+
+  private void sendSnapshot(Session session) {
+    int ack = session.ackTick;
+    EntityTable baseline = null;
+    int baselineTick = -1;
+    if (ack >= 0 && tick - ack < HISTORY && session.sentTicks[ack % HISTORY] == ack) {
+      baseline = session.sentTables[ack % HISTORY];
+      baselineTick = ack;
+    }
+    ByteBuffer out = session.out;
+    // The client's table is filtered from the world, so the world's bound covers it
+    if (out.remaining() < SNAPSHOT_HEADER + world.maxDeltaBytes(baseline)) {
+      skippedSnapshots++; // The client is not draining its socket; try again next tick
+      return;
+    }
+    Player own = model.getPlayer(session.playerIndex);
+    int slot = tick % HISTORY;
+    EntityTable table = session.sentTables[slot];
+    table.filter(world, own.getX(), own.getY(), INTEREST_RADIUS);
+    session.sentTicks[slot] = tick;
+
+    int frame = NetProtocol.beginFrame(out, NetProtocol.SNAPSHOT);
+    out.putInt(tick).putInt(baselineTick);
+    NetProtocol.putVarint(out, model.getScore());
+    out.put((byte) (model.isGameOver() ? 1 : 0));
+    out.putInt(table.checksum());
+    int entityStart = out.position();
+    table.writeDelta(baseline, out);
+    NetProtocol.endFrame(out, frame);
+    int bytes = out.position() - frame;
+    if (baseline == null) {
+      fullSnapshots++;
+      fullSnapshotBytes += bytes;
+    } else {
+      deltaSnapshots++;
+      deltaSnapshotBytes += bytes;
+      if (tick % COMPARISON_INTERVAL == 0) {
+        // Now and then measure what the same table would have cost without a baseline
+        comparison.clear();
+        table.writeDelta(null, comparison);
+        comparedFullBytes += comparison.position();
+        comparedDeltaBytes += out.position() - entityStart;
+      }
+    }
+    try {
+      flush(session);
+    } catch (IOException e) {
+      disconnect(session);
+    }
+  }
+
+  private void flush(Session session) throws IOException {
+    ByteBuffer out = session.out;
+    out.flip();
+    session.channel.write(out);
+    out.compact();
+    if (session.key.isValid()) {
+      session.key.interestOps(out.position() > 0
+          ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+  }
+
+  private void close() {
+    for (SelectionKey key : selector.keys()) {
+      try {
+        key.channel().close();
+      } catch (IOException e) {
+        // Closing on shutdown; nothing left to do with the error
+      }
+    }
+    try {
+      selector.close();
+    } catch (IOException e) {
+      // Closing on shutdown; nothing left to do with the error
+    }
+  }
+
+  /**
+   * Returns the number of ticks simulated.
+   *
+   * @return the tick count
+   */
+  public long getTicksRun() {
+    return ticksRun;
+  }
+
+  /**
+   * Returns the average time of a tick, including encoding every client's snapshot.
+   *
+   * @return the average tick time in microseconds
+   */
+  public double getAverageTickMicros() {
+    return ticksRun == 0 ? 0 : tickNanos / 1e3 / ticksRun;
+  }
+
+  /**
+   * Returns the longest tick.
+   *
+   * @return the longest tick time in microseconds
+   */
+  public double getMaxTickMicros() {
+    return maxTickNanos / 1e3;
+  }
+
+  /**
+   * Returns the number of full snapshots sent.
+   *
+   * @return the full snapshot count
+   */
+  public long getFullSnapshots() {
+    return fullSnapshots;
+  }
+
+  /**
+   * Returns the bytes sent in full snapshots, including frame headers.
+   *
+   * @return the byte count
+   */
+  public long getFullSnapshotBytes() {
+    return fullSnapshotBytes;
+  }
+
+  /**
+   * Returns the number of delta snapshots sent.
+   *
+   * @return the delta snapshot count
+   */
+  public long getDeltaSnapshots() {
+    return deltaSnapshots;
+  }
+
+  /**
+   * Returns the bytes sent in delta snapshots, including frame headers.
+   *
+   * @return the byte count
+   */
+  public long getDeltaSnapshotBytes() {
+    return deltaSnapshotBytes;
+  }
+
+  /**
+   * Returns how much smaller delta encoding made the sampled snapshots, comparing the
+   * entity data of a delta with the same table encoded without a baseline.
+   *
+   * @return the full size divided by the delta size, or 0 if nothing was sampled
+   */
+  public double getSampledCompressionRatio() {
+    return comparedDeltaBytes == 0 ? 0 : (double) comparedFullBytes / comparedDeltaBytes;
+  }
+
+  /**
+   * Returns the number of snapshots skipped because a client's socket was backed up.
+   *
+   * @return the skipped snapshot count
+   */
+  public long getSkippedSnapshots() {
+    return skippedSnapshots;
+  }
+
+  /**
+   * The server side of one connection.
+   */
+  private static class Session {
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+    private final ByteBuffer out = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+    private final EntityTable[] sentTables = new EntityTable[HISTORY];
+    private final int[] sentTicks = new int[HISTORY];
+    private SelectionKey key;
+    private int playerIndex = -1;
+    private int pendingAction;
+    private int ackTick = -1;
+
+    Session(SocketChannel channel) {
+      this.channel = channel;
+      for (int i = 0; i < HISTORY; i++) {
+        sentTables[i] = new EntityTable();
+      }
+      Arrays.fill(sentTicks, -1);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.spaceshooter.net;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Runs a {@link GameServer} and N {@link SimulatedClient}s over loopback in one JVM.
+ * The server gets its own thread; all clients share one selector on the main thread.
+ * After the run it reports, per client, the bandwidth and how many snapshots were
+ * rebuilt incorrectly (which should be none), and for the server, the average size of
+ * full and delta snapshots and the time spent per tick.
+ *
+ * Usage: {@code LoopbackHarness [clients] [seconds] [seed]}
+ */
+public class LoopbackHarness {
+
+  /**
+   * Runs the harness.
+   *
+   * @param args optional client count, duration in seconds and game seed
+   * @throws IOException if a socket cannot be opened
+   * @throws InterruptedException if interrupted while waiting for the server to stop
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+    GameServer server = new GameServer(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), seed);
+    Thread serverThread = new Thread(server, "game-server");
+    serverThread.start();
+
+    InetSocketAddress address =
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+    Selector selector = Selector.open();
+    List<SimulatedClient> clients = new ArrayList<>();
+    for (int i = 0; i < clientCount; i++) {
+      SimulatedClient client = new SimulatedClient(address);
+      client.register(selector);
+      clients.add(client);
+    }
+
+    long end = System.nanoTime() + seconds * 1_000_000_000L;
+    while (System.nanoTime() < end) {
+      selector.select(10);
+      Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+      while (keys.hasNext()) {
+        SelectionKey key = keys.next();
+        keys.remove();
+        ((SimulatedClient) key.attachment()).handle(key);
+      }
+    }
+    server.stop();
+    serverThread.join();
+    for (SimulatedClient client : clients) {
+      client.close();
+    }
+    selector.close();
+
+    for (int i = 0; i < clients.size(); i++) {
+      SimulatedClient client = clients.get(i);
+      if (client.wasRejected()) {
+        System.out.printf("Client %d  rejected, the game was full%n", i);
+        continue;
+      }
+      System.out.printf("Client %d  player %d, %d snapshots (%d full), %.1f KB/s, "
+              + "%d rebuilt incorrectly, score %d%n",
+          i, client.getPlayerIndex(), client.getSnapshots(), client.getFullSnapshots(),
+          client.getBytesReceived() / 1024.0 / seconds, client.getChecksumMismatches(),
+          client.getScore());
+    }
+    System.out.printf("Server    %d ticks, %.1f us/tick average, %.1f us worst%n",
+        server.getTicksRun(), server.getAverageTickMicros(), server.getMaxTickMicros());
+    System.out.printf("Snapshots %d full of %.0f bytes, %d delta of %.0f bytes, %d skipped%n",
+        server.getFullSnapshots(),
+        average(server.getFullSnapshotBytes(), server.getFullSnapshots()),
+        server.getDeltaSnapshots(),
+        average(server.getDeltaSnapshotBytes(), server.getDeltaSnapshots()),
+        server.getSkippedSnapshots());
+    System.out.printf("Sampled   entity data is %.1fx smaller as a delta than as a full table%n",
+        server.getSampledCompressionRatio());
+  }
+
+  private static double average(long total, long count) {
+    return count == 0 ? 0 : (double) total / count;
+  }
+}
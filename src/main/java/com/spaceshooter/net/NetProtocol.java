@@ -0,0 +1,134 @@
+package com.spaceshooter.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format shared by {@link GameServer} and {@link SimulatedClient}.
+ * Every message is a frame: a 4-byte payload length, a 1-byte message type and the
+ * payload. Numbers inside payloads are mostly varints, so small values such as
+ * position deltas take a single byte.
+ *
+ * Messages:
+ * - {@link #HELLO} (client to server): asks to join, no payload
+ * - {@link #WELCOME} (server to client): the player index and the tick rate
+ * - {@link #INPUT} (client to server): the newest snapshot tick the client has
+ *   decoded, which the server uses as the next delta baseline, and the action flags
+ * - {@link #SNAPSHOT} (server to client): the tick, the baseline tick or -1 for a full
+ *   snapshot, the score, the game over flag, a checksum of the complete entity table
+ *   and the entity delta written by {@link EntityTable#writeDelta(EntityTable, ByteBuffer)}
+ * - {@link #FULL} (server to client): the game has no free player slot
+ */
+public final class NetProtocol {
+  /** Size of the length and type that start every frame. */
+  public static final int FRAME_HEADER = 5;
+  /** Client asks to join. */
+  public static final byte HELLO = 1;
+  /** Server accepts a client. */
+  public static final byte WELCOME = 2;
+  /** Client input and snapshot acknowledgement. */
+  public static final byte INPUT = 3;
+  /** Server state update. */
+  public static final byte SNAPSHOT = 4;
+  /** Server rejects a client because the game is full. */
+  public static final byte FULL = 5;
+  /** Game ticks per second, matching the game timer's 20 ms delay. */
+  public static final int TICK_RATE = 50;
+
+  private NetProtocol() {
+  }
+
+  /**
+   * Starts a frame, leaving room for its length.
+   *
+   * @param out the buffer to write to
+   * @param type the message type
+   * @return the position of the frame, to pass to {@link #endFrame(ByteBuffer, int)}
+   */
+  public static int beginFrame(ByteBuffer out, byte type) {
+    int start = out.position();
+    out.putInt(0).put(type);
+    return start;
+  }
+
+  /**
+   * Finishes a frame by filling in its payload length.
+   *
+   * @param out the buffer the frame was written to
+   * @param start the value returned by {@link #beginFrame(ByteBuffer, byte)}
+   */
+  public static void endFrame(ByteBuffer out, int start) {
+    out.putInt(start, out.position() - start - FRAME_HEADER);
+  }
+
+  /**
+   * Returns the payload length of the next complete frame in a buffer.
+   *
+   * @param in a buffer in read mode, positioned at the start of a frame
+   * @return the payload length, or -1 if the frame has not fully arrived yet
+   * @throws IllegalArgumentException if the length is negative or the frame could never
+   *     fit in the buffer, which would otherwise fill up and stop being read
+   */
+  public static int completeFrameLength(ByteBuffer in) {
+    if (in.remaining() < FRAME_HEADER) {
+      return -1;
+    }
+    int length = in.getInt(in.position());
+    if (length < 0 || length > in.capacity() - FRAME_HEADER) {
+      throw new IllegalArgumentException("Invalid frame length: " + length);
+    }
+    return in.remaining() - FRAME_HEADER >= length ? length : -1;
+  }
+
+  /**
+   * Writes an unsigned varint: seven bits per byte, low bits first.
+   *
+   * @param out the buffer to write to
+   * @param value the value, treated as unsigned
+   */
+  public static void putVarint(ByteBuffer out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.put((byte) value);
+  }
+
+  /**
+   * Reads a varint written by {@link #putVarint(ByteBuffer, int)}.
+   *
+   * @param in the buffer to read from
+   * @return the value
+   */
+  public static int getVarint(ByteBuffer in) {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = in.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  /**
+   * Writes a signed value as a zigzag varint, so small negative values stay short.
+   *
+   * @param out the buffer to write to
+   * @param value the signed value
+   */
+  public static void putSignedVarint(ByteBuffer out, int value) {
+    putVarint(out, (value << 1) ^ (value >> 31));
+  }
+
+  /**
+   * Reads a value written by {@link #putSignedVarint(ByteBuffer, int)}.
+   *
+   * @param in the buffer to read from
+   * @return the signed value
+   */
+  public static int getSignedVarint(ByteBuffer in) {
+    int zigzag = getVarint(in);
+    return (zigzag >>> 1) ^ -(zigzag & 1);
+  }
+}
@@ -0,0 +1,80 @@
+package com.spaceshooter.net;
+
+import com.spaceshooter.sim.SimpleBot;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Plays a two-player versus game between two {@link RollbackSession}s over loopback UDP.
+ * Both peers run on the main thread, one frame each in turn, with artificial latency
+ * and loss added to their datagrams. Each peer is driven by a simple bot. The harness
+ * reports how often and how deep each peer rolled back and, from the state hashes the
+ * peers exchange, whether they ever disagreed about a confirmed tick.
+ *
+ * Usage: {@code RollbackHarness [ticks] [latencyFrames] [lossPercent] [maxRollback]
+ * [inputDelay]}
+ */
+public class RollbackHarness {
+  private static final long SEED = 21L;
+
+  /**
+   * Runs the harness.
+   *
+   * @param args optional tick count, latency, loss, rollback window and input delay
+   * @throws IOException if a datagram channel cannot be opened
+   */
+  public static void main(String[] args) throws IOException {
+    int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+    int latencyFrames = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+    int lossPercent = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    int maxRollback = args.length > 3 ? Integer.parseInt(args[3])
+        : RollbackSession.DEFAULT_MAX_ROLLBACK;
+    int inputDelay = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+    DatagramChannel channelA = open();
+    DatagramChannel channelB = open();
+    channelA.connect(channelB.getLocalAddress());
+    channelB.connect(channelA.getLocalAddress());
+    RollbackSession peerA = new RollbackSession(channelA, 0, SEED, maxRollback, inputDelay);
+    RollbackSession peerB = new RollbackSession(channelB, 1, SEED, maxRollback, inputDelay);
+    peerA.setSimulatedConditions(latencyFrames, lossPercent, 1L);
+    peerB.setSimulatedConditions(latencyFrames, lossPercent, 2L);
+    SimpleBot botA = new SimpleBot(1L);
+    SimpleBot botB = new SimpleBot(2L);
+
+    long start = System.nanoTime();
+    int frames = 0;
+    while (peerA.getTick() < ticks || peerB.getTick() < ticks) {
+      peerA.advance(botA.nextAction(peerA.getModel(), peerA.getTick()));
+      peerB.advance(botB.nextAction(peerB.getModel(), peerB.getTick()));
+      frames++;
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    channelA.close();
+    channelB.close();
+
+    System.out.printf("%d ticks in %d frames (%.1f s), latency %d frames, %d%% loss%n",
+        ticks, frames, seconds, latencyFrames, lossPercent);
+    report("Peer A", peerA);
+    report("Peer B", peerB);
+  }
+
+  private static DatagramChannel open() throws IOException {
+    DatagramChannel channel = DatagramChannel.open(StandardProtocolFamily.INET);
+    channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    channel.configureBlocking(false);
+    return channel;
+  }
+
+  private static void report(String label, RollbackSession peer) {
+    System.out.printf("%s  %d rollbacks re-simulating %d ticks (deepest %d, slowest %.0f us), "
+            + "%d stalls, %d ticks checked, %d desyncs%n",
+        label, peer.getRollbacks(), peer.getRolledBackTicks(), peer.getMaxRollbackDepth(),
+        peer.getMaxRollbackMicros(), peer.getStalls(), peer.getCheckedTicks(),
+        peer.getDesyncs());
+  }
+}
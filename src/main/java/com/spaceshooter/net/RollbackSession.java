@@ -0,0 +1,391 @@
+package com.spaceshooter.net;
+
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.PlayerAction;
+
+import java.io.IOException;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.SplittableRandom;
+
+/**
+ * One side of a two-player versus game synchronized with rollback, in the style of
+ * GGPO. Both peers run the full simulation. Each tick a peer applies its own input
+ * right away and predicts the other player's input by repeating the last one it
+ * received. When the real input arrives and differs from the prediction, the peer
+ * restores the state saved before the mispredicted tick and re-simulates up to the
+ * present within the same frame, so the players never wait for the network unless one
+ * gets more than {@code maxRollback} ticks ahead of the other.
+ *
+ * Inputs travel over UDP. Every datagram repeats all local inputs the peer has not
+ * acknowledged yet, so a lost datagram is covered by the next one, and carries the
+ * state hash of the newest tick whose inputs are final, which lets each side detect a
+ * desync. States are saved with {@link GameModel#copyFrom(GameModel)} into a ring of
+ * preallocated models and the packet buffers are reused, so saving, restoring and
+ * re-simulating do not allocate in the steady state.
+ */
+public class RollbackSession {
+  /** Default number of unconfirmed ticks a peer may run ahead before it waits. */
+  public static final int DEFAULT_MAX_ROLLBACK = 8;
+  private static final int RING = 256; // Input and hash history; a power of two
+  private static final int MASK = RING - 1;
+  private static final int MAX_INPUTS_PER_PACKET = 64;
+  private static final byte PACKET_MAGIC = 0x52; // 'R'
+  private static final int PACKET_SIZE = 22 + MAX_INPUTS_PER_PACKET;
+  private static final int MAX_DELAYED_PACKETS = 64;
+  private final DatagramChannel channel;
+  private final int localPlayer;
+  private final long seed;
+  private final int maxRollback;
+  private final int inputDelay;
+  private final GameModel model;
+  private final GameModel[] savedStates;
+  private final int[] savedTicks;
+  private final int[] localInputs = new int[RING];
+  private final int[] remoteInputs = new int[RING];
+  private final int[] usedRemoteInputs = new int[RING];
+  private final long[] stateHashes = new long[RING];
+  private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(PACKET_SIZE);
+  private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(PACKET_SIZE);
+  private int tick;
+  private int localInputsThrough;
+  private int remoteConfirmedTick = -1;
+  private int remoteAckedTick = -1;
+  private int firstMismatch = -1;
+  private int remoteHashTick = -1;
+  private long remoteHash;
+  private int lastCheckedTick = -1;
+  private long frame;
+  // Test hooks for latency and loss on loopback
+  private int latencyFrames;
+  private int lossPercent;
+  private SplittableRandom lossRandom;
+  private ByteBuffer[] delayedPackets;
+  private long[] delayedRelease;
+  private int delayedHead;
+  private int delayedCount;
+  // Statistics
+  private long rollbacks;
+  private long rolledBackTicks;
+  private int maxRollbackDepth;
+  private long maxRollbackNanos;
+  private long stalls;
+  private long checkedTicks;
+  private long desyncs;
+
+  /**
+   * Constructs a session.
+   *
+   * @param channel a non-blocking datagram channel connected to the other peer
+   * @param localPlayer 0 or 1; the peers must pick different players
+   * @param seed the game seed, which must be the same on both peers
+   * @param maxRollback the number of unconfirmed ticks to run ahead before waiting
+   * @param inputDelay the number of ticks local input is held back before it applies,
+   *     which trades a little responsiveness for fewer rollbacks
+   */
+  public RollbackSession(DatagramChannel channel, int localPlayer, long seed, int maxRollback,
+      int inputDelay) {
+    if (localPlayer != 0 && localPlayer != 1) {
+      throw new IllegalArgumentException("A versus game has players 0 and 1");
+    }
+    if (maxRollback < 1 || maxRollback + inputDelay >= MAX_INPUTS_PER_PACKET) {
+      throw new IllegalArgumentException("Unsupported rollback window: " + maxRollback);
+    }
+    this.channel = channel;
+    this.localPlayer = localPlayer;
+    this.seed = seed;
+    this.maxRollback = maxRollback;
+    this.inputDelay = inputDelay;
+    this.model = new GameModel(seed);
+    model.addPlayer();
+    this.savedStates = new GameModel[maxRollback + 2];
+    this.savedTicks = new int[savedStates.length];
+    for (int i = 0; i < savedStates.length; i++) {
+      savedStates[i] = model.copy();
+      savedStates[i].setIncrementalHashing(false); // Saved states are never hashed
+      savedTicks[i] = -1;
+    }
+    this.localInputsThrough = inputDelay - 1; // Ticks before the delay have no input
+  }
+
+  /**
+   * Adds artificial latency and loss to outgoing datagrams, for testing on loopback.
+   *
+   * @param latencyFrames how many calls of {@link #advance(int)} each datagram is held for
+   * @param lossPercent the percentage of datagrams to drop
+   * @param randomSeed the seed that decides which datagrams are dropped
+   */
+  public void setSimulatedConditions(int latencyFrames, int lossPercent, long randomSeed) {
+    this.latencyFrames = Math.min(latencyFrames, MAX_DELAYED_PACKETS - 1);
+    this.lossPercent = lossPercent;
+    this.lossRandom = new SplittableRandom(randomSeed);
+    if (delayedPackets == null) {
+      delayedPackets = new ByteBuffer[MAX_DELAYED_PACKETS];
+      delayedRelease = new long[MAX_DELAYED_PACKETS];
+      for (int i = 0; i < MAX_DELAYED_PACKETS; i++) {
+        delayedPackets[i] = ByteBuffer.allocateDirect(PACKET_SIZE);
+      }
+    }
+  }
+
+  /**
+   * Runs one frame: receives the other peer's input, rolls back and re-simulates if a
+   * prediction was wrong, then simulates the next tick with the given local input.
+   *
+   * @param localAction the local player's {@link PlayerAction} flags for this frame
+   * @return true if a tick was simulated, false if the peer is too far ahead of the
+   *     other one and waited instead; the action is dropped in that case
+   * @throws IOException if the channel fails
+   */
+  public boolean advance(int localAction) throws IOException {
+    frame++;
+    receive();
+    if (firstMismatch >= 0) {
+      rollback();
+    }
+    checkRemoteHash();
+    if (tick - remoteConfirmedTick > maxRollback) {
+      stalls++;
+      send();
+      return false;
+    }
+    localInputsThrough = tick + inputDelay;
+    localInputs[localInputsThrough & MASK] = localAction;
+    saveState(tick);
+    simulate(tick);
+    tick++;
+    send();
+    return true;
+  }
+
+  private void simulate(int t) {
+    int remote = t <= remoteConfirmedTick ? remoteInputs[t & MASK]
+        : remoteConfirmedTick >= 0 ? remoteInputs[remoteConfirmedTick & MASK] : PlayerAction.NONE;
+    usedRemoteInputs[t & MASK] = remote;
+    int local = localInputs[t & MASK];
+    // Both peers must apply the players' inputs in the same order
+    model.applyAction(0, localPlayer == 0 ? local : remote);
+    model.applyAction(1, localPlayer == 0 ? remote : local);
+    model.update();
+    if (model.isGameOver()) {
+      model.reset(seed + t + 1);
+    }
+    stateHashes[t & MASK] = model.getStateHash();
+  }
+
+  private void saveState(int t) {
+    int slot = t % savedStates.length;
+    savedStates[slot].copyFrom(model);
+    savedTicks[slot] = t;
+  }
+
+  private void rollback() {
+    int from = firstMismatch;
+    firstMismatch = -1;
+    int slot = from % savedStates.length;
+    if (savedTicks[slot] != from) {
+      throw new IllegalStateException("No saved state for tick " + from);
+    }
+    long start = System.nanoTime();
+    model.copyFrom(savedStates[slot]);
+    int present = tick;
+    for (tick = from; tick < present; tick++) {
+      if (tick != from) {
+        saveState(tick);
+      }
+      simulate(tick);
+    }
+    long elapsed = System.nanoTime() - start;
+    int depth = present - from;
+    rollbacks++;
+    rolledBackTicks += depth;
+    maxRollbackDepth = Math.max(maxRollbackDepth, depth);
+    maxRollbackNanos = Math.max(maxRollbackNanos, elapsed);
+  }
+
+  private void checkRemoteHash() {
+    int t = remoteHashTick;
+    if (t > lastCheckedTick && t <= remoteConfirmedTick && t < tick && tick - t < RING) {
+      if (stateHashes[t & MASK] != remoteHash) {
+        desyncs++;
+      }
+      checkedTicks++;
+      lastCheckedTick = t;
+    }
+  }
+
+  private void receive() throws IOException {
+    while (true) {
+      receiveBuffer.clear();
+      try {
+        if (channel.read(receiveBuffer) <= 0) {
+          return;
+        }
+      } catch (PortUnreachableException e) {
+        return; // The other peer is not listening yet
+      }
+      receiveBuffer.flip();
+      if (receiveBuffer.remaining() < 22 || receiveBuffer.get() != PACKET_MAGIC) {
+        continue;
+      }
+      int first = receiveBuffer.getInt();
+      int count = receiveBuffer.get() & 0xFF;
+      if (receiveBuffer.remaining() < count + 16) {
+        continue;
+      }
+      for (int i = 0; i < count; i++) {
+        int t = first + i;
+        int action = receiveBuffer.get();
+        if (t != remoteConfirmedTick + 1) {
+          continue; // Already known, or a gap left by a lost datagram
+        }
+        remoteInputs[t & MASK] = action;
+        remoteConfirmedTick = t;
+        if (t < tick && usedRemoteInputs[t & MASK] != action
+            && (firstMismatch < 0 || t < firstMismatch)) {
+          firstMismatch = t;
+        }
+      }
+      remoteAckedTick = Math.max(remoteAckedTick, receiveBuffer.getInt());
+      int hashTick = receiveBuffer.getInt();
+      long hash = receiveBuffer.getLong();
+      if (hashTick > remoteHashTick) {
+        remoteHashTick = hashTick;
+        remoteHash = hash;
+      }
+    }
+  }
+
+  private void send() throws IOException {
+    int first = remoteAckedTick + 1;
+    int count = Math.max(0, Math.min(localInputsThrough - first + 1, MAX_INPUTS_PER_PACKET));
+    int hashTick = Math.min(remoteConfirmedTick, tick - 1);
+    ByteBuffer packet = sendBuffer;
+    if (latencyFrames > 0) {
+      packet = delayedPackets[(delayedHead + delayedCount) % MAX_DELAYED_PACKETS];
+      delayedRelease[(delayedHead + delayedCount) % MAX_DELAYED_PACKETS] = frame + latencyFrames;
+    }
+    packet.clear();
+    packet.put(PACKET_MAGIC).putInt(first).put((byte) count);
+    for (int i = 0; i < count; i++) {
+      packet.put((byte) localInputs[(first + i) & MASK]);
+    }
+    packet.putInt(remoteConfirmedTick);
+    packet.putInt(hashTick).putLong(hashTick >= 0 ? stateHashes[hashTick & MASK] : 0L);
+    packet.flip();
+
+    if (latencyFrames > 0) {
+      delayedCount++;
+      while (delayedCount > 0 && delayedRelease[delayedHead] <= frame) {
+        transmit(delayedPackets[delayedHead]);
+        delayedHead = (delayedHead + 1) % MAX_DELAYED_PACKETS;
+        delayedCount--;
+      }
+    } else {
+      transmit(packet);
+    }
+  }
+
+  private void transmit(ByteBuffer packet) throws IOException {
+    if (lossRandom != null && lossRandom.nextInt(100) < lossPercent) {
+      return;
+    }
+    try {
+      channel.write(packet);
+    } catch (PortUnreachableException e) {
+      // The other peer is not listening yet; the next datagram repeats this one
+    }
+  }
+
+  /**
+   * Returns the game as this peer currently sees it, including predicted ticks.
+   *
+   * @return the game model
+   */
+  public GameModel getModel() {
+    return model;
+  }
+
+  /**
+   * Returns the number of ticks simulated.
+   *
+   * @return the current tick
+   */
+  public int getTick() {
+    return tick;
+  }
+
+  /**
+   * Returns the newest tick for which the other player's input is known.
+   *
+   * @return the confirmed tick, or -1 if none is
+   */
+  public int getConfirmedTick() {
+    return remoteConfirmedTick;
+  }
+
+  /**
+   * Returns the number of rollbacks.
+   *
+   * @return the rollback count
+   */
+  public long getRollbacks() {
+    return rollbacks;
+  }
+
+  /**
+   * Returns the number of ticks re-simulated by all rollbacks together.
+   *
+   * @return the re-simulated tick count
+   */
+  public long getRolledBackTicks() {
+    return rolledBackTicks;
+  }
+
+  /**
+   * Returns the deepest rollback so far.
+   *
+   * @return the largest number of ticks re-simulated at once
+   */
+  public int getMaxRollbackDepth() {
+    return maxRollbackDepth;
+  }
+
+  /**
+   * Returns the time the slowest rollback took, including restoring the saved state.
+   *
+   * @return the slowest rollback in microseconds
+   */
+  public double getMaxRollbackMicros() {
+    return maxRollbackNanos / 1e3;
+  }
+
+  /**
+   * Returns the number of frames this peer waited because it was too far ahead.
+   *
+   * @return the stall count
+   */
+  public long getStalls() {
+    return stalls;
+  }
+
+  /**
+   * Returns the number of confirmed ticks whose state hash was compared with the
+   * other peer's.
+   *
+   * @return the number of checked ticks
+   */
+  public long getCheckedTicks() {
+    return checkedTicks;
+  }
+
+  /**
+   * Returns the number of checked ticks whose state hash differed from the other peer's.
+   *
+   * @return the desync count, which is zero when the simulation is deterministic
+   */
+  public long getDesyncs() {
+    return desyncs;
+  }
+}
@@ -0,0 +1,255 @@
+package com.spaceshooter.net;
+
+import com.spaceshooter.model.PlayerAction;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+/**
+ * A headless client for {@link GameServer}. It rebuilds the server's entity table from
+ * each snapshot, checks it against the checksum the server sent and answers every
+ * snapshot with an input that acknowledges it. The input comes from a small bot that
+ * steers under the nearest enemy and fires, so a loopback run produces traffic like
+ * real play. Many clients can share one {@link Selector}, which is how
+ * {@link LoopbackHarness} runs them all on one thread.
+ */
+public class SimulatedClient {
+  private static final int INPUT_BUFFER_SIZE = 512 * 1024;
+  private final SocketChannel channel;
+  private final ByteBuffer in = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+  private final ByteBuffer out = ByteBuffer.allocate(1024);
+  private final EntityTable[] tables = new EntityTable[GameServer.HISTORY];
+  private final int[] tableTicks = new int[GameServer.HISTORY];
+  private int playerIndex = -1;
+  private int latestTick = -1;
+  private int score;
+  private boolean full;
+  private long bytesReceived;
+  private long snapshots;
+  private long fullSnapshots;
+  private long checksumMismatches;
+
+  /**
+   * Starts connecting to a server.
+   *
+   * @param server the server's address
+   * @throws IOException if the socket cannot be opened
+   */
+  public SimulatedClient(InetSocketAddress server) throws IOException {
+    for (int i = 0; i < tables.length; i++) {
+      tables[i] = new EntityTable();
+    }
+    Arrays.fill(tableTicks, -1);
+    channel = SocketChannel.open();
+    channel.configureBlocking(false);
+    channel.socket().setTcpNoDelay(true);
+    channel.connect(server);
+  }
+
+  /**
+   * Registers the client with a selector.
+   *
+   * @param selector the selector that will report this client's events
+   * @throws IOException if the channel cannot be registered
+   */
+  public void register(Selector selector) throws IOException {
+    channel.register(selector, SelectionKey.OP_CONNECT, this);
+  }
+
+  /**
+   * Handles a selected key of this client.
+   *
+   * @param key the key, whose attachment is this client
+   * @throws IOException if the connection fails
+   */
+  public void handle(SelectionKey key) throws IOException {
+    if (key.isConnectable() && channel.finishConnect()) {
+      key.interestOps(SelectionKey.OP_READ);
+      int frame = NetProtocol.beginFrame(out, NetProtocol.HELLO);
+      NetProtocol.endFrame(out, frame);
+      flush();
+    }
+    if (key.isValid() && key.isReadable()) {
+      int read = channel.read(in);
+      if (read < 0) {
+        key.cancel();
+        channel.close();
+        return;
+      }
+      bytesReceived += read;
+      in.flip();
+      int length;
+      while ((length = NetProtocol.completeFrameLength(in)) >= 0) {
+        int end = in.position() + NetProtocol.FRAME_HEADER + length;
+        in.getInt();
+        byte type = in.get();
+        if (type == NetProtocol.WELCOME) {
+          playerIndex = in.get();
+        } else if (type == NetProtocol.FULL) {
+          full = true;
+        } else if (type == NetProtocol.SNAPSHOT) {
+          readSnapshot();
+        }
+        in.position(end);
+      }
+      in.compact();
+      flush();
+    }
+  }
+
+  private void readSnapshot() {
+    int tick = in.getInt();
+    int baselineTick = in.getInt();
+    score = NetProtocol.getVarint(in);
+    in.get(); // Game over flag; the server starts the next round by itself
+    int checksum = in.getInt();
+    snapshots++;
+
+    EntityTable baseline = null;
+    if (baselineTick >= 0) {
+      int baselineSlot = baselineTick % tables.length;
+      if (tableTicks[baselineSlot] != baselineTick) {
+        requestFullSnapshot();
+        return;
+      }
+      baseline = tables[baselineSlot];
+    } else {
+      fullSnapshots++;
+    }
+    int slot = tick % tables.length;
+    tables[slot].readDelta(baseline, in);
+    if (tables[slot].checksum() != checksum) {
+      tableTicks[slot] = -1;
+      requestFullSnapshot();
+      return;
+    }
+    tableTicks[slot] = tick;
+    latestTick = tick;
+    sendInput(chooseAction(tables[slot]));
+  }
+
+  private void requestFullSnapshot() {
+    checksumMismatches++;
+    latestTick = -1;
+    sendInput(PlayerAction.NONE);
+  }
+
+  private void sendInput(int action) {
+    if (out.remaining() < 16) {
+      return; // The server is not reading; it will get the next acknowledgement instead
+    }
+    int frame = NetProtocol.beginFrame(out, NetProtocol.INPUT);
+    out.putInt(latestTick);
+    NetProtocol.putVarint(out, action);
+    NetProtocol.endFrame(out, frame);
+  }
+
+  private int chooseAction(EntityTable table) {
+    int ownX = -1;
+    int targetX = -1;
+    int targetY = -1;
+    for (int row = 0; row < table.size(); row++) {
+      int id = table.getId(row);
+      if (id == (EntityTable.PLAYER_IDS | playerIndex)) {
+        ownX = table.getX(row);
+      } else if (EntityTable.typeOf(id) == EntityTable.ENEMY_IDS && table.getY(row) > targetY) {
+        // Aim at the lowest enemy, which is the most dangerous one
+        targetX = table.getX(row);
+        targetY = table.getY(row);
+      }
+    }
+    if (ownX < 0 || targetX < 0) {
+      return PlayerAction.NONE;
+    }
+    int action = Math.abs(ownX - targetX) <= 10 ? PlayerAction.FIRE : PlayerAction.NONE;
+    if (ownX < targetX - 5) {
+      action |= PlayerAction.RIGHT;
+    } else if (ownX > targetX + 5) {
+      action |= PlayerAction.LEFT;
+    }
+    return action;
+  }
+
+  private void flush() throws IOException {
+    out.flip();
+    channel.write(out);
+    out.compact();
+  }
+
+  /**
+   * Closes the connection.
+   *
+   * @throws IOException if the channel cannot be closed
+   */
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Returns the player slot the server gave this client.
+   *
+   * @return the player index, or -1 before the server's welcome
+   */
+  public int getPlayerIndex() {
+    return playerIndex;
+  }
+
+  /**
+   * Tells whether the server turned this client away because the game was full.
+   *
+   * @return true if the server was full
+   */
+  public boolean wasRejected() {
+    return full;
+  }
+
+  /**
+   * Returns the score in the newest snapshot.
+   *
+   * @return the shared score
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Returns the number of bytes received.
+   *
+   * @return the byte count
+   */
+  public long getBytesReceived() {
+    return bytesReceived;
+  }
+
+  /**
+   * Returns the number of snapshots received.
+   *
+   * @return the snapshot count
+   */
+  public long getSnapshots() {
+    return snapshots;
+  }
+
+  /**
+   * Returns the number of snapshots that carried a full table.
+   *
+   * @return the full snapshot count
+   */
+  public long getFullSnapshots() {
+    return fullSnapshots;
+  }
+
+  /**
+   * Returns the number of snapshots that could not be rebuilt into the server's table.
+   *
+   * @return the mismatch count
+   */
+  public long getChecksumMismatches() {
+    return checksumMismatches;
+  }
+}
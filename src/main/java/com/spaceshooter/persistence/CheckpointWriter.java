@@ -0,0 +1,224 @@
+package com.spaceshooter.persistence;
+
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.SnapshotCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Saves game checkpoints to disk without blocking the game loop.
+ * The calling thread only encodes the game into one of a few reusable buffers; a
+ * background thread writes the buffer through a FileChannel and returns it. If every
+ * buffer is still waiting to be written, the checkpoint is skipped rather than
+ * stalling the game.
+ *
+ * Checkpoints alternate between two files, {@code <name>.a} and {@code <name>.b}.
+ * Each file holds a sequence number, the snapshot length and a CRC32 of the snapshot,
+ * so a crash in the middle of a write only ever damages the older checkpoint, and
+ * {@link #restore(Path, GameModel)} picks the newest file that is intact.
+ */
+public class CheckpointWriter implements Closeable {
+  private static final int FILE_MAGIC = 0x53534350; // "SSCP"
+  private static final int FILE_HEADER_SIZE = 20;
+  private static final int BUFFER_COUNT = 2;
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+  private final Path[] files;
+  private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT);
+  private final ExecutorService writer;
+  private long sequence;
+  private volatile long skipped;
+  private volatile IOException lastError;
+
+  /**
+   * Constructs a checkpoint writer for the given base path.
+   *
+   * @param basePath the path the two checkpoint file names are derived from
+   */
+  public CheckpointWriter(Path basePath) {
+    this.files = checkpointFiles(basePath);
+    for (int i = 0; i < BUFFER_COUNT; i++) {
+      freeBuffers.add(ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE));
+    }
+    this.writer = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "checkpoint-writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.sequence = newestSequence(files);
+  }
+
+  /**
+   * Encodes the game and queues it to be written in the background.
+   *
+   * @param model the game to save
+   * @return true if the checkpoint was queued, false if the writer was still busy
+   */
+  public boolean checkpoint(GameModel model) {
+    ByteBuffer buffer = freeBuffers.poll();
+    if (buffer == null) {
+      skipped++;
+      return false;
+    }
+    int needed = FILE_HEADER_SIZE + SnapshotCodec.maxSize(model);
+    if (buffer.capacity() < needed) {
+      buffer = ByteBuffer.allocateDirect(Math.max(needed, buffer.capacity() * 2));
+    }
+    buffer.clear();
+    buffer.position(FILE_HEADER_SIZE);
+    SnapshotCodec.encode(model, buffer);
+    int length = buffer.position() - FILE_HEADER_SIZE;
+
+    long checkpointSequence = ++sequence;
+    buffer.putInt(0, FILE_MAGIC);
+    buffer.putLong(4, checkpointSequence);
+    buffer.putInt(12, length);
+    buffer.putInt(16, crcOf(buffer, FILE_HEADER_SIZE, length));
+    buffer.flip();
+
+    Path file = files[(int) (checkpointSequence & 1)];
+    ByteBuffer pending = buffer;
+    writer.execute(() -> write(file, pending));
+    return true;
+  }
+
+  /**
+   * Returns the number of checkpoints skipped because the writer was busy.
+   *
+   * @return the skipped checkpoint count
+   */
+  public long getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * Returns the last error the background writer hit, if any.
+   *
+   * @return the last write error, or null if every write succeeded
+   */
+  public IOException getLastError() {
+    return lastError;
+  }
+
+  /**
+   * Waits for queued checkpoints to be written and stops the background thread.
+   *
+   * @throws IOException if the last write failed
+   */
+  @Override
+  public void close() throws IOException {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (lastError != null) {
+      throw lastError;
+    }
+  }
+
+  /**
+   * Restores the newest intact checkpoint into a game.
+   *
+   * @param basePath the base path the checkpoints were written with
+   * @param model the game to overwrite
+   * @return true if a checkpoint was restored, false if none was found
+   * @throws IOException if a checkpoint file cannot be read
+   */
+  public static boolean restore(Path basePath, GameModel model) throws IOException {
+    ByteBuffer best = null;
+    long bestSequence = 0;
+    for (Path file : checkpointFiles(basePath)) {
+      ByteBuffer contents = readValid(file);
+      if (contents != null && contents.getLong(4) > bestSequence) {
+        bestSequence = contents.getLong(4);
+        best = contents;
+      }
+    }
+    if (best == null) {
+      return false;
+    }
+    best.position(FILE_HEADER_SIZE);
+    SnapshotCodec.decode(best, model);
+    return true;
+  }
+
+  private void write(Path file, ByteBuffer buffer) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      lastError = e;
+    } finally {
+      freeBuffers.offer(buffer);
+    }
+  }
+
+  private static ByteBuffer readValid(Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < FILE_HEADER_SIZE || size > Integer.MAX_VALUE) {
+        return null;
+      }
+      ByteBuffer contents = ByteBuffer.allocate((int) size);
+      while (contents.hasRemaining() && channel.read(contents) >= 0) {
+        // Keep reading until the buffer is full or the file ends
+      }
+      int length = contents.getInt(12);
+      if (contents.getInt(0) != FILE_MAGIC || length != size - FILE_HEADER_SIZE
+          || contents.getInt(16) != crcOf(contents, FILE_HEADER_SIZE, length)) {
+        return null;
+      }
+      return contents;
+    }
+  }
+
+  private static long newestSequence(Path[] files) {
+    long newest = 0;
+    for (Path file : files) {
+      try {
+        ByteBuffer contents = readValid(file);
+        if (contents != null) {
+          newest = Math.max(newest, contents.getLong(4));
+        }
+      } catch (IOException e) {
+        // An unreadable file is simply overwritten by the next checkpoint
+      }
+    }
+    return newest;
+  }
+
+  private static int crcOf(ByteBuffer buffer, int offset, int length) {
+    CRC32 crc = new CRC32();
+    ByteBuffer view = buffer.duplicate();
+    view.limit(offset + length).position(offset);
+    crc.update(view);
+    return (int) crc.getValue();
+  }
+
+  private static Path[] checkpointFiles(Path basePath) {
+    String name = basePath.getFileName().toString();
+    return new Path[] {
+        basePath.resolveSibling(name + ".a"),
+        basePath.resolveSibling(name + ".b")
+    };
+  }
+}
@@ -0,0 +1,585 @@
+package com.spaceshooter.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent leaderboard of finished games.
+ *
+ * Results are appended to a log, {@code <name>.log}, of fixed-size records, each with
+ * its own CRC32. Submitting never takes a lock: the submitting thread reserves the
+ * next record's offset with one atomic add and writes the record at that offset
+ * through the shared FileChannel, so any number of headless sessions can submit at
+ * once. The log is the only source of truth.
+ *
+ * Queries run against a sorted index: a memory-mapped file, {@code <name>.<n>.idx}, of
+ * one long per result ordering results from best to worst, plus a small sorted array
+ * in memory of the results submitted since that file was last written. Ranks,
+ * percentiles and the top of the board are binary searches and short merges over the
+ * two, so they stay well under a millisecond with millions of results stored. When
+ * the in-memory part grows past a fraction of the file, the two are merged into a new
+ * file numbered one higher. A file is never replaced in place, because a file that is
+ * still mapped cannot be replaced or deleted on every platform; older files are deleted
+ * once that succeeds, which may be at a later write or the next open.
+ *
+ * The index file is trusted on opening only if it was written by {@link #close()} for
+ * a log of exactly the current length; otherwise, after a crash for instance, it is
+ * rebuilt from the log, skipping records whose CRC does not match. Only one instance
+ * can have a leaderboard open at a time, in this process or any other.
+ */
+public class Leaderboard implements Closeable {
+  private static final int RECORD_MAGIC = 0x4C425231; // "LBR1"
+  private static final int RECORD_SIZE = 32;
+  private static final int INDEX_MAGIC = 0x4C424958; // "LBIX"
+  private static final int INDEX_HEADER_SIZE = 16;
+  private static final int MIN_TAIL_LIMIT = 1 << 16;
+  private static final int TAIL_FRACTION = 8;
+  private static final int WRITE_CHUNK = 1 << 16; // Index entries written per call
+  private static final long NOT_CLOSED = -1;
+  private final Path directory;
+  private final String name;
+  private final FileChannel log;
+  private final FileLock lock;
+  private final AtomicLong logEnd;
+  private final ConcurrentLinkedQueue<Long> submitted = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<ByteBuffer> recordBuffers =
+      ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(RECORD_SIZE));
+  // Guarded by this: the mapped index and the sorted results submitted since
+  private LongBuffer index;
+  private int indexCount;
+  private Path indexFile; // Null until the first index file is found or written
+  private long indexGeneration;
+  private long[] tail = new long[1024];
+  private int tailCount;
+  private final ByteBuffer readBuffer = ByteBuffer.allocate(RECORD_SIZE);
+
+  /**
+   * One stored game result.
+   */
+  public static final class Entry {
+    private final long record;
+    private final int score;
+    private final int ticks;
+    private final int players;
+    private final long timeMillis;
+
+    private Entry(long record, int score, int ticks, int players, long timeMillis) {
+      this.record = record;
+      this.score = score;
+      this.ticks = ticks;
+      this.players = players;
+      this.timeMillis = timeMillis;
+    }
+
+    /**
+     * Returns the position of the result in the log.
+     *
+     * @return the record number, counting from 0
+     */
+    public long getRecord() {
+      return record;
+    }
+
+    /**
+     * Returns the final score.
+     *
+     * @return the score
+     */
+    public int getScore() {
+      return score;
+    }
+
+    /**
+     * Returns the length of the game.
+     *
+     * @return the number of ticks played
+     */
+    public int getTicks() {
+      return ticks;
+    }
+
+    /**
+     * Returns the number of players in the game.
+     *
+     * @return the player count
+     */
+    public int getPlayers() {
+      return players;
+    }
+
+    /**
+     * Returns when the result was submitted.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTimeMillis() {
+      return timeMillis;
+    }
+  }
+
+  /**
+   * Opens the leaderboard stored under a base path, creating it if it does not exist.
+   *
+   * @param basePath the path the log and index file names are derived from
+   * @throws IOException if the files cannot be opened, or the leaderboard is already open
+   */
+  public Leaderboard(Path basePath) throws IOException {
+    this.name = basePath.getFileName().toString();
+    this.directory = basePath.toAbsolutePath().getParent();
+    this.log = FileChannel.open(directory.resolve(name + ".log"),
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    FileLock acquired;
+    try {
+      acquired = log.tryLock();
+    } catch (OverlappingFileLockException e) {
+      acquired = null; // Already open in this process
+    }
+    if (acquired == null) {
+      log.close();
+      throw new IOException("Leaderboard is already open: " + basePath);
+    }
+    this.lock = acquired;
+    // A record cut short by a crash is dropped; the next submission takes its place
+    long records = log.size() / RECORD_SIZE;
+    log.truncate(records * RECORD_SIZE);
+    this.logEnd = new AtomicLong(records * RECORD_SIZE);
+    try (DirectoryStream<Path> files = indexFiles()) {
+      for (Path file : files) {
+        long generation = generationOf(file);
+        if (generation > indexGeneration) {
+          indexGeneration = generation;
+          indexFile = file;
+        }
+      }
+    }
+    if (!loadIndex(records)) {
+      rebuildIndex(records);
+    }
+  }
+
+  /**
+   * Appends a game result. Safe to call from any number of threads at once.
+   *
+   * @param score the final score, at least 0
+   * @param ticks the number of ticks the game lasted
+   * @param players the number of players in the game
+   * @return the record number of the result
+   * @throws IOException if the record cannot be written
+   */
+  public long submit(int score, int ticks, int players) throws IOException {
+    if (score < 0) {
+      throw new IllegalArgumentException("Scores cannot be negative: " + score);
+    }
+    ByteBuffer record = recordBuffers.get();
+    record.clear();
+    record.putInt(RECORD_MAGIC).putInt(score).putInt(ticks).putInt(players);
+    record.putLong(System.currentTimeMillis()).putInt(0);
+    record.putInt(crcOf(record, 0, RECORD_SIZE - 4));
+    record.flip();
+
+    long offset = logEnd.getAndAdd(RECORD_SIZE);
+    while (record.hasRemaining()) {
+      log.write(record, offset + record.position());
+    }
+    long number = offset / RECORD_SIZE;
+    submitted.add(keyOf(score, number));
+    return number;
+  }
+
+  /**
+   * Returns the number of results on the board.
+   *
+   * @return the result count
+   */
+  public synchronized long size() {
+    drainSubmitted();
+    return (long) indexCount + tailCount;
+  }
+
+  /**
+   * Returns the best results, best first. Equal scores are ordered by who got there
+   * first.
+   *
+   * @param count the largest number of results to return
+   * @return the results
+   * @throws IOException if a result cannot be read back from the log
+   */
+  public synchronized List<Entry> top(int count) throws IOException {
+    drainSubmitted();
+    List<Entry> entries = new ArrayList<>(Math.min(count, indexCount + tailCount));
+    int i = 0;
+    int t = 0;
+    while (entries.size() < count && (i < indexCount || t < tailCount)) {
+      long key;
+      if (t == tailCount || i < indexCount && index.get(i) < tail[t]) {
+        key = index.get(i++);
+      } else {
+        key = tail[t++];
+      }
+      entries.add(read(recordOf(key)));
+    }
+    return Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * Returns the place a score would take on the board: 1 plus the number of results
+   * with a strictly higher score.
+   *
+   * @param score the score
+   * @return the rank, from 1
+   */
+  public synchronized long rank(int score) {
+    drainSubmitted();
+    long bound = keyOf(score, 0);
+    return lowerBound(bound) + 1;
+  }
+
+  /**
+   * Returns the percentage of results with a lower score.
+   *
+   * @param score the score
+   * @return the percentile rank from 0 to 100, or 0 if the board is empty
+   */
+  public synchronized double percentileOf(int score) {
+    drainSubmitted();
+    long total = (long) indexCount + tailCount;
+    if (total == 0) {
+      return 0;
+    }
+    // Every key below the first key of the next lower score belongs to a score at least this
+    long atLeast = lowerBound(keyOf(score, 0) + (1L << 32));
+    return 100.0 * (total - atLeast) / total;
+  }
+
+  /**
+   * Returns the score at a percentile: the lowest score that at least that percentage
+   * of results do not beat.
+   *
+   * @param percentile the percentile from 0 to 100
+   * @return the score, or -1 if the board is empty
+   */
+  public synchronized int scoreAtPercentile(double percentile) {
+    drainSubmitted();
+    long total = (long) indexCount + tailCount;
+    if (total == 0) {
+      return -1;
+    }
+    double clamped = Math.max(0, Math.min(100, percentile));
+    long fromBottom = Math.max(1, (long) Math.ceil(clamped / 100 * total));
+    return scoreOf(select(total - fromBottom));
+  }
+
+  /**
+   * Writes everything submitted so far into the index file and marks it as matching
+   * the log, so the next open can use it without a rebuild. No submissions may be in
+   * progress or follow.
+   *
+   * @throws IOException if the index cannot be written
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      drainSubmitted();
+      writeIndex(logEnd.get() / RECORD_SIZE);
+      log.force(false);
+    } finally {
+      lock.release();
+      log.close();
+    }
+  }
+
+  /**
+   * Moves the results submitted since the last query into the sorted tail, and the
+   * tail into the index file once it has grown large.
+   */
+  private void drainSubmitted() {
+    int start = tailCount;
+    Long key;
+    while ((key = submitted.poll()) != null) {
+      if (tailCount == tail.length) {
+        tail = Arrays.copyOf(tail, tail.length * 2);
+      }
+      tail[tailCount++] = key;
+    }
+    if (start == tailCount) {
+      return;
+    }
+    Arrays.sort(tail, start, tailCount);
+    mergeTail(start);
+    if (tailCount > Math.max(MIN_TAIL_LIMIT, indexCount / TAIL_FRACTION)) {
+      try {
+        writeIndex(NOT_CLOSED);
+      } catch (IOException e) {
+        // The tail keeps the results, and the log has them for the next rebuild
+      }
+    }
+  }
+
+  /**
+   * Merges the sorted run tail[start..tailCount) into the sorted run tail[0..start).
+   */
+  private void mergeTail(int start) {
+    if (start == 0 || tail[start - 1] < tail[start]) {
+      return;
+    }
+    long[] run = Arrays.copyOfRange(tail, start, tailCount);
+    int a = start - 1;
+    int b = run.length - 1;
+    for (int out = tailCount - 1; b >= 0; out--) {
+      if (a >= 0 && tail[a] > run[b]) {
+        tail[out] = tail[a--];
+      } else {
+        tail[out] = run[b--];
+      }
+    }
+  }
+
+  /**
+   * Returns the number of results, in the index and the tail, whose key is below a
+   * bound.
+   */
+  private long lowerBound(long bound) {
+    int low = 0;
+    int high = indexCount;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (index.get(middle) < bound) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    int tailBelow = Arrays.binarySearch(tail, 0, tailCount, bound);
+    return (long) low + (tailBelow >= 0 ? tailBelow : -tailBelow - 1);
+  }
+
+  /**
+   * Returns the key at a position of the merged order of the index and the tail.
+   */
+  private long select(long position) {
+    // Find how many of the first position + 1 keys come from the index
+    long k = position + 1;
+    long low = Math.max(0, k - tailCount);
+    long high = Math.min(k, indexCount);
+    while (low < high) {
+      long fromIndex = (low + high) >>> 1;
+      long fromTail = k - fromIndex;
+      if (index.get((int) fromIndex) < tail[(int) fromTail - 1]) {
+        low = fromIndex + 1;
+      } else {
+        high = fromIndex;
+      }
+    }
+    long fromIndex = low;
+    long fromTail = k - fromIndex;
+    long lastIndex = fromIndex > 0 ? index.get((int) fromIndex - 1) : Long.MIN_VALUE;
+    long lastTail = fromTail > 0 ? tail[(int) fromTail - 1] : Long.MIN_VALUE;
+    return Math.max(lastIndex, lastTail);
+  }
+
+  private Entry read(long record) throws IOException {
+    readBuffer.clear();
+    long offset = record * RECORD_SIZE;
+    while (readBuffer.hasRemaining()) {
+      if (log.read(readBuffer, offset + readBuffer.position()) < 0) {
+        throw new IOException("Leaderboard log ends before record " + record);
+      }
+    }
+    return new Entry(record, readBuffer.getInt(4), readBuffer.getInt(8), readBuffer.getInt(12),
+        readBuffer.getLong(16));
+  }
+
+  /**
+   * Maps the index file if it was closed cleanly with a log of the given length.
+   */
+  private boolean loadIndex(long records) throws IOException {
+    if (indexFile == null) {
+      return false;
+    }
+    try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < INDEX_HEADER_SIZE) {
+        return false;
+      }
+      // The header is read rather than mapped, so a rejected file is never mapped
+      ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+        // Keep reading until the header is complete
+      }
+      long count = header.getInt(4) & 0xFFFFFFFFL;
+      if (header.getInt(0) != INDEX_MAGIC || header.getLong(8) != records
+          || size != INDEX_HEADER_SIZE + count * 8) {
+        return false;
+      }
+      index = map(channel);
+      indexCount = (int) count;
+      return true;
+    }
+  }
+
+  /**
+   * Reads every intact record of the log into the tail and writes a fresh index.
+   */
+  private void rebuildIndex(long records) throws IOException {
+    index = LongBuffer.allocate(0);
+    indexCount = 0;
+    tailCount = 0;
+    ByteBuffer chunk = ByteBuffer.allocateDirect(RECORD_SIZE * 4096);
+    long offset = 0;
+    long end = records * RECORD_SIZE;
+    while (offset < end) {
+      chunk.clear();
+      chunk.limit((int) Math.min(chunk.capacity(), end - offset));
+      while (chunk.hasRemaining() && log.read(chunk, offset + chunk.position()) >= 0) {
+        // Keep reading until the chunk is full
+      }
+      chunk.flip();
+      for (int at = 0; at + RECORD_SIZE <= chunk.limit(); at += RECORD_SIZE) {
+        if (chunk.getInt(at) == RECORD_MAGIC
+            && chunk.getInt(at + RECORD_SIZE - 4) == crcOf(chunk, at, RECORD_SIZE - 4)) {
+          if (tailCount == tail.length) {
+            tail = Arrays.copyOf(tail, tail.length * 2);
+          }
+          tail[tailCount++] = keyOf(chunk.getInt(at + 4), (offset + at) / RECORD_SIZE);
+        }
+      }
+      offset += chunk.limit();
+    }
+    Arrays.sort(tail, 0, tailCount);
+    writeIndex(NOT_CLOSED);
+  }
+
+  /**
+   * Merges the index and the tail into the next numbered index file, moves it into
+   * place atomically, maps it and deletes the older files.
+   *
+   * @param closedRecords the log length the index matches, or NOT_CLOSED
+   */
+  private void writeIndex(long closedRecords) throws IOException {
+    Path temporary = directory.resolve(name + ".idx.tmp");
+    Path next = directory.resolve(name + "." + (indexGeneration + 1) + ".idx");
+    long count = (long) indexCount + tailCount;
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_CHUNK * 8);
+      buffer.putInt(INDEX_MAGIC).putInt((int) count).putLong(closedRecords);
+      int i = 0;
+      int t = 0;
+      while (i < indexCount || t < tailCount) {
+        if (t == tailCount || i < indexCount && index.get(i) < tail[t]) {
+          buffer.putLong(index.get(i++));
+        } else {
+          buffer.putLong(tail[t++]);
+        }
+        if (!buffer.hasRemaining()) {
+          flush(channel, buffer);
+        }
+      }
+      flush(channel, buffer);
+      channel.force(false);
+    }
+    Files.move(temporary, next, StandardCopyOption.ATOMIC_MOVE);
+    try (FileChannel channel = FileChannel.open(next, StandardOpenOption.READ)) {
+      index = map(channel);
+    }
+    indexFile = next;
+    indexGeneration++;
+    indexCount = (int) count;
+    tailCount = 0;
+    deleteOlderIndexFiles();
+  }
+
+  private static LongBuffer map(FileChannel channel) throws IOException {
+    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    mapped.position(INDEX_HEADER_SIZE);
+    return mapped.slice().asLongBuffer();
+  }
+
+  /**
+   * Deletes the index files older than the current one. A file this or another
+   * process still maps may refuse to go; it is tried again after the next write.
+   */
+  private void deleteOlderIndexFiles() throws IOException {
+    try (DirectoryStream<Path> files = indexFiles()) {
+      for (Path file : files) {
+        if (generationOf(file) < indexGeneration) {
+          try {
+            Files.deleteIfExists(file);
+          } catch (IOException e) {
+            // Still mapped; the file is ignored until it can be deleted
+          }
+        }
+      }
+    }
+  }
+
+  private DirectoryStream<Path> indexFiles() throws IOException {
+    return Files.newDirectoryStream(directory, file -> generationOf(file) > 0);
+  }
+
+  /**
+   * Returns the number of an index file of this leaderboard, or 0 for any other file.
+   */
+  private long generationOf(Path file) {
+    String fileName = file.getFileName().toString();
+    int end = fileName.length() - ".idx".length();
+    if (end <= name.length() + 1 || !fileName.startsWith(name + ".")
+        || !fileName.endsWith(".idx")) {
+      return 0;
+    }
+    try {
+      return Long.parseLong(fileName.substring(name.length() + 1, end));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Orders results from the highest score down, and equal scores by record number.
+   */
+  private static long keyOf(int score, long record) {
+    return ((long) (Integer.MAX_VALUE - score) << 32) | record;
+  }
+
+  private static int scoreOf(long key) {
+    return Integer.MAX_VALUE - (int) (key >>> 32);
+  }
+
+  private static long recordOf(long key) {
+    return key & 0xFFFFFFFFL;
+  }
+
+  private static int crcOf(ByteBuffer buffer, int offset, int length) {
+    CRC32 crc = new CRC32();
+    ByteBuffer view = buffer.duplicate();
+    view.limit(offset + length).position(offset);
+    crc.update(view);
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,179 @@
+package com.spaceshooter.sim;
+
+import com.spaceshooter.adapter.HitscanLaserAdapter;
+import com.spaceshooter.adapter.LaserMissileAdapter;
+import com.spaceshooter.model.DifficultySettings;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.strategy.BasicMissileStrategy;
+import com.spaceshooter.strategy.BulletCurtainStrategy;
+import com.spaceshooter.strategy.DoubleMissileStrategy;
+import com.spaceshooter.strategy.SpreadMissileStrategy;
+import com.spaceshooter.strategy.SwarmMissileStrategy;
+import com.spaceshooter.strategy.TargetingMissileStrategy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+/**
+ * Plays many independent headless games in parallel to evaluate difficulty settings.
+ * Runs are split recursively across a work-stealing ForkJoinPool. Each game gets its
+ * own seed derived from the batch seed and run number, so a batch is reproducible
+ * regardless of how the pool schedules it. Results stream into per-task
+ * {@link BatchSummary} sketches that are merged as tasks join, so memory use stays
+ * constant no matter how many games are played.
+ */
+public class BatchSimulator {
+  private static final int RUNS_PER_TASK = 8;
+  // Every weapon a policy can select; each is recorded for every game, fired or not
+  private static final List<String> WEAPONS = List.of(
+      BasicMissileStrategy.class.getSimpleName(), DoubleMissileStrategy.class.getSimpleName(),
+      TargetingMissileStrategy.class.getSimpleName(), LaserMissileAdapter.class.getSimpleName(),
+      SpreadMissileStrategy.class.getSimpleName(), BulletCurtainStrategy.class.getSimpleName(),
+      HitscanLaserAdapter.class.getSimpleName(), SwarmMissileStrategy.class.getSimpleName());
+  private final ForkJoinPool pool;
+  private final DifficultySettings settings;
+  private final LongFunction<InputPolicy> policyFactory;
+  private final int maxTicks;
+
+  /**
+   * Constructs a batch simulator.
+   *
+   * @param pool the pool to run games on
+   * @param settings the difficulty settings every game is played with
+   * @param policyFactory creates the input policy for a game from that game's seed
+   * @param maxTicks the number of ticks after which a game is stopped as a timeout
+   */
+  public BatchSimulator(ForkJoinPool pool, DifficultySettings settings,
+      LongFunction<InputPolicy> policyFactory, int maxTicks) {
+    this.pool = pool;
+    this.settings = settings;
+    this.policyFactory = policyFactory;
+    this.maxTicks = maxTicks;
+  }
+
+  /**
+   * Plays a batch of games and returns their merged summary.
+   *
+   * @param batchSeed the seed that all per-game seeds are derived from
+   * @param runs the number of games to play
+   * @return the summary of all games
+   */
+  public BatchSummary run(long batchSeed, int runs) {
+    return pool.invoke(new RunRange(batchSeed, 0, runs));
+  }
+
+  /**
+   * Plays a single game to completion or until the tick limit.
+   *
+   * @param seed the seed for the game and its input policy
+   * @param summary the summary to record the result into
+   */
+  public void playGame(long seed, BatchSummary summary) {
+    GameModel model = new GameModel(seed, settings);
+    InputPolicy policy = policyFactory.apply(seed);
+    Map<String, Integer> shots = new HashMap<>();
+    for (String weapon : WEAPONS) {
+      shots.put(weapon, 0);
+    }
+
+    int tick = 0;
+    while (tick < maxTicks && !model.isGameOver()) {
+      int action = policy.nextAction(model, tick);
+      if (model.applyAction(action)) {
+        shots.merge(model.getMissileStrategy().getClass().getSimpleName(), 1, Integer::sum);
+      }
+      model.update();
+      tick++;
+    }
+
+    summary.addRun(model.getScore(), tick, shots, model.getEnemies().isEmpty(),
+        !model.isGameOver());
+  }
+
+  /**
+   * Derives the seed for one run of a batch.
+   *
+   * @param batchSeed the batch seed
+   * @param run the run number
+   * @return the run seed
+   */
+  static long seedForRun(long batchSeed, long run) {
+    // SplitMix64 finalizer, so neighbouring runs get unrelated seeds
+    long z = batchSeed + (run + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Plays a contiguous range of runs, splitting it in half while it is large.
+   */
+  private class RunRange extends RecursiveTask<BatchSummary> {
+    private static final long serialVersionUID = 1L;
+    private final long batchSeed;
+    private final int from;
+    private final int to;
+
+    private RunRange(long batchSeed, int from, int to) {
+      this.batchSeed = batchSeed;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected BatchSummary compute() {
+      if (to - from <= RUNS_PER_TASK) {
+        BatchSummary summary = new BatchSummary();
+        for (int run = from; run < to; run++) {
+          playGame(seedForRun(batchSeed, run), summary);
+        }
+        return summary;
+      }
+      int middle = (from + to) >>> 1;
+      RunRange left = new RunRange(batchSeed, from, middle);
+      RunRange right = new RunRange(batchSeed, middle, to);
+      left.fork();
+      BatchSummary summary = right.compute();
+      summary.merge(left.join());
+      return summary;
+    }
+  }
+
+  /**
+   * Runs a batch with the simple bot and prints the summary.
+   * Usage: {@code BatchSimulator [runs] [enemyMoveInterval] [enemySpeedPercent]
+   * [laserLimit] [targetingLimit] [maxTicks]}
+   *
+   * @param args optional batch size, difficulty settings and tick limit
+   */
+  public static void main(String[] args) {
+    int runs = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    DifficultySettings settings = new DifficultySettings();
+    if (args.length > 1) {
+      settings.setEnemyMoveInterval(Integer.parseInt(args[1]));
+    }
+    if (args.length > 2) {
+      settings.setEnemySpeedPercent(Integer.parseInt(args[2]));
+    }
+    if (args.length > 3) {
+      settings.setLaserMissileLimit(Integer.parseInt(args[3]));
+    }
+    if (args.length > 4) {
+      settings.setTargetingMissileLimit(Integer.parseInt(args[4]));
+    }
+    int maxTicks = args.length > 5 ? Integer.parseInt(args[5]) : 50_000;
+
+    BatchSimulator simulator =
+        new BatchSimulator(ForkJoinPool.commonPool(), settings, SimpleBot::new, maxTicks);
+    long start = System.nanoTime();
+    BatchSummary summary = simulator.run(1L, runs);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.print(summary);
+    System.out.printf("%.2f s, %.0f games/s on %d threads%n", seconds, runs / seconds,
+        ForkJoinPool.commonPool().getParallelism());
+  }
+}
@@ -0,0 +1,136 @@
+package com.spaceshooter.sim;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregated results of many simulated games.
+ * Every statistic is kept in a {@link SummarySketch}, so a summary has the same
+ * size whether it covers ten runs or ten million, and summaries produced by
+ * different workers can be merged.
+ */
+public class BatchSummary {
+  private final SummarySketch scores = new SummarySketch();
+  private final SummarySketch ticksSurvived = new SummarySketch();
+  private final Map<String, SummarySketch> shotsByWeapon = new TreeMap<>();
+  private long wins;
+  private long losses;
+  private long timeouts;
+
+  /**
+   * Records the outcome of one game.
+   *
+   * @param score the final score
+   * @param ticks the number of ticks the game lasted
+   * @param shots the number of shots fired per weapon name, with 0 for every weapon the
+   *     game could have fired but did not, so each weapon gets one sample per game
+   * @param won true if every enemy was destroyed
+   * @param timedOut true if the game hit the tick limit before ending
+   */
+  public void addRun(int score, int ticks, Map<String, Integer> shots, boolean won,
+      boolean timedOut) {
+    scores.add(score);
+    ticksSurvived.add(ticks);
+    for (Map.Entry<String, Integer> entry : shots.entrySet()) {
+      shotsByWeapon.computeIfAbsent(entry.getKey(), name -> new SummarySketch())
+          .add(entry.getValue());
+    }
+    if (timedOut) {
+      timeouts++;
+    } else if (won) {
+      wins++;
+    } else {
+      losses++;
+    }
+  }
+
+  /**
+   * Merges another summary into this one.
+   *
+   * @param other the summary to merge, which is left unchanged
+   */
+  public void merge(BatchSummary other) {
+    scores.merge(other.scores);
+    ticksSurvived.merge(other.ticksSurvived);
+    for (Map.Entry<String, SummarySketch> entry : other.shotsByWeapon.entrySet()) {
+      shotsByWeapon.computeIfAbsent(entry.getKey(), name -> new SummarySketch())
+          .merge(entry.getValue());
+    }
+    wins += other.wins;
+    losses += other.losses;
+    timeouts += other.timeouts;
+  }
+
+  /**
+   * Returns the distribution of final scores.
+   *
+   * @return the score sketch
+   */
+  public SummarySketch getScores() {
+    return scores;
+  }
+
+  /**
+   * Returns the distribution of game lengths in ticks.
+   *
+   * @return the ticks-survived sketch
+   */
+  public SummarySketch getTicksSurvived() {
+    return ticksSurvived;
+  }
+
+  /**
+   * Returns the distribution of shots per game for each weapon.
+   *
+   * @return the shot sketches keyed by weapon name
+   */
+  public Map<String, SummarySketch> getShotsByWeapon() {
+    return shotsByWeapon;
+  }
+
+  /**
+   * Returns the number of games won.
+   *
+   * @return the win count
+   */
+  public long getWins() {
+    return wins;
+  }
+
+  /**
+   * Returns the number of games lost.
+   *
+   * @return the loss count
+   */
+  public long getLosses() {
+    return losses;
+  }
+
+  /**
+   * Returns the number of games stopped at the tick limit.
+   *
+   * @return the timeout count
+   */
+  public long getTimeouts() {
+    return timeouts;
+  }
+
+  /**
+   * Returns a multi-line report of the summary.
+   *
+   * @return the report text
+   */
+  @Override
+  public String toString() {
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("runs=%d wins=%d losses=%d timeouts=%d%n",
+        scores.getCount(), wins, losses, timeouts));
+    report.append("score   ").append(scores).append(System.lineSeparator());
+    report.append("ticks   ").append(ticksSurvived).append(System.lineSeparator());
+    for (Map.Entry<String, SummarySketch> entry : shotsByWeapon.entrySet()) {
+      report.append("shots[").append(entry.getKey()).append("] ").append(entry.getValue())
+          .append(System.lineSeparator());
+    }
+    return report.toString();
+  }
+}
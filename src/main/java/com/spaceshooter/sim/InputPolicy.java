@@ -0,0 +1,19 @@
+package com.spaceshooter.sim;
+
+import com.spaceshooter.model.GameModel;
+
+/**
+ * Supplies player input to a headless game, one tick at a time.
+ * Implementations range from fixed scripts to bots that read the model state.
+ * A policy instance drives a single game, so it may keep per-game state.
+ */
+public interface InputPolicy {
+  /**
+   * Chooses the input for the next tick.
+   *
+   * @param model the game being played, which must not be modified by the policy
+   * @param tick the number of ticks played so far
+   * @return the combined {@link com.spaceshooter.model.PlayerAction} flags for this tick
+   */
+  int nextAction(GameModel model, int tick);
+}
@@ -0,0 +1,198 @@
+package com.spaceshooter.sim;
+
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.GameRandom;
+import com.spaceshooter.model.PlayerAction;
+
+/**
+ * A bot that chooses its moves with Monte Carlo tree search over forked games.
+ * Every few ticks the bot searches a tree of macro moves (one move held for
+ * {@code ticksPerMove} ticks). Each iteration copies the live game into a scratch
+ * model with {@link GameModel#copyFrom(GameModel)}, walks the tree with UCT, expands
+ * one node, finishes with a random rollout and backs the result up the path.
+ * The scratch model's random stream is reseeded per iteration, so the search samples
+ * possible enemy fire instead of peeking at the real game's future.
+ *
+ * The tree is stored in flat arrays sized for the iteration budget, and the scratch
+ * model is reused, so a search allocates almost nothing.
+ */
+public class MctsBot implements InputPolicy {
+  private static final int[] MOVES = {
+      PlayerAction.NONE,
+      PlayerAction.LEFT,
+      PlayerAction.RIGHT,
+      PlayerAction.FIRE,
+      PlayerAction.LEFT | PlayerAction.FIRE,
+      PlayerAction.RIGHT | PlayerAction.FIRE
+  };
+  private static final double EXPLORATION = 1.0;
+  private static final int NO_CHILDREN = -1;
+  private final int iterations;
+  private final int ticksPerMove;
+  private final int maxDepth;
+  private final int rolloutMoves;
+  private final GameRandom random;
+  private final int[] visits;
+  private final double[] values;
+  private final int[] firstChild;
+  private final int[] path;
+  private GameModel scratch;
+  private int nodeCount;
+  private int plannedMove;
+
+  /**
+   * Constructs a bot with a default search budget of 200 iterations per decision.
+   *
+   * @param seed the seed for the search's random choices
+   */
+  public MctsBot(long seed) {
+    this(seed, 200, 4, 6, 6);
+  }
+
+  /**
+   * Constructs a bot with a custom search budget.
+   *
+   * @param seed the seed for the search's random choices
+   * @param iterations the number of tree iterations per decision
+   * @param ticksPerMove the number of ticks each move is held for
+   * @param maxDepth the maximum tree depth in moves
+   * @param rolloutMoves the number of random moves played after leaving the tree
+   */
+  public MctsBot(long seed, int iterations, int ticksPerMove, int maxDepth, int rolloutMoves) {
+    this.random = new GameRandom(seed);
+    this.iterations = iterations;
+    this.ticksPerMove = ticksPerMove;
+    this.maxDepth = maxDepth;
+    this.rolloutMoves = rolloutMoves;
+    int capacity = 1 + iterations * MOVES.length;
+    this.visits = new int[capacity];
+    this.values = new double[capacity];
+    this.firstChild = new int[capacity];
+    this.path = new int[maxDepth + 2];
+  }
+
+  /**
+   * Returns the move chosen by the last search, searching again every few ticks.
+   * The fire flag is only set on the first tick of a move.
+   *
+   * @param model the game being played
+   * @param tick the number of ticks played so far
+   * @return the action flags for this tick
+   */
+  @Override
+  public int nextAction(GameModel model, int tick) {
+    if (tick % ticksPerMove == 0) {
+      plannedMove = search(model);
+      return MOVES[plannedMove];
+    }
+    return MOVES[plannedMove] & ~PlayerAction.FIRE;
+  }
+
+  /**
+   * Searches from the given game and returns the index of the most visited root move.
+   *
+   * @param root the game to search from, which is not modified
+   * @return the index of the chosen move
+   */
+  int search(GameModel root) {
+    if (scratch == null) {
+      scratch = root.copy();
+      scratch.setIncrementalHashing(false); // The search never hashes its rollouts
+    }
+    nodeCount = 1;
+    visits[0] = 0;
+    values[0] = 0;
+    firstChild[0] = NO_CHILDREN;
+
+    for (int iteration = 0; iteration < iterations; iteration++) {
+      scratch.copyFrom(root);
+      scratch.getRandom().setState(random.nextLong());
+      int startScore = scratch.getScore();
+      int startHealth = scratch.getPlayer().getHealth();
+
+      // Selection
+      int node = 0;
+      int depth = 0;
+      path[0] = node;
+      while (firstChild[node] != NO_CHILDREN && depth < maxDepth && !scratch.isGameOver()) {
+        int child = selectChild(node);
+        play(scratch, MOVES[child - firstChild[node]]);
+        node = child;
+        path[++depth] = node;
+      }
+
+      // Expansion
+      if (firstChild[node] == NO_CHILDREN && depth < maxDepth && !scratch.isGameOver()
+          && nodeCount + MOVES.length <= visits.length) {
+        firstChild[node] = nodeCount;
+        for (int i = 0; i < MOVES.length; i++) {
+          visits[nodeCount + i] = 0;
+          values[nodeCount + i] = 0;
+          firstChild[nodeCount + i] = NO_CHILDREN;
+        }
+        nodeCount += MOVES.length;
+        int move = random.nextInt(MOVES.length);
+        play(scratch, MOVES[move]);
+        node = firstChild[node] + move;
+        path[++depth] = node;
+      }
+
+      // Rollout
+      for (int i = 0; i < rolloutMoves && !scratch.isGameOver(); i++) {
+        play(scratch, MOVES[random.nextInt(MOVES.length)]);
+      }
+
+      // Backpropagation
+      double value = evaluate(scratch, startScore, startHealth);
+      for (int i = 0; i <= depth; i++) {
+        visits[path[i]]++;
+        values[path[i]] += value;
+      }
+    }
+
+    int best = 0;
+    if (firstChild[0] != NO_CHILDREN) {
+      for (int i = 1; i < MOVES.length; i++) {
+        if (visits[firstChild[0] + i] > visits[firstChild[0] + best]) {
+          best = i;
+        }
+      }
+    }
+    return best;
+  }
+
+  private int selectChild(int node) {
+    int first = firstChild[node];
+    double logParent = Math.log(Math.max(1, visits[node]));
+    int best = first;
+    double bestScore = Double.NEGATIVE_INFINITY;
+    for (int child = first; child < first + MOVES.length; child++) {
+      if (visits[child] == 0) {
+        return child;
+      }
+      double score = values[child] / visits[child]
+          + EXPLORATION * Math.sqrt(logParent / visits[child]);
+      if (score > bestScore) {
+        bestScore = score;
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  private void play(GameModel game, int move) {
+    for (int tick = 0; tick < ticksPerMove && !game.isGameOver(); tick++) {
+      game.applyAction(tick == 0 ? move : move & ~PlayerAction.FIRE);
+      game.update();
+    }
+  }
+
+  private double evaluate(GameModel game, int startScore, int startHealth) {
+    double value = (game.getScore() - startScore) / 1000.0
+        - (startHealth - game.getPlayer().getHealth()) / 50.0;
+    if (game.isGameOver()) {
+      value += game.getEnemies().isEmpty() ? 1.0 : -1.0;
+    }
+    return value;
+  }
+}
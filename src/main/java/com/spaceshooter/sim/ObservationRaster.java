@@ -0,0 +1,356 @@
+package com.spaceshooter.sim;
+
+import com.spaceshooter.model.BulletField;
+import com.spaceshooter.model.Enemy;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.Missile;
+import com.spaceshooter.model.Player;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodes the game as a small multi-channel image for agents that learn from pixels,
+ * straight from the model and without drawing a frame.
+ *
+ * The play field is divided into a grid of cells, and each channel of the image holds
+ * one kind of object: the players, the enemies, the players' missiles, the enemies'
+ * missiles or the enemies' bullets. The value of a cell is how much of it the
+ * channel's objects cover, from 0 for none to 255 for all of it, so an object smaller
+ * than a cell still shows where in the cell it is. Objects that overlap add up, and a
+ * cell saturates at 255; a cell touched by any object is at least 1, so nothing small
+ * vanishes from a coarse grid.
+ *
+ * The grid size, which channels are encoded and in what order, and whether the bytes
+ * are laid out one channel plane after another or with the channels of each cell
+ * together are chosen when the raster is constructed. The image is written into a
+ * direct buffer the raster owns, or into any region of a caller's buffer, so a batch
+ * of games can share one buffer. Encoding allocates nothing and costs time in
+ * proportion to the size of the image and the number of objects, not the pixels of
+ * the field.
+ */
+public class ObservationRaster {
+  /** The channel of the players. */
+  public static final int CHANNEL_PLAYERS = 0;
+  /** The channel of the enemies. */
+  public static final int CHANNEL_ENEMIES = 1;
+  /** The channel of the players' missiles. */
+  public static final int CHANNEL_PLAYER_MISSILES = 2;
+  /** The channel of the enemies' missiles. */
+  public static final int CHANNEL_ENEMY_MISSILES = 3;
+  /** The channel of the enemies' bullets. */
+  public static final int CHANNEL_ENEMY_BULLETS = 4;
+  private static final int CHANNEL_KINDS = 5;
+  private static final int FIELD_WIDTH = 600;
+  private static final int FIELD_HEIGHT = 700;
+  private static final byte[] ZEROS = new byte[4096];
+  private final int gridWidth;
+  private final int gridHeight;
+  private final int[] channels;
+  private final boolean interleaved;
+  private final int size;
+  private final int cellStride; // Distance between horizontally adjacent cells
+  private final int rowStride; // Distance between vertically adjacent cells
+  private final int[] channelOffsets; // By channel kind, or -1 if not encoded
+  private final long coverageScale; // Turns covered area into 0-255 in 32.32 fixed point
+  private final int[] coverage; // Covered area of each byte of the image
+  private final int[] touched; // Indices of the bytes with some coverage
+  private final ByteBuffer buffer;
+  private int touchedCount;
+
+  /**
+   * Constructs a raster of every channel, in the order of their constants, laid out
+   * one channel plane after another.
+   *
+   * @param gridWidth the number of cells across the field
+   * @param gridHeight the number of cells down the field
+   */
+  public ObservationRaster(int gridWidth, int gridHeight) {
+    this(gridWidth, gridHeight, false, CHANNEL_PLAYERS, CHANNEL_ENEMIES,
+        CHANNEL_PLAYER_MISSILES, CHANNEL_ENEMY_MISSILES, CHANNEL_ENEMY_BULLETS);
+  }
+
+  /**
+   * Constructs a raster of chosen channels.
+   * The field is scaled to the grid on each axis separately, so cells need not be
+   * square or a whole number of pixels.
+   *
+   * @param gridWidth the number of cells across the field
+   * @param gridHeight the number of cells down the field
+   * @param interleaved true to store the channels of each cell together, row by row
+   *     (height, width, channel), false to store one whole plane per channel
+   *     (channel, height, width)
+   * @param channels the CHANNEL_ constants to encode, in the order to store them
+   */
+  public ObservationRaster(int gridWidth, int gridHeight, boolean interleaved,
+      int... channels) {
+    if (gridWidth < 1 || gridWidth > FIELD_WIDTH || gridHeight < 1
+        || gridHeight > FIELD_HEIGHT) {
+      throw new IllegalArgumentException("Invalid grid: " + gridWidth + "x" + gridHeight);
+    }
+    if (channels.length == 0) {
+      throw new IllegalArgumentException("No channels to encode");
+    }
+    this.gridWidth = gridWidth;
+    this.gridHeight = gridHeight;
+    this.channels = channels.clone();
+    this.interleaved = interleaved;
+    this.size = gridWidth * gridHeight * channels.length;
+    this.cellStride = interleaved ? channels.length : 1;
+    this.rowStride = gridWidth * cellStride;
+    this.channelOffsets = new int[CHANNEL_KINDS];
+    Arrays.fill(channelOffsets, -1);
+    for (int i = 0; i < channels.length; i++) {
+      int channel = channels[i];
+      if (channel < 0 || channel >= CHANNEL_KINDS || channelOffsets[channel] >= 0) {
+        throw new IllegalArgumentException("Invalid or repeated channel: " + channel);
+      }
+      channelOffsets[channel] = interleaved ? i : i * gridWidth * gridHeight;
+    }
+    // Coordinates are scaled by the grid size, so a cell is FIELD_WIDTH by FIELD_HEIGHT
+    long cellArea = (long) FIELD_WIDTH * FIELD_HEIGHT;
+    this.coverageScale = ((255L << 32) + cellArea - 1) / cellArea;
+    this.coverage = new int[size];
+    this.touched = new int[size + 1]; // Room for the one index add() stores past the end
+    this.buffer = ByteBuffer.allocateDirect(size);
+  }
+
+  /**
+   * Encodes a game into the raster's own buffer.
+   *
+   * @param model the game to encode
+   * @return the raster's buffer, holding {@link #getSize()} bytes from index 0; it is
+   *     overwritten by the next call
+   */
+  public ByteBuffer encode(GameModel model) {
+    encode(model, buffer, 0);
+    return buffer;
+  }
+
+  /**
+   * Encodes a game into a region of a buffer.
+   * The buffer's position and limit are left as they were.
+   *
+   * @param model the game to encode
+   * @param target the buffer to write to
+   * @param offset the index of the first byte of the region, which is
+   *     {@link #getSize()} bytes long
+   */
+  public void encode(GameModel model, ByteBuffer target, int offset) {
+    if (offset < 0 || offset > target.limit() - size) {
+      throw new IndexOutOfBoundsException(
+          "Region of " + size + " bytes at " + offset + " outside buffer of " + target.limit());
+    }
+    rasterize(model);
+    clear(target, offset);
+    long scale = coverageScale;
+    for (int i = 0; i < touchedCount; i++) {
+      int index = touched[i];
+      target.put(offset + index, (byte) Math.max(1, coverage[index] * scale >>> 32));
+      coverage[index] = 0;
+    }
+    touchedCount = 0;
+  }
+
+  private void rasterize(GameModel model) {
+    int players = channelOffsets[CHANNEL_PLAYERS];
+    if (players >= 0) {
+      List<Player> list = model.getPlayers();
+      for (int i = 0; i < list.size(); i++) {
+        Player player = list.get(i);
+        cover(players, player.getX(), player.getY(), player.getWidth(), player.getHeight());
+      }
+    }
+    int enemies = channelOffsets[CHANNEL_ENEMIES];
+    if (enemies >= 0) {
+      List<Enemy> list = model.getEnemies();
+      for (int i = 0; i < list.size(); i++) {
+        Enemy enemy = list.get(i);
+        cover(enemies, enemy.getX(), enemy.getY(), enemy.getWidth(), enemy.getHeight());
+      }
+    }
+    int playerMissiles = channelOffsets[CHANNEL_PLAYER_MISSILES];
+    int enemyMissiles = channelOffsets[CHANNEL_ENEMY_MISSILES];
+    if (playerMissiles >= 0 || enemyMissiles >= 0) {
+      List<Missile> list = model.getMissiles();
+      for (int i = 0; i < list.size(); i++) {
+        Missile missile = list.get(i);
+        int channel = missile.isPlayerMissile() ? playerMissiles : enemyMissiles;
+        if (channel >= 0) {
+          cover(channel, missile.getX(), missile.getY(), missile.getWidth(),
+              missile.getHeight());
+        }
+      }
+    }
+    int bullets = channelOffsets[CHANNEL_ENEMY_BULLETS];
+    if (bullets >= 0) {
+      BulletField field = model.getEnemyBullets();
+      int count = field.getCount();
+      if (BulletField.SIZE * gridWidth <= FIELD_WIDTH
+          && BulletField.SIZE * gridHeight <= FIELD_HEIGHT) {
+        for (int i = 0; i < count; i++) {
+          coverSmall(bullets, field.getX(i), field.getY(i), BulletField.SIZE);
+        }
+      } else {
+        for (int i = 0; i < count; i++) {
+          cover(bullets, field.getX(i), field.getY(i), BulletField.SIZE, BulletField.SIZE);
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds the area of a rectangle in field pixels to the cells of a channel it
+   * overlaps. The rectangle is clipped to the field.
+   */
+  private void cover(int channelOffset, int x, int y, int width, int height) {
+    // Scale to the grid: cell boundaries fall on multiples of the field size
+    int left = Math.max(0, x) * gridWidth;
+    int right = Math.min(FIELD_WIDTH, x + width) * gridWidth;
+    int top = Math.max(0, y) * gridHeight;
+    int bottom = Math.min(FIELD_HEIGHT, y + height) * gridHeight;
+    if (left >= right || top >= bottom) {
+      return;
+    }
+    int firstColumn = left / FIELD_WIDTH;
+    int lastColumn = (right - 1) / FIELD_WIDTH;
+    int firstRow = top / FIELD_HEIGHT;
+    int lastRow = (bottom - 1) / FIELD_HEIGHT;
+    for (int row = firstRow; row <= lastRow; row++) {
+      int rowHeight = Math.min(bottom, (row + 1) * FIELD_HEIGHT)
+          - Math.max(top, row * FIELD_HEIGHT);
+      int index = channelOffset + row * rowStride + firstColumn * cellStride;
+      for (int column = firstColumn; column <= lastColumn; column++, index += cellStride) {
+        int columnWidth = Math.min(right, (column + 1) * FIELD_WIDTH)
+            - Math.max(left, column * FIELD_WIDTH);
+        add(index, columnWidth * rowHeight);
+      }
+    }
+  }
+
+  /**
+   * Covers a square no larger than a cell, which overlaps at most two columns and two
+   * rows. Tens of thousands of bullets go through here, so instead of looping over the
+   * cells it adds to all four, with nothing added to those it misses; this keeps the
+   * branches that a bullet straddling a cell edge or not would mispredict out of the
+   * loop.
+   */
+  private void coverSmall(int channelOffset, int x, int y, int side) {
+    int left = Math.max(0, x) * gridWidth;
+    int right = Math.min(FIELD_WIDTH, x + side) * gridWidth;
+    int top = Math.max(0, y) * gridHeight;
+    int bottom = Math.min(FIELD_HEIGHT, y + side) * gridHeight;
+    if (left >= right || top >= bottom) {
+      return;
+    }
+    int column = left / FIELD_WIDTH;
+    int row = top / FIELD_HEIGHT;
+    int leftWidth = Math.min(right, (column + 1) * FIELD_WIDTH) - left;
+    int rightWidth = right - left - leftWidth;
+    int topHeight = Math.min(bottom, (row + 1) * FIELD_HEIGHT) - top;
+    int bottomHeight = bottom - top - topHeight;
+    // At the last column or row the far side is empty; stay inside the grid anyway
+    int index = channelOffset + row * rowStride + column * cellStride;
+    int across = column + 1 < gridWidth ? cellStride : 0;
+    int down = row + 1 < gridHeight ? rowStride : 0;
+    add(index, leftWidth * topHeight);
+    add(index + across, rightWidth * topHeight);
+    add(index + down, leftWidth * bottomHeight);
+    add(index + down + across, rightWidth * bottomHeight);
+  }
+
+  /**
+   * Adds covered area to one byte of the image, noting the byte the first time it is
+   * covered.
+   */
+  private void add(int index, int area) {
+    int covered = coverage[index];
+    // Always store the index, but only keep it if this is the first area added
+    touched[touchedCount] = index;
+    touchedCount += (covered - 1 >>> 31) & (-area >>> 31);
+    // Saturate at a full cell, which also keeps the sum from overflowing
+    coverage[index] = Math.min(FIELD_WIDTH * FIELD_HEIGHT, covered + area);
+  }
+
+  /**
+   * Zeroes a region of a buffer with bulk copies, leaving its position as it was.
+   */
+  private void clear(ByteBuffer target, int offset) {
+    int position = target.position();
+    target.position(offset);
+    for (int remaining = size; remaining > 0; remaining -= ZEROS.length) {
+      target.put(ZEROS, 0, Math.min(remaining, ZEROS.length));
+    }
+    target.position(position);
+  }
+
+  /**
+   * Returns the direct buffer {@link #encode(GameModel)} writes to.
+   *
+   * @return the raster's buffer of {@link #getSize()} bytes
+   */
+  public ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * Returns the number of bytes in one encoded image.
+   *
+   * @return the grid width times the grid height times the channel count
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the number of cells across the field.
+   *
+   * @return the grid width
+   */
+  public int getGridWidth() {
+    return gridWidth;
+  }
+
+  /**
+   * Returns the number of cells down the field.
+   *
+   * @return the grid height
+   */
+  public int getGridHeight() {
+    return gridHeight;
+  }
+
+  /**
+   * Returns the channels encoded, in the order they are stored.
+   *
+   * @return a copy of the CHANNEL_ constants
+   */
+  public int[] getChannels() {
+    return channels.clone();
+  }
+
+  /**
+   * Returns whether the channels of each cell are stored together.
+   *
+   * @return true for (height, width, channel) order, false for (channel, height, width)
+   */
+  public boolean isInterleaved() {
+    return interleaved;
+  }
+
+  /**
+   * Returns the index of a cell's byte in an encoded image.
+   *
+   * @param channel the CHANNEL_ constant of an encoded channel
+   * @param column the cell's column, from 0 at the left
+   * @param row the cell's row, from 0 at the top
+   * @return the byte's index from the start of the image
+   */
+  public int indexOf(int channel, int column, int row) {
+    if (channel < 0 || channel >= CHANNEL_KINDS || channelOffsets[channel] < 0) {
+      throw new IllegalArgumentException("Channel not encoded: " + channel);
+    }
+    return channelOffsets[channel] + row * rowStride + column * cellStride;
+  }
+}
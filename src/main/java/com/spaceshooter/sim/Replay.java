@@ -0,0 +1,222 @@
+package com.spaceshooter.sim;
+
+import com.spaceshooter.model.GameModel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A recorded game: its seed, the action applied on every tick and the state hash
+ * after every tick. The hashes are chained (each one folds in the one before it), so
+ * two replays agree at a tick only if they agreed at every earlier tick too. That
+ * makes "do the replays still match at tick t" monotone, and
+ * {@link #firstMismatch(Replay, Replay)} finds the first diverging tick with a binary
+ * search over O(log ticks) hashes.
+ */
+public class Replay {
+  private static final int FILE_MAGIC = 0x53535250; // "SSRP"
+  private static final int HEADER_SIZE = 16;
+  private static final int BYTES_PER_TICK = 20;
+  private final long seed;
+  private int[] actions = new int[1024];
+  private long[] stateHashes = new long[1024];
+  private long[] chainHashes = new long[1024];
+  private int length;
+
+  /**
+   * Constructs an empty replay for a game started with the given seed.
+   *
+   * @param seed the seed the recorded game was created with
+   */
+  public Replay(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Plays a game with an input policy and records every tick.
+   * Recording stops early if the game ends.
+   *
+   * @param model a freshly seeded game to play, sequential or with a parallel tick
+   * @param seed the seed the game was created with
+   * @param policy the input policy that chooses each tick's action
+   * @param ticks the maximum number of ticks to record
+   * @return the replay
+   */
+  public static Replay record(GameModel model, long seed, InputPolicy policy, int ticks) {
+    Replay replay = new Replay(seed);
+    for (int tick = 0; tick < ticks && !model.isGameOver(); tick++) {
+      int action = policy.nextAction(model, tick);
+      model.applyAction(action);
+      model.update();
+      replay.append(action, model.getStateHash());
+    }
+    return replay;
+  }
+
+  /**
+   * Appends one tick to the replay.
+   *
+   * @param action the action applied before the tick
+   * @param stateHash the game's {@link GameModel#getStateHash()} after the tick
+   */
+  public void append(int action, long stateHash) {
+    if (length == actions.length) {
+      actions = Arrays.copyOf(actions, length * 2);
+      stateHashes = Arrays.copyOf(stateHashes, length * 2);
+      chainHashes = Arrays.copyOf(chainHashes, length * 2);
+    }
+    long previous = length == 0 ? seed : chainHashes[length - 1];
+    actions[length] = action;
+    stateHashes[length] = stateHash;
+    chainHashes[length] = chain(previous, stateHash);
+    length++;
+  }
+
+  /**
+   * Replays the recorded actions into a game.
+   *
+   * @param model a game created with this replay's seed
+   * @param ticks the number of recorded ticks to play
+   */
+  public void playInto(GameModel model, int ticks) {
+    for (int tick = 0; tick < ticks && tick < length; tick++) {
+      model.applyAction(actions[tick]);
+      model.update();
+    }
+  }
+
+  /**
+   * Returns the first tick at which two replays differ.
+   * Only the chained hashes are compared, so a replay recorded by one build can be
+   * checked against a replay recorded by another.
+   *
+   * @param a the first replay
+   * @param b the second replay
+   * @return the index of the first tick whose state differs, the length of the shorter
+   *     replay if one is a prefix of the other, or -1 if they are identical
+   */
+  public static int firstMismatch(Replay a, Replay b) {
+    int common = Math.min(a.length, b.length);
+    if (a.seed != b.seed) {
+      return 0;
+    }
+    if (common == 0 || a.chainHashes[common - 1] == b.chainHashes[common - 1]) {
+      return a.length == b.length ? -1 : common;
+    }
+    // Invariant: the replays match before low and differ at high
+    int low = 0;
+    int high = common - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (a.chainHashes[middle] == b.chainHashes[middle]) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Saves the replay to a file.
+   *
+   * @param file the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public void save(Path file) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + length * BYTES_PER_TICK);
+    buffer.putInt(FILE_MAGIC).putLong(seed).putInt(length);
+    for (int tick = 0; tick < length; tick++) {
+      buffer.putInt(actions[tick]).putLong(stateHashes[tick]).putLong(chainHashes[tick]);
+    }
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Loads a replay saved with {@link #save(Path)}.
+   *
+   * @param file the file to read
+   * @return the replay
+   * @throws IOException if the file cannot be read or is not a replay
+   */
+  public static Replay load(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Not a replay file: " + file);
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // Keep reading until the buffer is full or the file ends
+      }
+      buffer.flip();
+      if (buffer.getInt() != FILE_MAGIC) {
+        throw new IOException("Not a replay file: " + file);
+      }
+      Replay replay = new Replay(buffer.getLong());
+      int ticks = buffer.getInt();
+      if (buffer.remaining() != (long) ticks * BYTES_PER_TICK) {
+        throw new IOException("Truncated replay file: " + file);
+      }
+      for (int tick = 0; tick < ticks; tick++) {
+        replay.append(buffer.getInt(), buffer.getLong());
+        buffer.getLong(); // The chained hash is recomputed by append()
+      }
+      return replay;
+    }
+  }
+
+  /**
+   * Returns the seed the recorded game was created with.
+   *
+   * @return the seed
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Returns the number of recorded ticks.
+   *
+   * @return the replay length
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Returns the action applied before a tick.
+   *
+   * @param tick the tick index
+   * @return the action flags
+   */
+  public int getAction(int tick) {
+    return actions[tick];
+  }
+
+  /**
+   * Returns the state hash recorded after a tick.
+   *
+   * @param tick the tick index
+   * @return the state hash
+   */
+  public long getStateHash(int tick) {
+    return stateHashes[tick];
+  }
+
+  private static long chain(long previous, long stateHash) {
+    long z = previous * 31 + stateHash;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
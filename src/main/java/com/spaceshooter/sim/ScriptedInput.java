@@ -0,0 +1,36 @@
+package com.spaceshooter.sim;
+
+import com.spaceshooter.model.GameModel;
+
+/**
+ * An input policy that plays back a fixed sequence of actions.
+ * When the script runs out it starts over from the beginning, so a short pattern
+ * such as "fire, move left, fire, move right" can drive a game of any length.
+ */
+public class ScriptedInput implements InputPolicy {
+  private final int[] actions;
+
+  /**
+   * Constructs a scripted policy from a sequence of actions.
+   *
+   * @param actions the {@link com.spaceshooter.model.PlayerAction} flags for each tick
+   */
+  public ScriptedInput(int... actions) {
+    if (actions.length == 0) {
+      throw new IllegalArgumentException("A script needs at least one action");
+    }
+    this.actions = actions.clone();
+  }
+
+  /**
+   * Returns the scripted action for the tick, repeating the script as needed.
+   *
+   * @param model the game being played
+   * @param tick the number of ticks played so far
+   * @return the scripted action flags
+   */
+  @Override
+  public int nextAction(GameModel model, int tick) {
+    return actions[tick % actions.length];
+  }
+}
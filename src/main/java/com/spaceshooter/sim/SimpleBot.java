@@ -0,0 +1,122 @@
+package com.spaceshooter.sim;
+
+import com.spaceshooter.model.Enemy;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.Missile;
+import com.spaceshooter.model.Player;
+import com.spaceshooter.model.PlayerAction;
+
+import java.util.Random;
+
+/**
+ * A simple reactive bot used to play headless games.
+ * Each tick it:
+ * - Sidesteps enemy missiles that are about to hit it
+ * - Otherwise lines up under the lowest enemy, which is the most dangerous one
+ * - Fires at a fixed rate, preferring limited weapons while they have stock
+ * A seeded random jitter on the firing rate keeps runs with different seeds from
+ * playing identically.
+ */
+public class SimpleBot implements InputPolicy {
+  private static final int DANGER_DISTANCE = 120;
+  private static final int DODGE_MARGIN = 10;
+  private final Random random;
+  private final int fireInterval;
+  private final boolean useSpecialWeapons;
+  private int nextFireTick;
+
+  /**
+   * Constructs a bot that fires every five ticks and uses every weapon.
+   *
+   * @param seed the seed for the bot's random jitter
+   */
+  public SimpleBot(long seed) {
+    this(seed, 5, true);
+  }
+
+  /**
+   * Constructs a bot with a custom firing rate and weapon choice.
+   *
+   * @param seed the seed for the bot's random jitter
+   * @param fireInterval the average number of ticks between shots
+   * @param useSpecialWeapons true to use targeting missiles and lasers while in stock
+   */
+  public SimpleBot(long seed, int fireInterval, boolean useSpecialWeapons) {
+    this.random = new Random(seed);
+    this.fireInterval = Math.max(1, fireInterval);
+    this.useSpecialWeapons = useSpecialWeapons;
+  }
+
+  /**
+   * Chooses the bot's input for the next tick.
+   *
+   * @param model the game being played
+   * @param tick the number of ticks played so far
+   * @return the combined action flags
+   */
+  @Override
+  public int nextAction(GameModel model, int tick) {
+    Player player = model.getPlayer();
+    int playerLeft = player.getX();
+    int playerRight = player.getX() + player.getWidth();
+    int playerCenter = player.getX() + player.getWidth() / 2;
+    int action = PlayerAction.NONE;
+
+    // Dodge the closest incoming enemy missile, if any
+    Missile threat = null;
+    for (Missile missile : model.getMissiles()) {
+      if (!missile.isPlayerMissile()
+          && missile.getY() < player.getY()
+          && player.getY() - missile.getY() < DANGER_DISTANCE
+          && missile.getX() < playerRight + DODGE_MARGIN
+          && missile.getX() + missile.getWidth() > playerLeft - DODGE_MARGIN
+          && (threat == null || missile.getY() > threat.getY())) {
+        threat = missile;
+      }
+    }
+
+    if (threat != null) {
+      boolean threatOnLeft = threat.getX() + threat.getWidth() / 2 < playerCenter;
+      action |= threatOnLeft ? PlayerAction.RIGHT : PlayerAction.LEFT;
+    } else {
+      Enemy target = findLowestEnemy(model);
+      if (target != null) {
+        int targetCenter = target.getX() + target.getWidth() / 2;
+        if (targetCenter < playerCenter - 5) {
+          action |= PlayerAction.LEFT;
+        } else if (targetCenter > playerCenter + 5) {
+          action |= PlayerAction.RIGHT;
+        }
+      }
+    }
+
+    if (tick >= nextFireTick) {
+      action |= PlayerAction.FIRE | chooseWeapon(model);
+      nextFireTick = tick + 1 + random.nextInt(2 * fireInterval - 1);
+    }
+    return action;
+  }
+
+  private int chooseWeapon(GameModel model) {
+    if (useSpecialWeapons) {
+      if (model.getRemainingTargetingMissiles() > 0 && model.getTargetingMissilesLive() == 0) {
+        return PlayerAction.SELECT_TARGETING;
+      }
+      if (model.getRemainingLaserMissiles() > 0
+          && model.getLaserMissilesLive() < model.getSettings().getLaserMissileLimit()) {
+        return PlayerAction.SELECT_LASER;
+      }
+    }
+    return PlayerAction.SELECT_BASIC;
+  }
+
+  private Enemy findLowestEnemy(GameModel model) {
+    Enemy lowest = null;
+    for (Enemy enemy : model.getEnemies()) {
+      if (lowest == null || enemy.getY() > lowest.getY()) {
+        lowest = enemy;
+      }
+    }
+    return lowest;
+  }
+}
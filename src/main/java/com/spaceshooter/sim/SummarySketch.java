@@ -0,0 +1,158 @@
+package com.spaceshooter.sim;
+
+/**
+ * A fixed-size, mergeable summary of a stream of non-negative values.
+ * The sketch keeps the count, min, max, mean and variance exactly, and a log-linear
+ * histogram for quantiles with at most about 6% relative error. Its memory use does
+ * not depend on how many values are added, and two sketches built on different
+ * threads can be merged into one that is identical to a sketch of both streams.
+ */
+public class SummarySketch {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+  private final long[] buckets = new long[BUCKET_COUNT];
+  private long count;
+  private long min = Long.MAX_VALUE;
+  private long max = Long.MIN_VALUE;
+  private double mean;
+  private double sumOfSquares; // Sum of squared differences from the mean
+
+  /**
+   * Adds a value to the sketch. Negative values are recorded as 0.
+   *
+   * @param value the value to add
+   */
+  public void add(long value) {
+    long v = Math.max(0, value);
+    buckets[bucketOf(v)]++;
+    count++;
+    min = Math.min(min, v);
+    max = Math.max(max, v);
+    // Welford's online update
+    double delta = v - mean;
+    mean += delta / count;
+    sumOfSquares += delta * (v - mean);
+  }
+
+  /**
+   * Merges another sketch into this one.
+   *
+   * @param other the sketch to merge, which is left unchanged
+   */
+  public void merge(SummarySketch other) {
+    if (other.count == 0) {
+      return;
+    }
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] += other.buckets[i];
+    }
+    long total = count + other.count;
+    double delta = other.mean - mean;
+    // Chan et al. parallel combination of mean and variance
+    sumOfSquares += other.sumOfSquares + delta * delta * count * other.count / total;
+    mean += delta * other.count / total;
+    count = total;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * Returns the number of values added.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the smallest value added.
+   *
+   * @return the minimum, or 0 if the sketch is empty
+   */
+  public long getMin() {
+    return count == 0 ? 0 : min;
+  }
+
+  /**
+   * Returns the largest value added.
+   *
+   * @return the maximum, or 0 if the sketch is empty
+   */
+  public long getMax() {
+    return count == 0 ? 0 : max;
+  }
+
+  /**
+   * Returns the mean of the values added.
+   *
+   * @return the mean, or 0 if the sketch is empty
+   */
+  public double getMean() {
+    return mean;
+  }
+
+  /**
+   * Returns the sample standard deviation of the values added.
+   *
+   * @return the standard deviation, or 0 if fewer than two values were added
+   */
+  public double getStandardDeviation() {
+    return count < 2 ? 0 : Math.sqrt(sumOfSquares / (count - 1));
+  }
+
+  /**
+   * Returns an approximate quantile of the values added.
+   *
+   * @param quantile the quantile to estimate, between 0 and 1
+   * @return the estimated value at that quantile, or 0 if the sketch is empty
+   */
+  public long getQuantile(double quantile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * count);
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += buckets[i];
+      if (seen >= Math.max(1, rank)) {
+        return Math.min(max, Math.max(min, valueOf(i)));
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Returns a one-line summary of the sketch.
+   *
+   * @return the summary text
+   */
+  @Override
+  public String toString() {
+    return String.format("n=%d mean=%.1f sd=%.1f min=%d p50=%d p90=%d p99=%d max=%d",
+        count, getMean(), getStandardDeviation(), getMin(), getQuantile(0.5),
+        getQuantile(0.9), getQuantile(0.99), getMax());
+  }
+
+  private static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long valueOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long subBucket = bucket % SUB_BUCKETS;
+    // Midpoint of the bucket's range
+    long lower = (SUB_BUCKETS + subBucket) << shift;
+    return lower + ((1L << shift) >>> 1);
+  }
+}
@@ -0,0 +1,265 @@
+package com.spaceshooter.sim;
+
+import com.spaceshooter.model.DifficultySettings;
+import com.spaceshooter.model.Enemy;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.Missile;
+import com.spaceshooter.model.Player;
+
+import java.util.List;
+
+/**
+ * A vectorized reinforcement-learning environment over N game models.
+ * All games are stepped in lockstep with one {@link com.spaceshooter.model.PlayerAction}
+ * value per game. Observations, rewards and done flags are written into flat arrays
+ * that are allocated once, so stepping the environment allocates nothing of its own.
+ * A game that ends is reset in place with {@link GameModel#reset(long)} during the same
+ * step, and the observation returned for it is the first one of its new episode.
+ *
+ * Each game's observation is {@link #OBSERVATION_SIZE} floats, laid out as:
+ * - Player: x, health, remaining targeting missiles, remaining laser missiles
+ * - {@link #ENEMY_SLOTS} enemy slots: present, x, y, health
+ * - {@link #THREAT_SLOTS} nearest enemy missiles: present, dx, dy from the player
+ * Positions are divided by the play field size and health by 100, so most values lie
+ * in [0, 1] (or [-1, 1] for offsets).
+ *
+ * The reward for a step is the score gained divided by 100, minus the health lost
+ * divided by 20, plus 10 for clearing the wave or minus 10 for losing.
+ */
+public class VectorEnv {
+  /** The number of enemy slots in an observation. */
+  public static final int ENEMY_SLOTS = 24;
+  /** The number of enemy missile slots in an observation. */
+  public static final int THREAT_SLOTS = 8;
+  /** The number of floats in one game's observation. */
+  public static final int OBSERVATION_SIZE = 4 + ENEMY_SLOTS * 4 + THREAT_SLOTS * 3;
+  private static final float FIELD_WIDTH = 600f;
+  private static final float FIELD_HEIGHT = 700f;
+  private static final float TERMINAL_REWARD = 10f;
+  private final GameModel[] games;
+  private final long baseSeed;
+  private final long[] episodes;
+  private final float[] observations;
+  private final float[] rewards;
+  private final boolean[] dones;
+  private final int[] previousScores;
+  private final int[] previousHealth;
+  // Scratch space for selecting the nearest enemy missiles without allocating
+  private final Missile[] threats = new Missile[THREAT_SLOTS];
+  private final int[] threatDistances = new int[THREAT_SLOTS];
+
+  /**
+   * Constructs an environment of N games with standard difficulty.
+   *
+   * @param size the number of games to step in lockstep
+   * @param baseSeed the seed every game and episode seed is derived from
+   */
+  public VectorEnv(int size, long baseSeed) {
+    this(size, baseSeed, new DifficultySettings());
+  }
+
+  /**
+   * Constructs an environment of N games with custom difficulty settings.
+   *
+   * @param size the number of games to step in lockstep
+   * @param baseSeed the seed every game and episode seed is derived from
+   * @param settings the difficulty settings shared by all games
+   */
+  public VectorEnv(int size, long baseSeed, DifficultySettings settings) {
+    this.games = new GameModel[size];
+    this.baseSeed = baseSeed;
+    this.episodes = new long[size];
+    this.observations = new float[size * OBSERVATION_SIZE];
+    this.rewards = new float[size];
+    this.dones = new boolean[size];
+    this.previousScores = new int[size];
+    this.previousHealth = new int[size];
+    for (int i = 0; i < size; i++) {
+      games[i] = new GameModel(episodeSeed(i, 0), settings);
+    }
+    reset();
+  }
+
+  /**
+   * Resets every game to the start of a new episode and writes the initial observations.
+   *
+   * @return the observation array, {@link #OBSERVATION_SIZE} floats per game
+   */
+  public float[] reset() {
+    for (int i = 0; i < games.length; i++) {
+      startEpisode(i);
+      dones[i] = false;
+      rewards[i] = 0f;
+    }
+    return observations;
+  }
+
+  /**
+   * Advances every game by one tick.
+   * After the call, {@link #getObservations()}, {@link #getRewards()} and
+   * {@link #getDones()} hold the results of this step.
+   *
+   * @param actions one set of action flags per game
+   * @return the observation array, {@link #OBSERVATION_SIZE} floats per game
+   */
+  public float[] step(int[] actions) {
+    if (actions.length != games.length) {
+      throw new IllegalArgumentException(
+          "Expected " + games.length + " actions but got " + actions.length);
+    }
+    for (int i = 0; i < games.length; i++) {
+      GameModel game = games[i];
+      game.applyAction(actions[i]);
+      game.update();
+
+      int score = game.getScore();
+      int health = game.getPlayer().getHealth();
+      float reward = (score - previousScores[i]) / 100f - (previousHealth[i] - health) / 20f;
+      boolean done = game.isGameOver();
+      if (done) {
+        reward += game.getEnemies().isEmpty() ? TERMINAL_REWARD : -TERMINAL_REWARD;
+      }
+      rewards[i] = reward;
+      dones[i] = done;
+
+      if (done) {
+        episodes[i]++;
+        startEpisode(i);
+      } else {
+        previousScores[i] = score;
+        previousHealth[i] = health;
+        writeObservation(i);
+      }
+    }
+    return observations;
+  }
+
+  /**
+   * Returns the observation array written by the last reset or step.
+   *
+   * @return the observations, {@link #OBSERVATION_SIZE} floats per game
+   */
+  public float[] getObservations() {
+    return observations;
+  }
+
+  /**
+   * Returns the rewards of the last step.
+   *
+   * @return one reward per game
+   */
+  public float[] getRewards() {
+    return rewards;
+  }
+
+  /**
+   * Returns which games ended during the last step (and were reset).
+   *
+   * @return one done flag per game
+   */
+  public boolean[] getDones() {
+    return dones;
+  }
+
+  /**
+   * Returns the number of games in the environment.
+   *
+   * @return the number of games
+   */
+  public int size() {
+    return games.length;
+  }
+
+  /**
+   * Returns one of the underlying games, for inspection or rendering.
+   *
+   * @param index the game index
+   * @return the game model
+   */
+  public GameModel getGame(int index) {
+    return games[index];
+  }
+
+  private void startEpisode(int index) {
+    GameModel game = games[index];
+    game.reset(episodeSeed(index, episodes[index]));
+    previousScores[index] = game.getScore();
+    previousHealth[index] = game.getPlayer().getHealth();
+    writeObservation(index);
+  }
+
+  private long episodeSeed(int index, long episode) {
+    return BatchSimulator.seedForRun(baseSeed ^ (episode * 0x632BE59BD9B4E019L), index);
+  }
+
+  private void writeObservation(int index) {
+    GameModel game = games[index];
+    Player player = game.getPlayer();
+    int offset = index * OBSERVATION_SIZE;
+
+    observations[offset++] = player.getX() / FIELD_WIDTH;
+    observations[offset++] = player.getHealth() / 100f;
+    observations[offset++] = game.getRemainingTargetingMissiles()
+        / (float) Math.max(1, game.getSettings().getTargetingMissileStock());
+    observations[offset++] = game.getRemainingLaserMissiles()
+        / (float) Math.max(1, game.getSettings().getLaserMissileStock());
+
+    List<Enemy> enemies = game.getEnemies();
+    for (int slot = 0; slot < ENEMY_SLOTS; slot++) {
+      if (slot < enemies.size()) {
+        Enemy enemy = enemies.get(slot);
+        observations[offset++] = 1f;
+        observations[offset++] = enemy.getX() / FIELD_WIDTH;
+        observations[offset++] = enemy.getY() / FIELD_HEIGHT;
+        observations[offset++] = enemy.getHealth() / 100f;
+      } else {
+        observations[offset++] = 0f;
+        observations[offset++] = 0f;
+        observations[offset++] = 0f;
+        observations[offset++] = 0f;
+      }
+    }
+
+    int threatCount = selectThreats(game.getMissiles(), player);
+    for (int slot = 0; slot < THREAT_SLOTS; slot++) {
+      if (slot < threatCount) {
+        observations[offset++] = 1f;
+        observations[offset++] = (threats[slot].getX() - player.getX()) / FIELD_WIDTH;
+        observations[offset++] = (threats[slot].getY() - player.getY()) / FIELD_HEIGHT;
+        threats[slot] = null;
+      } else {
+        observations[offset++] = 0f;
+        observations[offset++] = 0f;
+        observations[offset++] = 0f;
+      }
+    }
+  }
+
+  /**
+   * Keeps the enemy missiles closest to the player, nearest first, in the scratch arrays.
+   */
+  private int selectThreats(List<Missile> missiles, Player player) {
+    int count = 0;
+    for (int i = 0; i < missiles.size(); i++) {
+      Missile missile = missiles.get(i);
+      if (missile.isPlayerMissile()) {
+        continue;
+      }
+      int distance = Math.abs(missile.getX() - player.getX())
+          + Math.abs(missile.getY() - player.getY());
+      if (count == THREAT_SLOTS && distance >= threatDistances[count - 1]) {
+        continue;
+      }
+      // Insertion into the small sorted window
+      int position = count < THREAT_SLOTS ? count++ : THREAT_SLOTS - 1;
+      while (position > 0 && threatDistances[position - 1] > distance) {
+        threats[position] = threats[position - 1];
+        threatDistances[position] = threatDistances[position - 1];
+        position--;
+      }
+      threats[position] = missile;
+      threatDistances[position] = distance;
+    }
+    return count;
+  }
+}
@@ -20,4 +20,16 @@ public class BasicMissileStrategy implements MissileStrategy {
   public Missile createMissile(int x, int y) {
     return new Missile(x, y, true);
   }
+
+  /**
+   * Fires one straight missile taken from the game's pool.
+   *
+   * @param x the x-coordinate the missile is fired from
+   * @param y the y-coordinate the missile is fired from
+   * @param sink the sink that adds the missile to the game
+   */
+  @Override
+  public void fire(int x, int y, ProjectileSink sink) {
+    sink.emit(x, y, 0, Missile.PLAYER_SPEED);
+  }
 }
@@ -0,0 +1,78 @@
+package com.spaceshooter.strategy;
+
+import com.spaceshooter.model.Missile;
+
+/**
+ * A strategy that fires a curtain of bullets across the play field.
+ * One shot fires several rows of bullets, each row a line of evenly spaced bullets
+ * centred on the firing position and clipped to the field, stacked upwards, with every other row
+ * shifted by half a gap so the rows cover each other's gaps. The whole curtain flies
+ * straight up. A default shot fires 240 bullets, all written into the game's
+ * projectile sink in one call.
+ *
+ * Snapshots record only which strategy is selected, so a restored game uses the
+ * default curtain.
+ */
+public class BulletCurtainStrategy implements MissileStrategy {
+  /** The number of bullets per row of the default curtain. */
+  public static final int DEFAULT_COLUMNS = 60;
+  /** The number of rows of the default curtain. */
+  public static final int DEFAULT_ROWS = 4;
+  private static final int COLUMN_GAP = 10;
+  private static final int ROW_GAP = 24;
+  private final int columns;
+  private final int rows;
+
+  /**
+   * Constructs the default curtain.
+   */
+  public BulletCurtainStrategy() {
+    this(DEFAULT_COLUMNS, DEFAULT_ROWS);
+  }
+
+  /**
+   * Constructs a curtain of a custom size.
+   *
+   * @param columns the number of bullets per row, at least 1
+   * @param rows the number of rows, at least 1
+   */
+  public BulletCurtainStrategy(int columns, int rows) {
+    if (columns < 1 || rows < 1) {
+      throw new IllegalArgumentException("Invalid curtain: " + columns + "x" + rows);
+    }
+    this.columns = columns;
+    this.rows = rows;
+  }
+
+  /**
+   * Fires one curtain. Bullets that would start outside the field are not fired.
+   *
+   * @param x the x-coordinate the curtain is centred on
+   * @param y the y-coordinate of the curtain's first row
+   * @param sink the sink that adds the bullets to the game
+   */
+  @Override
+  public void fire(int x, int y, ProjectileSink sink) {
+    int maxX = sink.getFieldWidth() - COLUMN_GAP;
+    for (int row = 0; row < rows; row++) {
+      int left = x - (columns - 1) * COLUMN_GAP / 2 + (row % 2) * COLUMN_GAP / 2;
+      int rowY = y - row * ROW_GAP;
+      for (int column = 0; column < columns; column++) {
+        int bulletX = left + column * COLUMN_GAP;
+        if (bulletX >= 0 && bulletX <= maxX) {
+          sink.emit(bulletX, rowY, 0, Missile.PLAYER_SPEED);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of bullets in a curtain that is not clipped by the field.
+   *
+   * @return the maximum projectiles per shot
+   */
+  @Override
+  public int getMaxProjectiles() {
+    return columns * rows;
+  }
+}
@@ -2,14 +2,13 @@ package com.spaceshooter.strategy;
 
 import com.spaceshooter.model.Missile;
 import com.spaceshooter.model.GameModel;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * A missile strategy that creates two missiles side by side.
  * This strategy implements the MissileStrategy interface and creates a pair of missiles
- * that are offset horizontally from the firing position. Both missiles are added
- * directly to the game model.
+ * that are offset horizontally from the firing position. When the game fires it, both
+ * missiles are written into the game's projectile sink; calling
+ * {@link #createMissile(int, int)} directly adds them to the game model instead.
  */
 public class DoubleMissileStrategy implements MissileStrategy {
   private GameModel model;
@@ -46,4 +45,27 @@ public class DoubleMissileStrategy implements MissileStrategy {
     // Return null since we've already added both missiles
     return null;
   }
+
+  /**
+   * Fires two pooled missiles side by side, 10 units either side of the position.
+   *
+   * @param x the x-coordinate of the center position the missiles are fired from
+   * @param y the y-coordinate the missiles are fired from
+   * @param sink the sink that adds the missiles to the game
+   */
+  @Override
+  public void fire(int x, int y, ProjectileSink sink) {
+    sink.emit(x - 10, y, 0, Missile.PLAYER_SPEED);
+    sink.emit(x + 10, y, 0, Missile.PLAYER_SPEED);
+  }
+
+  /**
+   * Returns 2, the number of missiles in every shot.
+   *
+   * @return the maximum projectiles per shot
+   */
+  @Override
+  public int getMaxProjectiles() {
+    return 2;
+  }
 }
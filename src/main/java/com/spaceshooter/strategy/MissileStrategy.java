@@ -7,6 +7,11 @@ import com.spaceshooter.model.Missile;
  * Different implementations of this interface can create missiles with varying behaviors,
  * such as basic straight-flying missiles, targeting missiles, or multiple missiles.
  * This allows for flexible and extensible missile creation without modifying existing code.
+ *
+ * The game fires a weapon through {@link #fire(int, int, ProjectileSink)}. A strategy
+ * that makes one missile at a time only needs to implement
+ * {@link #createMissile(int, int)}; one that fires several projectiles per shot
+ * overrides fire() and writes them all into the sink.
  */
 public interface MissileStrategy {
   /**
@@ -17,5 +22,32 @@ public interface MissileStrategy {
    * @param y The y-coordinate where the missile will be created
    * @return The created missile, or null if the strategy handles missile creation internally
    */
-  Missile createMissile(int x, int y);
+  default Missile createMissile(int x, int y) {
+    return null;
+  }
+
+  /**
+   * Fires one shot from the specified position into the game's projectile sink.
+   * By default the shot is the single missile {@link #createMissile(int, int)} returns.
+   *
+   * @param x the x-coordinate the shot is fired from
+   * @param y the y-coordinate the shot is fired from
+   * @param sink the sink that adds the projectiles to the game
+   */
+  default void fire(int x, int y, ProjectileSink sink) {
+    Missile missile = createMissile(x, y);
+    if (missile != null) {
+      sink.add(missile);
+    }
+  }
+
+  /**
+   * Returns the largest number of projectiles one shot can fire.
+   * The game keeps this many pooled missiles ready before each shot.
+   *
+   * @return the maximum projectiles per shot
+   */
+  default int getMaxProjectiles() {
+    return 1;
+  }
 }
@@ -0,0 +1,55 @@
+package com.spaceshooter.strategy;
+
+import com.spaceshooter.model.Missile;
+
+/**
+ * Receives the projectiles a {@link MissileStrategy} fires.
+ * The game provides the sink, so a strategy can fire any number of projectiles in one
+ * call. Projectiles emitted with {@link #emit(int, int, int, int)} are plain missiles
+ * taken from the game's pool, so emitting them does not allocate once the pool has
+ * grown; special missiles, such as targeting missiles, are built by the strategy and
+ * handed over with {@link #add(Missile)}. Hitscan weapons fire no projectiles at all;
+ * the game resolves their shots at once with {@link #hitscan(int, int, int, int, int,
+ * int, int)}.
+ */
+public interface ProjectileSink {
+  /**
+   * Fires a plain player missile.
+   *
+   * @param x the x-coordinate where the missile starts
+   * @param y the y-coordinate where the missile starts
+   * @param velocityX the horizontal distance the missile moves each tick
+   * @param velocityY the vertical distance the missile moves each tick, negative to
+   *     fly up like {@link Missile#PLAYER_SPEED}
+   */
+  void emit(int x, int y, int velocityX, int velocityY);
+
+  /**
+   * Fires a missile the strategy created itself.
+   *
+   * @param missile the missile to add to the game
+   */
+  void add(Missile missile);
+
+  /**
+   * Fires a beam straight up that hits at once, damaging the nearest enemies in its
+   * path. The beam stops at the last enemy it can pierce, or at the top of the field.
+   *
+   * @param x the left edge of the beam
+   * @param y the y-coordinate the beam is fired from
+   * @param width the width of the beam
+   * @param pierce the largest number of enemies the beam passes into
+   * @param damage the damage dealt to each enemy hit
+   * @param burnDamage the damage each enemy hit then takes every tick while it burns
+   * @param burnTicks the number of ticks an enemy hit burns, 0 for no burn
+   * @return the number of enemies hit
+   */
+  int hitscan(int x, int y, int width, int pierce, int damage, int burnDamage, int burnTicks);
+
+  /**
+   * Returns the width of the play field, so that patterns can stay inside it.
+   *
+   * @return the field width
+   */
+  int getFieldWidth();
+}
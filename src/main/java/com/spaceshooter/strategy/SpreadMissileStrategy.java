@@ -0,0 +1,76 @@
+package com.spaceshooter.strategy;
+
+import com.spaceshooter.model.Missile;
+
+/**
+ * A shotgun-like strategy that fires a fan of pellets.
+ * The pellets leave the firing position together and spread out evenly over the fan's
+ * angle, each flying in a straight line at missile speed. Their velocities are worked
+ * out once, when the strategy is created, with StrictMath so that every JVM computes
+ * the same ones, and a shot only writes the pellets into the game's projectile sink.
+ *
+ * Snapshots record only which strategy is selected, so a restored game uses the
+ * default pellet count and angle.
+ */
+public class SpreadMissileStrategy implements MissileStrategy {
+  /** The number of pellets in a shot of the default spread. */
+  public static final int DEFAULT_PELLETS = 9;
+  /** The angle, in degrees, between the outermost pellets of the default spread. */
+  public static final int DEFAULT_ANGLE = 60;
+  private final int[] velocityX;
+  private final int[] velocityY;
+
+  /**
+   * Constructs the default spread.
+   */
+  public SpreadMissileStrategy() {
+    this(DEFAULT_PELLETS, DEFAULT_ANGLE);
+  }
+
+  /**
+   * Constructs a spread with a custom pellet count and angle.
+   *
+   * @param pellets the number of pellets per shot, at least 1
+   * @param angleDegrees the angle between the outermost pellets, from 0 to 180
+   */
+  public SpreadMissileStrategy(int pellets, int angleDegrees) {
+    if (pellets < 1 || angleDegrees < 0 || angleDegrees > 180) {
+      throw new IllegalArgumentException("Invalid spread: " + pellets + " pellets over "
+          + angleDegrees + " degrees");
+    }
+    int speed = -Missile.PLAYER_SPEED;
+    velocityX = new int[pellets];
+    velocityY = new int[pellets];
+    for (int i = 0; i < pellets; i++) {
+      double degrees = pellets == 1 ? 0 : -angleDegrees / 2.0 + angleDegrees * i / (pellets - 1.0);
+      double radians = StrictMath.toRadians(degrees);
+      velocityX[i] = (int) StrictMath.round(speed * StrictMath.sin(radians));
+      // Never let a pellet stall; it must leave the field eventually
+      velocityY[i] = Math.min(-1, (int) -StrictMath.round(speed * StrictMath.cos(radians)));
+    }
+  }
+
+  /**
+   * Fires one fan of pellets.
+   *
+   * @param x the x-coordinate the pellets are fired from
+   * @param y the y-coordinate the pellets are fired from
+   * @param sink the sink that adds the pellets to the game
+   */
+  @Override
+  public void fire(int x, int y, ProjectileSink sink) {
+    for (int i = 0; i < velocityX.length; i++) {
+      sink.emit(x, y, velocityX[i], velocityY[i]);
+    }
+  }
+
+  /**
+   * Returns the number of pellets in a shot.
+   *
+   * @return the maximum projectiles per shot
+   */
+  @Override
+  public int getMaxProjectiles() {
+    return velocityX.length;
+  }
+}
@@ -0,0 +1,85 @@
+package com.spaceshooter.strategy;
+
+import com.spaceshooter.model.Enemy;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.SlotMap;
+import com.spaceshooter.model.SwarmMissile;
+
+import java.util.List;
+
+/**
+ * A missile strategy that launches a swarm of homing missiles with every shot.
+ * The missiles leave the ship in a tight block, fanning out upward, and are shared out
+ * over the enemies in turn so that the swarm spreads across the formation. Once in
+ * flight they are steered together by the game, which keeps each one on its target
+ * while the swarm holds together without the missiles piling up.
+ * If there are no enemies, the missiles fly straight up.
+ */
+public class SwarmMissileStrategy implements MissileStrategy {
+  /** The default number of missiles in one swarm. */
+  public static final int DEFAULT_SWARM_SIZE = 48;
+  private static final int BLOCK_COLUMNS = 8;
+  private static final int SPACING = 6;
+  private static final double LAUNCH_SPEED = 5;
+  private final GameModel model;
+  private final int swarmSize;
+
+  /**
+   * Constructs a swarm strategy with the default swarm size.
+   *
+   * @param model the game model whose enemies the missiles can target
+   */
+  public SwarmMissileStrategy(GameModel model) {
+    this(model, DEFAULT_SWARM_SIZE);
+  }
+
+  /**
+   * Constructs a swarm strategy.
+   *
+   * @param model the game model whose enemies the missiles can target
+   * @param swarmSize the number of missiles launched by each shot
+   */
+  public SwarmMissileStrategy(GameModel model, int swarmSize) {
+    if (swarmSize < 1) {
+      throw new IllegalArgumentException("A swarm needs at least one missile: " + swarmSize);
+    }
+    this.model = model;
+    this.swarmSize = swarmSize;
+  }
+
+  /**
+   * Launches the swarm from the specified position.
+   *
+   * @param x the x-coordinate at the centre of the swarm
+   * @param y the y-coordinate of the front of the swarm
+   * @param sink the sink that adds the missiles to the game
+   */
+  @Override
+  public void fire(int x, int y, ProjectileSink sink) {
+    List<Enemy> enemies = model.getEnemies();
+    int columns = Math.min(BLOCK_COLUMNS, swarmSize);
+    int left = x - (columns - 1) * SPACING / 2;
+    for (int i = 0; i < swarmSize; i++) {
+      int column = i % columns;
+      int row = i / columns;
+      long target = SlotMap.NULL_HANDLE;
+      if (!enemies.isEmpty()) {
+        target = enemies.get(i % enemies.size()).getHandle();
+      }
+      // Outer columns lean outward so the swarm opens up as it climbs
+      double lean = (column - (columns - 1) / 2.0) / columns;
+      sink.add(new SwarmMissile(left + column * SPACING, y + row * SPACING,
+          model.getEnemyRegistry(), target, lean * LAUNCH_SPEED, -LAUNCH_SPEED));
+    }
+  }
+
+  /**
+   * Returns the number of missiles in one swarm.
+   *
+   * @return the swarm size
+   */
+  @Override
+  public int getMaxProjectiles() {
+    return swarmSize;
+  }
+}
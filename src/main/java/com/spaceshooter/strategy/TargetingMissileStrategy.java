@@ -1,28 +1,28 @@
 package com.spaceshooter.strategy;
 
 import com.spaceshooter.model.Enemy;
+import com.spaceshooter.model.GameModel;
 import com.spaceshooter.model.Missile;
 import com.spaceshooter.model.TargetingMissile;
-import java.util.List;
-import java.util.Random;
 
 /**
  * A missile strategy that creates missiles that target the nearest enemy.
  * This strategy implements the MissileStrategy interface and creates TargetingMissile
  * instances that will track and follow the closest enemy. If no enemies are available,
  * it falls back to creating a basic straight-flying missile.
+ * The nearest enemy is looked up in the model when the missile is fired, and the
+ * missile only keeps that enemy's handle.
  */
 public class TargetingMissileStrategy implements MissileStrategy {
-  private final List<Enemy> enemies;
+  private final GameModel model;
 
   /**
-   * Constructs a new TargetingMissileStrategy with the specified list of enemies.
+   * Constructs a new TargetingMissileStrategy for the specified game model.
    *
-   * @param enemies the list of enemies that the missiles can target
+   * @param model the game model whose enemies the missiles can target
    */
-  public TargetingMissileStrategy(List<Enemy> enemies) {
-    this.enemies = enemies;
-    Random random = new Random();
+  public TargetingMissileStrategy(GameModel model) {
+    this.model = model;
   }
 
   /**
@@ -36,12 +36,12 @@ public class TargetingMissileStrategy implements MissileStrategy {
    */
   @Override
   public Missile createMissile(int x, int y) {
-    if (!enemies.isEmpty()) {
+    if (!model.getEnemies().isEmpty()) {
       // Find the nearest enemy
       Enemy nearestEnemy = findNearestEnemy(x, y);
       if (nearestEnemy != null) {
-        // Create a targeting missile that will track the nearest enemy
-        return new TargetingMissile(x, y, nearestEnemy);
+        // Create a targeting missile that will track the nearest enemy by handle
+        return new TargetingMissile(x, y, model.getEnemyRegistry(), nearestEnemy.getHandle());
       }
     }
     // If no enemies or something went wrong, create a basic missile
@@ -59,7 +59,7 @@ public class TargetingMissileStrategy implements MissileStrategy {
     Enemy nearest = null;
     double minDistance = Double.MAX_VALUE;
 
-    for (Enemy enemy : enemies) {
+    for (Enemy enemy : model.getEnemies()) {
       double distance = calculateDistance(x, y, enemy.getX(), enemy.getY());
       if (distance < minDistance) {
         minDistance = distance;
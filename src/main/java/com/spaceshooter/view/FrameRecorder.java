@@ -0,0 +1,291 @@
+package com.spaceshooter.view;
+
+import com.spaceshooter.model.GameModel;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Records a game to a numbered sequence of images, {@code frame-000000.ppm} onwards,
+ * without holding up the thread that plays it.
+ *
+ * The calling thread only draws the game, through a {@link GameRenderer}, into one of
+ * a few reusable offscreen images and queues it; a background thread converts each
+ * queued image to a binary PPM file, writes it through a FileChannel and returns the
+ * image to the pool. If every image is still waiting to be written, the recorder
+ * either drops the frame, so a live game never stalls, or waits for the encoder to
+ * free an image, so a headless replay records every frame. The frames are numbered in
+ * the order they were recorded, without gaps for dropped frames, so the sequence can
+ * be fed straight to a video encoder.
+ *
+ * Nothing is allocated per frame on the calling thread. The time spent drawing and
+ * waiting is counted so the cost of recording can be measured.
+ */
+public class FrameRecorder implements Closeable {
+  /** The default number of images in the pool. */
+  public static final int DEFAULT_POOL_SIZE = 4;
+
+  private final Path directory;
+  private final GameRenderer renderer;
+  private final int width;
+  private final int height;
+  private final boolean dropWhenBehind;
+  private final BlockingQueue<Frame> freeFrames;
+  private final BlockingQueue<Frame> queuedFrames;
+  private final Frame end = new Frame(); // Queued by close() to stop the encoder
+  private final Thread encoder;
+  private final byte[] header;
+  private final ByteBuffer fileBuffer; // Encoder only: one whole file
+  private final byte[] row; // Encoder only: one row of RGB bytes
+  private boolean closed;
+  private long frames;
+  private volatile long dropped;
+  private volatile long written;
+  private volatile long captureNanos;
+  private volatile long waitNanos;
+  private volatile long encodeNanos;
+  private volatile IOException lastError;
+
+  /**
+   * One pooled image, with the graphics that draw into it and its pixels.
+   */
+  private static final class Frame {
+    private BufferedImage image;
+    private Graphics2D graphics;
+    private int[] pixels;
+    private long number;
+  }
+
+  /**
+   * Constructs a recorder and starts its encoder thread.
+   *
+   * @param directory the directory to write the images to, created if missing
+   * @param renderer the renderer to draw the game with
+   * @param width the width of the images
+   * @param height the height of the images
+   * @param poolSize the number of images that can be drawn but not yet written
+   * @param dropWhenBehind true to drop frames while every image is waiting to be
+   *     written, false to wait for the encoder instead
+   * @throws IOException if the directory cannot be created
+   */
+  public FrameRecorder(Path directory, GameRenderer renderer, int width, int height,
+      int poolSize, boolean dropWhenBehind) throws IOException {
+    if (width < 1 || height < 1 || poolSize < 1) {
+      throw new IllegalArgumentException(
+          "Invalid recording size: " + width + "x" + height + ", pool " + poolSize);
+    }
+    this.directory = Files.createDirectories(directory);
+    this.renderer = renderer;
+    this.width = width;
+    this.height = height;
+    this.dropWhenBehind = dropWhenBehind;
+    this.freeFrames = new ArrayBlockingQueue<>(poolSize);
+    this.queuedFrames = new ArrayBlockingQueue<>(poolSize + 1);
+    for (int i = 0; i < poolSize; i++) {
+      Frame frame = new Frame();
+      frame.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      frame.graphics = frame.image.createGraphics();
+      frame.pixels = ((DataBufferInt) frame.image.getRaster().getDataBuffer()).getData();
+      freeFrames.add(frame);
+    }
+    this.header = ("P6\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII);
+    this.fileBuffer = ByteBuffer.allocateDirect(header.length + width * height * 3);
+    this.row = new byte[width * 3];
+    this.encoder = new Thread(this::encode, "frame-encoder");
+    encoder.setDaemon(true);
+    encoder.start();
+  }
+
+  /**
+   * Draws the game as it is now and queues the picture to be written.
+   *
+   * @param model the game to draw
+   * @param particles the effects to draw over the game, or null for none
+   * @return true if the frame was queued, false if it was dropped
+   */
+  public boolean capture(GameModel model, ParticleSystem particles) {
+    if (closed) {
+      throw new IllegalStateException("Recorder is closed");
+    }
+    long start = System.nanoTime();
+    Frame frame = freeFrames.poll();
+    if (frame == null) {
+      if (dropWhenBehind) {
+        dropped++;
+        return false;
+      }
+      try {
+        frame = freeFrames.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        dropped++;
+        return false;
+      }
+    }
+    long taken = System.nanoTime();
+    renderer.render(frame.image, frame.graphics, model, particles);
+    frame.number = frames++;
+    queuedFrames.add(frame); // Never full: it has room for every frame and the end
+    waitNanos += taken - start;
+    captureNanos += System.nanoTime() - taken;
+    return true;
+  }
+
+  private void encode() {
+    while (true) {
+      Frame frame;
+      try {
+        frame = queuedFrames.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (frame == end) {
+        return;
+      }
+      long start = System.nanoTime();
+      try {
+        write(frame);
+        written++;
+      } catch (IOException e) {
+        lastError = e;
+      }
+      encodeNanos += System.nanoTime() - start;
+      freeFrames.add(frame);
+    }
+  }
+
+  private void write(Frame frame) throws IOException {
+    ByteBuffer buffer = fileBuffer;
+    buffer.clear();
+    buffer.put(header);
+    int[] pixels = frame.pixels;
+    int pixel = 0;
+    for (int y = 0; y < height; y++) {
+      for (int b = 0; b < row.length; b += 3) {
+        int rgb = pixels[pixel++];
+        row[b] = (byte) (rgb >> 16);
+        row[b + 1] = (byte) (rgb >> 8);
+        row[b + 2] = (byte) rgb;
+      }
+      buffer.put(row);
+    }
+    buffer.flip();
+    Path file = directory.resolve(String.format("frame-%06d.ppm", frame.number));
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of frames queued to be written, including those already
+   * written.
+   *
+   * @return the recorded frame count
+   */
+  public long getFrameCount() {
+    return frames;
+  }
+
+  /**
+   * Returns the number of frames dropped because every image was waiting to be
+   * written.
+   *
+   * @return the dropped frame count
+   */
+  public long getDropped() {
+    return dropped;
+  }
+
+  /**
+   * Returns the number of frames written to disk.
+   *
+   * @return the written frame count
+   */
+  public long getWritten() {
+    return written;
+  }
+
+  /**
+   * Returns the number of frames drawn but not yet written.
+   *
+   * @return the encoder's backlog
+   */
+  public int getBacklog() {
+    return queuedFrames.size();
+  }
+
+  /**
+   * Returns the time the calling thread has spent drawing frames.
+   *
+   * @return the drawing time in nanoseconds
+   */
+  public long getCaptureNanos() {
+    return captureNanos;
+  }
+
+  /**
+   * Returns the time the calling thread has spent waiting for the encoder to free an
+   * image. Always 0 when frames are dropped instead.
+   *
+   * @return the waiting time in nanoseconds
+   */
+  public long getWaitNanos() {
+    return waitNanos;
+  }
+
+  /**
+   * Returns the time the encoder thread has spent converting and writing frames.
+   *
+   * @return the encoding time in nanoseconds
+   */
+  public long getEncodeNanos() {
+    return encodeNanos;
+  }
+
+  /**
+   * Returns the last error the encoder hit, if any.
+   *
+   * @return the last write error, or null if every write succeeded
+   */
+  public IOException getLastError() {
+    return lastError;
+  }
+
+  /**
+   * Waits for the queued frames to be written and stops the encoder thread.
+   *
+   * @throws IOException if the last write failed
+   */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      queuedFrames.add(end);
+      try {
+        encoder.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      for (Frame frame : freeFrames) {
+        frame.graphics.dispose();
+      }
+    }
+    if (lastError != null) {
+      throw lastError;
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package com.spaceshooter.view;
+
+import com.spaceshooter.model.BulletField;
+import com.spaceshooter.model.Enemy;
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.model.Missile;
+import com.spaceshooter.model.Player;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws a game: the ships, shots and effects, the score and weapon counters, and the
+ * debug overlay. The game panel paints through it, and so can anything else that wants
+ * a picture of the game, such as a recording drawing into offscreen images, on screen
+ * or headless. A renderer only reads the game, and should be used from one thread at a
+ * time.
+ *
+ * The layout of a frame is written once, against a {@link RenderTarget}; this class
+ * draws it through Java2D, and {@link SoftwareRenderer} rasterizes the same layout
+ * straight into an image's pixels.
+ */
+public class GameRenderer {
+  private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 12);
+  private static final Font STATUS_FONT = new Font("Arial", Font.BOLD, 20);
+  private static final Font WEAPON_FONT = new Font("Arial", Font.BOLD, 16);
+  private static final Font DEBUG_FONT = new Font("Arial", Font.PLAIN, 12);
+  private static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 48);
+  private String debugStatus;
+  private String latencyStatus;
+  private final GraphicsTarget graphicsTarget = new GraphicsTarget();
+
+  /**
+   * Sets an extra line of text shown at the bottom of the debug overlay,
+   * such as the position of the rewind cursor.
+   *
+   * @param debugStatus the text to show, or null to show nothing
+   */
+  public void setDebugStatus(String debugStatus) {
+    this.debugStatus = debugStatus;
+  }
+
+  /**
+   * Sets the input latency line of the debug overlay.
+   *
+   * @param latencyStatus the text to show, or null to show nothing
+   */
+  public void setLatencyStatus(String latencyStatus) {
+    this.latencyStatus = latencyStatus;
+  }
+
+  /**
+   * Renders all game elements including the player, enemies, and missiles.
+   *
+   * @param g the Graphics object to render with
+   * @param model the game to draw
+   * @param particles the effects to draw over the game, or null for none
+   * @param width the width of the area to draw in
+   * @param height the height of the area to draw in
+   */
+  public void render(Graphics g, GameModel model, ParticleSystem particles, int width,
+      int height) {
+    graphicsTarget.graphics = g;
+    draw(graphicsTarget, model, particles, width, height);
+    graphicsTarget.graphics = null;
+  }
+
+  /**
+   * Renders all game elements into an image, covering the whole image.
+   *
+   * @param image the image to draw into
+   * @param g graphics that draw into the image
+   * @param model the game to draw
+   * @param particles the effects to draw over the game, or null for none
+   */
+  public void render(BufferedImage image, Graphics g, GameModel model,
+      ParticleSystem particles) {
+    render(g, model, particles, image.getWidth(), image.getHeight());
+  }
+
+  /**
+   * Lays out a frame: every game element, then the effects, then the text over them.
+   *
+   * @param target the target to draw on
+   * @param model the game to draw
+   * @param particles the effects to draw over the game, or null for none
+   * @param width the width of the area to draw in
+   * @param height the height of the area to draw in
+   */
+  void draw(RenderTarget target, GameModel model, ParticleSystem particles, int width,
+      int height) {
+    // Draw background
+    target.fillRect(Color.BLACK, 0, 0, width, height);
+
+    // Draw player
+    Player player = model.getPlayer();
+    // Draw health bar
+    int healthBarWidth = (int) ((player.getWidth() * player.getHealth()) / 100.0);
+    target.fillRect(Color.RED, player.getX(), player.getY() - 7, healthBarWidth, 5);
+    // Draw ship
+    target.fillRect(Color.BLUE, player.getX(), player.getY(), player.getWidth(),
+        player.getHeight());
+    // Draw health text
+    drawLabel(target, String.valueOf(player.getHealth()), player.getX(), player.getY(),
+        player.getWidth(), player.getHeight());
+
+    // Draw enemies, burning ones in orange
+    for (Enemy enemy : model.getEnemies()) {
+      target.fillRect(enemy.isBurning() ? Color.ORANGE : Color.RED, enemy.getX(), enemy.getY(),
+          enemy.getWidth(), enemy.getHeight());
+      // Draw health text
+      drawLabel(target, String.valueOf(enemy.getHealth()), enemy.getX(), enemy.getY(),
+          enemy.getWidth(), enemy.getHeight());
+    }
+
+    // Draw the last hitscan beam while it is visible
+    if (model.isBeamVisible()) {
+      target.fillRect(Color.CYAN, model.getBeamX(), model.getBeamTop(), model.getBeamWidth(),
+          model.getBeamBottom() - model.getBeamTop());
+    }
+
+    // Draw missiles
+    for (Missile missile : model.getMissiles()) {
+      target.fillRect(missile.isPlayerMissile() ? Color.YELLOW : Color.WHITE, missile.getX(),
+          missile.getY(), missile.getWidth(), missile.getHeight());
+    }
+
+    // Draw the bullets of enemy bullet patterns
+    target.fillBullets(Color.MAGENTA, model.getEnemyBullets());
+
+    // Draw hit and explosion effects in one image
+    if (particles != null) {
+      target.drawParticles(particles, width, height);
+    }
+
+    // Draw score and debug info
+    target.drawString(STATUS_FONT, Color.WHITE, "Score: " + model.getScore(), 10, 30);
+    target.drawString(STATUS_FONT, Color.WHITE, "Health: " + model.getPlayer().getHealth(),
+        10, 60);
+
+    // Draw weapon info at top right
+    int weaponX = width - 200;  // Right side of screen
+    int weaponY = 30;  // Start at top
+    target.drawString(WEAPON_FONT, Color.WHITE,
+        "Basic Missiles: " + model.getBasicMissilesLive(), weaponX, weaponY);
+    weaponY += 25;
+    target.drawString(WEAPON_FONT, Color.WHITE,
+        "Double Missiles: " + model.getDoubleMissilesLive(), weaponX, weaponY);
+    weaponY += 25;
+    target.drawString(WEAPON_FONT, Color.WHITE, "Targeting Missiles: "
+        + model.getTargetingMissilesLive() + "/" + model.getRemainingTargetingMissiles(),
+        weaponX, weaponY);
+    weaponY += 25;
+    target.drawString(WEAPON_FONT, Color.WHITE, "Laser Missiles: "
+        + model.getLaserMissilesLive() + "/" + model.getRemainingLaserMissiles(),
+        weaponX, weaponY);
+    weaponY += 25;
+    target.drawString(WEAPON_FONT, Color.WHITE,
+        "Pattern Missiles: " + model.getPatternMissilesLive(), weaponX, weaponY);
+    weaponY += 25;
+    target.drawString(WEAPON_FONT, Color.WHITE,
+        "Swarm Missiles: " + model.getSwarmMissilesLive(), weaponX, weaponY);
+
+    if (model.isDebugMode()) {
+      target.drawString(DEBUG_FONT, Color.WHITE, "Debug - Left: " + model.getLeftmostX()
+          + " Right: " + model.getRightmostX()
+          + " Dir: " + (model.getEnemyDirection() > 0 ? "Right" : "Left"), 10, 90);
+      Player debugPlayer = model.getPlayer();
+      target.drawString(DEBUG_FONT, Color.WHITE, "Player - X: " + debugPlayer.getX()
+          + " Y: " + debugPlayer.getY() + " Speed: " + debugPlayer.getVelocity(), 10, 110);
+      target.drawString(DEBUG_FONT, Color.WHITE,
+          "God Mode: " + (model.isGodMode() ? "ON" : "OFF"), 10, 130);
+
+      // Add enemy speed info to debug HUD
+      if (!model.getEnemies().isEmpty()) {
+        Enemy firstEnemy = model.getEnemies().get(0);
+        target.drawString(DEBUG_FONT, Color.WHITE,
+            "Enemy Speed: " + firstEnemy.getCurrentSpeed(), 10, 150);
+        target.drawString(DEBUG_FONT, Color.WHITE,
+            "Total Enemies: " + model.getEnemies().size(), 10, 170);
+      }
+      if (debugStatus != null) {
+        target.drawString(DEBUG_FONT, Color.CYAN, debugStatus, 10, 190);
+      }
+      if (latencyStatus != null) {
+        target.drawString(DEBUG_FONT, Color.WHITE, latencyStatus, 10, 210);
+      }
+    }
+
+    // Draw game over message if game is over
+    if (model.isGameOver()) {
+      String gameOverText = "GAME OVER";
+      int textWidth = target.getFontMetrics(GAME_OVER_FONT).stringWidth(gameOverText);
+      target.drawString(GAME_OVER_FONT, Color.RED, gameOverText, (width - textWidth) / 2,
+          height / 2);
+    }
+  }
+
+  /**
+   * Draws a ship's health centred on the ship.
+   */
+  private static void drawLabel(RenderTarget target, String text, int x, int y, int width,
+      int height) {
+    FontMetrics metrics = target.getFontMetrics(LABEL_FONT);
+    int textX = x + (width - metrics.stringWidth(text)) / 2;
+    int textY = y + (height + metrics.getHeight()) / 2;
+    target.drawString(LABEL_FONT, Color.WHITE, text, textX, textY);
+  }
+
+  /**
+   * Draws a layout through a Java2D Graphics.
+   */
+  private static final class GraphicsTarget implements RenderTarget {
+    private Graphics graphics;
+
+    @Override
+    public void fillRect(Color color, int x, int y, int width, int height) {
+      graphics.setColor(color);
+      graphics.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void fillBullets(Color color, BulletField bullets) {
+      graphics.setColor(color);
+      for (int i = 0; i < bullets.getCount(); i++) {
+        graphics.fillRect(bullets.getX(i), bullets.getY(i), BulletField.SIZE, BulletField.SIZE);
+      }
+    }
+
+    @Override
+    public void drawString(Font font, Color color, String text, int x, int y) {
+      graphics.setColor(color);
+      graphics.setFont(font);
+      graphics.drawString(text, x, y);
+    }
+
+    @Override
+    public FontMetrics getFontMetrics(Font font) {
+      return graphics.getFontMetrics(font);
+    }
+
+    @Override
+    public void drawParticles(ParticleSystem particles, int width, int height) {
+      particles.render(graphics, width, height);
+    }
+  }
+}
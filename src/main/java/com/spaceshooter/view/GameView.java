@@ -1,15 +1,11 @@
 package com.spaceshooter.view;
 
-import com.spaceshooter.model.Enemy;
 import com.spaceshooter.model.GameModel;
-import com.spaceshooter.model.Missile;
-import com.spaceshooter.model.Player;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
 
 /**
  * The main view component of the Space Shooter game.
@@ -22,16 +18,21 @@ public class GameView extends JFrame {
   private static final int HEIGHT = 700;
   private GameModel model;
   private GamePanel gamePanel;
+  private final ParticleSystem particles = new ParticleSystem();
   private JPanel controlPanel;
   private JButton basicButton;
   private JButton doubleButton;
   private JButton targetingButton;
   private JButton laserButton;
+  private JButton spreadButton;
+  private JButton curtainButton;
+  private JButton hitscanButton;
+  private JButton swarmButton;
   private JButton restartButton;
   private JButton moveLeftButton;
   private JButton moveRightButton;
-  private Timer leftMoveTimer;
-  private Timer rightMoveTimer;
+  private final GameRenderer renderer;
+  private volatile long lastFrameNanos;
 
   /**
    * Constructs a new GameView with the game panel and control panels.
@@ -39,8 +40,18 @@ public class GameView extends JFrame {
    * Sets up the game panel, control panel, and movement panel.
    */
   public GameView() {
+    this(new GameRenderer());
+  }
+
+  /**
+   * Constructs a new GameView whose game panel paints with the given renderer.
+   *
+   * @param renderer the renderer to paint the game with
+   */
+  public GameView(GameRenderer renderer) {
+    this.renderer = renderer;
     setTitle("Space Shooter - Strategy & Adapter Patterns Demo");
-    setSize(WIDTH, HEIGHT + 150);
+    setSize(WIDTH, HEIGHT + 185);
     setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
     setResizable(false);
 
@@ -55,14 +66,12 @@ public class GameView extends JFrame {
     add(gamePanel, BorderLayout.CENTER);
     add(bottomPanel, BorderLayout.SOUTH);
 
-    setupMovementTimers();
-
     setVisible(true);
   }
 
   private JPanel createControlPanel() {
     JPanel panel = new JPanel();
-    panel.setPreferredSize(new Dimension(WIDTH, 70));
+    panel.setPreferredSize(new Dimension(WIDTH, 105));
     panel.setBackground(Color.DARK_GRAY);
 
     JLabel strategyLabel = new JLabel("Missile Strategy: ");
@@ -81,6 +90,18 @@ public class GameView extends JFrame {
     laserButton = new JButton("Laser (B)");
     laserButton.setActionCommand("laser");
 
+    spreadButton = new JButton("Spread (N)");
+    spreadButton.setActionCommand("spread");
+
+    curtainButton = new JButton("Curtain (M)");
+    curtainButton.setActionCommand("curtain");
+
+    hitscanButton = new JButton("Hitscan (Z)");
+    hitscanButton.setActionCommand("hitscan");
+
+    swarmButton = new JButton("Swarm (S)");
+    swarmButton.setActionCommand("swarm");
+
     restartButton = new JButton("Restart");
     restartButton.setActionCommand("restart");
 
@@ -88,6 +109,10 @@ public class GameView extends JFrame {
     panel.add(doubleButton);
     panel.add(targetingButton);
     panel.add(laserButton);
+    panel.add(spreadButton);
+    panel.add(curtainButton);
+    panel.add(hitscanButton);
+    panel.add(swarmButton);
     panel.add(restartButton);
 
     return panel;
@@ -99,35 +124,9 @@ public class GameView extends JFrame {
     panel.setBackground(Color.DARK_GRAY);
 
     moveLeftButton = new JButton("← Move Left");
+    moveLeftButton.setActionCommand("left");
     moveRightButton = new JButton("Move Right →");
-
-    moveLeftButton.addMouseListener(new MouseAdapter() {
-      @Override
-      public void mousePressed(MouseEvent e) {
-        leftMoveTimer.start();
-        requestFocus();
-      }
-
-      @Override
-      public void mouseReleased(MouseEvent e) {
-        leftMoveTimer.stop();
-        requestFocus();
-      }
-    });
-
-    moveRightButton.addMouseListener(new MouseAdapter() {
-      @Override
-      public void mousePressed(MouseEvent e) {
-        rightMoveTimer.start();
-        requestFocus();
-      }
-
-      @Override
-      public void mouseReleased(MouseEvent e) {
-        rightMoveTimer.stop();
-        requestFocus();
-      }
-    });
+    moveRightButton.setActionCommand("right");
 
     panel.add(moveLeftButton);
     panel.add(moveRightButton);
@@ -135,22 +134,6 @@ public class GameView extends JFrame {
     return panel;
   }
 
-  private void setupMovementTimers() {
-    leftMoveTimer = new Timer(50, e -> {
-      if (model != null) {
-        model.getPlayer().moveLeft();
-        gamePanel.repaint();
-      }
-    });
-
-    rightMoveTimer = new Timer(50, e -> {
-      if (model != null) {
-        model.getPlayer().moveRight();
-        gamePanel.repaint();
-      }
-    });
-  }
-
   /**
    * Sets the action listeners for all strategy selection buttons.
    *
@@ -161,9 +144,26 @@ public class GameView extends JFrame {
     doubleButton.addActionListener(listener);
     targetingButton.addActionListener(listener);
     laserButton.addActionListener(listener);
+    spreadButton.addActionListener(listener);
+    curtainButton.addActionListener(listener);
+    hitscanButton.addActionListener(listener);
+    swarmButton.addActionListener(listener);
     restartButton.addActionListener(listener);
   }
 
+  /**
+   * Sets the mouse listener for the movement buttons.
+   * The buttons carry the action commands "left" and "right"; the listener is told
+   * when each is pressed and released, so it can hold the movement for as long as the
+   * button is down.
+   *
+   * @param listener the mouse listener to be added to both movement buttons
+   */
+  public void setMovementButtonListener(MouseListener listener) {
+    moveLeftButton.addMouseListener(listener);
+    moveRightButton.addMouseListener(listener);
+  }
+
   /**
    * Sets the game model for this view and its game panel.
    *
@@ -174,14 +174,79 @@ public class GameView extends JFrame {
     gamePanel.setModel(model);
   }
 
+  /**
+   * Returns the particle effects drawn over the game.
+   *
+   * @return the particle system
+   */
+  public ParticleSystem getParticles() {
+    return particles;
+  }
+
+  /**
+   * Sets an extra line of text shown at the bottom of the debug overlay,
+   * such as the position of the rewind cursor.
+   *
+   * @param debugStatus the text to show, or null to show nothing
+   */
+  public void setDebugStatus(String debugStatus) {
+    renderer.setDebugStatus(debugStatus);
+  }
+
+  /**
+   * Sets the input latency line of the debug overlay.
+   *
+   * @param latencyStatus the text to show, or null to show nothing
+   */
+  public void setLatencyStatus(String latencyStatus) {
+    renderer.setLatencyStatus(latencyStatus);
+  }
+
+  /**
+   * Returns the width of the game panel.
+   *
+   * @return the width in pixels
+   */
+  public int getGameWidth() {
+    return WIDTH;
+  }
+
+  /**
+   * Returns the height of the game panel.
+   *
+   * @return the height in pixels
+   */
+  public int getGameHeight() {
+    return HEIGHT;
+  }
+
+  /**
+   * Returns the renderer the game panel paints with.
+   *
+   * @return the renderer
+   */
+  public GameRenderer getRenderer() {
+    return renderer;
+  }
+
+  /**
+   * Returns when the game panel last finished painting a frame.
+   *
+   * @return the {@link System#nanoTime()} at the end of the last paint, or 0 if none
+   */
+  public long getLastFrameNanos() {
+    return lastFrameNanos;
+  }
+
   /**
    * Displays the game over dialog with the final score.
    *
    * @param score the final score to display
+   * @param standing where the score places on the leaderboard, or null if there is none
    */
-  public void showGameOver(int score) {
+  public void showGameOver(int score, String standing) {
     JOptionPane.showMessageDialog(this,
-        "Game Over!\nYour score: " + score,
+        "Game Over!\nYour score: " + score + (standing == null ? "" : "\n" + standing),
         "Game Over",
         JOptionPane.INFORMATION_MESSAGE);
   }
@@ -225,107 +290,10 @@ public class GameView extends JFrame {
         return;
       }
 
-      renderGame(g);
-    }
-
-    /**
-     * Renders all game elements including the player, enemies, and missiles.
-     *
-     * @param g the Graphics object to render with
-     */
-    private void renderGame(Graphics g) {
-      // Draw background
-      g.setColor(Color.BLACK);
-      g.fillRect(0, 0, getWidth(), getHeight());
-
-      // Draw player
-      Player player = model.getPlayer();
-      // Draw health bar
-      g.setColor(Color.RED);
-      int healthBarWidth = (int) ((player.getWidth() * player.getHealth()) / 100.0);
-      g.fillRect(player.getX(), player.getY() - 7, healthBarWidth, 5);
-      // Draw ship
-      g.setColor(Color.BLUE);
-      g.fillRect(player.getX(), player.getY(), player.getWidth(), player.getHeight());
-      // Draw health text
-      g.setColor(Color.WHITE);
-      g.setFont(new Font("Arial", Font.BOLD, 12));
-      String playerHealth = String.valueOf(player.getHealth());
-      FontMetrics playerMetrics = g.getFontMetrics();
-      int playerTextX =
-          player.getX() + (player.getWidth() - playerMetrics.stringWidth(playerHealth)) / 2;
-      int playerTextY = player.getY() + (player.getHeight() + playerMetrics.getHeight()) / 2;
-      g.drawString(playerHealth, playerTextX, playerTextY);
-
-      // Draw enemies
-      g.setColor(Color.RED);
-      for (Enemy enemy : model.getEnemies()) {
-        g.fillRect(enemy.getX(), enemy.getY(), enemy.getWidth(), enemy.getHeight());
-        // Draw health text
-        g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 12));
-        String health = String.valueOf(enemy.getHealth());
-        FontMetrics metrics = g.getFontMetrics();
-        int textX = enemy.getX() + (enemy.getWidth() - metrics.stringWidth(health)) / 2;
-        int textY = enemy.getY() + (enemy.getHeight() + metrics.getHeight()) / 2;
-        g.drawString(health, textX, textY);
-        g.setColor(Color.RED);
-      }
-
-      // Draw missiles
-      for (Missile missile : model.getMissiles()) {
-        if (missile.isPlayerMissile()) {
-          g.setColor(Color.YELLOW);
-        } else {
-          g.setColor(Color.WHITE);
-        }
-        g.fillRect(missile.getX(), missile.getY(), missile.getWidth(), missile.getHeight());
-      }
-
-      // Draw score and debug info
-      g.setColor(Color.WHITE);
-      g.setFont(new Font("Arial", Font.BOLD, 20));
-      g.drawString("Score: " + model.getScore(), 10, 30);
-      g.drawString("Health: " + model.getPlayer().getHealth(), 10, 60);
-
-      // Draw weapon info at top right
-      g.setFont(new Font("Arial", Font.BOLD, 16));
-      int weaponX = getWidth() - 200;  // Right side of screen
-      int weaponY = 30;  // Start at top
-      g.drawString("Basic Missiles: " + model.getBasicMissilesLive(), weaponX, weaponY);
-      weaponY += 25;
-      g.drawString("Double Missiles: " + model.getDoubleMissilesLive(), weaponX, weaponY);
-      weaponY += 25;
-      g.drawString("Targeting Missiles: " + model.getTargetingMissilesLive() + "/" +
-          model.getRemainingTargetingMissiles(), weaponX, weaponY);
-      weaponY += 25;
-      g.drawString("Laser Missiles: " + model.getLaserMissilesLive() + "/" +
-          model.getRemainingLaserMissiles(), weaponX, weaponY);
-
-      if (model.isDebugMode()) {
-        g.setFont(new Font("Arial", Font.PLAIN, 12));
-        g.drawString("Debug - Left: " + model.getLeftmostX() + " Right: " + model.getRightmostX() +
-            " Dir: " + (model.getEnemyDirection() > 0 ? "Right" : "Left"), 10, 90);
-        g.drawString("Player - X: " + model.getPlayer().getX() + " Y: " + model.getPlayer().getY(),
-            10, 110);
-        g.drawString("God Mode: " + (model.isGodMode() ? "ON" : "OFF"), 10, 130);
-
-        // Add enemy speed info to debug HUD
-        if (!model.getEnemies().isEmpty()) {
-          Enemy firstEnemy = model.getEnemies().get(0);
-          g.drawString("Enemy Speed: " + firstEnemy.getCurrentSpeed(), 10, 150);
-          g.drawString("Total Enemies: " + model.getEnemies().size(), 10, 170);
-        }
-      }
-
-      // Draw game over message if game is over
-      if (model.isGameOver()) {
-        g.setColor(Color.RED);
-        g.setFont(new Font("Arial", Font.BOLD, 48));
-        String gameOverText = "GAME OVER";
-        int textWidth = g.getFontMetrics().stringWidth(gameOverText);
-        g.drawString(gameOverText, (getWidth() - textWidth) / 2, getHeight() / 2);
-      }
+      renderer.render(g, model, particles, getWidth(), getHeight());
+      // Flush drawing queued with the window system, which some platforms hold back
+      Toolkit.getDefaultToolkit().sync();
+      lastFrameNanos = System.nanoTime();
     }
   }
 }
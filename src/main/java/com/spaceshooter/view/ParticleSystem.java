@@ -0,0 +1,359 @@
+package com.spaceshooter.view;
+
+import com.spaceshooter.model.GameEventRing;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Sparks and explosions drawn over the game when ships are hit.
+ * Particles are effects, not game state: they are driven by the hits and kills drained
+ * from the game's {@link GameEventRing}, use their own random numbers and never touch
+ * the model.
+ *
+ * Particles are kept as parallel arrays in a ring of fixed capacity, in the order they
+ * were emitted. A particle that burns out leaves a hole that the ring skips until the
+ * oldest particles behind it have gone too; when the ring is full, a new particle
+ * replaces the oldest one, so a large explosion never fails to show and never grows the
+ * pool. {@link #update()} moves every particle in one pass on the thread that updates the
+ * game. {@link #render(Graphics, int, int)} stamps every particle into one image from
+ * sprites drawn once up front, oldest first so newer particles lie on top, copying only
+ * the pixels of each sprite's disc, then draws that image in a single call.
+ * Nothing is allocated after construction except the image, which is only recreated
+ * when the size it is drawn at changes.
+ */
+public class ParticleSystem implements GameEventRing.Handler {
+  /** The default number of particles the pool holds. */
+  public static final int DEFAULT_CAPACITY = 100_000;
+  /** Small, quick yellow sparks thrown off by hits. */
+  public static final int KIND_SPARK = 0;
+  /** Slower orange fire that fills an explosion. */
+  public static final int KIND_FIRE = 1;
+  /** Cyan fragments of the player's shield. */
+  public static final int KIND_SHIELD = 2;
+  private static final int KINDS = 3;
+  private static final int[] COLORS = {0xFFF080, 0xFF7020, 0x40E0FF};
+  private static final int[] SIZES = {3, 5, 4};
+  private static final int[] LIFETIMES = {14, 30, 20};
+  private static final float[] SPEEDS = {4.5f, 2.0f, 3.0f};
+  private static final float DRAG = 0.93f;
+  private static final float GRAVITY = 0.04f;
+  private static final int FRAMES = 8; // Fade levels per kind
+  private static final int DIRECTIONS = 256;
+  private static final float[] DIRECTION_X = new float[DIRECTIONS];
+  private static final float[] DIRECTION_Y = new float[DIRECTIONS];
+  private static final int[][][] SPRITES = new int[KINDS][FRAMES][];
+  // Per kind and row, the first and last-plus-one columns of the sprite's disc
+  private static final int[][] ROW_STARTS = new int[KINDS][];
+  private static final int[][] ROW_ENDS = new int[KINDS][];
+  // Per kind and ticks left, the fade level to draw
+  private static final int[][] FRAME_OF_LIFE = new int[KINDS][];
+
+  static {
+    for (int i = 0; i < DIRECTIONS; i++) {
+      double angle = 2 * Math.PI * i / DIRECTIONS;
+      DIRECTION_X[i] = (float) Math.cos(angle);
+      DIRECTION_Y[i] = (float) Math.sin(angle);
+    }
+    for (int kind = 0; kind < KINDS; kind++) {
+      for (int frame = 0; frame < FRAMES; frame++) {
+        SPRITES[kind][frame] = drawSprite(COLORS[kind], SIZES[kind], (frame + 1.0) / FRAMES);
+      }
+      FRAME_OF_LIFE[kind] = new int[LIFETIMES[kind] + 1];
+      for (int life = 1; life <= LIFETIMES[kind]; life++) {
+        FRAME_OF_LIFE[kind][life] = (life * FRAMES - 1) / LIFETIMES[kind];
+      }
+      int size = SIZES[kind];
+      int[] brightest = SPRITES[kind][FRAMES - 1];
+      ROW_STARTS[kind] = new int[size];
+      ROW_ENDS[kind] = new int[size];
+      for (int row = 0; row < size; row++) {
+        int start = 0;
+        while (start < size && brightest[row * size + start] >>> 24 == 0) {
+          start++;
+        }
+        ROW_STARTS[kind][row] = start;
+        ROW_ENDS[kind][row] = Math.max(start, size - start); // Sprites are symmetric
+      }
+    }
+  }
+
+  private final int capacity;
+  private final float[] xs;
+  private final float[] ys;
+  private final float[] velocityXs;
+  private final float[] velocityYs;
+  private final int[] lives; // Ticks left; 0 for a burnt-out particle
+  private final byte[] kinds;
+  private int oldest;
+  private int span; // Slots from the oldest particle to the newest, holes included
+  private int live;
+  private int seed = 0x2545F491;
+  private BufferedImage layer;
+  private int[] layerPixels;
+  private boolean layerDirty;
+
+  /**
+   * Constructs a particle system with the default capacity.
+   */
+  public ParticleSystem() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs a particle system.
+   *
+   * @param capacity the largest number of particles alive at once
+   */
+  public ParticleSystem(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Invalid particle capacity: " + capacity);
+    }
+    this.capacity = capacity;
+    this.xs = new float[capacity];
+    this.ys = new float[capacity];
+    this.velocityXs = new float[capacity];
+    this.velocityYs = new float[capacity];
+    this.lives = new int[capacity];
+    this.kinds = new byte[capacity];
+  }
+
+  /**
+   * Draws one fade level of a round particle whose alpha falls off from its centre.
+   */
+  private static int[] drawSprite(int rgb, int size, double fade) {
+    int[] pixels = new int[size * size];
+    double radius = size / 2.0;
+    for (int row = 0; row < size; row++) {
+      for (int column = 0; column < size; column++) {
+        double dx = column + 0.5 - radius;
+        double dy = row + 0.5 - radius;
+        double falloff = Math.max(0, 1 - Math.sqrt(dx * dx + dy * dy) / radius);
+        int alpha = (int) Math.round(255 * Math.sqrt(falloff) * fade);
+        pixels[row * size + column] = alpha << 24 | rgb;
+      }
+    }
+    return pixels;
+  }
+
+  /**
+   * Throws out a burst of particles from a point in random directions.
+   *
+   * @param kind one of the KIND_ constants
+   * @param x the x-coordinate of the point
+   * @param y the y-coordinate of the point
+   * @param count the number of particles
+   */
+  public void emit(int kind, float x, float y, int count) {
+    int lifetime = LIFETIMES[kind];
+    float speed = SPEEDS[kind];
+    for (int i = 0; i < count; i++) {
+      if (span == capacity) {
+        // Full: the oldest particle makes way
+        if (lives[oldest] > 0) {
+          live--;
+        }
+        oldest = oldest + 1 == capacity ? 0 : oldest + 1;
+        span--;
+      }
+      int slot = oldest + span;
+      if (slot >= capacity) {
+        slot -= capacity;
+      }
+      span++;
+      live++;
+      int random = nextRandom();
+      int direction = random & (DIRECTIONS - 1);
+      float scale = speed * (0.25f + ((random >>> 8) & 255) * (0.75f / 255));
+      xs[slot] = x;
+      ys[slot] = y;
+      velocityXs[slot] = DIRECTION_X[direction] * scale;
+      velocityYs[slot] = DIRECTION_Y[direction] * scale;
+      lives[slot] = lifetime - ((random >>> 16) & 3);
+      kinds[slot] = (byte) kind;
+    }
+  }
+
+  private int nextRandom() {
+    // Xorshift: effects only need numbers that look random, not the game's sequence
+    int x = seed;
+    x ^= x << 13;
+    x ^= x >>> 17;
+    x ^= x << 5;
+    seed = x;
+    return x;
+  }
+
+  /**
+   * Moves every particle one tick and lets the oldest burnt-out particles go.
+   */
+  public void update() {
+    int end = oldest + span;
+    if (end <= capacity) {
+      integrate(oldest, end);
+    } else {
+      integrate(oldest, capacity);
+      integrate(0, end - capacity);
+    }
+    while (span > 0 && lives[oldest] == 0) {
+      oldest = oldest + 1 == capacity ? 0 : oldest + 1;
+      span--;
+    }
+  }
+
+  private void integrate(int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (lives[i] == 0) {
+        continue;
+      }
+      xs[i] += velocityXs[i];
+      ys[i] += velocityYs[i];
+      velocityXs[i] *= DRAG;
+      velocityYs[i] = velocityYs[i] * DRAG + GRAVITY;
+      if (--lives[i] == 0) {
+        live--;
+      }
+    }
+  }
+
+  /**
+   * Draws every live particle.
+   *
+   * @param g the graphics to draw with
+   * @param width the width of the area particles can appear in
+   * @param height the height of the area particles can appear in
+   */
+  public void render(Graphics g, int width, int height) {
+    if (live == 0 && !layerDirty || width < 1 || height < 1) {
+      return;
+    }
+    stampLayer(width, height);
+    g.drawImage(layer, 0, 0, null);
+  }
+
+  /**
+   * Stamps every live particle into the layer image without drawing it, for a renderer
+   * that blends the layer into its own pixels.
+   *
+   * @param width the width of the area particles can appear in
+   * @param height the height of the area particles can appear in
+   * @return the layer's non-premultiplied ARGB pixels, row by row, or null if there are
+   *     no particles to draw
+   */
+  int[] renderLayer(int width, int height) {
+    if (live == 0 || width < 1 || height < 1) {
+      return null;
+    }
+    stampLayer(width, height);
+    return layerPixels;
+  }
+
+  private void stampLayer(int width, int height) {
+    if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+      layer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+      layerPixels = ((DataBufferInt) layer.getRaster().getDataBuffer()).getData();
+    } else if (layerDirty) {
+      Arrays.fill(layerPixels, 0);
+    }
+    int end = oldest + span;
+    if (end <= capacity) {
+      stamp(oldest, end, width, height);
+    } else {
+      stamp(oldest, capacity, width, height);
+      stamp(0, end - capacity, width, height);
+    }
+    layerDirty = live > 0;
+  }
+
+  private void stamp(int from, int to, int width, int height) {
+    int[] pixels = layerPixels;
+    for (int i = from; i < to; i++) {
+      int life = lives[i];
+      if (life == 0) {
+        continue;
+      }
+      int kind = kinds[i];
+      int size = SIZES[kind];
+      int[] sprite = SPRITES[kind][FRAME_OF_LIFE[kind][life]];
+      int[] rowStarts = ROW_STARTS[kind];
+      int[] rowEnds = ROW_ENDS[kind];
+      int left = (int) xs[i] - size / 2;
+      int top = (int) ys[i] - size / 2;
+      int clipLeft = Math.max(0, -left);
+      int clipRight = Math.min(size, width - left);
+      int rowStart = Math.max(0, -top);
+      int rowEnd = Math.min(size, height - top);
+      for (int row = rowStart; row < rowEnd; row++) {
+        int source = row * size;
+        int target = (top + row) * width + left;
+        int end = Math.min(clipRight, rowEnds[row]);
+        for (int column = Math.max(clipLeft, rowStarts[row]); column < end; column++) {
+          pixels[target + column] = sprite[source + column];
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes every particle.
+   */
+  public void clear() {
+    Arrays.fill(lives, 0);
+    oldest = 0;
+    span = 0;
+    live = 0;
+  }
+
+  /**
+   * Returns the number of live particles.
+   *
+   * @return the particle count
+   */
+  public int getLiveCount() {
+    return live;
+  }
+
+  /**
+   * Returns the largest number of particles alive at once.
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Throws sparks from hit enemies, with a fireball for those destroyed, and shield
+   * fragments from hit players. Other events are ignored.
+   *
+   * @param type the type of the event
+   * @param tick the tick the event happened on
+   * @param subject the enemy or player the event is about
+   * @param x the x-coordinate of the centre of the subject
+   * @param y the y-coordinate of the centre of the subject
+   * @param value the damage or points of the event
+   */
+  @Override
+  public void onEvent(int type, int tick, int subject, int x, int y, int value) {
+    switch (type) {
+      case GameEventRing.ENEMY_HIT:
+        emit(KIND_SPARK, x, y, 12);
+        break;
+      case GameEventRing.ENEMY_DESTROYED:
+        emit(KIND_FIRE, x, y, 60);
+        emit(KIND_SPARK, x, y, 30);
+        break;
+      case GameEventRing.PLAYER_HIT:
+        emit(KIND_SHIELD, x, y, 16);
+        break;
+      case GameEventRing.PLAYER_DESTROYED:
+        emit(KIND_SHIELD, x, y, 120);
+        emit(KIND_FIRE, x, y, 80);
+        break;
+      default:
+        break;
+    }
+  }
+}
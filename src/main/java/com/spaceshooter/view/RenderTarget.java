@@ -0,0 +1,62 @@
+package com.spaceshooter.view;
+
+import com.spaceshooter.model.BulletField;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+
+/**
+ * The few drawing operations a {@link GameRenderer} lays a frame out with, so the same
+ * layout can be drawn through Java2D or rasterized by a {@link SoftwareRenderer}.
+ * Operations are painted in the order they are called.
+ */
+interface RenderTarget {
+  /**
+   * Fills a rectangle with a solid colour.
+   *
+   * @param color the colour to fill with
+   * @param x the x-coordinate of the left edge
+   * @param y the y-coordinate of the top edge
+   * @param width the width of the rectangle
+   * @param height the height of the rectangle
+   */
+  void fillRect(Color color, int x, int y, int width, int height);
+
+  /**
+   * Fills a square of {@link BulletField#SIZE} for every bullet in a field. A frame can
+   * hold tens of thousands of bullets, so they are handed over in one call.
+   *
+   * @param color the colour of the bullets
+   * @param bullets the bullets to draw
+   */
+  void fillBullets(Color color, BulletField bullets);
+
+  /**
+   * Draws a line of text.
+   *
+   * @param font the font to draw with
+   * @param color the colour of the text
+   * @param text the text
+   * @param x the x-coordinate of the start of the text
+   * @param y the y-coordinate of the baseline
+   */
+  void drawString(Font font, Color color, String text, int x, int y);
+
+  /**
+   * Returns the metrics of a font as this target draws it.
+   *
+   * @param font the font
+   * @return the font metrics
+   */
+  FontMetrics getFontMetrics(Font font);
+
+  /**
+   * Draws particle effects over everything drawn so far.
+   *
+   * @param particles the particles to draw
+   * @param width the width of the area particles can appear in
+   * @param height the height of the area particles can appear in
+   */
+  void drawParticles(ParticleSystem particles, int width, int height);
+}
@@ -0,0 +1,485 @@
+package com.spaceshooter.view;
+
+import com.spaceshooter.model.BulletField;
+import com.spaceshooter.model.GameModel;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws a game straight into the int pixels of an image, without going through the
+ * Java2D pipeline for every ship, shot and bullet.
+ *
+ * A frame is drawn in two passes. The first lays the frame out exactly as
+ * {@link GameRenderer} does, but only records each rectangle, line of text and the
+ * particle layer, clipped to the image, as a few ints in a reusable display list. The
+ * second rasterizes the list: rectangles are filled a row at a time, the bullets are
+ * read straight from the game's bullet field rather than copied into the list, text is
+ * stamped from glyphs drawn once per font and kept as runs of pixels, and particles are
+ * blended in from their layer. With a ForkJoinPool the second pass is split into
+ * horizontal bands of the image, each rasterizing the whole list clipped to its rows,
+ * so bands never touch the same pixel.
+ *
+ * Glyphs are drawn by Java2D itself, without antialiasing as the game panel draws
+ * them, and placed at the same integer advances, so text comes out pixel for pixel as
+ * Java2D draws it, and so do the opaque rectangles. Particles are blended with exact
+ * rounding, which may differ from Java2D's own blending by one level per channel.
+ *
+ * A renderer draws one frame at a time. Apart from images and glyphs for new sizes
+ * and fonts, and the strings of the layout itself, a frame allocates nothing.
+ */
+public class SoftwareRenderer extends GameRenderer {
+  private static final int OP_RECT = 0; // colour, left, top, right, bottom
+  private static final int OP_TEXT = 1; // colour, font, x, baseline, first char, char count
+  private static final int OP_PARTICLES = 2;
+  private static final int OP_BULLETS = 3; // colour
+  private static final int SHORT_RUN = 16; // Runs filled by a plain loop, not Arrays.fill
+  private static final int FIRST_GLYPH = 32;
+  private static final int LAST_GLYPH = 126;
+  private final ForkJoinPool pool;
+  private final BandTask[] bands;
+  private final RootTask root = new RootTask();
+  private final ListTarget listTarget = new ListTarget();
+  private final Map<Font, Integer> fontIndices = new IdentityHashMap<>();
+  private Glyphs[] fonts = new Glyphs[8];
+  private int fontCount;
+  private int[] ops = new int[1024];
+  private int opCount;
+  private char[] chars = new char[256];
+  private int charCount;
+  private int[] particleLayer;
+  private BulletField bullets;
+  private int[] pixels;
+  private int width;
+  private int height;
+  private BufferedImage screen;
+  private int[] screenPixels;
+
+  /**
+   * Constructs a renderer that rasterizes on the thread that renders.
+   */
+  public SoftwareRenderer() {
+    this.pool = null;
+    this.bands = new BandTask[0];
+  }
+
+  /**
+   * Constructs a renderer that uses four bands per worker thread of a pool.
+   *
+   * @param pool the pool to rasterize bands on
+   */
+  public SoftwareRenderer(ForkJoinPool pool) {
+    this(pool, pool.getParallelism() * 4);
+  }
+
+  /**
+   * Constructs a renderer with an explicit number of bands.
+   *
+   * @param pool the pool to rasterize bands on
+   * @param bandCount the number of horizontal bands to split each frame into
+   */
+  public SoftwareRenderer(ForkJoinPool pool, int bandCount) {
+    if (bandCount < 1) {
+      throw new IllegalArgumentException("bandCount must be positive: " + bandCount);
+    }
+    this.pool = pool;
+    this.bands = new BandTask[bandCount];
+    for (int i = 0; i < bandCount; i++) {
+      bands[i] = new BandTask();
+    }
+  }
+
+  /**
+   * Renders all game elements into a frame buffer of opaque ARGB pixels.
+   *
+   * @param pixels the frame buffer, row by row
+   * @param width the width of the frame
+   * @param height the height of the frame
+   * @param model the game to draw
+   * @param particles the effects to draw over the game, or null for none
+   */
+  public void render(int[] pixels, int width, int height, GameModel model,
+      ParticleSystem particles) {
+    if (width < 1 || height < 1 || pixels.length < width * height) {
+      throw new IllegalArgumentException(
+          "Invalid frame: " + width + "x" + height + " in " + pixels.length + " pixels");
+    }
+    this.width = width;
+    this.height = height;
+    opCount = 0;
+    charCount = 0;
+    particleLayer = null;
+    bullets = null;
+    draw(listTarget, model, particles, width, height);
+
+    this.pixels = pixels;
+    if (bands.length <= 1) {
+      rasterize(0, height);
+    } else {
+      for (int i = 0; i < bands.length; i++) {
+        bands[i].top = (int) ((long) height * i / bands.length);
+        bands[i].bottom = (int) ((long) height * (i + 1) / bands.length);
+        bands[i].reinitialize();
+      }
+      root.reinitialize();
+      pool.invoke(root);
+    }
+    this.pixels = null;
+    this.bullets = null;
+  }
+
+  /**
+   * Renders all game elements into an image of the renderer's own, then draws that
+   * image with one call.
+   *
+   * @param g the Graphics object to render with
+   * @param model the game to draw
+   * @param particles the effects to draw over the game, or null for none
+   * @param width the width of the area to draw in
+   * @param height the height of the area to draw in
+   */
+  @Override
+  public void render(Graphics g, GameModel model, ParticleSystem particles, int width,
+      int height) {
+    if (width < 1 || height < 1) {
+      return;
+    }
+    if (screen == null || screen.getWidth() != width || screen.getHeight() != height) {
+      screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      screenPixels = ((DataBufferInt) screen.getRaster().getDataBuffer()).getData();
+    }
+    render(screenPixels, width, height, model, particles);
+    g.drawImage(screen, 0, 0, null);
+  }
+
+  /**
+   * Renders all game elements straight into the pixels of an image, if it keeps them
+   * as one int per pixel, and through Java2D otherwise.
+   *
+   * @param image the image to draw into
+   * @param g graphics that draw into the image
+   * @param model the game to draw
+   * @param particles the effects to draw over the game, or null for none
+   */
+  @Override
+  public void render(BufferedImage image, Graphics g, GameModel model,
+      ParticleSystem particles) {
+    int type = image.getType();
+    if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB
+        || type == BufferedImage.TYPE_INT_ARGB_PRE) {
+      int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      render(data, image.getWidth(), image.getHeight(), model, particles);
+    } else {
+      super.render(image, g, model, particles);
+    }
+  }
+
+  /**
+   * Rasterizes the display list into the rows from top to bottom.
+   */
+  private void rasterize(int top, int bottom) {
+    int[] ops = this.ops;
+    int i = 0;
+    while (i < opCount) {
+      switch (ops[i]) {
+        case OP_RECT:
+          fill(ops[i + 1], ops[i + 2], Math.max(top, ops[i + 3]), ops[i + 4],
+              Math.min(bottom, ops[i + 5]));
+          i += 6;
+          break;
+        case OP_TEXT:
+          text(ops[i + 1], fonts[ops[i + 2]], ops[i + 3], ops[i + 4], ops[i + 5], ops[i + 6],
+              top, bottom);
+          i += 7;
+          break;
+        case OP_BULLETS:
+          fillBullets(ops[i + 1], bullets, top, bottom);
+          i += 2;
+          break;
+        default:
+          blend(particleLayer, top, bottom);
+          i += 1;
+          break;
+      }
+    }
+  }
+
+  private void fill(int argb, int left, int top, int right, int bottom) {
+    if (top >= bottom) {
+      return;
+    }
+    int[] pixels = this.pixels;
+    int width = this.width;
+    if (left == 0 && right == width) {
+      Arrays.fill(pixels, top * width, bottom * width, argb);
+      return;
+    }
+    for (int row = top; row < bottom; row++) {
+      fillRun(pixels, row * width + left, row * width + right, argb);
+    }
+  }
+
+  private void fillBullets(int argb, BulletField bullets, int top, int bottom) {
+    int[] pixels = this.pixels;
+    int width = this.width;
+    int size = BulletField.SIZE;
+    for (int i = 0, count = bullets.getCount(); i < count; i++) {
+      int y = bullets.getY(i);
+      if (y >= bottom || y + size <= top) {
+        continue;
+      }
+      int x = bullets.getX(i);
+      int left = Math.max(0, x);
+      int right = Math.min(width, x + size);
+      int rowEnd = Math.min(bottom, y + size);
+      for (int row = Math.max(top, y); row < rowEnd; row++) {
+        for (int p = row * width + left, end = row * width + right; p < end; p++) {
+          pixels[p] = argb;
+        }
+      }
+    }
+  }
+
+  private static void fillRun(int[] pixels, int from, int to, int argb) {
+    if (to - from >= SHORT_RUN) {
+      Arrays.fill(pixels, from, to, argb);
+      return;
+    }
+    for (int p = from; p < to; p++) {
+      pixels[p] = argb;
+    }
+  }
+
+  private void text(int argb, Glyphs glyphs, int x, int baseline, int first, int count,
+      int top, int bottom) {
+    if (baseline + glyphs.below <= top || baseline - glyphs.above >= bottom) {
+      return;
+    }
+    int[] pixels = this.pixels;
+    int width = this.width;
+    int pen = x;
+    for (int c = first; c < first + count; c++) {
+      int glyph = chars[c];
+      int[] runs = glyphs.runs[glyph];
+      for (int r = 0; r < runs.length; r += 3) {
+        int row = baseline + runs[r];
+        if (row < top || row >= bottom) {
+          continue;
+        }
+        int left = Math.max(0, pen + runs[r + 1]);
+        int right = Math.min(width, pen + runs[r + 2]);
+        if (left < right) {
+          fillRun(pixels, row * width + left, row * width + right, argb);
+        }
+      }
+      pen += glyphs.advances[glyph];
+    }
+  }
+
+  private void blend(int[] layer, int top, int bottom) {
+    int[] pixels = this.pixels;
+    for (int i = top * width, end = bottom * width; i < end; i++) {
+      int source = layer[i];
+      int alpha = source >>> 24;
+      if (alpha == 0) {
+        continue;
+      }
+      // Red and blue are blended together, each in its own 16 bits of one int
+      int target = pixels[i];
+      int inverse = 255 - alpha;
+      int redBlue = (source & 0xFF00FF) * alpha + (target & 0xFF00FF) * inverse + 0x800080;
+      redBlue = (redBlue + (redBlue >>> 8 & 0xFF00FF)) >>> 8 & 0xFF00FF;
+      int green = (source >> 8 & 255) * alpha + (target >> 8 & 255) * inverse + 128;
+      green = (green + (green >> 8)) >> 8;
+      pixels[i] = 0xFF000000 | redBlue | green << 8;
+    }
+  }
+
+  private int fontIndex(Font font) {
+    Integer index = fontIndices.get(font);
+    if (index == null) {
+      if (fontCount == fonts.length) {
+        fonts = Arrays.copyOf(fonts, fontCount * 2);
+      }
+      fonts[fontCount] = new Glyphs(font);
+      index = fontCount++;
+      fontIndices.put(font, index);
+    }
+    return index;
+  }
+
+  private void addOp(int op) {
+    if (opCount + 7 > ops.length) {
+      ops = Arrays.copyOf(ops, ops.length * 2);
+    }
+    ops[opCount++] = op;
+  }
+
+  /**
+   * Records a layout into the display list, clipped to the frame.
+   */
+  private final class ListTarget implements RenderTarget {
+    @Override
+    public void fillRect(Color color, int x, int y, int width, int height) {
+      int left = Math.max(0, x);
+      int top = Math.max(0, y);
+      int right = (int) Math.min(SoftwareRenderer.this.width, (long) x + width);
+      int bottom = (int) Math.min(SoftwareRenderer.this.height, (long) y + height);
+      if (left >= right || top >= bottom) {
+        return;
+      }
+      addOp(OP_RECT);
+      ops[opCount++] = 0xFF000000 | color.getRGB();
+      ops[opCount++] = left;
+      ops[opCount++] = top;
+      ops[opCount++] = right;
+      ops[opCount++] = bottom;
+    }
+
+    @Override
+    public void fillBullets(Color color, BulletField bullets) {
+      if (bullets.getCount() == 0) {
+        return;
+      }
+      SoftwareRenderer.this.bullets = bullets;
+      addOp(OP_BULLETS);
+      ops[opCount++] = 0xFF000000 | color.getRGB();
+    }
+
+    @Override
+    public void drawString(Font font, Color color, String text, int x, int y) {
+      int length = text.length();
+      if (charCount + length > chars.length) {
+        chars = Arrays.copyOf(chars, Math.max(charCount + length, chars.length * 2));
+      }
+      for (int i = 0; i < length; i++) {
+        char c = text.charAt(i);
+        chars[charCount + i] = c >= FIRST_GLYPH && c <= LAST_GLYPH ? c : '?';
+      }
+      addOp(OP_TEXT);
+      ops[opCount++] = 0xFF000000 | color.getRGB();
+      ops[opCount++] = fontIndex(font);
+      ops[opCount++] = x;
+      ops[opCount++] = y;
+      ops[opCount++] = charCount;
+      ops[opCount++] = length;
+      charCount += length;
+    }
+
+    @Override
+    public FontMetrics getFontMetrics(Font font) {
+      return fonts[fontIndex(font)].metrics;
+    }
+
+    @Override
+    public void drawParticles(ParticleSystem particles, int width, int height) {
+      int[] layer = particles.renderLayer(width, height);
+      if (layer != null) {
+        particleLayer = layer;
+        addOp(OP_PARTICLES);
+      }
+    }
+  }
+
+  /**
+   * The printable ASCII glyphs of one font, drawn once by Java2D and kept as runs of
+   * lit pixels relative to the pen position on the baseline.
+   */
+  private static final class Glyphs {
+    private final FontMetrics metrics;
+    private final int[] advances = new int[LAST_GLYPH + 1];
+    private final int[][] runs = new int[LAST_GLYPH + 1][]; // Row, first, last + 1 columns
+    private final int above; // Rows any glyph reaches above the baseline
+    private final int below; // Rows any glyph reaches below the baseline, plus one
+
+    Glyphs(Font font) {
+      BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+      Graphics2D scratchGraphics = scratch.createGraphics();
+      this.metrics = scratchGraphics.getFontMetrics(font);
+      scratchGraphics.dispose();
+
+      // Leave a margin for glyphs that reach past their advance or the font's extent
+      int margin = metrics.getHeight();
+      int ascent = metrics.getMaxAscent() + margin;
+      int boxWidth = metrics.charWidth('W') + 2 * margin;
+      int boxHeight = ascent + metrics.getMaxDescent() + margin;
+      BufferedImage box = new BufferedImage(boxWidth, boxHeight, BufferedImage.TYPE_INT_RGB);
+      int[] boxPixels = ((DataBufferInt) box.getRaster().getDataBuffer()).getData();
+      Graphics2D g = box.createGraphics();
+      g.setFont(font);
+      g.setColor(Color.WHITE);
+      int highest = 0;
+      int lowest = 0;
+      int[] found = new int[boxWidth * boxHeight * 3];
+      for (int c = 0; c <= LAST_GLYPH; c++) {
+        runs[c] = new int[0];
+        if (c < FIRST_GLYPH) {
+          continue;
+        }
+        advances[c] = metrics.charWidth((char) c);
+        Arrays.fill(boxPixels, 0);
+        g.drawString(String.valueOf((char) c), margin, ascent);
+        int count = 0;
+        for (int row = 0; row < boxHeight; row++) {
+          int column = 0;
+          while (column < boxWidth) {
+            if ((boxPixels[row * boxWidth + column] & 0xFFFFFF) == 0) {
+              column++;
+              continue;
+            }
+            int start = column;
+            while (column < boxWidth && (boxPixels[row * boxWidth + column] & 0xFFFFFF) != 0) {
+              column++;
+            }
+            found[count++] = row - ascent;
+            found[count++] = start - margin;
+            found[count++] = column - margin;
+            highest = Math.max(highest, ascent - row);
+            lowest = Math.max(lowest, row - ascent + 1);
+          }
+        }
+        runs[c] = Arrays.copyOf(found, count);
+      }
+      g.dispose();
+      this.above = highest;
+      this.below = lowest;
+    }
+  }
+
+  /**
+   * Forks one task per band and waits for all of them.
+   */
+  private class RootTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void compute() {
+      ForkJoinTask.invokeAll(bands);
+    }
+  }
+
+  /**
+   * Rasterizes the display list into one band of rows.
+   */
+  private class BandTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private int top;
+    private int bottom;
+
+    @Override
+    protected void compute() {
+      rasterize(top, bottom);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.spaceshooter.host;
+
+import com.spaceshooter.model.GameModel;
+import com.spaceshooter.sim.InputPolicy;
+import com.spaceshooter.sim.SimpleBot;
+
+/**
+ * One headless game played by a bot inside a {@link SessionHost}.
+ * When the game ends a new one starts with the next seed, so a session can run for as
+ * long as its host does. A session is only ever stepped by its own thread.
+ */
+public final class HostedSession {
+  private final GameModel model;
+  private final InputPolicy policy;
+  private long seed;
+  private int tick;
+  private long ticksPlayed;
+  private int gamesPlayed;
+
+  /**
+   * Constructs a session played by a {@link SimpleBot}.
+   *
+   * @param seed the seed of the first game and of the bot
+   */
+  public HostedSession(long seed) {
+    this(seed, new SimpleBot(seed));
+  }
+
+  /**
+   * Constructs a session played by the given policy.
+   *
+   * @param seed the seed of the first game
+   * @param policy the policy that chooses the input for every tick
+   */
+  public HostedSession(long seed, InputPolicy policy) {
+    this.model = new GameModel(seed);
+    this.model.setIncrementalHashing(false);
+    this.policy = policy;
+    this.seed = seed;
+  }
+
+  /**
+   * Plays one tick, starting a new game first if the previous one ended.
+   */
+  public void step() {
+    if (model.isGameOver()) {
+      seed++;
+      model.reset(seed);
+      tick = 0;
+      gamesPlayed++;
+    }
+    model.applyAction(policy.nextAction(model, tick));
+    model.update();
+    tick++;
+    ticksPlayed++;
+  }
+
+  /**
+   * Returns the game being played.
+   *
+   * @return the model
+   */
+  public GameModel getModel() {
+    return model;
+  }
+
+  /**
+   * Returns the number of ticks played over all games.
+   *
+   * @return the tick count
+   */
+  public long getTicksPlayed() {
+    return ticksPlayed;
+  }
+
+  /**
+   * Returns the number of games that have ended.
+   *
+   * @return the game count
+   */
+  public int getGamesPlayed() {
+    return gamesPlayed;
+  }
+}
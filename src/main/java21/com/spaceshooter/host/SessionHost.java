@@ -0,0 +1,216 @@
+package com.spaceshooter.host;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs many {@link HostedSession}s in one JVM, each on its own virtual thread.
+ * A virtual thread costs a few hundred bytes while it sleeps, so thousands of sessions
+ * can each keep the simple loop "sleep until the next tick is due, then step" without a
+ * platform thread each. Pacing and the CPU limit are shared by all sessions:
+ * - Every session ticks at the same fixed rate. Session i is offset from the host's
+ *   epoch by the fractional part of i times the golden ratio, times the tick period,
+ *   which spreads the ticks of any number of sessions evenly over the period instead of
+ *   waking them all at once.
+ * - A fair semaphore limits how many sessions may step at the same time. This caps the
+ *   CPU the host uses at that many cores, however many carrier threads the virtual
+ *   thread scheduler has, and sessions waiting for a permit get one in arrival order.
+ * - A session that falls more than one period behind skips the ticks it missed rather
+ *   than running them back to back, and the skipped ticks are counted.
+ * The latency of a tick is measured from when it was due until its step finished, so it
+ * includes the time spent waiting for a carrier thread and for a CPU permit.
+ */
+public final class SessionHost implements AutoCloseable {
+  private static final double GOLDEN_RATIO_FRACTION = 0.6180339887498949;
+
+  private final long periodNanos;
+  private final int cpuLimit;
+  private final Semaphore cpuPermits;
+  private final long epoch = System.nanoTime();
+  private final List<HostedSession> sessions = new ArrayList<>();
+  private final List<Thread> threads = new ArrayList<>();
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder ticks = new LongAdder();
+  private final LongAdder skippedTicks = new LongAdder();
+  private volatile boolean running = true;
+
+  /**
+   * Constructs a host with no sessions.
+   *
+   * @param tickRate the number of ticks per second every session plays
+   * @param cpuLimit the most sessions that may step at the same time
+   * @throws IllegalArgumentException if either value is not positive
+   */
+  public SessionHost(int tickRate, int cpuLimit) {
+    if (tickRate <= 0 || cpuLimit <= 0) {
+      throw new IllegalArgumentException("Tick rate and CPU limit must be positive");
+    }
+    this.periodNanos = 1_000_000_000L / tickRate;
+    this.cpuLimit = cpuLimit;
+    this.cpuPermits = new Semaphore(cpuLimit, true);
+  }
+
+  /**
+   * Starts new sessions, each with its own virtual thread.
+   *
+   * @param count the number of sessions to start
+   * @param firstSeed the seed of the first new session; the others follow on from it
+   * @throws IllegalStateException if the host has been closed
+   */
+  public synchronized void addSessions(int count, long firstSeed) {
+    if (!running) {
+      throw new IllegalStateException("Host is closed");
+    }
+    for (int i = 0; i < count; i++) {
+      HostedSession session = new HostedSession(firstSeed + i);
+      long phase = (long) ((sessions.size() * GOLDEN_RATIO_FRACTION) % 1.0 * periodNanos);
+      sessions.add(session);
+      threads.add(Thread.ofVirtual()
+          .name("session-", sessions.size() - 1)
+          .start(() -> run(session, phase)));
+    }
+  }
+
+  private void run(HostedSession session, long phase) {
+    long now = System.nanoTime();
+    long deadline = epoch + phase + Math.floorDiv(now - epoch - phase, periodNanos) * periodNanos
+        + periodNanos;
+    try {
+      while (running) {
+        long wait = deadline - System.nanoTime();
+        if (wait > 0) {
+          Thread.sleep(Duration.ofNanos(wait));
+        }
+        cpuPermits.acquire();
+        try {
+          session.step();
+        } finally {
+          cpuPermits.release();
+        }
+        now = System.nanoTime();
+        latency.recordNanos(now - deadline);
+        ticks.increment();
+        deadline += periodNanos;
+        long behind = now - deadline;
+        if (behind >= periodNanos) {
+          long missed = behind / periodNanos;
+          skippedTicks.add(missed);
+          deadline += missed * periodNanos;
+        }
+      }
+    } catch (InterruptedException e) {
+      // Interrupted by close()
+    }
+  }
+
+  /**
+   * Returns the number of sessions started.
+   *
+   * @return the session count
+   */
+  public synchronized int getSessionCount() {
+    return sessions.size();
+  }
+
+  /**
+   * Returns the most sessions that may step at the same time.
+   *
+   * @return the CPU limit
+   */
+  public int getCpuLimit() {
+    return cpuLimit;
+  }
+
+  /**
+   * Returns the time between two ticks of a session.
+   *
+   * @return the tick period in nanoseconds
+   */
+  public long getPeriodNanos() {
+    return periodNanos;
+  }
+
+  /**
+   * Returns the latencies of the ticks played since the last reset.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /**
+   * Returns the number of ticks played by all sessions since the last reset.
+   *
+   * @return the tick count
+   */
+  public long getTicks() {
+    return ticks.sum();
+  }
+
+  /**
+   * Returns the number of ticks skipped by sessions that fell behind since the last reset.
+   *
+   * @return the skipped tick count
+   */
+  public long getSkippedTicks() {
+    return skippedTicks.sum();
+  }
+
+  /**
+   * Returns the number of games that have ended in all sessions.
+   * The count is read without synchronizing with the sessions, so it may lag slightly.
+   *
+   * @return the game count
+   */
+  public synchronized long getGamesPlayed() {
+    long games = 0;
+    for (HostedSession session : sessions) {
+      games += session.getGamesPlayed();
+    }
+    return games;
+  }
+
+  /**
+   * Clears the tick counts and latencies, to start a new measurement.
+   */
+  public void resetStats() {
+    latency.reset();
+    ticks.reset();
+    skippedTicks.reset();
+  }
+
+  /**
+   * Stops every session and waits for their threads to finish.
+   * If the calling thread is interrupted while waiting, it still waits for them all and
+   * then sets its interrupt flag again.
+   */
+  @Override
+  public void close() {
+    List<Thread> toJoin;
+    synchronized (this) {
+      running = false;
+      toJoin = new ArrayList<>(threads);
+    }
+    for (Thread thread : toJoin) {
+      thread.interrupt();
+    }
+    boolean interrupted = false;
+    for (Thread thread : toJoin) {
+      while (true) {
+        try {
+          thread.join();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true; // The sessions are already stopping; keep waiting
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.spaceshooter.host;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Finds how many bot-played sessions a {@link SessionHost} can keep at a steady tick rate.
+ * The benchmark doubles the number of sessions, measuring each step for a few seconds
+ * after a warm-up second, and reports the tick rate each session actually got, the
+ * skipped ticks, the tick latency percentiles and the cores the process used. A step is
+ * steady when sessions get at least 99% of their tick rate and the 99th percentile
+ * latency stays under one tick period. The last steady step gives the sessions per core,
+ * per core of the host's CPU limit.
+ *
+ * Usage: {@code SessionHostBenchmark [tickRate] [cpuLimit] [secondsPerStep] [maxSessions]}
+ */
+public class SessionHostBenchmark {
+  private static final int FIRST_STEP = 64;
+  private static final long WARM_UP_MILLIS = 1000;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional tick rate, CPU limit, seconds per step and largest session count
+   * @throws InterruptedException if interrupted while measuring
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int cores = Runtime.getRuntime().availableProcessors();
+    int tickRate = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+    int cpuLimit = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(1, cores - 1);
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    int maxSessions = args.length > 3 ? Integer.parseInt(args[3]) : 65_536;
+
+    com.sun.management.OperatingSystemMXBean os =
+        (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    System.out.printf("%d ticks/s per session, CPU limit %d of %d cores%n",
+        tickRate, cpuLimit, cores);
+    System.out.printf("%9s %12s %9s %9s %9s %9s %9s %7s%n", "sessions", "ticks/s each",
+        "skipped", "p50 us", "p99 us", "p99.9 us", "max us", "cores");
+    int steady = 0;
+    SessionHost host = new SessionHost(tickRate, cpuLimit);
+    try {
+      for (int count = FIRST_STEP; count <= maxSessions; count *= 2) {
+        host.addSessions(count - host.getSessionCount(), host.getSessionCount() + 1);
+        Thread.sleep(WARM_UP_MILLIS);
+        host.resetStats();
+        long cpuBefore = os.getProcessCpuTime();
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        double coresUsed = (os.getProcessCpuTime() - cpuBefore) / 1e9 / elapsed;
+
+        LatencyHistogram latency = host.getLatency();
+        double rate = host.getTicks() / elapsed / count;
+        long p99 = latency.getPercentileMicros(99);
+        System.out.printf("%9d %12.1f %9d %9d %9d %9d %9d %7.2f%n", count, rate,
+            host.getSkippedTicks(), latency.getPercentileMicros(50), p99,
+            latency.getPercentileMicros(99.9), latency.getMaxMicros(), coresUsed);
+        if (rate < tickRate * 0.99 || p99 * 1000 >= host.getPeriodNanos()) {
+          break;
+        }
+        steady = count;
+      }
+    } finally {
+      host.close();
+    }
+    if (steady == 0) {
+      System.out.printf("Not even %d sessions kept %d ticks/s%n", FIRST_STEP, tickRate);
+    } else {
+      System.out.printf("Steady at %d sessions: %.0f sessions per core%n",
+          steady, (double) steady / cpuLimit);
+    }
+  }
+}